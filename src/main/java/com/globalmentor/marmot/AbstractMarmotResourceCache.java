@@ -86,8 +86,9 @@ public final Data<File> getData(final Repository repository, final URI resourceU
 	/**
 	 * {@inheritDoc}
 	 * <p>
-	 * This version checks to see if the last modified time of the resource has changed.
+	 * This version checks to see if the last modified time of the resource has changed, allowing the repository to use a conditional request if it can.
 	 * </p>
+	 * @see Repository#isResourceModified(URI, ISODateTime)
 	 */
 	@Override
 	public boolean isStaleData(final Q query, final FileData cachedInfo) throws IOException {
@@ -96,12 +97,10 @@ public boolean isStaleData(final Q query, final FileData cachedInfo) throws IOEx
 		}
 		final Repository repository = query.getRepository(); //get the repository
 		final URI resourceURI = query.getResourceURI(); //get the resource URI				
-		final URFResource resource = repository.getResourceDescription(resourceURI); //get a description of the resource
 		final Date cachedModifiedTime = cachedInfo.getModifiedTime(); //get the cached modified time of the resource
 		if(cachedModifiedTime != null) { //if we know the modified time of the cached resource
-			final ISODateTime modifiedDateTime = getModified(resource); //get the current modified date time of the resource
-			//Log.trace("cache: is stale?", resourceURI, "cached modified time", new URFDateTime(cachedModifiedTime), "resource modified time", modifiedDateTime, !cachedModifiedTime.equals(modifiedDateTime));
-			return !cachedModifiedTime.equals(modifiedDateTime); //if the modified time doesn't match our record, the cache is stale; we don't have to worry about whether there is millisecond precision, as both values being compared should be coming from the same resource in the same repository
+			final ISODateTime cachedModifiedDateTime = cachedModifiedTime instanceof ISODateTime ? (ISODateTime)cachedModifiedTime : new ISODateTime(cachedModifiedTime);
+			return repository.isResourceModified(resourceURI, cachedModifiedDateTime); //if the modified time doesn't match our record, the cache is stale; we don't have to worry about whether there is millisecond precision, as both values being compared should be coming from the same resource in the same repository
 		}
 		return false; //we couldn't find a reason that the cached information is stale 
 	}
@@ -93,6 +93,11 @@ public static MarmotResourceCache<?> getResourceCache() {
 	//Marmot properties
 	/** Provides an annotation of the resource. */
 	public static final URI ANNOTATION_PROPERTY_URI = createResourceURI(NAMESPACE_URI, "annotation");
+	/**
+	 * Identifies the state of a collection and all its descendants; the value changes whenever the collection or any of its descendants changes. This is a live
+	 * property provided only by repositories that track changes to entire trees, such as the directory revision of a Subversion repository.
+	 */
+	public static final URI TREE_REVISION_PROPERTY_URI = createResourceURI(NAMESPACE_URI, "treeRevision");
 
 	/**
 	 * Returns the annotations of the resource.
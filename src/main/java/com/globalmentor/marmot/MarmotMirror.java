@@ -16,6 +16,7 @@
 
 package com.globalmentor.marmot;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 
@@ -107,7 +108,15 @@ public enum Parameter implements Identifier {
 		/** The content resolution mode. */
 		CONTENT_RESOLUTION,
 		/** The metadata resolution mode. */
-		METADATA_RESOLUTION
+		METADATA_RESOLUTION,
+		/** The number of threads to use for synchronization. */
+		THREADS,
+		/** The maximum number of resources synchronized concurrently in each repository. */
+		REPOSITORY_CONCURRENCY,
+		/** The file in which to store the synchronization manifest. */
+		MANIFEST,
+		/** The algorithm for comparing content digests. */
+		CONTENT_DIGEST_ALGORITHM
 	}
 
 	/** The types of repository available. */
@@ -146,7 +155,7 @@ public int main() {
 					"--destination-repository=<URI> [--source-repository-type=<repository type>] [--destination-username=<username>] [--destination-password=<password>] [--destination-resource=<file|URI>] " +
 					"[--ignore-source-resource=<file|URI>]* [--ignore-destination-resource=<file|URI>]* [--ignore-property=<URI>]*" +
 					"[--resolution=<resolution>] [--resource-resolution=<resolution>] [--content-resolution=<resolution>] [--metadata-resolution=<resolution>]" +
-					"[--force-content-modified-property] [--force-write-metadata] [--rewrite-source-metadata] [--rewrite-destination-metadata] [--test] [--verbose] [--debug-http]");
+					"[--force-content-modified-property] [--force-write-metadata] [--rewrite-source-metadata] [--rewrite-destination-metadata] [--threads=<count>] [--repository-concurrency=<count>] [--manifest=<file>] [--content-digest-algorithm=<algorithm>] [--test] [--verbose] [--debug-http]");
 			System.out.println("");
 			System.out.println("Synchronization occurs on three levels: individual resources (i.e. orphans), metadata, and content, each of which can have a different resolution specified.");
 			System.out.println("");
@@ -183,6 +192,10 @@ public int main() {
 			System.out.println(LONG_SWITCH_DELIMITER+getSerializationName(Parameter.FORCE_WRITE_METADATA)+": Whether metadata should be unconditionally rewritten for the source resource.");
 			System.out.println(LONG_SWITCH_DELIMITER+getSerializationName(Parameter.REWRITE_SOURCE_METADATA)+": Whether metadata should be unconditionally rewritten for the destination resource.");
 			System.out.println(LONG_SWITCH_DELIMITER+getSerializationName(Parameter.REWRITE_DESTINATION_METADATA)+": Whether metadata should be unconditionally updated for the determined output resource.");
+			System.out.println(LONG_SWITCH_DELIMITER+getSerializationName(Parameter.THREADS)+": The number of resources to synchronize concurrently; defaults to "+RepositorySynchronizer.DEFAULT_THREAD_COUNT+".");
+			System.out.println(LONG_SWITCH_DELIMITER+getSerializationName(Parameter.REPOSITORY_CONCURRENCY)+": The maximum number of resources synchronized concurrently in each repository, if less than the number of threads; defaults to no limit.");
+			System.out.println(LONG_SWITCH_DELIMITER+getSerializationName(Parameter.MANIFEST)+": A file in which to record the state of synchronized resources, so that unchanged resources need not be compared on the next synchronization; the children of unchanged collections are not retrieved if both repositories track changes to entire trees, as Subversion does.");
+			System.out.println(LONG_SWITCH_DELIMITER+getSerializationName(Parameter.CONTENT_DIGEST_ALGORITHM)+": If specified, content of the same length is compared using digests of this algorithm (e.g. SHA-256 or MD5) rather than by modified time.");
 			System.out.println(LONG_SWITCH_DELIMITER+getSerializationName(Parameter.TEST)+": If specified, no changed will be made.");
 			System.out.println(LONG_SWITCH_DELIMITER+getSerializationName(Parameter.VERBOSE)+": If specified, debug will be set to a minimum report level of "+Log.Level.DEBUG+"; otherwise, the report level will be "+Log.Level.INFO+".");
 			System.out.println(LONG_SWITCH_DELIMITER+getSerializationName(Parameter.QUIET)+": If specified, debug will be set to a minimum report level of "+Log.Level.WARN+"; otherwise, the report level will be "+Log.Level.INFO+".");
@@ -247,6 +260,19 @@ public int main() {
 					((MaintenanceRepository)destinationRepository).setRewriteResourceDescriptions(true);
 				}
 			}
+			final String threadsString = getOption(args, Parameter.THREADS);
+			if(threadsString != null) { //set the number of threads if provided
+				repositorySynchronizer.setThreadCount(parseCount(Parameter.THREADS, threadsString));
+			}
+			final String repositoryConcurrencyString = getOption(args, Parameter.REPOSITORY_CONCURRENCY);
+			if(repositoryConcurrencyString != null) { //limit the concurrent requests to each repository if requested
+				repositorySynchronizer.setRepositoryConcurrency(parseCount(Parameter.REPOSITORY_CONCURRENCY, repositoryConcurrencyString));
+			}
+			final String manifestString = getOption(args, Parameter.MANIFEST);
+			if(manifestString != null) { //use a manifest if requested
+				repositorySynchronizer.setManifestFile(new File(manifestString));
+			}
+			repositorySynchronizer.setContentDigestAlgorithm(getOption(args, Parameter.CONTENT_DIGEST_ALGORITHM)); //compare content digests if requested
 			repositorySynchronizer.setTest(hasFlag(args, Parameter.TEST)); //specify whether this is a test run
 			repositorySynchronizer.synchronize(sourceRepository, sourceResourceURI, destinationRepository, destinationResourceURI); //synchronize the resources
 		} catch(final IOException ioException) { //if there is an error
@@ -256,6 +282,24 @@ public int main() {
 		return 0; //return no error
 	}
 
+	/**
+	 * Parses a positive count given as the value of a parameter.
+	 * @param parameter The parameter the value of which is being parsed.
+	 * @param countString The string value of the parameter.
+	 * @return The count represented by the string.
+	 * @throws IllegalArgumentException if the given string does not represent a positive integer.
+	 */
+	protected static int parseCount(final Parameter parameter, final String countString) {
+		final int count;
+		try {
+			count = Integer.parseInt(countString);
+		} catch(final NumberFormatException numberFormatException) {
+			throw new IllegalArgumentException("Invalid count " + countString + " for " + getSerializationName(parameter) + ".", numberFormatException);
+		}
+		checkArgument(count > 0, "Count for {0} must be positive; found {1}.", getSerializationName(parameter), count);
+		return count;
+	}
+
 	/**
 	 * The main routine that starts the application.
 	 * @param args The command line arguments.
@@ -18,7 +18,10 @@
 
 import java.io.*;
 import java.net.*;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
 import java.util.Collections;
 
@@ -91,7 +94,8 @@ public abstract class AbstractRepository implements Repository {
 	protected static final URFResourceFactory MARMOT_SECURITY_RESOURCE_FACTORY = new JavaURFResourceFactory(MarmotSecurity.class.getPackage());
 
 	/** The set of URIs that are considered live by default. */
-	public static final Set<URI> DEFAULT_LIVE_PROPERTY_URIS = immutableSetOf(Content.ACCESSED_PROPERTY_URI, Content.LENGTH_PROPERTY_URI);
+	public static final Set<URI> DEFAULT_LIVE_PROPERTY_URIS = immutableSetOf(Content.ACCESSED_PROPERTY_URI, Content.LENGTH_PROPERTY_URI,
+			Marmot.TREE_REVISION_PROPERTY_URI);
 
 	/**
 	 * The name of a resource used to store the content of a collection. Normally the only properties stored with this special resource are the
@@ -237,6 +241,19 @@ public ContentType getExtensionContentType(final String extension) {
 		return extensionContentTypeMap.get(extension != null ? extension.toLowerCase() : null); //return the content type, if any, associated with the given extension
 	}
 
+	@Override
+	public Map<String, ContentType> getExtensionContentTypes() {
+		return unmodifiableMap(new HashMap<String, ContentType>(extensionContentTypeMap)); //return a read-only copy of the map
+	}
+
+	@Override
+	public void setExtensionContentTypes(final Map<String, ContentType> extensionContentTypes) {
+		extensionContentTypeMap.clear(); //clear the current mappings
+		for(final Map.Entry<String, ContentType> extensionContentTypeEntry : extensionContentTypes.entrySet()) { //look at each mapping
+			registerExtensionContentType(extensionContentTypeEntry.getKey(), extensionContentTypeEntry.getValue()); //register this association
+		}
+	}
+
 	/** The map of charsets mapped to base media types. */
 	private final Map<String, Charset> baseContentTypeCharsetMap = new HashMap<String, Charset>();
 
@@ -424,6 +441,57 @@ protected URF createURF() {
 		return urf; //return the new data model
 	}
 
+	/** The cache of resource descriptions, or <code>null</code> if resource descriptions are not cached. */
+	private volatile ResourceDescriptionCache resourceDescriptionCache = null;
+
+	/** @return The cache of resource descriptions, or <code>null</code> if resource descriptions are not cached. */
+	public ResourceDescriptionCache getResourceDescriptionCache() {
+		return resourceDescriptionCache;
+	}
+
+	/**
+	 * Sets the cache to use for resource descriptions. Cached descriptions are invalidated whenever a resource is modified through this repository, but changes
+	 * made to the underlying store by other means are only noticed once the cached descriptions expire. Subrepositories maintain their own caches. Deep copies
+	 * of descriptions are cached and returned using {@link #copyResourceDescription(URFResource)}.
+	 * @param resourceDescriptionCache The cache of resource descriptions, or <code>null</code> if resource descriptions should not be cached.
+	 */
+	public void setResourceDescriptionCache(final ResourceDescriptionCache resourceDescriptionCache) {
+		this.resourceDescriptionCache = resourceDescriptionCache;
+	}
+
+	/**
+	 * Removes any cached description of the given resource, along with any cached descriptions of its descendants. If resource descriptions are not being
+	 * cached, no action occurs. Subclasses may call this method if they modify a resource without using the public methods of the repository, and may override
+	 * this method to forget any other information they remember about modified resources.
+	 * @param resourceURI The normalized URI of the resource that has been modified.
+	 * @see #getResourceDescriptionCache()
+	 */
+	protected void invalidateCachedResourceDescription(final URI resourceURI) {
+		final ResourceDescriptionCache resourceDescriptionCache = getResourceDescriptionCache();
+		if(resourceDescriptionCache != null) {
+			resourceDescriptionCache.invalidate(resourceURI);
+		}
+	}
+
+	/**
+	 * Invalidates any cached description of the given resource, and returns an output stream that will invalidate the cached description again after the
+	 * contents of the resource are stored.
+	 * @param resourceURI The normalized URI of the resource being written.
+	 * @param outputStream The output stream to the resource contents.
+	 * @return An output stream that invalidates any cached description of the resource when closed.
+	 * @see #invalidateCachedResourceDescription(URI)
+	 */
+	protected OutputStream createCacheInvalidatingOutputStream(final URI resourceURI, final OutputStream outputStream) {
+		invalidateCachedResourceDescription(resourceURI); //the resource may already have been replaced
+		return new OutputStreamDecorator<OutputStream>(outputStream) {
+
+			@Override
+			protected void afterClose() {
+				invalidateCachedResourceDescription(resourceURI); //the resource description is normally updated when the contents are stored
+			}
+		};
+	}
+
 	@Override
 	public boolean isOpen() {
 		return open.getObject().booleanValue();
@@ -471,6 +539,10 @@ protected void openImpl() throws ResourceIOException {
 	 */
 	@Override
 	public final synchronized void close() throws ResourceIOException {
+		final ResourceDescriptionCache resourceDescriptionCache = getResourceDescriptionCache();
+		if(resourceDescriptionCache != null) { //discard any cached descriptions
+			resourceDescriptionCache.clear();
+		}
 		if(!isOpen()) { //if the repository isn't yet open
 			open.writeLock().lock(); //do actual opening under a write lock to prevent multiple attempts at opening at the same time
 			try {
@@ -536,7 +608,29 @@ public final URFResource getResourceDescription(URI resourceURI) throws Resource
 			return subrepository.getResourceDescription(resourceURI); //delegate to the subrepository
 		}
 		checkOpen(); //make sure the repository is open
-		return getResourceDescriptionImpl(resourceURI);
+		final ResourceDescriptionCache resourceDescriptionCache = getResourceDescriptionCache();
+		if(resourceDescriptionCache == null) { //if we aren't caching descriptions
+			return getResourceDescriptionImpl(resourceURI);
+		}
+		final URFResource cachedResourceDescription = resourceDescriptionCache.get(resourceURI); //see if we have the description cached
+		if(cachedResourceDescription != null) {
+			return copyResourceDescription(cachedResourceDescription);
+		}
+		final long generation = resourceDescriptionCache.getGeneration(); //note the generation so that we don't cache a description made stale by a concurrent modification
+		final URFResource resourceDescription = getResourceDescriptionImpl(resourceURI); //retrieve and cache the description
+		resourceDescriptionCache.put(resourceURI, copyResourceDescription(resourceDescription), generation);
+		return resourceDescription;
+	}
+
+	/**
+	 * Creates a deep copy of a resource description, so that the description may be cached without being affected by changes to the original, including
+	 * changes to the descriptions of its property values. This implementation copies the description in memory using
+	 * {@link Repositories#copyResourceDescription(URFResource)}.
+	 * @param resourceDescription The resource description to copy.
+	 * @return A copy of the given resource description sharing no mutable state with it.
+	 */
+	protected URFResource copyResourceDescription(final URFResource resourceDescription) {
+		return Repositories.copyResourceDescription(resourceDescription);
 	}
 
 	/**
@@ -549,6 +643,111 @@ public final URFResource getResourceDescription(URI resourceURI) throws Resource
 	 */
 	protected abstract URFResource getResourceDescriptionImpl(final URI resourceURI) throws ResourceIOException; //TODO add subclass functionality to ignore non-visible resources
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This version normalizes the URIs, delegates to any subrepositories as appropriate, and ensures the repository is open. Child classes should override
+	 * {@link #getResourceDescriptionsImpl(Collection)}.
+	 * </p>
+	 */
+	@Override
+	public final Map<URI, URFResource> getResourceDescriptions(final Collection<URI> resourceURIs) throws ResourceIOException {
+		final List<URI> normalizedResourceURIs = new ArrayList<URI>(resourceURIs.size()); //keep track of the requested order
+		final Map<Repository, Set<URI>> repositoryResourceURIs = new LinkedHashMap<Repository, Set<URI>>(); //group the URIs by the repository in which they lie
+		for(final URI resourceURI : resourceURIs) {
+			final URI normalizedResourceURI = checkResourceURI(resourceURI); //makes sure the resource URI is valid and normalize the URI
+			normalizedResourceURIs.add(normalizedResourceURI);
+			final Repository repository = getSubrepository(normalizedResourceURI); //see if the resource URI lies within a subrepository
+			Set<URI> repositoryURIs = repositoryResourceURIs.get(repository);
+			if(repositoryURIs == null) { //if this is the first URI for this repository
+				repositoryURIs = new LinkedHashSet<URI>();
+				repositoryResourceURIs.put(repository, repositoryURIs);
+			}
+			repositoryURIs.add(normalizedResourceURI);
+		}
+		final Map<URI, URFResource> resourceDescriptions = new HashMap<URI, URFResource>(normalizedResourceURIs.size());
+		for(final Map.Entry<Repository, Set<URI>> repositoryResourceURIsEntry : repositoryResourceURIs.entrySet()) {
+			final Repository repository = repositoryResourceURIsEntry.getKey();
+			if(repository != this) { //if the resource URIs lie within a subrepository
+				resourceDescriptions.putAll(repository.getResourceDescriptions(repositoryResourceURIsEntry.getValue())); //delegate to the subrepository
+			} else {
+				checkOpen(); //make sure the repository is open
+				final ResourceDescriptionCache resourceDescriptionCache = getResourceDescriptionCache();
+				if(resourceDescriptionCache == null) { //if we aren't caching descriptions
+					resourceDescriptions.putAll(getResourceDescriptionsImpl(repositoryResourceURIsEntry.getValue()));
+				} else {
+					final Set<URI> uncachedResourceURIs = new LinkedHashSet<URI>();
+					for(final URI resourceURI : repositoryResourceURIsEntry.getValue()) { //use any cached descriptions
+						final URFResource resourceDescription = resourceDescriptionCache.get(resourceURI);
+						if(resourceDescription != null) {
+							resourceDescriptions.put(resourceURI, copyResourceDescription(resourceDescription));
+						} else {
+							uncachedResourceURIs.add(resourceURI);
+						}
+					}
+					if(!uncachedResourceURIs.isEmpty()) { //retrieve and cache the descriptions that weren't cached
+						final long generation = resourceDescriptionCache.getGeneration(); //note the generation so that we don't cache descriptions made stale by a concurrent modification
+						for(final Map.Entry<URI, URFResource> resourceDescriptionEntry : getResourceDescriptionsImpl(uncachedResourceURIs).entrySet()) {
+							final URFResource resourceDescription = resourceDescriptionEntry.getValue();
+							if(resourceDescription != null) {
+								resourceDescriptionCache.put(resourceDescriptionEntry.getKey(), copyResourceDescription(resourceDescription), generation);
+							}
+							resourceDescriptions.put(resourceDescriptionEntry.getKey(), resourceDescription);
+						}
+					}
+				}
+			}
+		}
+		final Map<URI, URFResource> orderedResourceDescriptions = new LinkedHashMap<URI, URFResource>(normalizedResourceURIs.size()); //return the descriptions in the order requested
+		for(final URI normalizedResourceURI : normalizedResourceURIs) {
+			orderedResourceDescriptions.put(normalizedResourceURI, resourceDescriptions.get(normalizedResourceURI));
+		}
+		return orderedResourceDescriptions;
+	}
+
+	/**
+	 * Implementation to retrieve descriptions of the resources with the given URIs. The resource URIs are guaranteed to be normalized, valid for the repository,
+	 * and not to lie within a subrepository, and the repository is guaranteed to be open.
+	 * <p>
+	 * This version retrieves each description separately using {@link #getResourceDescriptionImpl(URI)}. Child classes that can retrieve several descriptions
+	 * in a single request should override this method; {@link #groupResourceURIsByParent(Collection)} may be helpful.
+	 * </p>
+	 * @param resourceURIs The URIs of the resources the descriptions of which should be retrieved.
+	 * @return A map of descriptions of the resources, keyed to the resource URIs.
+	 * @throws ResourceNotFoundException if one of the identified resources does not exist.
+	 * @throws ResourceIOException if there is an error accessing the repository.
+	 */
+	protected Map<URI, URFResource> getResourceDescriptionsImpl(final Collection<URI> resourceURIs) throws ResourceIOException {
+		final Map<URI, URFResource> resourceDescriptions = new HashMap<URI, URFResource>(resourceURIs.size());
+		for(final URI resourceURI : resourceURIs) {
+			resourceDescriptions.put(resourceURI, getResourceDescriptionImpl(resourceURI));
+		}
+		return resourceDescriptions;
+	}
+
+	/**
+	 * Groups resource URIs by the URIs of their parent resources, so that the descriptions of sibling resources may be retrieved together. The root resource of
+	 * the repository, which has no parent, is grouped under <code>null</code>. No repository access is performed.
+	 * @param resourceURIs The normalized URIs of resources in this repository.
+	 * @return A map of parent resource URIs to the URIs of their child resources, in the order the URIs were given.
+	 * @throws NullPointerException if the given collection of URIs is <code>null</code> or contains a <code>null</code> URI.
+	 */
+	protected Map<URI, List<URI>> groupResourceURIsByParent(final Collection<URI> resourceURIs) {
+		final Map<URI, List<URI>> parentResourceURIs = new LinkedHashMap<URI, List<URI>>();
+		final URI rootURI = getRootURI();
+		for(final URI resourceURI : resourceURIs) {
+			final URI parentResourceURI = resourceURI.equals(rootURI) ? null : isCollectionURI(resourceURI) ? getParentLevel(resourceURI)
+					: getCurrentLevel(resourceURI); //if resource is a collection URI, get the parent level; otherwise, get the current level
+			List<URI> childResourceURIs = parentResourceURIs.get(parentResourceURI);
+			if(childResourceURIs == null) { //if this is the first child of this parent
+				childResourceURIs = new ArrayList<URI>();
+				parentResourceURIs.put(parentResourceURI, childResourceURIs);
+			}
+			childResourceURIs.add(resourceURI);
+		}
+		return parentResourceURIs;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * <p>
@@ -602,6 +801,42 @@ protected byte[] getResourceContentsImpl(final URI resourceURI) throws ResourceI
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Child classes should override {@link #getResourceContentBufferImpl(URI)}.
+	 * </p>
+	 */
+	@Override
+	public final ByteBuffer getResourceContentBuffer(URI resourceURI) throws ResourceIOException {
+		resourceURI = checkResourceURI(resourceURI); //makes sure the resource URI is valid and normalize the URI
+		final Repository subrepository = getSubrepository(resourceURI); //see if the resource URI lies within a subrepository
+		if(subrepository != this) { //if the resource URI lies within a subrepository
+			return subrepository.getResourceContentBuffer(resourceURI); //delegate to the subrepository
+		}
+		checkOpen(); //make sure the repository is open
+		return getResourceContentBufferImpl(resourceURI);
+	}
+
+	/**
+	 * Retrieves the contents of the resource specified by the given URI as a read-only byte buffer. The resource URI is guaranteed to be normalized and valid
+	 * for the repository and the repository is guaranteed to be open.
+	 * <p>
+	 * This implementation wraps the bytes returned by {@link #getResourceContentsImpl(URI)}. Repositories with direct access to the content storage may be able
+	 * to avoid copying the contents into the heap.
+	 * </p>
+	 * @param resourceURI The URI of the resource to access.
+	 * @return A read-only buffer containing the contents of the resource represented by the given URI.
+	 * @throws IllegalArgumentException if the given URI designates a resource that does not reside inside this repository.
+	 * @throws IllegalArgumentException if the given resource is too large to be placed in a byte buffer.
+	 * @throws IllegalStateException if the repository is not open for access and auto-open is not enabled.
+	 * @throws ResourceNotFoundException if the identified resource does not exist.
+	 * @throws ResourceIOException if there is an error accessing the resource.
+	 */
+	protected ByteBuffer getResourceContentBufferImpl(final URI resourceURI) throws ResourceIOException {
+		return ByteBuffer.wrap(getResourceContentsImpl(resourceURI)).asReadOnlyBuffer();
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * <p>
@@ -620,6 +855,58 @@ public final InputStream getResourceInputStream(URI resourceURI) throws Resource
 		return getResourceInputStreamImpl(resourceURI);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This version normalizes the URI, delegates to any subrepository if appropriate, and ensures the repository is open. Child classes should override
+	 * {@link #getResourceInputStreamImpl(URI, long, long)}.
+	 * </p>
+	 */
+	@Override
+	public final InputStream getResourceInputStream(URI resourceURI, final long offset, final long length) throws ResourceIOException {
+		checkArgument(offset >= 0, "Invalid content offset {0}.", offset);
+		checkArgument(length >= -1, "Invalid content length {0}.", length);
+		resourceURI = checkResourceURI(resourceURI); //makes sure the resource URI is valid and normalize the URI
+		final Repository subrepository = getSubrepository(resourceURI); //see if the resource URI lies within a subrepository
+		if(subrepository != this) { //if the resource URI lies within a subrepository
+			return subrepository.getResourceInputStream(resourceURI, offset, length); //delegate to the subrepository
+		}
+		checkOpen(); //make sure the repository is open
+		return getResourceInputStreamImpl(resourceURI, offset, length);
+	}
+
+	/**
+	 * Gets an input stream to a range of the contents of the resource specified by the given URI. The resource URI is guaranteed to be normalized and valid for
+	 * the repository and the repository is guaranteed to be open. The offset is guaranteed not to be negative, and the length is guaranteed not to be less than
+	 * <code>-1</code>.
+	 * <p>
+	 * This implementation retrieves an input stream to the entire contents using {@link #getResourceInputStreamImpl(URI)} and skips the bytes before the
+	 * offset. Repositories that can position their content directly should override this method.
+	 * </p>
+	 * @param resourceURI The URI of the resource to access.
+	 * @param offset The number of bytes at the start of the contents to skip.
+	 * @param length The maximum number of bytes to read, or <code>-1</code> if all the contents after the offset should be read.
+	 * @return An input stream to the given range of the resource represented by the given URI.
+	 * @throws IllegalStateException if the repository is not open for access and auto-open is not enabled.
+	 * @throws ResourceNotFoundException if the identified resource does not exist.
+	 * @throws ResourceIOException if there is an error accessing the resource.
+	 * @see ContentRangeInputStream
+	 */
+	protected InputStream getResourceInputStreamImpl(final URI resourceURI, final long offset, final long length) throws ResourceIOException {
+		final InputStream inputStream = getResourceInputStreamImpl(resourceURI); //get an input stream to all the content
+		try {
+			ContentRangeInputStream.skipFully(inputStream, offset); //skip to the start of the range
+		} catch(final IOException ioException) { //if an I/O exception occurs
+			try {
+				inputStream.close(); //don't leave the stream open
+			} catch(final IOException closeIOException) {
+				Log.warn(closeIOException);
+			}
+			throw toResourceIOException(resourceURI, ioException); //translate the exception to a resource I/O exception and throw that
+		}
+		return length >= 0 ? new ContentRangeInputStream(inputStream, length) : inputStream; //restrict the stream to the given length, if any
+	}
+
 	/**
 	 * Implementation to get an input stream to the contents of the resource specified by the given URI. The resource URI is guaranteed to be normalized and valid
 	 * for the repository and the repository is guaranteed to be open.
@@ -630,6 +917,137 @@ public final InputStream getResourceInputStream(URI resourceURI) throws Resource
 	 */
 	protected abstract InputStream getResourceInputStreamImpl(final URI resourceURI) throws ResourceIOException;
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This version normalizes the URI, delegates to any subrepository if appropriate, and ensures the repository is open. Child classes should override
+	 * {@link #isResourceModifiedImpl(URI, ISODateTime)}.
+	 * </p>
+	 */
+	@Override
+	public final boolean isResourceModified(URI resourceURI, final ISODateTime modified) throws ResourceIOException {
+		requireNonNull(modified, "Modified datetime cannot be null.");
+		resourceURI = checkResourceURI(resourceURI); //makes sure the resource URI is valid and normalize the URI
+		final Repository subrepository = getSubrepository(resourceURI); //see if the resource URI lies within a subrepository
+		if(subrepository != this) { //if the resource URI lies within a subrepository
+			return subrepository.isResourceModified(resourceURI, modified); //delegate to the subrepository
+		}
+		checkOpen(); //make sure the repository is open
+		return isResourceModifiedImpl(resourceURI, modified);
+	}
+
+	/**
+	 * Implementation to determine whether the contents of the resource specified by the given URI have been modified from the version with the given content
+	 * modified datetime. The resource URI is guaranteed to be normalized and valid for the repository and the repository is guaranteed to be open.
+	 * <p>
+	 * This implementation retrieves a description of the resource using {@link #getResourceDescriptionImpl(URI)} and compares its content modified datetime
+	 * with the one given.
+	 * </p>
+	 * @param resourceURI The URI of the resource to check.
+	 * @param modified The content modified datetime of the known version of the resource.
+	 * @return <code>true</code> if the contents of the resource may have changed from the known version.
+	 * @throws ResourceNotFoundException if the identified resource does not exist.
+	 * @throws ResourceIOException if there is an error accessing the resource.
+	 */
+	protected boolean isResourceModifiedImpl(final URI resourceURI, final ISODateTime modified) throws ResourceIOException {
+		final ISODateTime currentModified = getModified(getResourceDescriptionImpl(resourceURI)); //get the current modified datetime of the resource
+		return currentModified == null || currentModified.getTime() != modified.getTime(); //compare the times themselves, as both values come from the same resource in the same repository
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This version normalizes the URI, delegates to any subrepository if appropriate, and ensures the repository is open. Child classes should override
+	 * {@link #getResourceInputStreamIfModifiedImpl(URI, ISODateTime)}.
+	 * </p>
+	 */
+	@Override
+	public final InputStream getResourceInputStreamIfModified(URI resourceURI, final ISODateTime modified) throws ResourceIOException {
+		requireNonNull(modified, "Modified datetime cannot be null.");
+		resourceURI = checkResourceURI(resourceURI); //makes sure the resource URI is valid and normalize the URI
+		final Repository subrepository = getSubrepository(resourceURI); //see if the resource URI lies within a subrepository
+		if(subrepository != this) { //if the resource URI lies within a subrepository
+			return subrepository.getResourceInputStreamIfModified(resourceURI, modified); //delegate to the subrepository
+		}
+		checkOpen(); //make sure the repository is open
+		return getResourceInputStreamIfModifiedImpl(resourceURI, modified);
+	}
+
+	/**
+	 * Implementation to get an input stream to the contents of the resource specified by the given URI only if the contents have been modified from the version
+	 * with the given content modified datetime. The resource URI is guaranteed to be normalized and valid for the repository and the repository is guaranteed
+	 * to be open.
+	 * <p>
+	 * This implementation checks for modification using {@link #isResourceModifiedImpl(URI, ISODateTime)} and then retrieves the contents using
+	 * {@link #getResourceInputStreamImpl(URI)}. Repositories that can make a conditional request in a single operation should override this method.
+	 * </p>
+	 * @param resourceURI The URI of the resource to access.
+	 * @param modified The content modified datetime of the known version of the resource.
+	 * @return An input stream to the resource represented by the given URI, or <code>null</code> if the contents have not been modified.
+	 * @throws ResourceNotFoundException if the identified resource does not exist.
+	 * @throws ResourceIOException if there is an error accessing the resource.
+	 */
+	protected InputStream getResourceInputStreamIfModifiedImpl(final URI resourceURI, final ISODateTime modified) throws ResourceIOException {
+		return isResourceModifiedImpl(resourceURI, modified) ? getResourceInputStreamImpl(resourceURI) : null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This version normalizes the URI, delegates to any subrepository if appropriate, and ensures the repository is open. Child classes should override
+	 * {@link #getResourceContentDigestImpl(URI, String)}.
+	 * </p>
+	 */
+	@Override
+	public final byte[] getResourceContentDigest(URI resourceURI, final String algorithm) throws ResourceIOException {
+		requireNonNull(algorithm, "Digest algorithm cannot be null.");
+		resourceURI = checkResourceURI(resourceURI); //makes sure the resource URI is valid and normalize the URI
+		final Repository subrepository = getSubrepository(resourceURI); //see if the resource URI lies within a subrepository
+		if(subrepository != this) { //if the resource URI lies within a subrepository
+			return subrepository.getResourceContentDigest(resourceURI, algorithm); //delegate to the subrepository
+		}
+		checkOpen(); //make sure the repository is open
+		return getResourceContentDigestImpl(resourceURI, algorithm);
+	}
+
+	/**
+	 * Implementation to determine a digest of the contents of the resource specified by the given URI. The resource URI is guaranteed to be normalized and valid
+	 * for the repository and the repository is guaranteed to be open.
+	 * <p>
+	 * This implementation reads the contents of the resource using {@link #getResourceInputStream(URI)}, updating the digest as the contents are read. Repositories
+	 * that maintain checksums of their contents should override this method to use them when possible.
+	 * </p>
+	 * @param resourceURI The URI of the resource to access.
+	 * @param algorithm The name of the message digest algorithm, such as <code>SHA-256</code>.
+	 * @return The digest of the contents of the resource represented by the given URI.
+	 * @throws IllegalArgumentException if the given message digest algorithm is not supported.
+	 * @throws ResourceNotFoundException if the identified resource does not exist.
+	 * @throws ResourceIOException if there is an error accessing the resource.
+	 */
+	protected byte[] getResourceContentDigestImpl(final URI resourceURI, final String algorithm) throws ResourceIOException {
+		final MessageDigest messageDigest;
+		try {
+			messageDigest = MessageDigest.getInstance(algorithm);
+		} catch(final NoSuchAlgorithmException noSuchAlgorithmException) {
+			throw new IllegalArgumentException("Unsupported digest algorithm: " + algorithm, noSuchAlgorithmException);
+		}
+		try {
+			final InputStream inputStream = getResourceInputStream(resourceURI); //get an input stream to the resource
+			try {
+				final byte[] buffer = new byte[1 << 16];
+				int count;
+				while((count = inputStream.read(buffer)) >= 0) { //update the digest as we read the contents, so that we never need to hold all the contents in memory
+					messageDigest.update(buffer, 0, count);
+				}
+			} finally {
+				inputStream.close();
+			}
+		} catch(final IOException ioException) { //if an I/O exception occurs
+			throw toResourceIOException(resourceURI, ioException); //translate the exception to a resource I/O exception and throw that
+		}
+		return messageDigest.digest();
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * <p>
@@ -645,7 +1063,7 @@ public final OutputStream getResourceOutputStream(URI resourceURI) throws Resour
 			return subrepository.getResourceOutputStream(resourceURI); //delegate to the subrepository
 		}
 		checkOpen(); //make sure the repository is open
-		return getResourceOutputStreamImpl(resourceURI, new ISODateTime()); //get an output stream with a new modified datetime of now
+		return createCacheInvalidatingOutputStream(resourceURI, getResourceOutputStreamImpl(resourceURI, new ISODateTime())); //get an output stream with a new modified datetime of now
 	}
 
 	/**
@@ -663,7 +1081,7 @@ public OutputStream getResourceOutputStream(URI resourceURI, final ISODateTime n
 			return subrepository.getResourceOutputStream(resourceURI, newContentModified); //delegate to the subrepository
 		}
 		checkOpen(); //make sure the repository is open
-		return getResourceOutputStreamImpl(resourceURI, newContentModified); //get an output stream with a new modified datetime of now
+		return createCacheInvalidatingOutputStream(resourceURI, getResourceOutputStreamImpl(resourceURI, newContentModified)); //get an output stream with a new modified datetime of now
 	}
 
 	/**
@@ -797,6 +1215,110 @@ public final List<URFResource> getChildResourceDescriptions(URI resourceURI, fin
 	protected abstract List<URFResource> getChildResourceDescriptionsImpl(final URI resourceURI, final ResourceFilter resourceFilter, final int depth)
 			throws ResourceIOException;
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This implementation visits unfiltered child resources by delegating to {@link #visitChildResourceDescriptions(URI, ResourceFilter, int, ResourceVisitor)}.
+	 * </p>
+	 */
+	@Override
+	public final boolean visitChildResourceDescriptions(final URI resourceURI, final int depth, final ResourceVisitor visitor) throws IOException {
+		return visitChildResourceDescriptions(resourceURI, null, depth, visitor);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This version normalizes the URI, delegates to any subrepository if appropriate, and ensures the repository is open. Child classes should override
+	 * {@link #visitChildResourceDescriptionsImpl(URI, ResourceFilter, int, ResourceVisitor)}.
+	 * </p>
+	 */
+	@Override
+	public final boolean visitChildResourceDescriptions(URI resourceURI, final ResourceFilter resourceFilter, final int depth, final ResourceVisitor visitor)
+			throws IOException {
+		checkArgument(depth >= 0 || depth == INFINITE_DEPTH, "Invalid depth {0}.", depth);
+		requireNonNull(visitor, "Resource visitor cannot be null.");
+		resourceURI = checkResourceURI(resourceURI); //makes sure the resource URI is valid and normalize the URI
+		final Repository subrepository = getSubrepository(resourceURI); //see if the resource URI lies within a subrepository
+		if(subrepository != this) { //if the resource URI lies within a subrepository
+			return subrepository.visitChildResourceDescriptions(resourceURI, resourceFilter, depth, visitor); //delegate to the subrepository
+		}
+		checkOpen(); //make sure the repository is open
+		return visitChildResourceDescriptionsImpl(resourceURI, resourceFilter, depth, visitor);
+	}
+
+	/**
+	 * Implementation to visit child resources of the resource at the given URI. The resource URI is guaranteed to be normalized and valid for the repository,
+	 * the depth is guaranteed to be non-negative or {@link #INFINITE_DEPTH}, and the repository is guaranteed to be open.
+	 * <p>
+	 * If any repositories are mapped as children of the identified resource, they will be visited as well, with their descriptions retrieved from the respective
+	 * subrepository.
+	 * </p>
+	 * <p>
+	 * This implementation retrieves a single level of child resources at a time using {@link #getChildResourceDescriptionsImpl(URI, ResourceFilter, int)}, so
+	 * that at most the children of one collection per level are held in memory. Child classes should override this method to retrieve descriptions
+	 * incrementally from the underlying store.
+	 * </p>
+	 * @param resourceURI The URI of the resource the sub-resources of which should be visited.
+	 * @param resourceFilter The filter that determines whether child resources should be included, or <code>null</code> if the child resources should not be
+	 *          filtered.
+	 * @param depth The zero-based depth of child resources which should recursively be visited, or {@link #INFINITE_DEPTH} for an infinite depth.
+	 * @param visitor The visitor to visit each child resource description.
+	 * @return <code>true</code> if all child resources were visited, or <code>false</code> if the visitor requested that traversal stop.
+	 * @throws ResourceIOException if there is an error accessing the repository.
+	 * @throws IOException if the visitor throws an I/O exception.
+	 * @see #getPathRepositories()
+	 */
+	protected boolean visitChildResourceDescriptionsImpl(final URI resourceURI, final ResourceFilter resourceFilter, final int depth,
+			final ResourceVisitor visitor) throws IOException {
+		if(depth == 0) { //a depth of zero means don't visit child resources
+			return true;
+		}
+		final int childDepth = depth != INFINITE_DEPTH ? depth - 1 : depth; //reduce the depth by one, unless we're using the unlimited depth value
+		for(final URFResource childResourceDescription : getChildResourceDescriptionsImpl(resourceURI, resourceFilter, 1)) { //get the children a level at a time; this includes the roots of any child subrepositories
+			if(!visitor.visit(childResourceDescription)) { //visit the child; if we should stop traversal
+				return false;
+			}
+			final URI childResourceURI = childResourceDescription.getURI();
+			if(childDepth != 0 && isCollectionURI(childResourceURI)) { //if we should go deeper and this child can have children
+				if(!visitChildResourceDescriptions(childResourceURI, resourceFilter, childDepth, visitor)) { //visit the descendants, delegating to any subrepository
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Visits the root resources and descendants of any subrepositories mapped as children of the given resource. This is a convenience method for
+	 * implementations of {@link #visitChildResourceDescriptionsImpl(URI, ResourceFilter, int, ResourceVisitor)}. The root of each subrepository is visited
+	 * without regard to the filter, consistent with {@link #getChildResourceDescriptionsImpl(URI, ResourceFilter, int)}.
+	 * @param resourceURI The URI of the resource the child subrepositories of which should be visited.
+	 * @param resourceFilter The filter that determines whether child resources should be included, or <code>null</code> if the child resources should not be
+	 *          filtered.
+	 * @param depth The zero-based depth of child resources which should recursively be visited, or {@link #INFINITE_DEPTH} for an infinite depth.
+	 * @param visitor The visitor to visit each child resource description.
+	 * @return <code>true</code> if all subrepository resources were visited, or <code>false</code> if the visitor requested that traversal stop.
+	 * @throws ResourceIOException if there is an error accessing one of the repositories.
+	 * @throws IOException if the visitor throws an I/O exception.
+	 * @see #getChildSubrepositories(URI)
+	 */
+	protected boolean visitChildSubrepositoryResourceDescriptions(final URI resourceURI, final ResourceFilter resourceFilter, final int depth,
+			final ResourceVisitor visitor) throws IOException {
+		for(final Repository childSubrepository : getChildSubrepositories(resourceURI)) { //see if any subrepositories are mapped as children of this repository
+			final URI childSubrepositoryURI = childSubrepository.getRootURI(); //get the URI of the subrepository
+			if(!visitor.visit(childSubrepository.getResourceDescription(childSubrepositoryURI))) { //visit a description of the subrepository root resource
+				return false;
+			}
+			if(depth == INFINITE_DEPTH || depth > 1) { //if we should visit child resources lower in the hierarchy
+				if(!childSubrepository.visitChildResourceDescriptions(childSubrepositoryURI, resourceFilter, depth == INFINITE_DEPTH ? depth : depth - 1, visitor)) { //visit the subrepository children
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
 	@Override
 	public URFResource createParentResources(URI resourceURI) throws ResourceIOException {
 		resourceURI = checkResourceURI(resourceURI); //makes sure the resource URI is valid and normalize the URI
@@ -835,7 +1357,7 @@ public final OutputStream createResource(URI resourceURI) throws ResourceIOExcep
 		final ISODateTime dateTime = new ISODateTime(); //create a new timestamp representing this instant
 		setCreated(resourceDescription, dateTime); //set the created and modified times to the current time 
 		setModified(resourceDescription, dateTime);
-		return createResourceImpl(resourceURI, resourceDescription); //create the resource with the default description
+		return createCacheInvalidatingOutputStream(resourceURI, createResourceImpl(resourceURI, resourceDescription)); //create the resource with the default description
 	}
 
 	/**
@@ -852,7 +1374,7 @@ public final OutputStream createResource(URI resourceURI, final URFResource reso
 			return subrepository.createResource(resourceURI, resourceDescription); //delegate to the subrepository
 		}
 		checkOpen(); //make sure the repository is open
-		return createResourceImpl(resourceURI, resourceDescription);
+		return createCacheInvalidatingOutputStream(resourceURI, createResourceImpl(resourceURI, resourceDescription));
 	}
 
 	@Override
@@ -891,7 +1413,11 @@ public final URFResource createResource(URI resourceURI, final byte[] resourceCo
 		final ISODateTime dateTime = new ISODateTime(); //create a new timestamp representing this instant
 		setCreated(resourceDescription, dateTime); //set the created and modified times to the current time 
 		setModified(resourceDescription, dateTime);
-		return createResourceImpl(resourceURI, resourceDescription, resourceContents); //create the resource with the default description
+		try {
+			return createResourceImpl(resourceURI, resourceDescription, resourceContents); //create the resource with the default description
+		} finally {
+			invalidateCachedResourceDescription(resourceURI); //the resource and any descendants may have changed
+		}
 	}
 
 	/**
@@ -908,7 +1434,11 @@ public final URFResource createResource(URI resourceURI, final URFResource resou
 			return subrepository.createResource(resourceURI, resourceDescription, resourceContents); //delegate to the subrepository
 		}
 		checkOpen(); //make sure the repository is open
-		return createResourceImpl(resourceURI, resourceDescription, resourceContents);
+		try {
+			return createResourceImpl(resourceURI, resourceDescription, resourceContents);
+		} finally {
+			invalidateCachedResourceDescription(resourceURI); //the resource and any descendants may have changed
+		}
 	}
 
 	/**
@@ -955,7 +1485,11 @@ public final void deleteResource(URI resourceURI) throws ResourceIOException {
 		if(resourceURI.equals(getRootURI())) { //if they try to delete the root URI
 			throw new IllegalArgumentException("Cannot delete repository root URI " + resourceURI);
 		}
-		deleteResourceImpl(resourceURI);
+		try {
+			deleteResourceImpl(resourceURI);
+		} finally {
+			invalidateCachedResourceDescription(resourceURI); //the resource and any descendants may have changed
+		}
 	}
 
 	/**
@@ -993,7 +1527,11 @@ public final URFResource addResourceProperties(URI resourceURI, final Iterable<U
 			return subrepository.addResourceProperties(resourceURI, properties); //delegate to the subrepository
 		}
 		checkOpen(); //make sure the repository is open
-		return addResourcePropertiesImpl(resourceURI, properties);
+		try {
+			return addResourcePropertiesImpl(resourceURI, properties);
+		} finally {
+			invalidateCachedResourceDescription(resourceURI); //the description of the resource has changed
+		}
 	}
 
 	/**
@@ -1037,7 +1575,11 @@ public final URFResource setResourceProperties(URI resourceURI, final Iterable<U
 			return subrepository.setResourceProperties(resourceURI, properties); //delegate to the subrepository
 		}
 		checkOpen(); //make sure the repository is open
-		return setResourcePropertiesImpl(resourceURI, properties);
+		try {
+			return setResourcePropertiesImpl(resourceURI, properties);
+		} finally {
+			invalidateCachedResourceDescription(resourceURI); //the description of the resource has changed
+		}
 	}
 
 	/**
@@ -1082,7 +1624,11 @@ public final URFResource removeResourceProperties(URI resourceURI, final Iterabl
 			return subrepository.removeResourceProperties(resourceURI, propertyURIs); //delegate to the subrepository
 		}
 		checkOpen(); //make sure the repository is open
-		return removeResourcePropertiesImpl(resourceURI, propertyURIs);
+		try {
+			return removeResourcePropertiesImpl(resourceURI, propertyURIs);
+		} finally {
+			invalidateCachedResourceDescription(resourceURI); //the description of the resource has changed
+		}
 	}
 
 	/**
@@ -1114,7 +1660,11 @@ public final URFResource alterResourceProperties(URI resourceURI, final URFResou
 			return subrepository.alterResourceProperties(resourceURI, resourceAlteration); //delegate to the subrepository
 		}
 		checkOpen(); //make sure the repository is open
-		return alterResourcePropertiesImpl(resourceURI, resourceAlteration);
+		try {
+			return alterResourcePropertiesImpl(resourceURI, resourceAlteration);
+		} finally {
+			invalidateCachedResourceDescription(resourceURI); //the description of the resource has changed
+		}
 	}
 
 	/**
@@ -1129,6 +1679,99 @@ public final URFResource alterResourceProperties(URI resourceURI, final URFResou
 	 */
 	protected abstract URFResource alterResourcePropertiesImpl(final URI resourceURI, final URFResourceAlteration resourceAlteration) throws ResourceIOException;
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This version normalizes the URIs, delegates to any subrepositories as appropriate, and ensures the repository is open. Child classes should override
+	 * {@link #alterResourcePropertiesImpl(Map)}.
+	 * </p>
+	 */
+	@Override
+	public final Map<URI, URFResource> alterResourceProperties(final Map<URI, URFResourceAlteration> resourceAlterations) throws ResourceIOException {
+		final List<URI> normalizedResourceURIs = new ArrayList<URI>(resourceAlterations.size()); //keep track of the requested order
+		final Map<Repository, Map<URI, URFResourceAlteration>> repositoryResourceAlterations = new LinkedHashMap<Repository, Map<URI, URFResourceAlteration>>(); //group the alterations by the repository in which the resources lie
+		for(final Map.Entry<URI, URFResourceAlteration> resourceAlterationEntry : resourceAlterations.entrySet()) {
+			final URI normalizedResourceURI = checkResourceURI(resourceAlterationEntry.getKey()); //makes sure the resource URI is valid and normalize the URI
+			normalizedResourceURIs.add(normalizedResourceURI);
+			final Repository repository = getSubrepository(normalizedResourceURI); //see if the resource URI lies within a subrepository
+			Map<URI, URFResourceAlteration> repositoryAlterations = repositoryResourceAlterations.get(repository);
+			if(repositoryAlterations == null) { //if this is the first alteration for this repository
+				repositoryAlterations = new LinkedHashMap<URI, URFResourceAlteration>();
+				repositoryResourceAlterations.put(repository, repositoryAlterations);
+			}
+			repositoryAlterations.put(normalizedResourceURI, requireNonNull(resourceAlterationEntry.getValue(), "Resource alteration cannot be null."));
+		}
+		final Map<URI, URFResource> resourceDescriptions = new HashMap<URI, URFResource>(normalizedResourceURIs.size());
+		ResourceIOException firstResourceIOException = null;
+		for(final Map.Entry<Repository, Map<URI, URFResourceAlteration>> repositoryResourceAlterationsEntry : repositoryResourceAlterations.entrySet()) {
+			final Repository repository = repositoryResourceAlterationsEntry.getKey();
+			try {
+				if(repository != this) { //if the resources lie within a subrepository
+					resourceDescriptions.putAll(repository.alterResourceProperties(repositoryResourceAlterationsEntry.getValue())); //delegate to the subrepository
+				} else {
+					checkOpen(); //make sure the repository is open
+					try {
+						resourceDescriptions.putAll(alterResourcePropertiesImpl(repositoryResourceAlterationsEntry.getValue()));
+					} finally {
+						for(final URI resourceURI : repositoryResourceAlterationsEntry.getValue().keySet()) {
+							invalidateCachedResourceDescription(resourceURI); //the description of the resource has changed
+						}
+					}
+				}
+			} catch(final PartialResourceAlterationException partialResourceAlterationException) {
+				resourceDescriptions.putAll(partialResourceAlterationException.getAlteredResourceDescriptions()); //keep the results of the alterations that succeeded
+				if(firstResourceIOException == null) { //remember the first error, but keep going with the other repositories
+					firstResourceIOException = partialResourceAlterationException.getCause();
+				}
+			} catch(final ResourceIOException resourceIOException) {
+				if(firstResourceIOException == null) { //remember the first error, but keep going with the other repositories
+					firstResourceIOException = resourceIOException;
+				}
+			}
+		}
+		final Map<URI, URFResource> orderedResourceDescriptions = new LinkedHashMap<URI, URFResource>(normalizedResourceURIs.size()); //return the descriptions in the order requested
+		for(final URI normalizedResourceURI : normalizedResourceURIs) {
+			final URFResource resourceDescription = resourceDescriptions.get(normalizedResourceURI);
+			if(resourceDescription != null) { //if the resource was altered
+				orderedResourceDescriptions.put(normalizedResourceURI, resourceDescription);
+			}
+		}
+		if(firstResourceIOException != null) {
+			throw new PartialResourceAlterationException(firstResourceIOException, orderedResourceDescriptions);
+		}
+		return orderedResourceDescriptions;
+	}
+
+	/**
+	 * Implementation to alter properties of several resources. The resource URIs are guaranteed to be normalized and valid for the repository and the repository
+	 * is guaranteed to be open.
+	 * <p>
+	 * This implementation alters the properties of each resource in turn using {@link #alterResourcePropertiesImpl(URI, URFResourceAlteration)}. If an error
+	 * occurs, the remaining resources are still altered and the first error is then thrown along with the results of the alterations that succeeded.
+	 * </p>
+	 * @param resourceAlterations The specifications of the alterations to be performed, keyed to the resource URIs.
+	 * @return The updated descriptions of the resources that were altered, keyed to the resource URIs.
+	 * @throws PartialResourceAlterationException if the properties of one or more of the resources could not be altered.
+	 * @throws ResourceIOException if there is an error accessing the repository.
+	 */
+	protected Map<URI, URFResource> alterResourcePropertiesImpl(final Map<URI, URFResourceAlteration> resourceAlterations) throws ResourceIOException {
+		final Map<URI, URFResource> resourceDescriptions = new LinkedHashMap<URI, URFResource>(resourceAlterations.size());
+		ResourceIOException firstResourceIOException = null;
+		for(final Map.Entry<URI, URFResourceAlteration> resourceAlterationEntry : resourceAlterations.entrySet()) {
+			try {
+				resourceDescriptions.put(resourceAlterationEntry.getKey(), alterResourcePropertiesImpl(resourceAlterationEntry.getKey(), resourceAlterationEntry.getValue()));
+			} catch(final ResourceIOException resourceIOException) {
+				if(firstResourceIOException == null) { //remember the first error, but keep going
+					firstResourceIOException = resourceIOException;
+				}
+			}
+		}
+		if(firstResourceIOException != null) {
+			throw new PartialResourceAlterationException(firstResourceIOException, resourceDescriptions);
+		}
+		return resourceDescriptions;
+	}
+
 	@Override
 	public URI getCollectionURI(URI resourceURI) throws ResourceIOException {
 		resourceURI = checkResourceURI(resourceURI); //makes sure the resource URI is valid and normalize the URI
@@ -1185,7 +1828,11 @@ public final void copyResource(URI resourceURI, URI destinationURI) throws Resou
 			copyResourceImpl(resourceURI, destinationSubrepository, destinationURI, true, null); //copy to the subrepository
 			return;
 		}
-		copyResourceImpl(resourceURI, destinationURI, true, null); //copy the resource, overwriting any resource at the destination
+		try {
+			copyResourceImpl(resourceURI, destinationURI, true, null); //copy the resource, overwriting any resource at the destination
+		} finally {
+			invalidateCachedResourceDescription(destinationURI); //the destination and any descendants may have changed
+		}
 	}
 
 	/**
@@ -1213,7 +1860,11 @@ public final void copyResource(URI resourceURI, URI destinationURI, final Progre
 			copyResourceImpl(resourceURI, destinationSubrepository, destinationURI, true, progressListener); //copy to the subrepository
 			return;
 		}
-		copyResourceImpl(resourceURI, destinationURI, true, progressListener); //copy the resource, overwriting any resource at the destination
+		try {
+			copyResourceImpl(resourceURI, destinationURI, true, progressListener); //copy the resource, overwriting any resource at the destination
+		} finally {
+			invalidateCachedResourceDescription(destinationURI); //the destination and any descendants may have changed
+		}
 	}
 
 	/**
@@ -1241,7 +1892,11 @@ public final void copyResource(URI resourceURI, URI destinationURI, final boolea
 			copyResourceImpl(resourceURI, destinationSubrepository, destinationURI, overwrite, null); //copy to the subrepository
 			return;
 		}
-		copyResourceImpl(resourceURI, destinationURI, overwrite, null);
+		try {
+			copyResourceImpl(resourceURI, destinationURI, overwrite, null);
+		} finally {
+			invalidateCachedResourceDescription(destinationURI); //the destination and any descendants may have changed
+		}
 	}
 
 	/**
@@ -1270,7 +1925,11 @@ public final void copyResource(URI resourceURI, URI destinationURI, final boolea
 			copyResourceImpl(resourceURI, destinationSubrepository, destinationURI, overwrite, progressListener); //copy to the subrepository
 			return;
 		}
-		copyResourceImpl(resourceURI, destinationURI, overwrite, progressListener);
+		try {
+			copyResourceImpl(resourceURI, destinationURI, overwrite, progressListener);
+		} finally {
+			invalidateCachedResourceDescription(destinationURI); //the destination and any descendants may have changed
+		}
 	}
 
 	/**
@@ -1309,7 +1968,11 @@ public final void copyResource(URI resourceURI, final Repository destinationRepo
 		}
 		checkOpen(); //make sure the repository is open
 		if(destinationRepository == this) { //if the resource is being copied to this repository
-			copyResourceImpl(resourceURI, destinationURI, true, null); //delegate to the internal copy method
+			try {
+				copyResourceImpl(resourceURI, destinationURI, true, null); //delegate to the internal copy method
+			} finally {
+				invalidateCachedResourceDescription(destinationURI); //the destination and any descendants may have changed
+			}
 			return;
 		}
 		if(isChild(resourceURI, destinationURI)) {
@@ -1337,7 +2000,11 @@ public final void copyResource(URI resourceURI, final Repository destinationRepo
 		}
 		checkOpen(); //make sure the repository is open
 		if(destinationRepository == this) { //if the resource is being copied to this repository
-			copyResourceImpl(resourceURI, destinationURI, true, progressListener); //delegate to the internal copy method
+			try {
+				copyResourceImpl(resourceURI, destinationURI, true, progressListener); //delegate to the internal copy method
+			} finally {
+				invalidateCachedResourceDescription(destinationURI); //the destination and any descendants may have changed
+			}
 			return;
 		}
 		if(isChild(resourceURI, destinationURI)) {
@@ -1365,7 +2032,11 @@ public final void copyResource(URI resourceURI, final Repository destinationRepo
 		}
 		checkOpen(); //make sure the repository is open
 		if(destinationRepository == this) { //if the resource is being copied to this repository
-			copyResourceImpl(resourceURI, destinationURI, overwrite, null); //delegate to the internal copy method
+			try {
+				copyResourceImpl(resourceURI, destinationURI, overwrite, null); //delegate to the internal copy method
+			} finally {
+				invalidateCachedResourceDescription(destinationURI); //the destination and any descendants may have changed
+			}
 			return;
 		}
 		if(isChild(resourceURI, destinationURI)) {
@@ -1393,7 +2064,11 @@ public final void copyResource(URI resourceURI, final Repository destinationRepo
 		}
 		checkOpen(); //make sure the repository is open
 		if(destinationRepository == this) { //if the resource is being copied to this repository
-			copyResourceImpl(resourceURI, destinationURI, overwrite, progressListener); //delegate to the internal copy method
+			try {
+				copyResourceImpl(resourceURI, destinationURI, overwrite, progressListener); //delegate to the internal copy method
+			} finally {
+				invalidateCachedResourceDescription(destinationURI); //the destination and any descendants may have changed
+			}
 			return;
 		}
 		if(isChild(resourceURI, destinationURI)) {
@@ -1482,10 +2157,19 @@ public final void moveResource(URI resourceURI, URI destinationURI) throws Resou
 		checkOpen(); //make sure the repository is open
 		final Repository destinationSubrepository = getSubrepository(destinationURI); //see if the destination URI lies within a subrepository
 		if(destinationSubrepository != this) { //if the destination URI lies within a subrepository
-			moveResourceImpl(resourceURI, destinationSubrepository, destinationURI, true, null); //move to the subrepository
+			try {
+				moveResourceImpl(resourceURI, destinationSubrepository, destinationURI, true, null); //move to the subrepository
+			} finally {
+				invalidateCachedResourceDescription(resourceURI); //the resource and any descendants may have changed
+			}
 			return;
 		}
-		moveResourceImpl(resourceURI, destinationURI, true, null); //move the resource, overwriting any resource at the destination
+		try {
+			moveResourceImpl(resourceURI, destinationURI, true, null); //move the resource, overwriting any resource at the destination
+		} finally {
+			invalidateCachedResourceDescription(resourceURI); //the resource and any descendants may have changed
+			invalidateCachedResourceDescription(destinationURI); //the destination and any descendants may have changed
+		}
 	}
 
 	/**
@@ -1513,10 +2197,19 @@ public final void moveResource(URI resourceURI, URI destinationURI, final Progre
 		checkOpen(); //make sure the repository is open
 		final Repository destinationSubrepository = getSubrepository(destinationURI); //see if the destination URI lies within a subrepository
 		if(destinationSubrepository != this) { //if the destination URI lies within a subrepository
-			moveResourceImpl(resourceURI, destinationSubrepository, destinationURI, true, progressListener); //move to the subrepository
+			try {
+				moveResourceImpl(resourceURI, destinationSubrepository, destinationURI, true, progressListener); //move to the subrepository
+			} finally {
+				invalidateCachedResourceDescription(resourceURI); //the resource and any descendants may have changed
+			}
 			return;
 		}
-		moveResourceImpl(resourceURI, destinationURI, true, progressListener); //move the resource, overwriting any resource at the destination
+		try {
+			moveResourceImpl(resourceURI, destinationURI, true, progressListener); //move the resource, overwriting any resource at the destination
+		} finally {
+			invalidateCachedResourceDescription(resourceURI); //the resource and any descendants may have changed
+			invalidateCachedResourceDescription(destinationURI); //the destination and any descendants may have changed
+		}
 	}
 
 	/**
@@ -1544,10 +2237,19 @@ public final void moveResource(URI resourceURI, URI destinationURI, final boolea
 		checkOpen(); //make sure the repository is open
 		final Repository destinationSubrepository = getSubrepository(destinationURI); //see if the destination URI lies within a subrepository
 		if(destinationSubrepository != this) { //if the destination URI lies within a subrepository
-			moveResourceImpl(resourceURI, destinationSubrepository, destinationURI, overwrite, null); //move to the subrepository
+			try {
+				moveResourceImpl(resourceURI, destinationSubrepository, destinationURI, overwrite, null); //move to the subrepository
+			} finally {
+				invalidateCachedResourceDescription(resourceURI); //the resource and any descendants may have changed
+			}
 			return;
 		}
-		moveResourceImpl(resourceURI, destinationURI, overwrite, null);
+		try {
+			moveResourceImpl(resourceURI, destinationURI, overwrite, null);
+		} finally {
+			invalidateCachedResourceDescription(resourceURI); //the resource and any descendants may have changed
+			invalidateCachedResourceDescription(destinationURI); //the destination and any descendants may have changed
+		}
 	}
 
 	/**
@@ -1576,10 +2278,19 @@ public final void moveResource(URI resourceURI, URI destinationURI, final boolea
 		checkOpen(); //make sure the repository is open
 		final Repository destinationSubrepository = getSubrepository(destinationURI); //see if the destination URI lies within a subrepository
 		if(destinationSubrepository != this) { //if the destination URI lies within a subrepository
-			moveResourceImpl(resourceURI, destinationSubrepository, destinationURI, overwrite, progressListener); //move to the subrepository
+			try {
+				moveResourceImpl(resourceURI, destinationSubrepository, destinationURI, overwrite, progressListener); //move to the subrepository
+			} finally {
+				invalidateCachedResourceDescription(resourceURI); //the resource and any descendants may have changed
+			}
 			return;
 		}
-		moveResourceImpl(resourceURI, destinationURI, overwrite, progressListener);
+		try {
+			moveResourceImpl(resourceURI, destinationURI, overwrite, progressListener);
+		} finally {
+			invalidateCachedResourceDescription(resourceURI); //the resource and any descendants may have changed
+			invalidateCachedResourceDescription(destinationURI); //the destination and any descendants may have changed
+		}
 	}
 
 	/**
@@ -1626,7 +2337,12 @@ public final void moveResource(URI resourceURI, final Repository destinationRepo
 		}
 		checkOpen(); //make sure the repository is open
 		if(destinationRepository == this) { //if the resource is being copied to this repository
-			moveResourceImpl(resourceURI, destinationURI, true, null); //delegate to the internal move method
+			try {
+				moveResourceImpl(resourceURI, destinationURI, true, null); //delegate to the internal move method
+			} finally {
+				invalidateCachedResourceDescription(resourceURI); //the resource and any descendants may have changed
+				invalidateCachedResourceDescription(destinationURI); //the destination and any descendants may have changed
+			}
 			return;
 		}
 		if(resourceURI.equals(getRootURI())) { //if they try to move the root URI
@@ -1635,7 +2351,11 @@ public final void moveResource(URI resourceURI, final Repository destinationRepo
 		if(isChild(resourceURI, destinationURI)) {
 			throw new IllegalArgumentException("Cannot perform circular move from " + resourceURI + " to " + destinationURI + " even between repositories.");
 		}
-		moveResourceImpl(resourceURI, destinationRepository, destinationURI, true, null);
+		try {
+			moveResourceImpl(resourceURI, destinationRepository, destinationURI, true, null);
+		} finally {
+			invalidateCachedResourceDescription(resourceURI); //the resource and any descendants may have changed
+		}
 	}
 
 	/**
@@ -1657,7 +2377,12 @@ public final void moveResource(URI resourceURI, final Repository destinationRepo
 		}
 		checkOpen(); //make sure the repository is open
 		if(destinationRepository == this) { //if the resource is being copied to this repository
-			moveResourceImpl(resourceURI, destinationURI, true, progressListener); //delegate to the internal move method
+			try {
+				moveResourceImpl(resourceURI, destinationURI, true, progressListener); //delegate to the internal move method
+			} finally {
+				invalidateCachedResourceDescription(resourceURI); //the resource and any descendants may have changed
+				invalidateCachedResourceDescription(destinationURI); //the destination and any descendants may have changed
+			}
 			return;
 		}
 		if(resourceURI.equals(getRootURI())) { //if they try to move the root URI
@@ -1666,7 +2391,11 @@ public final void moveResource(URI resourceURI, final Repository destinationRepo
 		if(isChild(resourceURI, destinationURI)) {
 			throw new IllegalArgumentException("Cannot perform circular move from " + resourceURI + " to " + destinationURI + " even between repositories.");
 		}
-		moveResourceImpl(resourceURI, destinationRepository, destinationURI, true, progressListener);
+		try {
+			moveResourceImpl(resourceURI, destinationRepository, destinationURI, true, progressListener);
+		} finally {
+			invalidateCachedResourceDescription(resourceURI); //the resource and any descendants may have changed
+		}
 	}
 
 	/**
@@ -1688,7 +2417,12 @@ public final void moveResource(URI resourceURI, final Repository destinationRepo
 		}
 		checkOpen(); //make sure the repository is open
 		if(destinationRepository == this) { //if the resource is being copied to this repository
-			moveResourceImpl(resourceURI, destinationURI, overwrite, null); //delegate to the internal move method
+			try {
+				moveResourceImpl(resourceURI, destinationURI, overwrite, null); //delegate to the internal move method
+			} finally {
+				invalidateCachedResourceDescription(resourceURI); //the resource and any descendants may have changed
+				invalidateCachedResourceDescription(destinationURI); //the destination and any descendants may have changed
+			}
 			return;
 		}
 		if(resourceURI.equals(getRootURI())) { //if they try to move the root URI
@@ -1697,7 +2431,11 @@ public final void moveResource(URI resourceURI, final Repository destinationRepo
 		if(isChild(resourceURI, destinationURI)) {
 			throw new IllegalArgumentException("Cannot perform circular move from " + resourceURI + " to " + destinationURI + " even between repositories.");
 		}
-		moveResourceImpl(resourceURI, destinationRepository, destinationURI, overwrite, null);
+		try {
+			moveResourceImpl(resourceURI, destinationRepository, destinationURI, overwrite, null);
+		} finally {
+			invalidateCachedResourceDescription(resourceURI); //the resource and any descendants may have changed
+		}
 	}
 
 	/**
@@ -1719,7 +2457,12 @@ public final void moveResource(URI resourceURI, final Repository destinationRepo
 		}
 		checkOpen(); //make sure the repository is open
 		if(destinationRepository == this) { //if the resource is being copied to this repository
-			moveResourceImpl(resourceURI, destinationURI, overwrite, progressListener); //delegate to the internal move method
+			try {
+				moveResourceImpl(resourceURI, destinationURI, overwrite, progressListener); //delegate to the internal move method
+			} finally {
+				invalidateCachedResourceDescription(resourceURI); //the resource and any descendants may have changed
+				invalidateCachedResourceDescription(destinationURI); //the destination and any descendants may have changed
+			}
 			return;
 		}
 		if(resourceURI.equals(getRootURI())) { //if they try to move the root URI
@@ -1728,7 +2471,11 @@ public final void moveResource(URI resourceURI, final Repository destinationRepo
 		if(isChild(resourceURI, destinationURI)) {
 			throw new IllegalArgumentException("Cannot perform circular move from " + resourceURI + " to " + destinationURI + " even between repositories.");
 		}
-		moveResourceImpl(resourceURI, destinationRepository, destinationURI, overwrite, progressListener);
+		try {
+			moveResourceImpl(resourceURI, destinationRepository, destinationURI, overwrite, progressListener);
+		} finally {
+			invalidateCachedResourceDescription(resourceURI); //the resource and any descendants may have changed
+		}
 	}
 
 	/**
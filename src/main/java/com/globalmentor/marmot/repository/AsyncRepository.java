@@ -0,0 +1,116 @@
+/*
+ * Copyright © 2013 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.marmot.repository;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+import org.urframework.URFResource;
+
+import com.globalmentor.iso.datetime.ISODateTime;
+import com.globalmentor.net.ResourceIOException;
+
+/**
+ * Asynchronous access to the resources of a {@link Repository}.
+ * <p>
+ * Each method returns immediately with a future that is completed when the operation finishes. If the operation fails, the future is completed exceptionally
+ * with the {@link ResourceIOException} that the equivalent {@link Repository} method would have thrown.
+ * </p>
+ * <p>
+ * Returning a future does not imply non-blocking I/O; an implementation may perform the blocking {@link Repository} operation on another thread, as does
+ * {@link ExecutorAsyncRepository}.
+ * </p>
+ * @author Garret Wilson
+ * @see Repository
+ */
+public interface AsyncRepository {
+
+	/** @return The repository being accessed asynchronously. */
+	public Repository getRepository();
+
+	/**
+	 * Determines if the resource at the given URI exists.
+	 * @param resourceURI The URI of the resource to check.
+	 * @return A future indicating whether the resource exists.
+	 * @see Repository#resourceExists(URI)
+	 */
+	public CompletableFuture<Boolean> resourceExists(final URI resourceURI);
+
+	/**
+	 * Retrieves a description of the resource with the given URI.
+	 * @param resourceURI The URI of the resource the description of which should be retrieved.
+	 * @return A future description of the resource with the given URI.
+	 * @see Repository#getResourceDescription(URI)
+	 */
+	public CompletableFuture<URFResource> getResourceDescription(final URI resourceURI);
+
+	/**
+	 * Retrieves descriptions of the resources with the given URIs.
+	 * @param resourceURIs The URIs of the resources the descriptions of which should be retrieved.
+	 * @return A future map of resource descriptions keyed to the given resource URIs.
+	 * @see Repository#getResourceDescriptions(Collection)
+	 */
+	public CompletableFuture<Map<URI, URFResource>> getResourceDescriptions(final Collection<URI> resourceURIs);
+
+	/**
+	 * Retrieves the contents of the resource specified by the given URI.
+	 * @param resourceURI The URI of the resource to access.
+	 * @return The future bytes representing the contents of the resource.
+	 * @see Repository#getResourceContents(URI)
+	 */
+	public CompletableFuture<byte[]> getResourceContents(final URI resourceURI);
+
+	/**
+	 * Determines whether the content of a resource has changed from the version with the given content modified datetime.
+	 * @param resourceURI The URI of the resource to check.
+	 * @param modified The content modified datetime of the known version of the resource.
+	 * @return A future indicating whether the resource content may differ from the known version.
+	 * @see Repository#isResourceModified(URI, ISODateTime)
+	 */
+	public CompletableFuture<Boolean> isResourceModified(final URI resourceURI, final ISODateTime modified);
+
+	/**
+	 * Retrieves immediate child resources of the resource at the given URI that match the given filter to the given depth.
+	 * @param resourceURI The URI of the resource for which sub-resources should be returned.
+	 * @param resourceFilter The filter that determines whether child resources should be included, or <code>null</code> if the child resources should not be
+	 *          filtered.
+	 * @param depth The zero-based depth of child resources which should recursively be retrieved, or {@link Repository#INFINITE_DEPTH} for an infinite depth.
+	 * @return A future list of sub-resource descriptions under the given resource.
+	 * @see Repository#getChildResourceDescriptions(URI, ResourceFilter, int)
+	 */
+	public CompletableFuture<List<URFResource>> getChildResourceDescriptions(final URI resourceURI, final ResourceFilter resourceFilter, final int depth);
+
+	/**
+	 * Creates a new resource with the given description and contents.
+	 * @param resourceURI The reference URI to use to identify the resource.
+	 * @param resourceDescription A description of the resource; the resource URI is ignored.
+	 * @param resourceContents The contents to store in the resource.
+	 * @return A future description of the resource that was created.
+	 * @see Repository#createResource(URI, URFResource, byte[])
+	 */
+	public CompletableFuture<URFResource> createResource(final URI resourceURI, final URFResource resourceDescription, final byte[] resourceContents);
+
+	/**
+	 * Deletes a resource.
+	 * @param resourceURI The reference URI of the resource to delete.
+	 * @return A future that is completed when the resource has been deleted.
+	 * @see Repository#deleteResource(URI)
+	 */
+	public CompletableFuture<Void> deleteResource(final URI resourceURI);
+
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright © 2013 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.marmot.repository;
+
+import com.globalmentor.net.ResourceIOException;
+
+/**
+ * An implementation of a repository that can apply many changes together as a single atomic change.
+ * @author Garret Wilson
+ * @see RepositoryBatch
+ */
+public interface BatchRepository extends Repository {
+
+	/**
+	 * Begins a batch of changes to this repository. No changes are made to the repository until the batch is committed.
+	 * @param message A message describing the changes, or <code>null</code> if a default message should be used.
+	 * @return A new batch for recording changes to this repository.
+	 * @throws IllegalStateException if the repository is not open for access and auto-open is not enabled.
+	 * @throws ResourceIOException if the repository cannot be modified.
+	 */
+	public RepositoryBatch beginBatch(final String message) throws ResourceIOException;
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright © 2013 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.marmot.repository;
+
+import java.io.*;
+
+import static com.globalmentor.java.Conditions.*;
+import static java.util.Objects.*;
+
+/**
+ * An input stream that reads no more than a given number of bytes from a decorated input stream, which is assumed already to be positioned at the start of
+ * the range of content to read. Closing this stream closes the decorated stream.
+ * @author Garret Wilson
+ * @see Repository#getResourceInputStream(java.net.URI, long, long)
+ */
+public class ContentRangeInputStream extends FilterInputStream {
+
+	/** The number of bytes that may still be read. */
+	private long remaining;
+
+	/** @return The number of bytes that may still be read, although fewer may be available if the decorated stream ends first. */
+	public long getRemaining() {
+		return remaining;
+	}
+
+	/** The number of bytes that may still be read when the stream was marked. */
+	private long markRemaining;
+
+	/**
+	 * Decorated input stream and length constructor.
+	 * @param inputStream The input stream to decorate.
+	 * @param length The maximum number of bytes to read from the decorated input stream.
+	 * @throws NullPointerException if the given input stream is <code>null</code>.
+	 * @throws IllegalArgumentException if the given length is negative.
+	 */
+	public ContentRangeInputStream(final InputStream inputStream, final long length) {
+		super(requireNonNull(inputStream, "Input stream cannot be null."));
+		checkArgument(length >= 0, "Invalid content range length {0}.", length);
+		this.remaining = length;
+		this.markRemaining = length;
+	}
+
+	@Override
+	public int read() throws IOException {
+		if(remaining <= 0) { //if we've read the entire range
+			return -1;
+		}
+		final int b = super.read();
+		if(b >= 0) {
+			--remaining;
+		}
+		return b;
+	}
+
+	@Override
+	public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+		if(remaining <= 0) { //if we've read the entire range
+			return length == 0 ? 0 : -1;
+		}
+		final int count = super.read(bytes, offset, (int)Math.min(length, remaining));
+		if(count > 0) {
+			remaining -= count;
+		}
+		return count;
+	}
+
+	@Override
+	public long skip(final long n) throws IOException {
+		final long count = super.skip(Math.min(n, remaining));
+		if(count > 0) {
+			remaining -= count;
+		}
+		return count;
+	}
+
+	@Override
+	public int available() throws IOException {
+		return (int)Math.min(super.available(), remaining);
+	}
+
+	@Override
+	public synchronized void mark(final int readlimit) {
+		super.mark(readlimit);
+		markRemaining = remaining;
+	}
+
+	@Override
+	public synchronized void reset() throws IOException {
+		super.reset();
+		remaining = markRemaining;
+	}
+
+	/**
+	 * Skips the given number of bytes of an input stream, reading bytes if the stream will not skip them. If the stream ends before the given number of bytes
+	 * have been skipped, no error occurs; the stream is simply left at its end.
+	 * @param inputStream The input stream to position.
+	 * @param offset The number of bytes to skip.
+	 * @throws IOException if there is an error skipping bytes in the stream.
+	 */
+	public static void skipFully(final InputStream inputStream, final long offset) throws IOException {
+		long remaining = offset;
+		while(remaining > 0) {
+			final long skipped = inputStream.skip(remaining);
+			if(skipped > 0) {
+				remaining -= skipped;
+			} else { //the stream may not support skipping, or may be at its end; read a byte to find out
+				if(inputStream.read() < 0) { //if we've reached the end of the stream
+					break;
+				}
+				--remaining;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright © 2013 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.marmot.repository;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+import static java.util.Objects.*;
+
+import org.urframework.URFResource;
+
+import com.globalmentor.iso.datetime.ISODateTime;
+import com.globalmentor.net.ResourceIOException;
+
+/**
+ * Asynchronous access to a repository by performing the blocking repository operations using an executor.
+ * <p>
+ * This class does not make repository access non-blocking: each operation in progress occupies one executor thread for its entire duration, including any
+ * network round trips. What it provides is a bound on that cost. Callers do not wait for their results, and the number of operations in progress at any time is
+ * limited by the threads of the executor rather than by the number of callers; further operations wait in the queue of the executor.
+ * </p>
+ * <p>
+ * Some repositories keep reusable request state; {@link com.globalmentor.marmot.repository.webdav.WebDAVRepository}, for example, keeps idle WebDAV resource
+ * handles up to {@link com.globalmentor.marmot.repository.webdav.WebDAVRepository#getMaxIdleWebDAVResources()}. Setting such limits to the number of executor
+ * threads lets each thread reuse a handle. This does not pool network connections, which are managed by the underlying HTTP client.
+ * </p>
+ * <p>
+ * The executor is not shut down by this class.
+ * </p>
+ * @author Garret Wilson
+ */
+public class ExecutorAsyncRepository implements AsyncRepository {
+
+	private final Repository repository;
+
+	@Override
+	public Repository getRepository() {
+		return repository;
+	}
+
+	private final Executor executor;
+
+	/** @return The executor used to perform repository operations. */
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * Repository and executor constructor.
+	 * @param repository The repository to access asynchronously.
+	 * @param executor The executor used to perform repository operations.
+	 * @throws NullPointerException if the given repository and/or executor is <code>null</code>.
+	 */
+	public ExecutorAsyncRepository(final Repository repository, final Executor executor) {
+		this.repository = requireNonNull(repository, "Repository cannot be null.");
+		this.executor = requireNonNull(executor, "Executor cannot be null.");
+	}
+
+	/**
+	 * An operation on a repository that may throw a resource I/O exception.
+	 * @param <T> The type of result of the operation.
+	 * @author Garret Wilson
+	 */
+	protected interface RepositoryOperation<T> {
+
+		/**
+		 * Performs the operation.
+		 * @return The result of the operation.
+		 * @throws ResourceIOException if there is an error performing the operation.
+		 */
+		public T perform() throws ResourceIOException;
+	}
+
+	/**
+	 * Performs a repository operation asynchronously using the executor.
+	 * @param <T> The type of result of the operation.
+	 * @param operation The operation to perform.
+	 * @return A future that will be completed with the result of the operation, or completed exceptionally with any exception thrown by the operation.
+	 */
+	protected <T> CompletableFuture<T> performAsync(final RepositoryOperation<T> operation) {
+		return CompletableFuture.supplyAsync(new Supplier<T>() {
+
+			@Override
+			public T get() {
+				try {
+					return operation.perform();
+				} catch(final ResourceIOException resourceIOException) {
+					throw new CompletionException(resourceIOException); //the future will be completed exceptionally with the resource I/O exception as its cause
+				}
+			}
+		}, getExecutor());
+	}
+
+	@Override
+	public CompletableFuture<Boolean> resourceExists(final URI resourceURI) {
+		return performAsync(new RepositoryOperation<Boolean>() {
+
+			@Override
+			public Boolean perform() throws ResourceIOException {
+				return getRepository().resourceExists(resourceURI);
+			}
+		});
+	}
+
+	@Override
+	public CompletableFuture<URFResource> getResourceDescription(final URI resourceURI) {
+		return performAsync(new RepositoryOperation<URFResource>() {
+
+			@Override
+			public URFResource perform() throws ResourceIOException {
+				return getRepository().getResourceDescription(resourceURI);
+			}
+		});
+	}
+
+	@Override
+	public CompletableFuture<Map<URI, URFResource>> getResourceDescriptions(final Collection<URI> resourceURIs) {
+		return performAsync(new RepositoryOperation<Map<URI, URFResource>>() {
+
+			@Override
+			public Map<URI, URFResource> perform() throws ResourceIOException {
+				return getRepository().getResourceDescriptions(resourceURIs);
+			}
+		});
+	}
+
+	@Override
+	public CompletableFuture<byte[]> getResourceContents(final URI resourceURI) {
+		return performAsync(new RepositoryOperation<byte[]>() {
+
+			@Override
+			public byte[] perform() throws ResourceIOException {
+				return getRepository().getResourceContents(resourceURI);
+			}
+		});
+	}
+
+	@Override
+	public CompletableFuture<Boolean> isResourceModified(final URI resourceURI, final ISODateTime modified) {
+		return performAsync(new RepositoryOperation<Boolean>() {
+
+			@Override
+			public Boolean perform() throws ResourceIOException {
+				return getRepository().isResourceModified(resourceURI, modified);
+			}
+		});
+	}
+
+	@Override
+	public CompletableFuture<List<URFResource>> getChildResourceDescriptions(final URI resourceURI, final ResourceFilter resourceFilter, final int depth) {
+		return performAsync(new RepositoryOperation<List<URFResource>>() {
+
+			@Override
+			public List<URFResource> perform() throws ResourceIOException {
+				return getRepository().getChildResourceDescriptions(resourceURI, resourceFilter, depth);
+			}
+		});
+	}
+
+	@Override
+	public CompletableFuture<URFResource> createResource(final URI resourceURI, final URFResource resourceDescription, final byte[] resourceContents) {
+		return performAsync(new RepositoryOperation<URFResource>() {
+
+			@Override
+			public URFResource perform() throws ResourceIOException {
+				return getRepository().createResource(resourceURI, resourceDescription, resourceContents);
+			}
+		});
+	}
+
+	@Override
+	public CompletableFuture<Void> deleteResource(final URI resourceURI) {
+		return performAsync(new RepositoryOperation<Void>() {
+
+			@Override
+			public Void perform() throws ResourceIOException {
+				getRepository().deleteResource(resourceURI);
+				return null;
+			}
+		});
+	}
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright © 2013 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.marmot.repository;
+
+import java.net.URI;
+import java.util.*;
+
+import static java.util.Collections.*;
+import static java.util.Objects.*;
+
+import org.urframework.URFResource;
+
+import com.globalmentor.net.ResourceIOException;
+
+/**
+ * Indicates that the properties of one or more resources could not be altered during an alteration of several resources. The descriptions of the resources
+ * that were successfully altered are still available, so that the caller knows which alterations took effect.
+ * @author Garret Wilson
+ * @see Repository#alterResourceProperties(Map)
+ */
+public class PartialResourceAlterationException extends ResourceIOException {
+
+	private static final long serialVersionUID = 1L;
+
+	/** The updated descriptions of the resources that were altered, keyed to the resource URIs. */
+	private final Map<URI, URFResource> alteredResourceDescriptions;
+
+	/** @return The updated descriptions of the resources that were altered, keyed to the resource URIs. */
+	public Map<URI, URFResource> getAlteredResourceDescriptions() {
+		return alteredResourceDescriptions;
+	}
+
+	/**
+	 * Cause and altered resource descriptions constructor.
+	 * @param cause The first error that occurred, which indicates the resource that could not be altered.
+	 * @param alteredResourceDescriptions The updated descriptions of the resources that were altered, keyed to the resource URIs.
+	 * @throws NullPointerException if the given cause and/or resource descriptions is <code>null</code>.
+	 */
+	public PartialResourceAlterationException(final ResourceIOException cause, final Map<URI, URFResource> alteredResourceDescriptions) {
+		super(requireNonNull(cause, "Cause cannot be null.").getResourceURI(), cause);
+		this.alteredResourceDescriptions = unmodifiableMap(new LinkedHashMap<URI, URFResource>(alteredResourceDescriptions));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @return The first error that occurred, which indicates the resource that could not be altered.
+	 */
+	@Override
+	public synchronized ResourceIOException getCause() {
+		return (ResourceIOException)super.getCause();
+	}
+
+}
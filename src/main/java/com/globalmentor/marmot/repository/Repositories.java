@@ -18,9 +18,11 @@
 
 import static com.globalmentor.java.Appendables.*;
 import static com.globalmentor.java.Conditions.*;
+import static com.globalmentor.net.URIs.*;
 
 import java.io.*;
 import java.net.URI;
+import java.util.*;
 
 import org.urframework.*;
 
@@ -31,6 +33,37 @@
  */
 public class Repositories {
 
+	/**
+	 * Creates a deep copy of a resource description in memory. Property values that have properties of their own are copied as well, recursively, so that the
+	 * copy may be modified without affecting the original description or the descriptions of its property values, and vice versa. Property values without
+	 * properties, which are identified solely by their URIs, are shared.
+	 * @param resourceDescription The resource description to copy.
+	 * @return A copy of the given resource description.
+	 * @throws NullPointerException if the given resource description is <code>null</code>.
+	 */
+	public static URFResource copyResourceDescription(final URFResource resourceDescription) {
+		return copyResourceDescription(resourceDescription, new IdentityHashMap<URFResource, URFResource>());
+	}
+
+	/**
+	 * Creates a deep copy of a resource description in memory, reusing the copies already made of resources referred to more than once.
+	 * @param resourceDescription The resource description to copy.
+	 * @param copies The copies already made, keyed to the resources copied.
+	 * @return A copy of the given resource description.
+	 */
+	private static URFResource copyResourceDescription(final URFResource resourceDescription, final Map<URFResource, URFResource> copies) {
+		URFResource copy = copies.get(resourceDescription);
+		if(copy == null) {
+			copy = new DefaultURFResource(resourceDescription.getURI());
+			copies.put(resourceDescription, copy); //note the copy before copying the property values, in case a value refers back to this resource
+			for(final URFProperty property : resourceDescription.getProperties()) {
+				final URFResource value = property.getValue();
+				copy.addPropertyValue(property.getPropertyURI(), value.hasProperties() ? copyResourceDescription(value, copies) : value);
+			}
+		}
+		return copy;
+	}
+
 	/**
 	 * Prints the given resource to the given appendable.
 	 * @param <A> The type of appendable.
@@ -88,7 +121,8 @@ public static <A extends Appendable> A print(final Repository repository, final
 	}
 
 	/**
-	 * Prints the provided resource and all ancestors in the repository to the given appendable.
+	 * Prints the provided resource and all ancestors in the repository to the given appendable. Descendants are printed as they are retrieved from the
+	 * repository, so that the resource tree is never held in memory.
 	 * @param <A> The type of appendable.
 	 * @param repository The repository in which the resource lies.
 	 * @param resource The resource to print.
@@ -101,16 +135,41 @@ public static <A extends Appendable> A print(final Repository repository, final
 	 */
 	public static <A extends Appendable> A print(final Repository repository, final URFResource resource, final int level, final A appendable,
 			final URFTURFGenerator urfTURFGenerator) throws IOException {
+		printResource(resource, level, appendable, urfTURFGenerator);
+		final URI resourceURI = resource.getURI();
+		repository.visitChildResourceDescriptions(resourceURI, Repository.INFINITE_DEPTH, new ResourceVisitor() { //print each descendant as soon as it is retrieved
+
+			@Override
+			public boolean visit(final URFResource childResourceDescription) throws IOException {
+				final String relativePath = resourceURI.relativize(childResourceDescription.getURI()).getRawPath(); //determine how far down the hierarchy this descendant lies
+				int childLevel = level;
+				for(int i = relativePath.length() - 1; i >= 0; --i) { //count the path segments
+					if(i == relativePath.length() - 1 || relativePath.charAt(i) == PATH_SEPARATOR) { //the last character always ends a segment
+						++childLevel;
+					}
+				}
+				printResource(childResourceDescription, childLevel, appendable, urfTURFGenerator);
+				return true;
+			}
+		});
+		return appendable;
+	}
+
+	/**
+	 * Prints a single resource at the given level, without its children.
+	 * @param resource The resource to print.
+	 * @param level The zero-based level of the resource to be printed.
+	 * @param appendable The appendable to which the resource should be printed.
+	 * @param urfTURFGenerator The TURF generator.
+	 * @throws NullPointerException if the given resource, appendable, and/or generator is <code>null</code>.
+	 */
+	private static void printResource(final URFResource resource, final int level, final Appendable appendable, final URFTURFGenerator urfTURFGenerator) {
 		try {
 			append(appendable, '\t', level); //indent
 			urfTURFGenerator.generateResources(appendable, false, resource).append('\n');
 		} catch(final IOException ioException) {
 			throw unexpected(ioException);
 		}
-		for(final URFResource childResourceDescription : repository.getChildResourceDescriptions(resource.getURI())) {
-			print(repository, childResourceDescription, level + 1, appendable, urfTURFGenerator);
-		}
-		return appendable;
 	}
 
 }
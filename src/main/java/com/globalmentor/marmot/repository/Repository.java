@@ -18,6 +18,7 @@
 
 import java.io.*;
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.*;
 
@@ -176,6 +177,18 @@ public interface Repository extends Disposable {
 	 */
 	public ContentType getExtensionContentType(final String extension);
 
+	/** @return The mapping of content types associated with lowercase extensions, including the default mappings unless they have been replaced. */
+	public Map<String, ContentType> getExtensionContentTypes();
+
+	/**
+	 * Sets the extension content type associations to those specified in the given map. The current associations, including the default associations, will be
+	 * lost.
+	 * @param extensionContentTypes The associations of content types to extensions, without regard to case; a <code>null</code> extension indicates resources
+	 *          that have no extension.
+	 * @throws NullPointerException if a given content type is <code>null</code>.
+	 */
+	public void setExtensionContentTypes(final Map<String, ContentType> extensionContentTypes);
+
 	/**
 	 * Associates the given charset with the base media type of the given content type. Any association will only override resources that do not explicitly have a
 	 * charset specified. Any parameters of the given content type will be ignored.
@@ -306,6 +319,20 @@ public interface Repository extends Disposable {
 	 */
 	public URFResource getResourceDescription(final URI resourceURI) throws ResourceIOException;
 
+	/**
+	 * Retrieves descriptions of the resources with the given URIs. Implementations may retrieve the descriptions of related resources, such as siblings within
+	 * the same collection, using fewer requests than would be needed to retrieve each description separately.
+	 * @param resourceURIs The URIs of the resources the descriptions of which should be retrieved.
+	 * @return A map of descriptions of the resources, keyed to the normalized resource URIs and iterated in the order the URIs were given.
+	 * @throws NullPointerException if the given collection of URIs is <code>null</code> or contains a <code>null</code> URI.
+	 * @throws IllegalArgumentException if one of the given URIs designates a resource that does not reside inside this repository.
+	 * @throws IllegalStateException if the repository is not open for access and auto-open is not enabled.
+	 * @throws ResourceNotFoundException if one of the identified resources does not exist.
+	 * @throws ResourceIOException if there is an error accessing the repository.
+	 * @see #getResourceDescription(URI)
+	 */
+	public Map<URI, URFResource> getResourceDescriptions(final Collection<URI> resourceURIs) throws ResourceIOException;
+
 	/**
 	 * Retrieves the contents of the resource specified by the given URI.
 	 * <p>
@@ -321,6 +348,20 @@ public interface Repository extends Disposable {
 	 */
 	public byte[] getResourceContents(final URI resourceURI) throws ResourceIOException;
 
+	/**
+	 * Retrieves the contents of the resource specified by the given URI as a read-only byte buffer. Repositories backed by files may map the contents into
+	 * memory rather than copying them into the heap, so the returned buffer may be a direct buffer. The buffer's position will be zero and its limit will be
+	 * the length of the contents.
+	 * @param resourceURI The URI of the resource to access.
+	 * @return A read-only buffer containing the contents of the resource represented by the given URI.
+	 * @throws IllegalArgumentException if the given URI designates a resource that does not reside inside this repository.
+	 * @throws IllegalArgumentException if the given resource is too large to be placed in a byte buffer.
+	 * @throws IllegalStateException if the repository is not open for access and auto-open is not enabled.
+	 * @throws ResourceNotFoundException if the identified resource does not exist.
+	 * @throws ResourceIOException if there is an error accessing the resource.
+	 */
+	public ByteBuffer getResourceContentBuffer(final URI resourceURI) throws ResourceIOException;
+
 	/**
 	 * Gets an input stream to the contents of the resource specified by the given URI.
 	 * @param resourceURI The URI of the resource to access.
@@ -332,6 +373,68 @@ public interface Repository extends Disposable {
 	 */
 	public InputStream getResourceInputStream(final URI resourceURI) throws ResourceIOException;
 
+	/**
+	 * Gets an input stream to a range of the contents of the resource specified by the given URI. If the offset lies beyond the end of the contents, the
+	 * returned input stream will be empty.
+	 * @param resourceURI The URI of the resource to access.
+	 * @param offset The number of bytes at the start of the contents to skip.
+	 * @param length The maximum number of bytes to read, or <code>-1</code> if all the contents after the offset should be read.
+	 * @return An input stream to the given range of the resource represented by the given URI.
+	 * @throws IllegalArgumentException if the given URI designates a resource that does not reside inside this repository.
+	 * @throws IllegalArgumentException if the given offset is negative or the given length is less than <code>-1</code>.
+	 * @throws IllegalStateException if the repository is not open for access and auto-open is not enabled.
+	 * @throws ResourceNotFoundException if the identified resource does not exist.
+	 * @throws ResourceIOException if there is an error accessing the resource.
+	 */
+	public InputStream getResourceInputStream(final URI resourceURI, final long offset, final long length) throws ResourceIOException;
+
+	/**
+	 * Determines whether the contents of the resource specified by the given URI have been modified from the version with the given content modified datetime,
+	 * such as the modified datetime of a previously retrieved description of the resource. Repositories that track validators such as entity tags may be able
+	 * to make this determination without retrieving the resource description or contents.
+	 * @param resourceURI The URI of the resource to check.
+	 * @param modified The content modified datetime of the known version of the resource.
+	 * @return <code>true</code> if the contents of the resource may have changed from the known version.
+	 * @throws NullPointerException if the given modified datetime is <code>null</code>.
+	 * @throws IllegalArgumentException if the given URI designates a resource that does not reside inside this repository.
+	 * @throws IllegalStateException if the repository is not open for access and auto-open is not enabled.
+	 * @throws ResourceNotFoundException if the identified resource does not exist.
+	 * @throws ResourceIOException if there is an error accessing the resource.
+	 * @see Content#MODIFIED_PROPERTY_URI
+	 */
+	public boolean isResourceModified(final URI resourceURI, final ISODateTime modified) throws ResourceIOException;
+
+	/**
+	 * Gets an input stream to the contents of the resource specified by the given URI only if the contents have been modified from the version with the given
+	 * content modified datetime.
+	 * @param resourceURI The URI of the resource to access.
+	 * @param modified The content modified datetime of the known version of the resource.
+	 * @return An input stream to the resource represented by the given URI, or <code>null</code> if the contents have not been modified.
+	 * @throws NullPointerException if the given modified datetime is <code>null</code>.
+	 * @throws IllegalArgumentException if the given URI designates a resource that does not reside inside this repository.
+	 * @throws IllegalStateException if the repository is not open for access and auto-open is not enabled.
+	 * @throws ResourceNotFoundException if the identified resource does not exist.
+	 * @throws ResourceIOException if there is an error accessing the resource.
+	 * @see #isResourceModified(URI, ISODateTime)
+	 */
+	public InputStream getResourceInputStreamIfModified(final URI resourceURI, final ISODateTime modified) throws ResourceIOException;
+
+	/**
+	 * Determines a digest of the contents of the resource specified by the given URI. Where possible the repository will use a checksum it already maintains
+	 * rather than retrieving the contents of the resource.
+	 * @param resourceURI The URI of the resource to access.
+	 * @param algorithm The name of the message digest algorithm, such as <code>SHA-256</code>.
+	 * @return The digest of the contents of the resource represented by the given URI.
+	 * @throws NullPointerException if the given algorithm is <code>null</code>.
+	 * @throws IllegalArgumentException if the given URI designates a resource that does not reside inside this repository.
+	 * @throws IllegalArgumentException if the given message digest algorithm is not supported.
+	 * @throws IllegalStateException if the repository is not open for access and auto-open is not enabled.
+	 * @throws ResourceNotFoundException if the identified resource does not exist.
+	 * @throws ResourceIOException if there is an error accessing the resource.
+	 * @see java.security.MessageDigest
+	 */
+	public byte[] getResourceContentDigest(final URI resourceURI, final String algorithm) throws ResourceIOException;
+
 	/**
 	 * Gets an output stream to the contents of the resource specified by the given URI. The content modified datetime is set to the current date and time. A
 	 * {@link ResourceNotFoundException} should be generated if the resource does not exist, even for read-only repositories. If the repository is read-only, this
@@ -440,6 +543,51 @@ public interface Repository extends Disposable {
 	 */
 	public List<URFResource> getChildResourceDescriptions(final URI resourceURI, final ResourceFilter resourceFilter, final int depth) throws ResourceIOException;
 
+	/**
+	 * Visits child resources of the resource at the given URI, providing each description to the visitor as soon as it is retrieved rather than collecting the
+	 * descriptions in a list. A collection is visited before its own children.
+	 * <p>
+	 * If any repositories are mapped as children of the identified resource, they will be visited as well, with their descriptions retrieved from the respective
+	 * subrepository.
+	 * </p>
+	 * @param resourceURI The URI of the resource the sub-resources of which should be visited.
+	 * @param depth The zero-based depth of child resources which should recursively be visited, or {@link #INFINITE_DEPTH} for an infinite depth.
+	 * @param visitor The visitor to visit each child resource description.
+	 * @return <code>true</code> if all child resources were visited, or <code>false</code> if the visitor requested that traversal stop.
+	 * @throws NullPointerException if the given visitor is <code>null</code>.
+	 * @throws IllegalArgumentException if the given URI designates a resource that does not reside inside this repository.
+	 * @throws IllegalArgumentException if the given depth is negative and is not {@link #INFINITE_DEPTH}.
+	 * @throws IllegalStateException if the repository is not open for access and auto-open is not enabled.
+	 * @throws ResourceIOException if there is an error accessing the repository.
+	 * @throws IOException if the visitor throws an I/O exception.
+	 * @see #getPathRepositories()
+	 */
+	public boolean visitChildResourceDescriptions(final URI resourceURI, final int depth, final ResourceVisitor visitor) throws IOException;
+
+	/**
+	 * Visits child resources of the resource at the given URI, providing each description to the visitor as soon as it is retrieved rather than collecting the
+	 * descriptions in a list. A collection is visited before its own children. The children of a collection that does not pass the filter are not visited.
+	 * <p>
+	 * If any repositories are mapped as children of the identified resource, they will be visited as well, with their descriptions retrieved from the respective
+	 * subrepository.
+	 * </p>
+	 * @param resourceURI The URI of the resource the sub-resources of which should be visited.
+	 * @param resourceFilter The filter that determines whether child resources should be included, or <code>null</code> if the child resources should not be
+	 *          filtered.
+	 * @param depth The zero-based depth of child resources which should recursively be visited, or {@link #INFINITE_DEPTH} for an infinite depth.
+	 * @param visitor The visitor to visit each child resource description.
+	 * @return <code>true</code> if all child resources were visited, or <code>false</code> if the visitor requested that traversal stop.
+	 * @throws NullPointerException if the given visitor is <code>null</code>.
+	 * @throws IllegalArgumentException if the given URI designates a resource that does not reside inside this repository.
+	 * @throws IllegalArgumentException if the given depth is negative and is not {@link #INFINITE_DEPTH}.
+	 * @throws IllegalStateException if the repository is not open for access and auto-open is not enabled.
+	 * @throws ResourceIOException if there is an error accessing the repository.
+	 * @throws IOException if the visitor throws an I/O exception.
+	 * @see #getPathRepositories()
+	 */
+	public boolean visitChildResourceDescriptions(final URI resourceURI, final ResourceFilter resourceFilter, final int depth, final ResourceVisitor visitor)
+			throws IOException;
+
 	/**
 	 * Creates all the parent resources necessary for a resource to exist at the given URI. If any parent resources already exist, they will not be replaced.
 	 * @param resourceURI The reference URI of a resource which may not exist.
@@ -621,6 +769,19 @@ public interface Repository extends Disposable {
 	 */
 	public URFResource alterResourceProperties(URI resourceURI, final URFResourceAlteration resourceAlteration) throws ResourceIOException;
 
+	/**
+	 * Alters properties of several resources. Repositories may perform the alterations concurrently or otherwise more efficiently than altering each resource
+	 * separately. If the properties of some resource cannot be altered, the other alterations are still attempted before the error is reported. The error is
+	 * reported as a {@link PartialResourceAlterationException}, the cause of which is the first error that occurred (e.g. a {@link ResourceNotFoundException})
+	 * and which provides the descriptions of the resources that were altered.
+	 * @param resourceAlterations The specifications of the alterations to be performed, keyed to the reference URIs of the resources.
+	 * @return The updated descriptions of the resources, keyed to the normalized resource URIs in the iteration order of the given alterations.
+	 * @throws NullPointerException if the given map, or one of the resource URIs or resource alterations, is <code>null</code>.
+	 * @throws PartialResourceAlterationException if the properties of one or more of the resources could not be altered.
+	 * @throws ResourceIOException if there is an error accessing the repository.
+	 */
+	public Map<URI, URFResource> alterResourceProperties(final Map<URI, URFResourceAlteration> resourceAlterations) throws ResourceIOException;
+
 	//intra-repository copy
 
 	/**
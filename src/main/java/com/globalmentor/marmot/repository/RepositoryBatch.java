@@ -0,0 +1,109 @@
+/*
+ * Copyright © 2013 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.marmot.repository;
+
+import java.io.OutputStream;
+import java.net.URI;
+
+import org.urframework.*;
+
+import com.globalmentor.net.*;
+
+/**
+ * A set of changes to a repository that are recorded and then applied together as a single atomic change when the batch is committed. Changes recorded in a
+ * batch are not visible in the repository until the batch has been committed; if committing fails, none of the changes are made.
+ * <p>
+ * Resources are created, altered, and deleted in hierarchical order when the batch is committed, regardless of the order in which the changes were recorded; a
+ * collection being created in the batch will therefore exist before its child resources are created. Each resource may only be changed once in a batch, except
+ * that a resource may be deleted and then created again.
+ * </p>
+ * <p>
+ * A batch is not thread-safe.
+ * </p>
+ * @author Garret Wilson
+ * @see BatchRepository#beginBatch(String)
+ */
+public interface RepositoryBatch {
+
+	/** @return The repository to which the changes will be applied. */
+	public Repository getRepository();
+
+	/**
+	 * Records the creation of a new resource with the given description and returns an output stream for writing the contents of the resource. If a resource
+	 * already exists at the given URI when the batch is committed it will be replaced. The returned output stream must be closed before the batch is committed.
+	 * @param resourceURI The reference URI to use to identify the resource.
+	 * @param resourceDescription A description of the resource; the resource URI is ignored.
+	 * @return An output stream for storing the contents of the resource.
+	 * @throws NullPointerException if the given resource URI and/or resource description is <code>null</code>.
+	 * @throws IllegalArgumentException if the given URI designates a resource that does not reside inside the repository.
+	 * @throws IllegalStateException if the batch has already been committed or discarded, or if the resource has already been changed in the batch.
+	 * @throws ResourceIOException if the resource creation could not be recorded.
+	 */
+	public OutputStream createResource(final URI resourceURI, final URFResource resourceDescription) throws ResourceIOException;
+
+	/**
+	 * Records the creation of a new resource with the given description and contents. If a resource already exists at the given URI when the batch is committed
+	 * it will be replaced.
+	 * @param resourceURI The reference URI to use to identify the resource.
+	 * @param resourceDescription A description of the resource; the resource URI is ignored.
+	 * @param resourceContents The contents to store in the resource.
+	 * @throws NullPointerException if the given resource URI, resource description, and/or resource contents is <code>null</code>.
+	 * @throws IllegalArgumentException if the given URI designates a resource that does not reside inside the repository.
+	 * @throws IllegalStateException if the batch has already been committed or discarded, or if the resource has already been changed in the batch.
+	 * @throws ResourceIOException if the resource creation could not be recorded.
+	 */
+	public void createResource(final URI resourceURI, final URFResource resourceDescription, final byte[] resourceContents) throws ResourceIOException;
+
+	/**
+	 * Records the alteration of the properties of a resource. The resource must exist when the batch is committed.
+	 * @param resourceURI The reference URI of the resource.
+	 * @param resourceAlteration The specification of the alterations to be performed on the resource.
+	 * @throws NullPointerException if the given resource URI and/or resource alteration is <code>null</code>.
+	 * @throws IllegalArgumentException if the given URI designates a resource that does not reside inside the repository.
+	 * @throws IllegalStateException if the batch has already been committed or discarded, or if the resource has already been changed in the batch.
+	 */
+	public void alterResourceProperties(final URI resourceURI, final URFResourceAlteration resourceAlteration);
+
+	/**
+	 * Records the deletion of a resource. If no resource exists at the given URI when the batch is committed, no action occurs for that resource.
+	 * @param resourceURI The reference URI of the resource to delete.
+	 * @throws NullPointerException if the given resource URI is <code>null</code>.
+	 * @throws IllegalArgumentException if the given URI designates a resource that does not reside inside the repository.
+	 * @throws IllegalArgumentException if the given URI represents the root of the repository.
+	 * @throws IllegalStateException if the batch has already been committed or discarded, if the resource has already been changed in the batch, or if a
+	 *           descendant of the resource has been changed in the batch.
+	 */
+	public void deleteResource(final URI resourceURI);
+
+	/** @return The number of resources changed in the batch. */
+	public int getSize();
+
+	/**
+	 * Applies all the recorded changes to the repository as a single atomic change. Once committed, no more changes may be recorded.
+	 * @throws IllegalStateException if the batch has already been committed or discarded, or if the contents of a created resource are still being written.
+	 * @throws ResourceNotFoundException if a resource the properties of which were to be altered does not exist.
+	 * @throws ResourceIOException if the changes could not be applied; in this case none of the changes are made.
+	 */
+	public void commit() throws ResourceIOException;
+
+	/**
+	 * Discards all the recorded changes without applying them, releasing any resources used for recording them. Discarding a batch that has already been
+	 * committed or discarded has no effect.
+	 */
+	public void discard();
+
+}
@@ -16,12 +16,21 @@
 
 package com.globalmentor.marmot.repository;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.*;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import static com.globalmentor.java.Bytes.*;
+import static com.globalmentor.java.Conditions.*;
 import static java.util.Objects.*;
 
 import org.urframework.*;
@@ -33,6 +42,7 @@
 
 import com.globalmentor.lex.Identifier;
 import com.globalmentor.log.*;
+import com.globalmentor.marmot.Marmot;
 import com.globalmentor.marmot.repository.Repository;
 import static com.globalmentor.net.URIs.*;
 
@@ -52,6 +62,32 @@
  * <p>
  * Synchronization occurs on three levels: individual resources (i.e. orphans), metadata, and content, each of which can have a different resolution specified.
  * </p>
+ * <p>
+ * If a thread count greater than one is specified, sibling resources are synchronized concurrently using a work-stealing {@link ForkJoinPool}, optionally
+ * limiting the number of resources being synchronized at the same time in any one repository. Each resource is resolved exactly as it would be in serial
+ * synchronization. The log messages for each resource are buffered until the resource has been resolved, and are then reported together in the order they
+ * were logged, prefixed with the path of the resource, so that the messages of concurrently synchronized resources are never interleaved and the messages of
+ * a resource always follow those of its ancestors. Only the messages of the resources currently being resolved are kept in memory. If synchronizing any
+ * resource fails, no further resources are synchronized, and synchronization ends once the resources already being synchronized are finished.
+ * </p>
+ * <p>
+ * If a manifest file is specified, the state of each synchronized pair of resources is recorded in a {@link SynchronizationManifest} and saved after
+ * synchronization. On the next synchronization with the same settings, resources the states of which have not changed since they were recorded are not
+ * compared again. If both unchanged collections provide a {@link Marmot#TREE_REVISION_PROPERTY_URI} indicating that nothing beneath them has changed, as
+ * Subversion repositories do, their children are not even retrieved. Otherwise the children of each collection are still listed and described in both
+ * repositories, and the manifest only prevents unchanged resources from being compared, notably avoiding determining their content digests again.
+ * </p>
+ * <p>
+ * If an orphan collection is copied to a {@link BatchRepository}, the entire tree of the collection is copied in a single batch, so that the other repository
+ * is changed only once rather than once for each resource in the tree. The copied children are then synchronized as usual.
+ * </p>
+ * <p>
+ * Similarly, if the destination repository is a {@link BatchRepository}, the changes to the children of each synchronized collection in the destination are
+ * recorded in a single batch for the collection: orphans copied or deleted, content replaced, and metadata altered. Changes to the source, which only occur for
+ * the less common resolutions such as {@link Resolution#RESTORE}, are made directly. During parallel synchronization the children are still resolved
+ * concurrently, recording their changes in the shared batch, and the batch is committed once all of them have been resolved. Only then are the descendants of
+ * the child collections synchronized, concurrently as well, and the manifest updated with the state of changed children.
+ * </p>
  * @author Garret Wilson
  */
 public class RepositorySynchronizer {
@@ -190,6 +226,97 @@ public void setForceWriteMetadata(final boolean forceWriteMetadata) {
 		this.forceWriteMetadata = forceWriteMetadata;
 	}
 
+	/** The default number of threads used for synchronization. */
+	public static final int DEFAULT_THREAD_COUNT = 1;
+
+	/** The number of threads used for synchronization; a value of one indicates serial synchronization. */
+	private int threadCount = DEFAULT_THREAD_COUNT;
+
+	/** @return The number of threads used for synchronization; a value of one indicates serial synchronization. */
+	public int getThreadCount() {
+		return threadCount;
+	}
+
+	/**
+	 * Sets the number of threads used for synchronization. If more than one thread is specified, sibling resources will be synchronized concurrently.
+	 * @param threadCount The number of threads used for synchronization; a value of one indicates serial synchronization.
+	 * @throws IllegalArgumentException if the given thread count is not positive.
+	 */
+	public void setThreadCount(final int threadCount) {
+		checkArgument(threadCount > 0, "Invalid thread count {0}.", threadCount);
+		this.threadCount = threadCount;
+	}
+
+	/** The maximum number of resources synchronized concurrently in each repository, or -1 if only the thread count limits concurrency. */
+	private int repositoryConcurrency = -1;
+
+	/** @return The maximum number of resources synchronized concurrently in each repository, or -1 if only the thread count limits concurrency. */
+	public int getRepositoryConcurrency() {
+		return repositoryConcurrency;
+	}
+
+	/**
+	 * Sets the maximum number of resources synchronized concurrently in each repository. This setting only has an effect if the thread count is greater than
+	 * one, and allows a repository with limited capacity, such as a remote server, to be protected from too many simultaneous requests.
+	 * @param repositoryConcurrency The maximum number of resources synchronized concurrently in each repository, or -1 if only the thread count limits
+	 *          concurrency.
+	 * @throws IllegalArgumentException if the given concurrency is not positive and not -1.
+	 * @see #getThreadCount()
+	 */
+	public void setRepositoryConcurrency(final int repositoryConcurrency) {
+		checkArgument(repositoryConcurrency > 0 || repositoryConcurrency == -1, "Invalid repository concurrency {0}.", repositoryConcurrency);
+		this.repositoryConcurrency = repositoryConcurrency;
+	}
+
+	/** The file in which the synchronization manifest is stored between synchronizations, or <code>null</code> if no manifest is used. */
+	private File manifestFile = null;
+
+	/** @return The file in which the synchronization manifest is stored between synchronizations, or <code>null</code> if no manifest is used. */
+	public File getManifestFile() {
+		return manifestFile;
+	}
+
+	/**
+	 * Sets the file in which the synchronization manifest is stored between synchronizations. The manifest is loaded before synchronization if the file exists,
+	 * and saved after successful synchronization unless this is a test run.
+	 * @param manifestFile The file in which the synchronization manifest is stored between synchronizations, or <code>null</code> if no manifest is used.
+	 */
+	public void setManifestFile(final File manifestFile) {
+		this.manifestFile = manifestFile;
+	}
+
+	/** The algorithm for comparing content digests, or <code>null</code> if content is compared by length and modified time. */
+	private String contentDigestAlgorithm = null;
+
+	/** @return The algorithm for comparing content digests, or <code>null</code> if content is compared by length and modified time. */
+	public String getContentDigestAlgorithm() {
+		return contentDigestAlgorithm;
+	}
+
+	/**
+	 * Sets the algorithm for comparing content digests. If an algorithm is specified, resources of the same length are considered synchronized if and only if the
+	 * digests of their contents are equal, regardless of their modified times. Repositories will use checksums they already maintain where possible, and if a
+	 * manifest is used, digests are recorded in the manifest so that they need not be determined again for resources that have not changed.
+	 * @param contentDigestAlgorithm The algorithm for comparing content digests, such as <code>SHA-256</code>, or <code>null</code> if content should be compared
+	 *          by length and modified time.
+	 * @see Repository#getResourceContentDigest(URI, String)
+	 */
+	public void setContentDigestAlgorithm(final String contentDigestAlgorithm) {
+		this.contentDigestAlgorithm = contentDigestAlgorithm;
+	}
+
+	/** The manifest being used for the current synchronization, or <code>null</code> if no manifest is being used. */
+	private volatile SynchronizationManifest manifest = null;
+
+	/** The synchronization task being performed by each thread during parallel synchronization; unset during serial synchronization. */
+	private final ThreadLocal<SynchronizationTask> currentSynchronizationTask = new ThreadLocal<SynchronizationTask>();
+
+	/** The lock held while reporting the information buffered by a synchronization task, so that the information of concurrent tasks is not interleaved. */
+	private final Object reportLock = new Object();
+
+	/** The batch of changes being recorded for the children of the collection being synchronized by each thread, if any. */
+	private final ThreadLocal<LevelBatch> currentLevelBatch = new ThreadLocal<LevelBatch>();
+
 	/** The set of source resource URIs to ignore when resolving discrepancies. */
 	private final Set<URI> ignoreSourceResourceURIs = new HashSet<URI>();
 
@@ -260,11 +387,82 @@ public void synchronize(final Repository sourceRepository, final URI sourceResou
 				.getResourceDescription(sourceResourceURI) : null; //get the description of the source resource if it exists
 		final URFResource destinationResourceDescription = destinationRepository.resourceExists(destinationResourceURI) ? destinationRepository
 				.getResourceDescription(destinationResourceURI) : null; //get the description of the destination resource if it exists
-		synchronize(sourceRepository, sourceResourceURI, sourceResourceURI, sourceResourceDescription, destinationRepository, destinationResourceURI,
-				destinationResourceURI, destinationResourceDescription); //synchronize using the descriptions and the initial URIs as the base URIs
+		final File manifestFile = getManifestFile();
+		if(manifestFile != null) { //if we should use a manifest, load it if we can
+			final String fingerprint = getManifestFingerprint(sourceResourceURI, destinationResourceURI);
+			if(manifestFile.exists()) {
+				final SynchronizationManifest previousManifest = SynchronizationManifest.load(manifestFile);
+				if(previousManifest.getFingerprint().equals(fingerprint)) { //only use the manifest if it was produced using the same settings
+					Log.info(getTestStatus(), "Using synchronization manifest", manifestFile, "entries:", previousManifest.getSize());
+					manifest = previousManifest;
+				} else {
+					Log.info(getTestStatus(), "Ignoring synchronization manifest", manifestFile, "created with different settings.");
+				}
+			}
+			if(manifest == null) {
+				manifest = new SynchronizationManifest(fingerprint);
+			}
+		}
+		try {
+			synchronizeTree(sourceRepository, sourceResourceURI, sourceResourceDescription, destinationRepository, destinationResourceURI,
+					destinationResourceDescription);
+			if(manifest != null && !isTest()) { //save the manifest for the next synchronization
+				manifest.save(manifestFile);
+			}
+		} finally {
+			manifest = null;
+		}
 		Log.info(getTestStatus(), "Synchronization finished.");
 	}
 
+	/**
+	 * Synchronizes two resources and the trees beneath them, serially or in parallel based upon the thread count.
+	 * @param sourceRepository The repository in which the source resource lies.
+	 * @param sourceResourceURI The URI of the source resource, which will be used as the source base URI.
+	 * @param sourceResourceDescription The description of the source resource, or <code>null</code> if the source resource does not exist.
+	 * @param destinationRepository The repository in which the destination resource lies.
+	 * @param destinationResourceURI The URI of the destination resource, which will be used as the destination base URI.
+	 * @param destinationResourceDescription The description of the destination resource, or <code>null</code> if the destination resource does not exist.
+	 * @throws IOException if there is an I/O error while synchronizing the resources.
+	 * @see #getThreadCount()
+	 */
+	private void synchronizeTree(final Repository sourceRepository, final URI sourceResourceURI, final URFResource sourceResourceDescription,
+			final Repository destinationRepository, final URI destinationResourceURI, final URFResource destinationResourceDescription) throws IOException {
+		final int threadCount = getThreadCount();
+		if(threadCount > 1) { //if we should synchronize in parallel
+			final Map<Repository, Semaphore> repositorySemaphores = new IdentityHashMap<Repository, Semaphore>();
+			final int repositoryConcurrency = getRepositoryConcurrency();
+			if(repositoryConcurrency > 0) { //if the concurrency of each repository is limited, keep track of the permits available for each
+				repositorySemaphores.put(sourceRepository, new Semaphore(repositoryConcurrency, true));
+				if(destinationRepository != sourceRepository) {
+					repositorySemaphores.put(destinationRepository, new Semaphore(repositoryConcurrency, true));
+				}
+			}
+			final AtomicBoolean cancelled = new AtomicBoolean(false);
+			final SynchronizationTask synchronizationTask = new SynchronizationTask(repositorySemaphores, cancelled, sourceRepository, sourceResourceURI,
+					sourceResourceURI, sourceResourceDescription, destinationRepository, destinationResourceURI, destinationResourceURI, destinationResourceDescription);
+			final ForkJoinPool forkJoinPool = new ForkJoinPool(threadCount);
+			try {
+				forkJoinPool.invoke(synchronizationTask);
+			} catch(final UncheckedIOException uncheckedIOException) { //unwrap any I/O error from the tasks
+				throw uncheckedIOException.getCause();
+			} finally {
+				cancelled.set(true); //if there was an error, tell any tasks still running not to synchronize further resources
+				forkJoinPool.shutdown();
+				try {
+					while(!forkJoinPool.awaitTermination(1, TimeUnit.MINUTES)) { //wait for running tasks to finish the resources they are synchronizing
+						Log.info("Waiting for synchronization tasks to stop.");
+					}
+				} catch(final InterruptedException interruptedException) {
+					Thread.currentThread().interrupt(); //let the caller know we were interrupted; the tasks will still stop on their own
+				}
+			}
+		} else { //if we should synchronize serially
+			synchronize(sourceRepository, sourceResourceURI, sourceResourceURI, sourceResourceDescription, destinationRepository, destinationResourceURI,
+					destinationResourceURI, destinationResourceDescription); //synchronize using the descriptions and the initial URIs as the base URIs
+		}
+	}
+
 	/**
 	 * Synchronizes two resources in two separate repositories. If the resources are collections, the child resources will also be synchronized. If either
 	 * resource is one to be ignored, no action is taken.
@@ -282,7 +480,7 @@ public void synchronize(final Repository sourceRepository, final URI sourceResou
 	protected void synchronize(final Repository sourceRepository, final URI sourceBaseURI, final URI sourceResourceURI, URFResource sourceResourceDescription,
 			final Repository destinationRepository, final URI destinationBaseURI, final URI destinationResourceURI, URFResource destinationResourceDescription)
 			throws IOException {
-		Log.debug(getTestStatus(), "Synchronizing", sourceResourceURI);
+		log(Log.Level.DEBUG, getTestStatus(), "Synchronizing", sourceResourceURI);
 		if(ignoreSourceResourceURIs.contains(sourceResourceURI) || ignoreDestinationResourceURIs.contains(destinationResourceURI)) { //if this is a resource to ignore
 			return; //don't do anything further
 		}
@@ -294,6 +492,9 @@ protected void synchronize(final Repository sourceRepository, final URI sourceBa
 		}
 		boolean sourceExists = sourceResourceDescription != null; //see if the source exists
 		boolean destinationExists = destinationResourceDescription != null; //see if the destination exists
+		final SynchronizationManifest manifest = this.manifest; //see if we are using a manifest
+		final String manifestPath = manifest != null ? sourceBaseURI.relativize(sourceResourceURI).toString() : null;
+		boolean isUnchanged = false; //we'll determine if the resources are known to be unchanged since the last synchronization
 		if(sourceExists != destinationExists) { //if one resource exists and the other doesn't
 			final Resolution orphanResolution = getResourceResolution();
 			if(sourceExists) { //if the source resource exists but not the destination
@@ -301,23 +502,32 @@ protected void synchronize(final Repository sourceRepository, final URI sourceBa
 					case BACKUP:
 					case PRODUCE:
 					case SYNCHRONIZE:
-						Log.info(getTestStatus(), "Resolve source orphan:", orphanResolution, "copy", sourceResourceURI, destinationResourceURI);
+						log(Log.Level.INFO, getTestStatus(), "Resolve source orphan:", orphanResolution, "copy", sourceResourceURI, destinationResourceURI);
 						if(!isTest()) { //if this is not just a test
-							sourceRepository.copyResource(sourceResourceURI, destinationRepository, destinationResourceURI, getProgressListener()); //copy the source to the destination
+							final RepositoryBatch batch = getLevelBatch(destinationRepository);
+							if(batch != null) { //if the children of the parent are being changed in a batch, copy the tree in that batch and finish once it is committed
+								copyTree(sourceRepository, sourceResourceURI, sourceResourceURI, sourceResourceDescription, ignoreSourceResourceURIs, batch,
+										destinationResourceURI, ignoreDestinationResourceURIs);
+								deferCopied(sourceRepository, sourceBaseURI, sourceResourceURI, sourceResourceDescription, destinationRepository, destinationBaseURI,
+										destinationResourceURI, null);
+								return;
+							}
+							copyResource(sourceRepository, sourceResourceURI, ignoreSourceResourceURIs, destinationRepository, destinationResourceURI,
+									ignoreDestinationResourceURIs); //copy the source to the destination
 							destinationExists = true;
 							destinationResourceDescription = destinationRepository.getResourceDescription(destinationResourceURI);
 						}
 						break;
 					case RESTORE:
-						Log.info(getTestStatus(), "Resolve source orphan:", orphanResolution, "delete", sourceResourceURI);
+						log(Log.Level.INFO, getTestStatus(), "Resolve source orphan:", orphanResolution, "delete", sourceResourceURI);
 						if(!isTest()) { //if this is not just a test
-							sourceRepository.deleteResource(sourceResourceURI); //delete the source
+							deleteResource(sourceRepository, sourceResourceURI); //delete the source
 							sourceExists = false;
 							sourceResourceDescription = null;
 						}
 						break;
 					case CONSUME:
-						Log.info(getTestStatus(), "Resolve source orphan:", orphanResolution, "ignore", sourceResourceURI, destinationResourceURI);
+						log(Log.Level.INFO, getTestStatus(), "Resolve source orphan:", orphanResolution, "ignore", sourceResourceURI, destinationResourceURI);
 					case IGNORE:
 						break;
 					default:
@@ -328,70 +538,503 @@ protected void synchronize(final Repository sourceRepository, final URI sourceBa
 					case BACKUP:
 					case CONSUME:
 					case SYNCHRONIZE:
-						Log.info(getTestStatus(), "Resolve destination orphan:", orphanResolution, "delete", destinationResourceURI);
+						log(Log.Level.INFO, getTestStatus(), "Resolve destination orphan:", orphanResolution, "delete", destinationResourceURI);
 						if(!isTest()) { //if this is not just a test
-							destinationRepository.deleteResource(destinationResourceURI); //delete the destination
+							deleteResource(destinationRepository, destinationResourceURI); //delete the destination
 							destinationExists = false;
 							destinationResourceDescription = null;
 						}
 						break;
 					case RESTORE:
-						Log.info(getTestStatus(), "Resolve destination orphan:", orphanResolution, "copy", destinationResourceURI, sourceResourceURI);
+						log(Log.Level.INFO, getTestStatus(), "Resolve destination orphan:", orphanResolution, "copy", destinationResourceURI, sourceResourceURI);
 						if(!isTest()) { //if this is not just a test
-							destinationRepository.copyResource(destinationResourceURI, sourceRepository, sourceResourceURI, getProgressListener()); //copy the destination to the source
+							final RepositoryBatch batch = getLevelBatch(sourceRepository);
+							if(batch != null) { //if the children of the parent are being changed in a batch, copy the tree in that batch and finish once it is committed
+								copyTree(destinationRepository, destinationResourceURI, destinationResourceURI, destinationResourceDescription, ignoreDestinationResourceURIs,
+										batch, sourceResourceURI, ignoreSourceResourceURIs);
+								deferCopied(sourceRepository, sourceBaseURI, sourceResourceURI, null, destinationRepository, destinationBaseURI, destinationResourceURI,
+										destinationResourceDescription);
+								return;
+							}
+							copyResource(destinationRepository, destinationResourceURI, ignoreDestinationResourceURIs, sourceRepository, sourceResourceURI,
+									ignoreSourceResourceURIs); //copy the destination to the source
 							sourceExists = true;
 							sourceResourceDescription = sourceRepository.getResourceDescription(sourceResourceURI);
 						}
 						break;
 					case PRODUCE:
-						Log.info(getTestStatus(), "Resolve destination orphan:", orphanResolution, "ignore", sourceResourceURI, destinationResourceURI);
+						log(Log.Level.INFO, getTestStatus(), "Resolve destination orphan:", orphanResolution, "ignore", sourceResourceURI, destinationResourceURI);
 					case IGNORE:
 						break;
 					default:
 						throw new AssertionError("Unrecognized resolution " + orphanResolution);
 				}
 			}
+			if(manifest != null && !isTest()) { //update the manifest with the state of any resources now existing on both sides
+				if(sourceExists && destinationExists) {
+					manifest.put(manifestPath, createManifestEntry(sourceRepository, sourceResourceDescription, destinationRepository, destinationResourceDescription));
+				} else {
+					manifest.remove(manifestPath);
+				}
+			}
 		} else if(sourceExists) { //if both resources exist (we know at this point that either both exist or both don't exist)
-			final Date sourceContentModified = getModified(sourceResourceDescription); //get the date of the source
-			final Date destinationContentModified = getModified(destinationResourceDescription); //get the date of the destination
-			final boolean isContentSynchronized = isContentSynchronized(sourceRepository, sourceResourceDescription, sourceContentModified, destinationRepository,
-					destinationResourceDescription, destinationContentModified); //see if the content of the two resources are synchronized
-			if(!isContentSynchronized) { //if the source and destination are not synchronized
-				final Resolution resolution = getContentResolution();
-				resolveContent(resolution, sourceRepository, sourceResourceDescription, sourceContentModified, destinationRepository, destinationResourceDescription,
-						destinationContentModified); //resolve the discrepancy between source and destination
-			}
-			final Resolution metadataResolution = getMetadataResolution();
-			resolveMetadata(metadataResolution, sourceRepository, sourceResourceDescription, sourceContentModified, destinationRepository,
-					destinationResourceDescription, destinationContentModified);
-		}
-		if(isSourceCollection && sourceExists && destinationExists) { //if now have two collections that both exist, synchronize the children
-			final Map<URI, URFResource> destinationChildResourceDescriptions = new LinkedHashMap<URI, URFResource>(); //create a map for the destination resources, preserving their iteration order only as a courtesy
-			for(final URFResource destinationChildResourceDescription : destinationRepository.getChildResourceDescriptions(destinationResourceURI)) { //prepopulate the destination child resource map to allow quick lookup when we iterate the source child resources
-				destinationChildResourceDescriptions.put(destinationChildResourceDescription.getURI(), destinationChildResourceDescription);
-			}
-			final Map<URI, URFResource> sourceChildResourceDescriptions = new LinkedHashMap<URI, URFResource>(); //create a map for the source resources, preserving their iteration order only as a courtesy
-			for(final URFResource sourceChildResourceDescription : sourceRepository.getChildResourceDescriptions(sourceResourceURI)) { //iterate the source child resources
-				sourceChildResourceDescriptions.put(sourceChildResourceDescription.getURI(), sourceChildResourceDescription); //store this source child resource in the map
-				final URI destinationChildResourceURI = resolve(destinationBaseURI, sourceBaseURI.relativize(sourceChildResourceDescription.getURI())); //resolve the relative child URI against the base destination URI to determine what the destnation child resource URI should be
-				final URFResource destinationChildResourceDescription = destinationChildResourceDescriptions.get(destinationChildResourceURI); //get the description of the destination child resource (although there may not be one)
-				synchronize(sourceRepository, sourceBaseURI, sourceChildResourceDescription.getURI(), sourceChildResourceDescription, destinationRepository,
-						destinationBaseURI, destinationChildResourceURI, destinationChildResourceDescription); //synchronize this source child and the corresponding destination child, the latter of which may not exist
+			if(manifest != null) { //keep any recorded content digests of the resources, as they still exist
+				manifest.retainContentDigest(sourceResourceURI);
+				manifest.retainContentDigest(destinationResourceURI);
+			}
+			final SynchronizationManifest.Entry manifestEntry = manifest != null ? createManifestEntry(sourceRepository, sourceResourceDescription,
+					destinationRepository, destinationResourceDescription) : null; //determine the current state of the resources if we are using a manifest
+			if(manifestEntry != null && !isForceWriteMetadata() && manifestEntry.equals(manifest.get(manifestPath))) { //if neither resource has changed since it was last synchronized
+				log(Log.Level.DEBUG, getTestStatus(), "Unchanged since last synchronization", sourceResourceURI);
+				isUnchanged = true;
+			} else {
+				final Date sourceContentModified = getModified(sourceResourceDescription); //get the date of the source
+				final Date destinationContentModified = getModified(destinationResourceDescription); //get the date of the destination
+				final boolean isContentSynchronized = isContentSynchronized(sourceRepository, sourceResourceDescription, sourceContentModified,
+						destinationRepository, destinationResourceDescription, destinationContentModified); //see if the content of the two resources are synchronized
+				boolean isModified = false; //keep track of whether we change either resource
+				if(!isContentSynchronized) { //if the source and destination are not synchronized
+					final Resolution resolution = getContentResolution();
+					isModified |= resolveContent(resolution, sourceRepository, sourceResourceDescription, sourceContentModified, destinationRepository,
+							destinationResourceDescription, destinationContentModified); //resolve the discrepancy between source and destination
+				}
+				final Resolution metadataResolution = getMetadataResolution();
+				isModified |= resolveMetadata(metadataResolution, sourceRepository, sourceResourceDescription, sourceContentModified, destinationRepository,
+						destinationResourceDescription, destinationContentModified);
+				if(manifestEntry != null && !isTest()) { //record the resulting state of the resources in the manifest
+					if(isModified && currentLevelBatch.get() != null) { //if the changes are being recorded in a batch, record the new state once the batch is committed
+						currentLevelBatch.get().defer(new DeferredAction() {
+
+							@Override
+							public void perform() throws IOException {
+								manifest.put(manifestPath, createManifestEntry(sourceRepository, sourceRepository.getResourceDescription(sourceResourceURI), destinationRepository,
+										destinationRepository.getResourceDescription(destinationResourceURI)));
+							}
+						});
+					} else if(isModified) { //if we changed one of the resources, its description is no longer current
+						sourceResourceDescription = sourceRepository.getResourceDescription(sourceResourceURI);
+						destinationResourceDescription = destinationRepository.getResourceDescription(destinationResourceURI);
+						manifest.put(manifestPath, createManifestEntry(sourceRepository, sourceResourceDescription, destinationRepository, destinationResourceDescription));
+					} else {
+						manifest.put(manifestPath, manifestEntry);
+					}
+				}
+			}
+		}
+		if(isSourceCollection && sourceExists && destinationExists) { //if now have two collections that both exist, synchronize the children unless they are known not to have changed
+			if(isUnchanged && isTreeRevisionTracked(sourceResourceDescription, destinationResourceDescription)) {
+				manifest.retainContentDigests(sourceResourceURI); //the descendants still exist, so keep their content digests
+				manifest.retainContentDigests(destinationResourceURI);
+			} else if(currentLevelBatch.get() != null) { //if the collections may still be changed by the batch of their parent, wait until it is committed
+				currentLevelBatch.get().defer(new DeferredAction() {
+
+					@Override
+					public void perform() throws IOException {
+						synchronizeDescendants(sourceRepository, sourceBaseURI, sourceResourceURI, destinationRepository, destinationBaseURI, destinationResourceURI);
+					}
+				});
+			} else {
+				synchronizeChildren(sourceRepository, sourceBaseURI, sourceResourceURI, destinationRepository, destinationBaseURI, destinationResourceURI);
+			}
+		}
+	}
+
+	/**
+	 * Returns the batch recording the changes to the children of the collection being synchronized by the current thread in the given repository.
+	 * @param repository The repository to be changed.
+	 * @return The batch of changes to the repository, or <code>null</code> if changes to the repository are not being recorded in a batch.
+	 * @throws IOException if there is an error beginning the batch.
+	 */
+	private RepositoryBatch getLevelBatch(final Repository repository) throws IOException {
+		final LevelBatch levelBatch = currentLevelBatch.get();
+		return levelBatch != null ? levelBatch.getBatch(repository) : null;
+	}
+
+	/**
+	 * Deletes a resource, recording the deletion in the batch of changes to the children of the collection being synchronized, if any.
+	 * @param repository The repository in which the resource lies.
+	 * @param resourceURI The URI of the resource to delete.
+	 * @throws IOException if there is an I/O error while deleting the resource.
+	 */
+	private void deleteResource(final Repository repository, final URI resourceURI) throws IOException {
+		final RepositoryBatch batch = getLevelBatch(repository);
+		if(batch != null) {
+			synchronized(batch) { //the batch may be shared by the tasks resolving the children concurrently
+				batch.deleteResource(resourceURI);
+			}
+		} else {
+			repository.deleteResource(resourceURI);
+		}
+	}
+
+	/**
+	 * Finishes synchronizing an orphan resource the copy of which has been recorded in the batch of changes to the children of the collection being
+	 * synchronized. Once the batch has been committed, the manifest is updated with the state of the resources and, for a collection, its descendants are
+	 * synchronized.
+	 * @param sourceRepository The repository in which the source resource lies.
+	 * @param sourceBaseURI The base URI in the source repository; the root of the source tree being synchronized.
+	 * @param sourceResourceURI The URI of the source resource.
+	 * @param sourceResourceDescription The description of the source resource, or <code>null</code> if the source resource is being copied.
+	 * @param destinationRepository The repository in which the destination resource lies.
+	 * @param destinationBaseURI The base URI in the destination repository; the root of the destination tree being synchronized.
+	 * @param destinationResourceURI The URI of the destination resource.
+	 * @param destinationResourceDescription The description of the destination resource, or <code>null</code> if the destination resource is being copied.
+	 */
+	private void deferCopied(final Repository sourceRepository, final URI sourceBaseURI, final URI sourceResourceURI,
+			final URFResource sourceResourceDescription, final Repository destinationRepository, final URI destinationBaseURI, final URI destinationResourceURI,
+			final URFResource destinationResourceDescription) {
+		final SynchronizationManifest manifest = this.manifest;
+		currentLevelBatch.get().defer(new DeferredAction() {
+
+			@Override
+			public void perform() throws IOException {
+				if(manifest != null) { //the copied resource now exists, so record the state of both resources
+					manifest.put(sourceBaseURI.relativize(sourceResourceURI).toString(), createManifestEntry(sourceRepository,
+							sourceResourceDescription != null ? sourceResourceDescription : sourceRepository.getResourceDescription(sourceResourceURI), destinationRepository,
+							destinationResourceDescription != null ? destinationResourceDescription : destinationRepository.getResourceDescription(destinationResourceURI)));
+				}
+				if(isCollectionURI(sourceResourceURI)) { //synchronize the children of the copied collection as usual
+					synchronizeDescendants(sourceRepository, sourceBaseURI, sourceResourceURI, destinationRepository, destinationBaseURI, destinationResourceURI);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Synchronizes the children of two existing collections that have themselves already been synchronized, after the batch of changes to the children of their
+	 * parent has been committed. During parallel synchronization the children are scheduled to be synchronized by a separate task once the current resource has
+	 * been synchronized.
+	 * @param sourceRepository The repository in which the source resource lies.
+	 * @param sourceBaseURI The base URI in the source repository; the root of the source tree being synchronized.
+	 * @param sourceResourceURI The URI of the source collection.
+	 * @param destinationRepository The repository in which the destination resource lies.
+	 * @param destinationBaseURI The base URI in the destination repository; the root of the destination tree being synchronized.
+	 * @param destinationResourceURI The URI of the destination collection.
+	 * @throws IOException if there is an I/O error while synchronizing the resources.
+	 */
+	private void synchronizeDescendants(final Repository sourceRepository, final URI sourceBaseURI, final URI sourceResourceURI,
+			final Repository destinationRepository, final URI destinationBaseURI, final URI destinationResourceURI) throws IOException {
+		final SynchronizationTask synchronizationTask = currentSynchronizationTask.get();
+		if(synchronizationTask != null) { //if we are synchronizing in parallel, let the current task synchronize the children later
+			synchronizationTask.addDescendantsTask(sourceRepository, sourceBaseURI, sourceResourceURI, destinationRepository, destinationBaseURI,
+					destinationResourceURI);
+		} else {
+			synchronizeChildren(sourceRepository, sourceBaseURI, sourceResourceURI, destinationRepository, destinationBaseURI, destinationResourceURI);
+		}
+	}
+
+	/**
+	 * Copies an orphan resource from an input repository to an output repository. If the resource is a collection and the output repository supports batches,
+	 * the entire tree of the collection is copied in a single batch using {@link #copyTree(Repository, URI, Set, BatchRepository, URI, Set)}, so that the
+	 * output repository is changed only once; otherwise only the resource itself is copied, and its children will be copied as they are synchronized.
+	 * @param inputRepository The repository from which the resource is being copied.
+	 * @param inputResourceURI The URI of the resource to copy.
+	 * @param ignoreInputResourceURIs The URIs of resources in the input repository to ignore.
+	 * @param outputRepository The repository to which the resource is being copied.
+	 * @param outputResourceURI The URI to which the resource should be copied.
+	 * @param ignoreOutputResourceURIs The URIs of resources in the output repository to ignore.
+	 * @throws IOException if there is an I/O error while copying the resource.
+	 */
+	protected void copyResource(final Repository inputRepository, final URI inputResourceURI, final Set<URI> ignoreInputResourceURIs,
+			final Repository outputRepository, final URI outputResourceURI, final Set<URI> ignoreOutputResourceURIs) throws IOException {
+		if(isCollectionURI(inputResourceURI) && outputRepository instanceof BatchRepository) { //if we can copy the whole tree at once
+			copyTree(inputRepository, inputResourceURI, ignoreInputResourceURIs, (BatchRepository)outputRepository, outputResourceURI, ignoreOutputResourceURIs);
+		} else {
+			inputRepository.copyResource(inputResourceURI, outputRepository, outputResourceURI, getProgressListener());
+		}
+	}
+
+	/**
+	 * Copies a collection and all its descendants, other than those to be ignored, from an input repository to an output repository using a single batch. If
+	 * copying fails, none of the resources are created in the output repository.
+	 * @param inputRepository The repository from which the collection is being copied.
+	 * @param inputResourceURI The URI of the collection to copy.
+	 * @param ignoreInputResourceURIs The URIs of resources in the input repository to ignore.
+	 * @param outputRepository The repository to which the collection is being copied.
+	 * @param outputResourceURI The URI to which the collection should be copied.
+	 * @param ignoreOutputResourceURIs The URIs of resources in the output repository to ignore.
+	 * @throws IOException if there is an I/O error while copying the resources.
+	 * @see BatchRepository#beginBatch(String)
+	 */
+	protected void copyTree(final Repository inputRepository, final URI inputResourceURI, final Set<URI> ignoreInputResourceURIs,
+			final BatchRepository outputRepository, final URI outputResourceURI, final Set<URI> ignoreOutputResourceURIs) throws IOException {
+		final RepositoryBatch batch = outputRepository.beginBatch("Synchronize " + inputResourceURI + ".");
+		try {
+			copyTree(inputRepository, inputResourceURI, inputResourceURI, inputRepository.getResourceDescription(inputResourceURI), ignoreInputResourceURIs, batch,
+					outputResourceURI, ignoreOutputResourceURIs);
+			log(Log.Level.DEBUG, getTestStatus(), "Committing", batch.getSize(), "resources", outputResourceURI);
+			batch.commit();
+		} finally {
+			batch.discard(); //release any recorded contents; this has no effect if the batch was committed
+		}
+	}
+
+	/**
+	 * Records the copying of a resource and, if the resource is a collection, all its descendants, other than those to be ignored, in a batch.
+	 * @param inputRepository The repository from which the resource is being copied.
+	 * @param inputBaseURI The base URI in the input repository; the root of the input tree being copied.
+	 * @param inputResourceURI The URI of the resource to copy.
+	 * @param inputResourceDescription The description of the resource to copy.
+	 * @param ignoreInputResourceURIs The URIs of resources in the input repository to ignore.
+	 * @param batch The batch in which to record the creation of the resources in the output repository.
+	 * @param outputBaseURI The base URI in the output repository; the root of the output tree being copied.
+	 * @param ignoreOutputResourceURIs The URIs of resources in the output repository to ignore.
+	 * @throws IOException if there is an I/O error while copying the resources.
+	 */
+	private void copyTree(final Repository inputRepository, final URI inputBaseURI, final URI inputResourceURI, final URFResource inputResourceDescription,
+			final Set<URI> ignoreInputResourceURIs, final RepositoryBatch batch, final URI outputBaseURI, final Set<URI> ignoreOutputResourceURIs) throws IOException {
+		final URI outputResourceURI = resolve(outputBaseURI, inputBaseURI.relativize(inputResourceURI)); //determine where the resource goes in the output tree
+		if(ignoreInputResourceURIs.contains(inputResourceURI) || ignoreOutputResourceURIs.contains(outputResourceURI)) { //if this is a resource to ignore, ignore its descendants as well
+			return;
+		}
+		log(Log.Level.DEBUG, getTestStatus(), "Copying", inputResourceURI, outputResourceURI);
+		final long contentLength = getContentLength(inputResourceDescription); //get the size of the resource content
+		synchronized(batch) { //the batch may be shared by the tasks resolving the children of a collection concurrently
+			if(contentLength == 0) { //if this is a resource with no content, don't needlessly create content (especially important for collections)
+				batch.createResource(outputResourceURI, inputResourceDescription, NO_BYTES);
+			} else {
+				final InputStream inputStream = inputRepository.getResourceInputStream(inputResourceURI); //get an input stream to the input resource
+				try {
+					final OutputStream outputStream = batch.createResource(outputResourceURI, inputResourceDescription); //record the resource with the same description as the input resource
+					try {
+						Streams.copy(inputStream, outputStream, contentLength, getProgressListener()); //copy the resource contents
+					} finally {
+						outputStream.close(); //always close the output stream
+					}
+				} finally {
+					inputStream.close(); //always close the input stream
+				}
+			}
+		}
+		if(isCollectionURI(inputResourceURI)) { //copy the children of a collection
+			inputRepository.visitChildResourceDescriptions(inputResourceURI, 1, new ResourceVisitor() {
+
+				@Override
+				public boolean visit(final URFResource inputChildResourceDescription) throws IOException {
+					copyTree(inputRepository, inputBaseURI, inputChildResourceDescription.getURI(), inputChildResourceDescription, ignoreInputResourceURIs, batch,
+							outputBaseURI, ignoreOutputResourceURIs);
+					return true;
+				}
+			});
+		}
+	}
+
+	/**
+	 * Synchronizes the children of two existing collections in two separate repositories. The source children are visited as they are retrieved from the source
+	 * repository, so that only the destination child descriptions and the source child URIs need be kept in memory for each level. During parallel
+	 * synchronization the children are not synchronized immediately, but are instead scheduled to be synchronized concurrently once the current resource has
+	 * been synchronized. If the destination repository is a {@link BatchRepository}, the changes to the destination children are recorded in a single batch as
+	 * the children are resolved, and the batch is committed before the descendants of the children are synchronized; during parallel synchronization the current
+	 * task commits the batch once the tasks resolving the children have finished.
+	 * @param sourceRepository The repository in which the source resource lies.
+	 * @param sourceBaseURI The base URI in the source repository; the root of the source tree being synchronized.
+	 * @param sourceResourceURI The URI of the source collection.
+	 * @param destinationRepository The repository in which the destination resource lies.
+	 * @param destinationBaseURI The base URI in the destination repository; the root of the destination tree being synchronized.
+	 * @param destinationResourceURI The URI of the destination collection.
+	 * @throws IOException if there is an I/O error while synchronizing the resources.
+	 */
+	protected void synchronizeChildren(final Repository sourceRepository, final URI sourceBaseURI, final URI sourceResourceURI,
+			final Repository destinationRepository, final URI destinationBaseURI, final URI destinationResourceURI) throws IOException {
+		final Map<URI, URFResource> destinationChildResourceDescriptions = new LinkedHashMap<URI, URFResource>(); //create a map for the destination resources, preserving their iteration order only as a courtesy
+		for(final URFResource destinationChildResourceDescription : destinationRepository.getChildResourceDescriptions(destinationResourceURI)) { //prepopulate the destination child resource map to allow quick lookup when we iterate the source child resources
+			destinationChildResourceDescriptions.put(destinationChildResourceDescription.getURI(), destinationChildResourceDescription);
+		}
+		final Set<URI> sourceChildResourceURIs = new HashSet<URI>(); //keep track of the source resources we synchronize
+		final LevelBatch levelBatch = !isTest() && destinationRepository instanceof BatchRepository ? new LevelBatch((BatchRepository)destinationRepository,
+				"Synchronize " + sourceResourceURI + ".") : null; //record the changes to the destination children in a batch if we can
+		final SynchronizationTask synchronizationTask = currentSynchronizationTask.get();
+		if(synchronizationTask != null) { //if we are synchronizing in parallel, the current task will commit the batch once the child tasks have finished
+			if(levelBatch != null) {
+				synchronizationTask.setChildLevelBatch(levelBatch);
+			}
+			resolveChildren(sourceRepository, sourceBaseURI, sourceResourceURI, destinationChildResourceDescriptions, sourceChildResourceURIs,
+					destinationRepository, destinationBaseURI, levelBatch);
+			return;
+		}
+		try {
+			resolveChildren(sourceRepository, sourceBaseURI, sourceResourceURI, destinationChildResourceDescriptions, sourceChildResourceURIs,
+					destinationRepository, destinationBaseURI, levelBatch);
+			if(levelBatch != null) {
+				levelBatch.commit(); //this will also synchronize the descendants of the children
+			}
+		} finally {
+			if(levelBatch != null) {
+				levelBatch.discard(); //release any recorded contents; this has no effect if the batch was committed
 			}
+		}
+	}
+
+	/**
+	 * Synchronizes or schedules the synchronization of each child of two existing collections, given the descriptions of the destination children.
+	 * @param sourceRepository The repository in which the source resource lies.
+	 * @param sourceBaseURI The base URI in the source repository; the root of the source tree being synchronized.
+	 * @param sourceResourceURI The URI of the source collection.
+	 * @param destinationChildResourceDescriptions The descriptions of the destination child resources, keyed to their URIs.
+	 * @param sourceChildResourceURIs The set in which to collect the URIs of the source child resources.
+	 * @param destinationRepository The repository in which the destination resource lies.
+	 * @param destinationBaseURI The base URI in the destination repository; the root of the destination tree being synchronized.
+	 * @param levelBatch The batch in which to record the changes to the children, or <code>null</code> if the changes are not being recorded in a batch.
+	 * @throws IOException if there is an I/O error while synchronizing the resources.
+	 */
+	private void resolveChildren(final Repository sourceRepository, final URI sourceBaseURI, final URI sourceResourceURI,
+			final Map<URI, URFResource> destinationChildResourceDescriptions, final Set<URI> sourceChildResourceURIs, final Repository destinationRepository,
+			final URI destinationBaseURI, final LevelBatch levelBatch) throws IOException {
+		final LevelBatch previousLevelBatch = currentLevelBatch.get();
+		currentLevelBatch.set(levelBatch);
+		try {
+			sourceRepository.visitChildResourceDescriptions(sourceResourceURI, 1, new ResourceVisitor() { //iterate the source child resources as they are retrieved
+
+				@Override
+				public boolean visit(final URFResource sourceChildResourceDescription) throws IOException {
+					final URI sourceChildResourceURI = sourceChildResourceDescription.getURI();
+					sourceChildResourceURIs.add(sourceChildResourceURI); //note that we found this source child resource
+					final URI destinationChildResourceURI = resolve(destinationBaseURI, sourceBaseURI.relativize(sourceChildResourceURI)); //resolve the relative child URI against the base destination URI to determine what the destnation child resource URI should be
+					final URFResource destinationChildResourceDescription = destinationChildResourceDescriptions.get(destinationChildResourceURI); //get the description of the destination child resource (although there may not be one)
+					synchronizeChild(sourceRepository, sourceBaseURI, sourceChildResourceURI, sourceChildResourceDescription, destinationRepository, destinationBaseURI,
+							destinationChildResourceURI, destinationChildResourceDescription); //synchronize this source child and the corresponding destination child, the latter of which may not exist
+					return true;
+				}
+			});
 			for(final URFResource destinationChildResourceDescription : destinationChildResourceDescriptions.values()) { //iterate the destination child resources to synchronize any destination resources that may not be in the source
 				final URI sourceChildResourceURI = resolve(sourceBaseURI, destinationBaseURI.relativize(destinationChildResourceDescription.getURI())); //resolve the relative child URI against the base source URI to determine what the source child resource URI should be
-				final URFResource sourceChildResourceDescription = sourceChildResourceDescriptions.get(sourceChildResourceURI); //get the description of the source child resource (although there may not be one)
-				if(sourceChildResourceDescription == null) { //only synchronize destination resources for which there is no corresponding source child resource, because we already synchronized all the corresponding ones
-					synchronize(sourceRepository, sourceBaseURI, sourceChildResourceURI, sourceChildResourceDescription, destinationRepository, destinationBaseURI,
+				if(!sourceChildResourceURIs.contains(sourceChildResourceURI)) { //only synchronize destination resources for which there is no corresponding source child resource, because we already synchronized all the corresponding ones
+					synchronizeChild(sourceRepository, sourceBaseURI, sourceChildResourceURI, null, destinationRepository, destinationBaseURI,
 							destinationChildResourceDescription.getURI(), destinationChildResourceDescription); //synchronize this source child and the destination child, the former of which does not exist
 				}
 			}
+		} finally {
+			currentLevelBatch.set(previousLevelBatch);
+		}
+	}
+
+	/**
+	 * Synchronizes a child resource of a collection being synchronized. During serial synchronization the child is synchronized immediately; during parallel
+	 * synchronization the child is instead scheduled to be synchronized by the current task after the current resource has been synchronized, recording its
+	 * changes in the same batch as the other children, if any.
+	 * @param sourceRepository The repository in which the source resource lies.
+	 * @param sourceBaseURI The base URI in the source repository; the root of the source tree being synchronized.
+	 * @param sourceResourceURI The URI of the source resource.
+	 * @param sourceResourceDescription The description of the source resource, or <code>null</code> if the source resource does not exist.
+	 * @param destinationRepository The repository in which the destination resource lies.
+	 * @param destinationBaseURI The base URI in the destination repository; the root of the destination tree being synchronized.
+	 * @param destinationResourceURI The URI of the destination resource.
+	 * @param destinationResourceDescription The description of the destination resource, or <code>null</code> if the destination resource does not exist.
+	 * @throws IOException if there is an I/O error while synchronizing the resources.
+	 * @see #synchronize(Repository, URI, URI, URFResource, Repository, URI, URI, URFResource)
+	 */
+	private void synchronizeChild(final Repository sourceRepository, final URI sourceBaseURI, final URI sourceResourceURI,
+			final URFResource sourceResourceDescription, final Repository destinationRepository, final URI destinationBaseURI, final URI destinationResourceURI,
+			final URFResource destinationResourceDescription) throws IOException {
+		final SynchronizationTask synchronizationTask = currentSynchronizationTask.get();
+		if(synchronizationTask != null) { //if we are synchronizing in parallel, let the current task synchronize the child later
+			synchronizationTask.addChildTask(sourceRepository, sourceBaseURI, sourceResourceURI, sourceResourceDescription, destinationRepository,
+					destinationBaseURI, destinationResourceURI, destinationResourceDescription, currentLevelBatch.get());
+		} else {
+			synchronize(sourceRepository, sourceBaseURI, sourceResourceURI, sourceResourceDescription, destinationRepository, destinationBaseURI,
+					destinationResourceURI, destinationResourceDescription);
 		}
 	}
 
+	/**
+	 * Determines the fingerprint of the settings for synchronizing two trees, so that a manifest will only be used for a later synchronization of the same trees
+	 * with the same settings.
+	 * @param sourceBaseURI The base URI in the source repository; the root of the source tree being synchronized.
+	 * @param destinationBaseURI The base URI in the destination repository; the root of the destination tree being synchronized.
+	 * @return A string identifying the trees and the settings affecting how they are synchronized.
+	 * @see SynchronizationManifest#getFingerprint()
+	 */
+	protected String getManifestFingerprint(final URI sourceBaseURI, final URI destinationBaseURI) {
+		final StringBuilder fingerprint = new StringBuilder();
+		fingerprint.append(sourceBaseURI).append(' ').append(destinationBaseURI);
+		fingerprint.append(' ').append(getResourceResolution()).append(' ').append(getContentResolution()).append(' ').append(getMetadataResolution());
+		fingerprint.append(' ').append(isForceContentModifiedProperty()).append(' ').append(getContentDigestAlgorithm());
+		for(final URI ignorePropertyURI : new TreeSet<URI>(ignorePropertyURIs)) { //sort the ignored properties so that their order doesn't matter
+			fingerprint.append(' ').append(ignorePropertyURI);
+		}
+		fingerprint.append(" source"); //ignored resources are not recorded, so ignoring different resources requires a new manifest
+		for(final URI ignoreSourceResourceURI : new TreeSet<URI>(ignoreSourceResourceURIs)) {
+			fingerprint.append(' ').append(ignoreSourceResourceURI);
+		}
+		fingerprint.append(" destination");
+		for(final URI ignoreDestinationResourceURI : new TreeSet<URI>(ignoreDestinationResourceURIs)) {
+			fingerprint.append(' ').append(ignoreDestinationResourceURI);
+		}
+		return fingerprint.toString();
+	}
+
+	/**
+	 * Determines whether changes beneath two collections would be reflected in their descriptions, so that if the descriptions are unchanged since the last
+	 * synchronization their children need not be synchronized again. This implementation returns whether both descriptions have a
+	 * {@link Marmot#TREE_REVISION_PROPERTY_URI}, which is included in the manifest state of each resource.
+	 * @param sourceResourceDescription The description of the source collection.
+	 * @param destinationResourceDescription The description of the destination collection.
+	 * @return <code>true</code> if both collections indicate changes to their descendants.
+	 * @see #getMetadataHash(Repository, URFResource)
+	 */
+	protected boolean isTreeRevisionTracked(final URFResource sourceResourceDescription, final URFResource destinationResourceDescription) {
+		return sourceResourceDescription.getPropertyValue(Marmot.TREE_REVISION_PROPERTY_URI) != null
+				&& destinationResourceDescription.getPropertyValue(Marmot.TREE_REVISION_PROPERTY_URI) != null;
+	}
+
+	/**
+	 * Creates a manifest entry recording the current state of two existing resources.
+	 * @param sourceRepository The repository in which the source resource lies.
+	 * @param sourceResourceDescription The description of the source resource.
+	 * @param destinationRepository The repository in which the destination resource lies.
+	 * @param destinationResourceDescription The description of the destination resource.
+	 * @return A manifest entry recording the state of the resources.
+	 * @see #getMetadataHash(Repository, URFResource)
+	 */
+	protected SynchronizationManifest.Entry createManifestEntry(final Repository sourceRepository, final URFResource sourceResourceDescription,
+			final Repository destinationRepository, final URFResource destinationResourceDescription) {
+		final Date sourceContentModified = getModified(sourceResourceDescription);
+		final Date destinationContentModified = getModified(destinationResourceDescription);
+		return new SynchronizationManifest.Entry(getContentLength(sourceResourceDescription),
+				sourceContentModified != null ? sourceContentModified.getTime() : SynchronizationManifest.UNKNOWN_TIME, getMetadataHash(sourceRepository,
+						sourceResourceDescription), getContentLength(destinationResourceDescription),
+				destinationContentModified != null ? destinationContentModified.getTime() : SynchronizationManifest.UNKNOWN_TIME, getMetadataHash(
+						destinationRepository, destinationResourceDescription));
+	}
+
+	/**
+	 * Determines a hash of the metadata of a resource, ignoring live properties other than {@link Marmot#TREE_REVISION_PROPERTY_URI}, which records whether
+	 * anything beneath a collection has changed. The hash does not depend on the order of the properties.
+	 * @param repository The repository in which the resource lies.
+	 * @param resourceDescription The description of the resource.
+	 * @return A hash of the resource metadata.
+	 */
+	protected long getMetadataHash(final Repository repository, final URFResource resourceDescription) {
+		final List<String> propertyStrings = new ArrayList<String>();
+		for(final URFProperty property : resourceDescription.getProperties()) {
+			final URI propertyURI = property.getPropertyURI();
+			if(!repository.isLivePropertyURI(propertyURI) || propertyURI.equals(Marmot.TREE_REVISION_PROPERTY_URI)) { //live properties may change without the resource changing, but a tree revision indicates changes beneath a collection
+				propertyStrings.add(propertyURI + " " + URF.toString(property.getValue()));
+			}
+		}
+		Collections.sort(propertyStrings); //make the hash independent of the order of the properties
+		final MessageDigest messageDigest;
+		try {
+			messageDigest = MessageDigest.getInstance("SHA-256");
+		} catch(final NoSuchAlgorithmException noSuchAlgorithmException) {
+			throw new AssertionError(noSuchAlgorithmException); //every Java platform is required to support SHA-256
+		}
+		for(final String propertyString : propertyStrings) {
+			messageDigest.update(propertyString.getBytes(StandardCharsets.UTF_8));
+			messageDigest.update((byte)'\n');
+		}
+		final byte[] digest = messageDigest.digest();
+		long hash = 0;
+		for(int i = 0; i < Long.SIZE / Byte.SIZE; ++i) { //use the first bytes of the digest as the hash
+			hash = (hash << Byte.SIZE) | (digest[i] & 0xFF);
+		}
+		return hash;
+	}
+
 	/**
 	 * Checks to see if the content of two existing resources are mirrors of one another. This method attempts to guess whether content has changed by examining
-	 * various properties. Two collections with the same relevant individual properties are considered mirrors; child resources are not examined.
+	 * various properties. Two collections with the same relevant individual properties are considered mirrors; child resources are not examined. If a content
+	 * digest algorithm is specified, the digests of resources with the same length are compared instead of their modified times.
 	 * @param sourceRepository The repository in which the source resource lies.
 	 * @param sourceResourceDescription The source resource
 	 * @param sourceContentModified The date and time at which the content of the source was modified, or <code>null</code> if not known.
@@ -421,6 +1064,15 @@ public boolean isContentSynchronized(final Repository sourceRepository, final UR
 		if(sourceContentLength != destinationContentLength) { //if the sizes don't match
 			return false; //there is a size discrepancy
 		}
+		//digest
+		final String contentDigestAlgorithm = getContentDigestAlgorithm();
+		if(contentDigestAlgorithm != null) { //if we should compare the content itself
+			if(sourceContentLength == 0) { //there is no need to examine empty content
+				return true;
+			}
+			return Arrays.equals(getContentDigest(sourceRepository, sourceResourceDescription, contentDigestAlgorithm),
+					getContentDigest(destinationRepository, destinationResourceDescription, contentDigestAlgorithm));
+		}
 		//date
 		if(!isSourceCollection || sourceContentLength > 0) { //ignore date discrepancies of collections with no content
 			final Date sourceDate = getModified(sourceResourceDescription); //get the date of the source
@@ -432,6 +1084,34 @@ public boolean isContentSynchronized(final Repository sourceRepository, final UR
 		return true; //the resources matched all our tests
 	}
 
+	/**
+	 * Determines the digest of the contents of a resource. If a manifest is being used, a digest recorded for the resource in its current state is used, and any
+	 * digest determined is recorded.
+	 * @param repository The repository in which the resource lies.
+	 * @param resourceDescription The description of the resource.
+	 * @param algorithm The name of the message digest algorithm.
+	 * @return The digest of the contents of the resource.
+	 * @throws IOException if there is a problem accessing the resource.
+	 * @see Repository#getResourceContentDigest(URI, String)
+	 */
+	protected byte[] getContentDigest(final Repository repository, final URFResource resourceDescription, final String algorithm) throws IOException {
+		final URI resourceURI = resourceDescription.getURI();
+		final SynchronizationManifest manifest = this.manifest;
+		final long contentLength = getContentLength(resourceDescription);
+		final Date contentModified = getModified(resourceDescription);
+		if(manifest != null && contentModified != null) { //without a modified time we can't know if a recorded digest is current
+			final byte[] digest = manifest.getContentDigest(resourceURI, contentLength, contentModified.getTime());
+			if(digest != null) {
+				return digest;
+			}
+		}
+		final byte[] digest = repository.getResourceContentDigest(resourceURI, algorithm);
+		if(manifest != null && contentModified != null) {
+			manifest.putContentDigest(resourceURI, contentLength, contentModified.getTime(), digest);
+		}
+		return digest;
+	}
+
 	/**
 	 * Resolves a content discrepancy between a source and a destination resource. If the resource dates are the same, the {@link Resolution#SYNCHRONIZE}
 	 * resolution will have no effect. If only one of the resource dates is available, it is considered newer for the purpose of the
@@ -444,14 +1124,15 @@ public boolean isContentSynchronized(final Repository sourceRepository, final UR
 	 * @param destinationRepository The destination repository.
 	 * @param destinationResourceDescription The description of the destination resource.
 	 * @param destinationContentModified The date and time at which the content of the destination was modified, or <code>null</code> if not known.
+	 * @return <code>true</code> if the content of one of the resources was replaced, or would have been replaced if this were not a test run.
 	 * @throws NullPointerException if any of the given arguments are <code>null</code>.
 	 * @throws IOException if there is an I/O error while performing the action.
 	 */
-	protected void resolveContent(Resolution resolution, final Repository sourceRepository, final URFResource sourceResourceDescription,
+	protected boolean resolveContent(Resolution resolution, final Repository sourceRepository, final URFResource sourceResourceDescription,
 			final Date sourceContentModified, final Repository destinationRepository, final URFResource destinationResourceDescription,
 			final Date destinationContentModified) throws IOException {
 		if(resolution == Resolution.IGNORE) { //if this situation should be ignored
-			return; //don't do anything
+			return false; //don't do anything
 		}
 		if(resolution == Resolution.SYNCHRONIZE) { //if we should synchronize the resource content
 			if(sourceContentModified != null) { //if there is a source date
@@ -462,7 +1143,7 @@ protected void resolveContent(Resolution resolution, final Repository sourceRepo
 					} else if(dateComparison < 0) { //if the source is older than the destination
 						resolution = Resolution.RESTORE; //copy the destination to the source
 					} else { //if the two resources have the same date
-						return; //don't do anything
+						return false; //don't do anything
 					}
 				} else { //if we only have a source date
 					resolution = Resolution.BACKUP; //assume the source is newer; back it up
@@ -497,10 +1178,14 @@ protected void resolveContent(Resolution resolution, final Repository sourceRepo
 		}
 		final URI inputResourceURI = inputResourceDescription.getURI();
 		final URI outputResourceURI = outputResourceDescription.getURI();
-		Log.info(getTestStatus(), "Resolve content:", resolution, "copy", inputResourceURI, outputResourceURI);
-		Log.debug(getTestStatus(), URF.toString(sourceResourceDescription));
-		Log.debug(getTestStatus(), URF.toString(destinationResourceDescription));
+		log(Log.Level.INFO, getTestStatus(), "Resolve content:", resolution, "copy", inputResourceURI, outputResourceURI);
+		log(Log.Level.DEBUG, getTestStatus(), URF.toString(sourceResourceDescription));
+		log(Log.Level.DEBUG, getTestStatus(), URF.toString(destinationResourceDescription));
 		if(!isTest()) { //if this is not just a test
+			if(getLevelBatch(outputRepository) != null) { //if changes are being recorded in a batch, the content will be copied when the batch is committed
+				currentLevelBatch.get().recordContent(inputRepository, inputResourceDescription, outputResourceDescription);
+				return true;
+			}
 			final long inputContentLength = getContentLength(inputResourceDescription); //get the size of the input resource, if we know it
 			final ISODateTime inputContentModified = getModified(inputResourceDescription); //get the date of the input resource, if any
 			final InputStream inputStream = inputRepository.getResourceInputStream(inputResourceURI); //get an input stream to the input resource
@@ -515,6 +1200,7 @@ protected void resolveContent(Resolution resolution, final Repository sourceRepo
 				inputStream.close(); //always close the input stream
 			}
 		}
+		return true;
 	}
 
 	/**
@@ -531,15 +1217,16 @@ protected void resolveContent(Resolution resolution, final Repository sourceRepo
 	 * @param destinationRepository The destination repository.
 	 * @param destinationResourceDescription The description of the destination resource.
 	 * @param destinationContentModified The date and time at which the content of the destination was modified, or <code>null</code> if not known.
+	 * @return <code>true</code> if the metadata of one of the resources was altered, or would have been altered if this were not a test run.
 	 * @throws NullPointerException if any of the given arguments are <code>null</code>.
 	 * @throws IOException if there is an I/O error while performing the action.
 	 * @see #isForceWriteMetadata()
 	 */
-	protected void resolveMetadata(Resolution resolution, final Repository sourceRepository, final URFResource sourceResourceDescription,
+	protected boolean resolveMetadata(Resolution resolution, final Repository sourceRepository, final URFResource sourceResourceDescription,
 			Date sourceContentModified, final Repository destinationRepository, final URFResource destinationResourceDescription, Date destinationContentModified)
 			throws IOException {
 		if(resolution == Resolution.IGNORE) { //if this situation should be ignored
-			return; //don't do anything
+			return false; //don't do anything
 		}
 		final boolean isCollection = isCollectionURI(sourceResourceDescription.getURI());
 		final long sourceContentLength = getContentLength(sourceResourceDescription);
@@ -609,7 +1296,7 @@ protected void resolveMetadata(Resolution resolution, final Repository sourceRep
 						}
 					}
 					if(resolution != Resolution.IGNORE) {
-						Log.info(getTestStatus(), "Resolve metadata:", resolution, "set property", outputResourceDescription.getURI(), inputProperty);
+						log(Log.Level.INFO, getTestStatus(), "Resolve metadata:", resolution, "set property", outputResourceDescription.getURI(), inputProperty);
 						outputPropertyURIRemovals.add(inputPropertyURI); //we'll replace all of these properties in the output
 						outputPropertyAdditions.add(inputProperty); //we'll add this new property and value to the output
 					}
@@ -630,7 +1317,7 @@ protected void resolveMetadata(Resolution resolution, final Repository sourceRep
 							}
 						}
 						if(resolution != Resolution.IGNORE) {
-							Log.info(getTestStatus(), "Resolve metadata:", resolution, "remove property", outputResourceDescription.getURI(), outputProperty.getPropertyURI());
+							log(Log.Level.INFO, getTestStatus(), "Resolve metadata:", resolution, "remove property", outputResourceDescription.getURI(), outputProperty.getPropertyURI());
 							outputPropertyURIRemovals.add(outputPropertyURI); //we'll remove all of these properties in the output; if there were any replacements they will have already been added 
 						}
 					}
@@ -638,13 +1325,19 @@ protected void resolveMetadata(Resolution resolution, final Repository sourceRep
 			}
 		}
 		if(!outputPropertyURIRemovals.isEmpty() || !outputPropertyAdditions.isEmpty() || isForceWriteMetadata()) { //if we have something to change, or if we should unconditionally write metadata
-			Log.debug(getTestStatus(), URF.toString(sourceResourceDescription));
-			Log.debug(getTestStatus(), URF.toString(destinationResourceDescription));
+			log(Log.Level.DEBUG, getTestStatus(), URF.toString(sourceResourceDescription));
+			log(Log.Level.DEBUG, getTestStatus(), URF.toString(destinationResourceDescription));
 			final URFResourceAlteration outputResourceAlteration = new DefaultURFResourceAlteration(outputPropertyURIRemovals, outputPropertyAdditions);
 			if(!isTest()) { //if this is not just a test
-				outputRepository.alterResourceProperties(outputResourceDescription.getURI(), outputResourceAlteration); //alter the output resource properties
+				if(getLevelBatch(outputRepository) != null) { //if changes are being recorded in a batch, record the alteration
+					currentLevelBatch.get().recordAlteration(outputResourceDescription.getURI(), outputResourceAlteration);
+				} else {
+					outputRepository.alterResourceProperties(outputResourceDescription.getURI(), outputResourceAlteration); //alter the output resource properties
+				}
 			}
+			return true;
 		}
+		return false;
 	}
 
 	/** @return A status string indicating whether synchronization is in test mode. */
@@ -652,4 +1345,563 @@ protected String getTestStatus() {
 		return isTest() ? "(test)" : "*";
 	}
 
+	/**
+	 * Logs information about synchronization. During parallel synchronization the information is buffered by the current task until its resource has been
+	 * resolved.
+	 * @param level The level of the information to log.
+	 * @param objects The objects to log.
+	 * @see Log.Level#INFO
+	 * @see Log.Level#DEBUG
+	 */
+	protected void log(final Log.Level level, final Object... objects) {
+		final SynchronizationTask synchronizationTask = currentSynchronizationTask.get();
+		if(synchronizationTask != null) { //if we are synchronizing in parallel, let the task decide when to report the information
+			synchronizationTask.log(level, objects);
+		} else {
+			report(level, objects);
+		}
+	}
+
+	/**
+	 * Reports information about synchronization to the log immediately.
+	 * @param level The level of the information to log.
+	 * @param objects The objects to log.
+	 * @throws IllegalArgumentException if the given level is not supported.
+	 */
+	private static void report(final Log.Level level, final Object... objects) {
+		switch(level) {
+			case DEBUG:
+				Log.debug(objects);
+				break;
+			case INFO:
+				Log.info(objects);
+				break;
+			default:
+				throw new IllegalArgumentException("Unsupported log level " + level);
+		}
+	}
+
+	/**
+	 * An action to perform once the batch of changes to the children of a collection has been committed.
+	 * @author Garret Wilson
+	 */
+	private interface DeferredAction {
+
+		/**
+		 * Performs the action.
+		 * @throws IOException if there is an I/O error while performing the action.
+		 */
+		public void perform() throws IOException;
+	}
+
+	/**
+	 * The changes to the children of a collection being synchronized, recorded in a single batch for the destination {@link BatchRepository} and committed once
+	 * all the children have been resolved. Replaced content is only retrieved when the batch is committed, so that any metadata alteration of the same resource
+	 * can be stored along with the content. Once the batch has been committed, the actions deferred until then are performed. During parallel synchronization a
+	 * level batch is shared by the tasks resolving the children, so its methods are synchronized, and the underlying {@link RepositoryBatch}, which is not
+	 * thread-safe, is only used while holding its lock.
+	 * @author Garret Wilson
+	 */
+	private class LevelBatch {
+
+		/** The repository to be changed. */
+		private final BatchRepository repository;
+
+		/** The message describing the changes. */
+		private final String message;
+
+		/** The batch of changes to the repository, or <code>null</code> if no batch has yet been begun. */
+		private RepositoryBatch batch = null;
+
+		/** The content replacements to store when the batch is committed, keyed to the URIs of the output resources. */
+		private final Map<URI, ContentReplacement> contentReplacements = new LinkedHashMap<URI, ContentReplacement>();
+
+		/** The actions to perform once the batch has been committed, in the order deferred. */
+		private final List<DeferredAction> deferredActions = new ArrayList<DeferredAction>();
+
+		/**
+		 * Repository and message constructor.
+		 * @param repository The repository to be changed.
+		 * @param message The message describing the changes.
+		 */
+		public LevelBatch(final BatchRepository repository, final String message) {
+			this.repository = requireNonNull(repository);
+			this.message = requireNonNull(message);
+		}
+
+		/**
+		 * Returns the batch of changes to the given repository, beginning a batch if needed.
+		 * @param repository The repository to be changed.
+		 * @return The batch of changes to the repository, or <code>null</code> if changes to the given repository are not recorded in this batch.
+		 * @throws IOException if there is an error beginning the batch.
+		 */
+		public synchronized RepositoryBatch getBatch(final Repository repository) throws IOException {
+			if(repository != this.repository) {
+				return null;
+			}
+			if(batch == null) {
+				batch = this.repository.beginBatch(message);
+			}
+			return batch;
+		}
+
+		/**
+		 * Records the replacement of the content of an output resource in the repository with the content of an input resource.
+		 * @param inputRepository The repository from which the content is being copied.
+		 * @param inputResourceDescription The description of the input resource.
+		 * @param outputResourceDescription The description of the output resource.
+		 */
+		public synchronized void recordContent(final Repository inputRepository, final URFResource inputResourceDescription,
+				final URFResource outputResourceDescription) {
+			contentReplacements.put(outputResourceDescription.getURI(), new ContentReplacement(inputRepository, inputResourceDescription, outputResourceDescription));
+		}
+
+		/**
+		 * Records the alteration of the properties of an output resource in the repository. If the content of the resource is being replaced, the alteration is
+		 * stored along with the content.
+		 * @param outputResourceURI The URI of the resource.
+		 * @param outputResourceAlteration The alteration of the resource properties.
+		 * @throws IOException if there is an error recording the alteration.
+		 */
+		public synchronized void recordAlteration(final URI outputResourceURI, final URFResourceAlteration outputResourceAlteration) throws IOException {
+			final ContentReplacement contentReplacement = contentReplacements.get(outputResourceURI);
+			if(contentReplacement != null) { //a resource may only be changed once in a batch
+				contentReplacement.outputResourceAlteration = outputResourceAlteration;
+			} else {
+				final RepositoryBatch batch = getBatch(repository);
+				synchronized(batch) {
+					batch.alterResourceProperties(outputResourceURI, outputResourceAlteration);
+				}
+			}
+		}
+
+		/**
+		 * Defers an action until the batch has been committed.
+		 * @param deferredAction The action to perform after committing.
+		 */
+		public synchronized void defer(final DeferredAction deferredAction) {
+			deferredActions.add(requireNonNull(deferredAction));
+		}
+
+		/**
+		 * Stores the replaced contents in the batch, commits the batch, and then performs the deferred actions. This method must only be called once all the
+		 * children have been resolved.
+		 * @throws IOException if there is an error committing the batch or performing the deferred actions.
+		 */
+		public synchronized void commit() throws IOException {
+			try {
+				if(!contentReplacements.isEmpty()) {
+					final RepositoryBatch batch = getBatch(repository);
+					for(final ContentReplacement contentReplacement : contentReplacements.values()) {
+						contentReplacement.store(batch);
+					}
+				}
+				if(batch != null) {
+					log(Log.Level.DEBUG, getTestStatus(), "Committing", batch.getSize(), "resources", message);
+					batch.commit();
+				}
+			} finally {
+				discard();
+			}
+			for(final DeferredAction deferredAction : deferredActions) {
+				deferredAction.perform();
+			}
+			deferredActions.clear();
+		}
+
+		/** Discards the batch if it has not yet been committed, releasing any recorded contents. */
+		public synchronized void discard() {
+			if(batch != null) {
+				batch.discard(); //this has no effect if the batch was committed
+			}
+			contentReplacements.clear();
+		}
+
+		/**
+		 * The replacement of the content of an output resource with the content of an input resource, along with any alteration of the output resource properties.
+		 * @author Garret Wilson
+		 */
+		private class ContentReplacement {
+
+			private final Repository inputRepository;
+			private final URFResource inputResourceDescription;
+			private final URFResource outputResourceDescription;
+
+			/** The alteration of the output resource properties, or <code>null</code> if the properties are not being altered. */
+			URFResourceAlteration outputResourceAlteration = null;
+
+			/**
+			 * Constructor.
+			 * @param inputRepository The repository from which the content is being copied.
+			 * @param inputResourceDescription The description of the input resource.
+			 * @param outputResourceDescription The description of the output resource.
+			 */
+			ContentReplacement(final Repository inputRepository, final URFResource inputResourceDescription, final URFResource outputResourceDescription) {
+				this.inputRepository = inputRepository;
+				this.inputResourceDescription = inputResourceDescription;
+				this.outputResourceDescription = outputResourceDescription;
+			}
+
+			/**
+			 * Stores the content of the input resource in the given batch, along with the description of the output resource with any alteration applied and with
+			 * the content modified datetime of the input resource, if any.
+			 * @param batch The batch of changes to the output repository.
+			 * @throws IOException if there is an error copying the content.
+			 */
+			void store(final RepositoryBatch batch) throws IOException {
+				final URI outputResourceURI = outputResourceDescription.getURI();
+				final URFResource resourceDescription = new DefaultURFResource(outputResourceDescription, outputResourceURI); //don't modify the original description
+				if(outputResourceAlteration != null) {
+					for(final URI propertyURIRemoval : outputResourceAlteration.getPropertyURIRemovals()) {
+						resourceDescription.removePropertyValues(propertyURIRemoval);
+					}
+					for(final URFProperty propertyAddition : outputResourceAlteration.getPropertyAdditions()) {
+						resourceDescription.addProperty(propertyAddition);
+					}
+				}
+				final ISODateTime inputContentModified = getModified(inputResourceDescription);
+				if(inputContentModified != null) { //keep the content modified datetime of the input resource, as when writing the content directly
+					setModified(resourceDescription, inputContentModified);
+				}
+				final InputStream inputStream = inputRepository.getResourceInputStream(inputResourceDescription.getURI());
+				try {
+					final OutputStream outputStream = batch.createResource(outputResourceURI, resourceDescription); //an existing resource is updated in place
+					try {
+						Streams.copy(inputStream, outputStream, getContentLength(inputResourceDescription), getProgressListener());
+					} finally {
+						outputStream.close();
+					}
+				} finally {
+					inputStream.close();
+				}
+			}
+		}
+	}
+
+	/**
+	 * A task for synchronizing a resource and, after the resource is synchronized, its children concurrently. If the changes to the children are recorded in a
+	 * batch, the task commits the batch once the child tasks have finished, and then synchronizes the descendants of the children concurrently. Information
+	 * logged while the resource is being synchronized is buffered, and once the resource has been resolved it is reported all at once in the order logged,
+	 * prefixed with the path of the resource relative to the source base URI. Because the children are only started after the resource has been resolved, the
+	 * information of a task is always reported after that of its ancestors. If any task fails, the tasks sharing its cancellation flag stop synchronizing further
+	 * resources.
+	 * @author Garret Wilson
+	 */
+	private class SynchronizationTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		/** The semaphores limiting the concurrency of each repository; repositories without semaphores are not limited. */
+		private final Map<Repository, Semaphore> repositorySemaphores;
+
+		/** The flag shared by all tasks of a synchronization indicating that no further resources should be synchronized. */
+		private final AtomicBoolean cancelled;
+
+		private final Repository sourceRepository;
+		private final URI sourceBaseURI;
+		private final URI sourceResourceURI;
+		private final URFResource sourceResourceDescription;
+		private final Repository destinationRepository;
+		private final URI destinationBaseURI;
+		private final URI destinationResourceURI;
+		private final URFResource destinationResourceDescription;
+
+		/** Whether the resources have already been synchronized, so that only their children should be synchronized. */
+		private final boolean isResolved;
+
+		/** The batch in which the changes to the resources are recorded, or <code>null</code> if the changes are not being recorded in a batch. */
+		private final LevelBatch levelBatch;
+
+		/** The batch in which the changes to the children are recorded, to be committed once the child tasks have finished, or <code>null</code> if none. */
+		private LevelBatch childLevelBatch = null;
+
+		/** The prefix identifying the information logged by this task. */
+		private final String logPrefix;
+
+		/** The buffered log entries, each consisting of the level followed by the objects to log. */
+		private final List<Object[]> logEntries = new ArrayList<Object[]>();
+
+		/** The child tasks to perform after this resource has been synchronized, in the order discovered. */
+		private final List<SynchronizationTask> childTasks = new ArrayList<SynchronizationTask>();
+
+		/**
+		 * Constructor.
+		 * @param repositorySemaphores The semaphores limiting the concurrency of each repository; repositories without semaphores are not limited.
+		 * @param cancelled The flag shared by all tasks of a synchronization indicating that no further resources should be synchronized.
+		 * @param sourceRepository The repository in which the source resource lies.
+		 * @param sourceBaseURI The base URI in the source repository; the root of the source tree being synchronized.
+		 * @param sourceResourceURI The URI of the source resource.
+		 * @param sourceResourceDescription The description of the source resource, or <code>null</code> if the source resource does not exist.
+		 * @param destinationRepository The repository in which the destination resource lies.
+		 * @param destinationBaseURI The base URI in the destination repository; the root of the destination tree being synchronized.
+		 * @param destinationResourceURI The URI of the destination resource.
+		 * @param destinationResourceDescription The description of the destination resource, or <code>null</code> if the destination resource does not exist.
+		 */
+		public SynchronizationTask(final Map<Repository, Semaphore> repositorySemaphores, final AtomicBoolean cancelled, final Repository sourceRepository,
+				final URI sourceBaseURI, final URI sourceResourceURI, final URFResource sourceResourceDescription, final Repository destinationRepository,
+				final URI destinationBaseURI, final URI destinationResourceURI, final URFResource destinationResourceDescription) {
+			this(repositorySemaphores, cancelled, sourceRepository, sourceBaseURI, sourceResourceURI, sourceResourceDescription, destinationRepository,
+					destinationBaseURI, destinationResourceURI, destinationResourceDescription, false, null);
+		}
+
+		/**
+		 * Constructor.
+		 * @param repositorySemaphores The semaphores limiting the concurrency of each repository; repositories without semaphores are not limited.
+		 * @param cancelled The flag shared by all tasks of a synchronization indicating that no further resources should be synchronized.
+		 * @param sourceRepository The repository in which the source resource lies.
+		 * @param sourceBaseURI The base URI in the source repository; the root of the source tree being synchronized.
+		 * @param sourceResourceURI The URI of the source resource.
+		 * @param sourceResourceDescription The description of the source resource, or <code>null</code> if the source resource does not exist.
+		 * @param destinationRepository The repository in which the destination resource lies.
+		 * @param destinationBaseURI The base URI in the destination repository; the root of the destination tree being synchronized.
+		 * @param destinationResourceURI The URI of the destination resource.
+		 * @param destinationResourceDescription The description of the destination resource, or <code>null</code> if the destination resource does not exist.
+		 * @param isResolved Whether the resources, which must be existing collections, have already been synchronized, so that only their children should be
+		 *          synchronized.
+		 * @param levelBatch The batch in which to record the changes to the resources, or <code>null</code> if the changes are not being recorded in a batch.
+		 */
+		private SynchronizationTask(final Map<Repository, Semaphore> repositorySemaphores, final AtomicBoolean cancelled, final Repository sourceRepository,
+				final URI sourceBaseURI, final URI sourceResourceURI, final URFResource sourceResourceDescription, final Repository destinationRepository,
+				final URI destinationBaseURI, final URI destinationResourceURI, final URFResource destinationResourceDescription, final boolean isResolved,
+				final LevelBatch levelBatch) {
+			this.repositorySemaphores = repositorySemaphores;
+			this.cancelled = cancelled;
+			this.sourceRepository = sourceRepository;
+			this.sourceBaseURI = sourceBaseURI;
+			this.sourceResourceURI = sourceResourceURI;
+			this.sourceResourceDescription = sourceResourceDescription;
+			this.destinationRepository = destinationRepository;
+			this.destinationBaseURI = destinationBaseURI;
+			this.destinationResourceURI = destinationResourceURI;
+			this.destinationResourceDescription = destinationResourceDescription;
+			this.isResolved = isResolved;
+			this.levelBatch = levelBatch;
+			final String relativePath = sourceBaseURI.relativize(sourceResourceURI).getRawPath();
+			this.logPrefix = "[" + (relativePath.isEmpty() ? "." : relativePath) + "]";
+		}
+
+		/**
+		 * Schedules a child resource to be synchronized after this resource has been synchronized.
+		 * @param sourceRepository The repository in which the source resource lies.
+		 * @param sourceBaseURI The base URI in the source repository; the root of the source tree being synchronized.
+		 * @param sourceResourceURI The URI of the source resource.
+		 * @param sourceResourceDescription The description of the source resource, or <code>null</code> if the source resource does not exist.
+		 * @param destinationRepository The repository in which the destination resource lies.
+		 * @param destinationBaseURI The base URI in the destination repository; the root of the destination tree being synchronized.
+		 * @param destinationResourceURI The URI of the destination resource.
+		 * @param destinationResourceDescription The description of the destination resource, or <code>null</code> if the destination resource does not exist.
+		 * @param levelBatch The batch in which to record the changes to the child resource, or <code>null</code> if the changes are not being recorded in a batch.
+		 */
+		public void addChildTask(final Repository sourceRepository, final URI sourceBaseURI, final URI sourceResourceURI,
+				final URFResource sourceResourceDescription, final Repository destinationRepository, final URI destinationBaseURI, final URI destinationResourceURI,
+				final URFResource destinationResourceDescription, final LevelBatch levelBatch) {
+			childTasks.add(new SynchronizationTask(repositorySemaphores, cancelled, sourceRepository, sourceBaseURI, sourceResourceURI, sourceResourceDescription,
+					destinationRepository, destinationBaseURI, destinationResourceURI, destinationResourceDescription, false, levelBatch));
+		}
+
+		/**
+		 * Schedules the children of two existing collections that have already been synchronized to be synchronized after this resource has been synchronized.
+		 * @param sourceRepository The repository in which the source resource lies.
+		 * @param sourceBaseURI The base URI in the source repository; the root of the source tree being synchronized.
+		 * @param sourceResourceURI The URI of the source collection.
+		 * @param destinationRepository The repository in which the destination resource lies.
+		 * @param destinationBaseURI The base URI in the destination repository; the root of the destination tree being synchronized.
+		 * @param destinationResourceURI The URI of the destination collection.
+		 */
+		public void addDescendantsTask(final Repository sourceRepository, final URI sourceBaseURI, final URI sourceResourceURI,
+				final Repository destinationRepository, final URI destinationBaseURI, final URI destinationResourceURI) {
+			childTasks.add(new SynchronizationTask(repositorySemaphores, cancelled, sourceRepository, sourceBaseURI, sourceResourceURI, null, destinationRepository,
+					destinationBaseURI, destinationResourceURI, null, true, null));
+		}
+
+		/**
+		 * Sets the batch in which the changes to the children are recorded, to be committed by this task once the child tasks have finished.
+		 * @param childLevelBatch The batch in which the changes to the children are recorded.
+		 * @throws IllegalStateException if a batch for the children has already been set.
+		 */
+		public void setChildLevelBatch(final LevelBatch childLevelBatch) {
+			checkState(this.childLevelBatch == null, "Batch for children of {0} already set.", sourceResourceURI);
+			this.childLevelBatch = requireNonNull(childLevelBatch);
+		}
+
+		/**
+		 * Buffers information about synchronization to be reported once this resource has been resolved.
+		 * @param level The level of the information to log.
+		 * @param objects The objects to log.
+		 * @see #reportLog()
+		 */
+		public void log(final Log.Level level, final Object... objects) {
+			final Object[] logEntry = new Object[objects.length + 2];
+			logEntry[0] = level;
+			logEntry[1] = logPrefix;
+			System.arraycopy(objects, 0, logEntry, 2, objects.length);
+			logEntries.add(logEntry);
+		}
+
+		/** Reports the buffered information, prefixed to identify this task, without interruption by other tasks, and then releases the buffered information. */
+		private void reportLog() {
+			if(!logEntries.isEmpty()) {
+				synchronized(reportLock) {
+					for(final Object[] logEntry : logEntries) {
+						report((Log.Level)logEntry[0], Arrays.copyOfRange(logEntry, 1, logEntry.length));
+					}
+				}
+				logEntries.clear();
+			}
+		}
+
+		/**
+		 * {@inheritDoc}
+		 * <p>
+		 * This implementation synchronizes the resource while holding a permit for each limited repository, and then synchronizes the child resources concurrently
+		 * without holding any permits, so that the child tasks cannot be starved by their ancestors. If the changes to the children are recorded in a batch, the
+		 * batch is committed while again holding the permits once the child tasks have finished, and the descendants of the children are then synchronized
+		 * concurrently. If synchronization has been cancelled, nothing is done. If this task or one of its child tasks fails, synchronization is cancelled, any
+		 * child tasks not yet started are cancelled, and the batch of changes to the children, if any, is discarded.
+		 * </p>
+		 * @throws UncheckedIOException if there is an I/O error while synchronizing the resources.
+		 */
+		@Override
+		protected void compute() {
+			if(cancelled.get()) { //if another task has failed, don't synchronize anything else
+				return;
+			}
+			try {
+				resolve(false);
+				if(childLevelBatch != null) { //if the changes to the children are recorded in a batch, commit them once all the children have been resolved
+					if(!performChildTasks()) {
+						return;
+					}
+					resolve(true); //committing the batch will add tasks for synchronizing the descendants of the children
+				}
+				performChildTasks();
+			} finally {
+				if(childLevelBatch != null) {
+					childLevelBatch.discard(); //release any recorded contents; this has no effect if the batch was committed
+				}
+			}
+		}
+
+		/**
+		 * Synchronizes the resources, or commits the batch of changes to the children, while holding a permit for each limited repository. Any changes to the
+		 * resources are recorded in the batch of the parent task, if any. The information logged in the meantime is reported afterwards.
+		 * @param commit <code>true</code> if the batch of changes to the children should be committed, or <code>false</code> if the resources should be
+		 *          synchronized.
+		 * @throws UncheckedIOException if there is an I/O error while synchronizing the resources or committing the batch.
+		 */
+		private void resolve(final boolean commit) {
+			final SynchronizationTask previousSynchronizationTask = currentSynchronizationTask.get(); //a thread may perform this task while waiting on another
+			final LevelBatch previousLevelBatch = currentLevelBatch.get();
+			currentSynchronizationTask.set(this);
+			currentLevelBatch.set(levelBatch);
+			try {
+				final Semaphore sourceSemaphore = repositorySemaphores.get(sourceRepository);
+				final Semaphore destinationSemaphore = destinationRepository != sourceRepository ? repositorySemaphores.get(destinationRepository) : null; //a repository synchronized with itself only needs one permit
+				acquire(sourceSemaphore); //always acquire the permits in the same order to prevent deadlock
+				try {
+					acquire(destinationSemaphore);
+					try {
+						if(commit) { //the deferred actions will add the descendants of the children as child tasks
+							childLevelBatch.commit();
+						} else if(isResolved) { //if the resources have already been synchronized, just synchronize their children
+							synchronizeChildren(sourceRepository, sourceBaseURI, sourceResourceURI, destinationRepository, destinationBaseURI, destinationResourceURI);
+						} else {
+							synchronize(sourceRepository, sourceBaseURI, sourceResourceURI, sourceResourceDescription, destinationRepository, destinationBaseURI,
+									destinationResourceURI, destinationResourceDescription); //any children will be added as child tasks rather than synchronized
+						}
+					} finally {
+						release(destinationSemaphore);
+					}
+				} finally {
+					release(sourceSemaphore);
+				}
+			} catch(final IOException ioException) {
+				cancelled.set(true);
+				throw new UncheckedIOException(ioException);
+			} catch(final RuntimeException runtimeException) {
+				cancelled.set(true);
+				throw runtimeException;
+			} finally {
+				currentLevelBatch.set(previousLevelBatch);
+				currentSynchronizationTask.set(previousSynchronizationTask);
+				reportLog(); //the resource is resolved, even if unsuccessfully
+			}
+		}
+
+		/**
+		 * Starts the child tasks added so far and waits for them to finish, unless synchronization has been cancelled.
+		 * @return <code>true</code> if the child tasks were performed and synchronization has not been cancelled.
+		 * @throws RuntimeException if one of the child tasks failed.
+		 */
+		private boolean performChildTasks() {
+			if(cancelled.get()) { //if another task failed while we were synchronizing this resource, don't start the children
+				return false;
+			}
+			for(final SynchronizationTask childTask : childTasks) { //start all the child tasks
+				childTask.fork();
+			}
+			for(int i = 0; i < childTasks.size(); ++i) { //wait for each child task
+				try {
+					childTasks.get(i).join();
+				} catch(final RuntimeException runtimeException) {
+					cancelled.set(true);
+					for(int j = i + 1; j < childTasks.size(); ++j) { //cancel the child tasks that have not yet started
+						childTasks.get(j).cancel(false);
+					}
+					throw runtimeException;
+				}
+			}
+			childTasks.clear(); //release the memory used by the child tasks
+			return !cancelled.get();
+		}
+
+		/**
+		 * Acquires a permit from the given semaphore, if any. The waiting is managed by the fork/join pool, which may activate another thread in the meantime to
+		 * keep the pool busy.
+		 * @param semaphore The semaphore from which to acquire a permit, or <code>null</code> if no permit is needed.
+		 * @throws InterruptedIOException if the thread was interrupted while waiting for a permit.
+		 * @see ForkJoinPool#managedBlock(ForkJoinPool.ManagedBlocker)
+		 */
+		private void acquire(final Semaphore semaphore) throws InterruptedIOException {
+			if(semaphore != null) {
+				try {
+					ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+
+						private boolean acquired = false;
+
+						@Override
+						public boolean block() throws InterruptedException {
+							if(!acquired) {
+								semaphore.acquire();
+								acquired = true;
+							}
+							return true;
+						}
+
+						@Override
+						public boolean isReleasable() {
+							if(!acquired) {
+								acquired = semaphore.tryAcquire();
+							}
+							return acquired;
+						}
+					});
+				} catch(final InterruptedException interruptedException) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException("Interrupted while waiting to synchronize " + sourceResourceURI);
+				}
+			}
+		}
+
+		/**
+		 * Releases a permit to the given semaphore, if any.
+		 * @param semaphore The semaphore to which to release a permit, or <code>null</code> if no permit was needed.
+		 */
+		private void release(final Semaphore semaphore) {
+			if(semaphore != null) {
+				semaphore.release();
+			}
+		}
+	}
+
 }
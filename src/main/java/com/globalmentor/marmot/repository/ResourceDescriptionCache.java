@@ -0,0 +1,355 @@
+/*
+ * Copyright © 2013 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.marmot.repository;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.urframework.*;
+
+import static com.globalmentor.java.Conditions.*;
+import static com.globalmentor.net.URIs.*;
+import static java.util.Objects.*;
+
+/**
+ * A size-bounded cache of resource descriptions, keyed to resource URIs. The least recently used description is evicted when the cache is full, and
+ * descriptions are discarded once they are older than the configured time to live.
+ * <p>
+ * The cache stores the description instances it is given and does not copy them; a description must therefore not be modified once it has been cached or
+ * retrieved. {@link AbstractRepository} caches its own deep copies of descriptions and returns deep copies to its callers.
+ * </p>
+ * <p>
+ * To prevent a description retrieved before a resource was modified from being cached after the modification, a caller retrieving a description notes the
+ * {@link #getGeneration()} of the cache beforehand and passes it to {@link #put(URI, URFResource, long)}; the description will not be cached if the
+ * description of that resource has been invalidated in the meantime, whether directly or by the invalidation of a descendant or of an ancestor collection.
+ * The generation of the most recent invalidations is remembered for each resource, so that invalidating one resource doesn't prevent the descriptions of
+ * unrelated resources from being cached. To bound the memory used, only as many invalidations are remembered as descriptions may be cached; a description
+ * retrieved before the oldest invalidation remembered is never cached.
+ * </p>
+ * <p>
+ * Cached descriptions are indexed by URI, so that invalidating a collection only visits the cached descriptions within the collection.
+ * </p>
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ * @author Garret Wilson
+ * @see AbstractRepository#setResourceDescriptionCache(ResourceDescriptionCache)
+ */
+public class ResourceDescriptionCache {
+
+	/** The default maximum number of descriptions to cache. */
+	public static final int DEFAULT_MAXIMUM_SIZE = 1000;
+
+	/** The default time to live of a cached description, in milliseconds. */
+	public static final long DEFAULT_TIME_TO_LIVE = 60 * 1000;
+
+	/** The maximum number of descriptions to cache. */
+	private final int maximumSize;
+
+	/** @return The maximum number of descriptions to cache. */
+	public int getMaximumSize() {
+		return maximumSize;
+	}
+
+	/** The time to live of a cached description, in milliseconds. */
+	private final long timeToLive;
+
+	/** @return The time to live of a cached description, in milliseconds. */
+	public long getTimeToLive() {
+		return timeToLive;
+	}
+
+	/** The number of descriptions found in the cache. */
+	private long hitCount = 0;
+
+	/** @return The number of descriptions found in the cache. */
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	/** The number of descriptions requested but not found in the cache. */
+	private long missCount = 0;
+
+	/** @return The number of descriptions requested but not found in the cache. */
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	/** The number of descriptions discarded because the cache was full or the descriptions had expired. */
+	private long evictionCount = 0;
+
+	/** @return The number of descriptions discarded because the cache was full or the descriptions had expired. */
+	public synchronized long getEvictionCount() {
+		return evictionCount;
+	}
+
+	/** The cached entries, in order of least recent access. */
+	private final Map<URI, CacheEntry> entries = new LinkedHashMap<URI, CacheEntry>(16, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<URI, CacheEntry> eldest) {
+			if(size() > getMaximumSize()) { //if the cache has grown too large
+				++evictionCount; //this method is only called from synchronized methods of the cache
+				entryURIs.remove(eldest.getKey().toString());
+				return true;
+			}
+			return false;
+		}
+	};
+
+	/** The URIs of the cached entries, sorted by their string forms so that the entries within a collection can be found without visiting the others. */
+	private final NavigableMap<String, URI> entryURIs = new TreeMap<String, URI>();
+
+	/** The number of times descriptions have been invalidated or cleared. */
+	private long generation = 0;
+
+	/** The generation at which the description of each resource was last invalidated, in order of least recent invalidation. */
+	private final Map<URI, Long> resourceGenerations = new LinkedHashMap<URI, Long>();
+
+	/** The generation at which each collection and all its descendants were last invalidated, in order of least recent invalidation. */
+	private final Map<URI, Long> treeGenerations = new LinkedHashMap<URI, Long>();
+
+	/** The latest generation of the invalidations no longer remembered; descriptions retrieved before this generation are not cached. */
+	private long forgottenGeneration = 0;
+
+	/**
+	 * Returns the current generation of the cache, which changes each time descriptions are invalidated or cleared. A caller should note the generation before
+	 * retrieving a description to be cached.
+	 * @return The current generation of the cache.
+	 * @see #put(URI, URFResource, long)
+	 */
+	public synchronized long getGeneration() {
+		return generation;
+	}
+
+	/** @return The number of descriptions currently cached, some of which may have expired. */
+	public synchronized int getSize() {
+		return entries.size();
+	}
+
+	/**
+	 * Default constructor using the default maximum size and time to live.
+	 * @see #DEFAULT_MAXIMUM_SIZE
+	 * @see #DEFAULT_TIME_TO_LIVE
+	 */
+	public ResourceDescriptionCache() {
+		this(DEFAULT_MAXIMUM_SIZE, DEFAULT_TIME_TO_LIVE);
+	}
+
+	/**
+	 * Maximum size and time to live constructor.
+	 * @param maximumSize The maximum number of descriptions to cache.
+	 * @param timeToLive The time to live of a cached description, in milliseconds.
+	 * @throws IllegalArgumentException if the given maximum size and/or time to live is not positive.
+	 */
+	public ResourceDescriptionCache(final int maximumSize, final long timeToLive) {
+		checkArgument(maximumSize > 0, "Invalid maximum size {0}.", maximumSize);
+		checkArgument(timeToLive > 0, "Invalid time to live {0}.", timeToLive);
+		this.maximumSize = maximumSize;
+		this.timeToLive = timeToLive;
+	}
+
+	/**
+	 * Retrieves the cached description of the given resource. The returned description must not be modified.
+	 * @param resourceURI The URI of the resource.
+	 * @return The cached description of the resource, or <code>null</code> if no unexpired description is cached.
+	 * @throws NullPointerException if the given resource URI is <code>null</code>.
+	 */
+	public synchronized URFResource get(final URI resourceURI) {
+		final CacheEntry entry = entries.get(requireNonNull(resourceURI, "Resource URI cannot be null."));
+		if(entry != null) {
+			if(!entry.isExpired()) { //if the entry is still fresh
+				++hitCount;
+				return entry.getResourceDescription();
+			}
+			removeEntry(resourceURI); //discard the stale entry
+			++evictionCount;
+		}
+		++missCount;
+		return null;
+	}
+
+	/**
+	 * Caches the description of the given resource, replacing any description already cached. The description must not be modified once cached.
+	 * @param resourceURI The URI of the resource.
+	 * @param resourceDescription The description of the resource.
+	 * @throws NullPointerException if the given resource URI and/or resource description is <code>null</code>.
+	 */
+	public synchronized void put(final URI resourceURI, final URFResource resourceDescription) {
+		requireNonNull(resourceURI, "Resource URI cannot be null.");
+		final CacheEntry entry = new CacheEntry(resourceDescription, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(getTimeToLive()));
+		entryURIs.put(resourceURI.toString(), resourceURI); //index the URI first, as adding the entry may evict another
+		entries.put(resourceURI, entry);
+	}
+
+	/**
+	 * Caches the description of the given resource if its description has not been invalidated since the given generation, replacing any description already
+	 * cached. The description must not be modified once cached.
+	 * @param resourceURI The URI of the resource.
+	 * @param resourceDescription The description of the resource.
+	 * @param generation The generation of the cache noted before the description was retrieved.
+	 * @return <code>true</code> if the description was cached, or <code>false</code> if the description may have been invalidated since the given generation.
+	 * @throws NullPointerException if the given resource URI and/or resource description is <code>null</code>.
+	 * @see #getGeneration()
+	 */
+	public synchronized boolean put(final URI resourceURI, final URFResource resourceDescription, final long generation) {
+		if(isInvalidatedSince(requireNonNull(resourceURI, "Resource URI cannot be null."), generation)) { //if the description may have been retrieved before a modification
+			return false;
+		}
+		put(resourceURI, resourceDescription);
+		return true;
+	}
+
+	/**
+	 * Determines whether the description of the given resource may have been invalidated since the given generation. This method must be called while holding
+	 * the lock of the cache.
+	 * @param resourceURI The URI of the resource.
+	 * @param generation The generation of the cache noted before the description was retrieved.
+	 * @return <code>true</code> if the description of the resource or the tree of one of its ancestors was invalidated after the given generation, or if the
+	 *         invalidations after the given generation are no longer all remembered.
+	 */
+	private boolean isInvalidatedSince(final URI resourceURI, final long generation) {
+		if(generation < forgottenGeneration) { //if we no longer know what was invalidated since the generation
+			return true;
+		}
+		final Long resourceGeneration = resourceGenerations.get(resourceURI);
+		if(resourceGeneration != null && resourceGeneration.longValue() > generation) {
+			return true;
+		}
+		for(URI treeURI = isCollectionURI(resourceURI) ? resourceURI : getParent(resourceURI); treeURI != null; treeURI = getParent(treeURI)) { //check the trees containing the resource
+			final Long treeGeneration = treeGenerations.get(treeURI);
+			if(treeGeneration != null && treeGeneration.longValue() > generation) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Removes any cached description of the given resource, along with the cached descriptions of its ancestors, the descriptions of which may depend on their
+	 * descendants. If the resource is a collection, the cached descriptions of all its descendants are removed as well. Removed descriptions are not counted as
+	 * evictions.
+	 * @param resourceURI The URI of the resource.
+	 * @throws NullPointerException if the given resource URI is <code>null</code>.
+	 */
+	public synchronized void invalidate(final URI resourceURI) {
+		final long generation = ++this.generation; //any description of these resources being retrieved may already be out of date
+		for(URI ancestorURI = getParent(resourceURI); ancestorURI != null; ancestorURI = getParent(ancestorURI)) { //remove the ancestors
+			removeEntry(ancestorURI);
+			remember(resourceGenerations, ancestorURI, generation);
+		}
+		remember(resourceGenerations, resourceURI, generation);
+		if(isCollectionURI(resourceURI)) { //if this is a collection, remove the resource and all its descendants
+			remember(treeGenerations, resourceURI, generation);
+			final String resourceURIString = resourceURI.toString();
+			final Iterator<URI> uriIterator = entryURIs.subMap(resourceURIString, true, resourceURIString + Character.MAX_VALUE, false).values().iterator();
+			while(uriIterator.hasNext()) { //only the URIs beginning with the collection URI are visited
+				entries.remove(uriIterator.next());
+				uriIterator.remove();
+			}
+		} else {
+			removeEntry(resourceURI);
+		}
+	}
+
+	/** Removes all cached descriptions. Removed descriptions are not counted as evictions. */
+	public synchronized void clear() {
+		forgottenGeneration = ++generation; //no description retrieved before now may be cached
+		resourceGenerations.clear();
+		treeGenerations.clear();
+		entries.clear();
+		entryURIs.clear();
+	}
+
+	/**
+	 * Removes any cached description of the given resource. This method must be called while holding the lock of the cache.
+	 * @param resourceURI The URI of the resource.
+	 */
+	private void removeEntry(final URI resourceURI) {
+		if(entries.remove(resourceURI) != null) {
+			entryURIs.remove(resourceURI.toString());
+		}
+	}
+
+	/**
+	 * Remembers the generation at which a resource or tree was invalidated, forgetting the least recent invalidation if too many are remembered. This method must
+	 * be called while holding the lock of the cache.
+	 * @param generations The generations of invalidation to update, in order of least recent invalidation.
+	 * @param resourceURI The URI of the resource or tree invalidated.
+	 * @param generation The generation of the invalidation.
+	 */
+	private void remember(final Map<URI, Long> generations, final URI resourceURI, final long generation) {
+		generations.remove(resourceURI); //make this the most recent invalidation
+		generations.put(resourceURI, Long.valueOf(generation));
+		if(generations.size() > getMaximumSize()) { //if we are remembering too many invalidations, forget the oldest
+			final Iterator<Long> generationIterator = generations.values().iterator();
+			forgottenGeneration = Math.max(forgottenGeneration, generationIterator.next().longValue());
+			generationIterator.remove();
+		}
+	}
+
+	/**
+	 * Determines the parent of a resource in the URI hierarchy.
+	 * @param resourceURI The URI of the resource.
+	 * @return The URI of the parent collection, or <code>null</code> if the resource is at the top of the hierarchy.
+	 */
+	private static URI getParent(final URI resourceURI) {
+		final String path = resourceURI.getRawPath();
+		if(path == null || path.length() <= 1 || path.endsWith("/..")) { //stop at the top of the hierarchy
+			return null;
+		}
+		return resourceURI.resolve(isCollectionURI(resourceURI) ? ".." : ".");
+	}
+
+	/**
+	 * A cached description along with the time at which it expires.
+	 * @author Garret Wilson
+	 */
+	private static class CacheEntry {
+
+		/** The cached resource description. */
+		private final URFResource resourceDescription;
+
+		/** @return The cached resource description. */
+		public URFResource getResourceDescription() {
+			return resourceDescription;
+		}
+
+		/** The time, in terms of {@link System#nanoTime()}, at which the entry expires. */
+		private final long expiration;
+
+		/** @return <code>true</code> if the entry has expired. */
+		public boolean isExpired() {
+			return System.nanoTime() - expiration >= 0;
+		}
+
+		/**
+		 * Constructor.
+		 * @param resourceDescription The cached resource description.
+		 * @param expiration The time, in terms of {@link System#nanoTime()}, at which the entry expires.
+		 * @throws NullPointerException if the given resource description is <code>null</code>.
+		 */
+		public CacheEntry(final URFResource resourceDescription, final long expiration) {
+			this.resourceDescription = requireNonNull(resourceDescription, "Resource description cannot be null.");
+			this.expiration = expiration;
+		}
+	}
+
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright © 2013 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.marmot.repository;
+
+import java.io.IOException;
+
+import org.urframework.URFResource;
+
+/**
+ * A visitor of resource descriptions as they are retrieved from a repository.
+ * <p>
+ * Descriptions are provided one at a time as soon as they are available; a visitor that does not retain the descriptions allows an entire tree of resources to
+ * be processed without keeping the tree in memory. A collection is always visited before any of its children.
+ * </p>
+ * @author Garret Wilson
+ * @see Repository#visitChildResourceDescriptions(java.net.URI, ResourceFilter, int, ResourceVisitor)
+ */
+public interface ResourceVisitor {
+
+	/**
+	 * Visits a resource description.
+	 * @param resourceDescription The description of the resource being visited.
+	 * @return <code>true</code> if traversal should continue to other resources or <code>false</code> if traversal should stop.
+	 * @throws IOException if there is an error processing the resource.
+	 */
+	public boolean visit(final URFResource resourceDescription) throws IOException;
+
+}
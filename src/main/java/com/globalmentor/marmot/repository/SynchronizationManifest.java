@@ -0,0 +1,401 @@
+/*
+ * Copyright © 2013 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.marmot.repository;
+
+import java.io.*;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+import static java.util.Objects.*;
+
+/**
+ * A record of the state of synchronized resources as of the last synchronization, keyed to the path of each resource relative to the base of the tree being
+ * synchronized. A resource whose source and destination states both match those recorded in the manifest need not be compared again.
+ * <p>
+ * The manifest carries a <dfn>fingerprint</dfn> identifying the synchronization settings with which it was created; a manifest with a different fingerprint
+ * should not be used, as the recorded states may not reflect the results of the current settings.
+ * </p>
+ * <p>
+ * The manifest may also hold digests of resource contents, keyed to resource URI and the content length and modified time of the resource when the digest was
+ * determined, so that content digests need not be determined again for resources that have not changed. When the manifest is saved, only the digests of
+ * resources that were retrieved, recorded, or explicitly retained since the manifest was created or loaded are kept, so that the digests of resources no
+ * longer being synchronized do not accumulate.
+ * </p>
+ * <p>
+ * Manifests are stored in a compact binary format consisting of a header followed by a sequence of entries and then any content digests, so that manifests with
+ * many entries may be loaded quickly.
+ * </p>
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ * @author Garret Wilson
+ * @see RepositorySynchronizer#setManifestFile(File)
+ */
+public class SynchronizationManifest {
+
+	/** The value identifying a manifest file. */
+	private static final int MAGIC_NUMBER = 0x4D4D5346;
+
+	/** The version of the manifest file format. */
+	private static final int FORMAT_VERSION = 2;
+
+	/** The value indicating that a modified time is not known. */
+	public static final long UNKNOWN_TIME = Long.MIN_VALUE;
+
+	/** The fingerprint identifying the synchronization settings with which the manifest was created. */
+	private final String fingerprint;
+
+	/** @return The fingerprint identifying the synchronization settings with which the manifest was created. */
+	public String getFingerprint() {
+		return fingerprint;
+	}
+
+	/** The manifest entries, sorted by path so that the entries of a collection's descendants may be found together. */
+	private final NavigableMap<String, Entry> entries = new TreeMap<String, Entry>();
+
+	/** @return The number of entries in the manifest. */
+	public synchronized int getSize() {
+		return entries.size();
+	}
+
+	/** The known content digests, keyed to resource URIs. */
+	private final Map<URI, ContentDigest> contentDigests = new HashMap<URI, ContentDigest>();
+
+	/** The URIs of resources the content digests of which should be kept when the manifest is saved. */
+	private final Set<URI> retainedContentDigestURIs = new HashSet<URI>();
+
+	/** The URIs of collections the content digests of the descendants of which should be kept when the manifest is saved. */
+	private final Set<URI> retainedContentDigestCollectionURIs = new HashSet<URI>();
+
+	/**
+	 * Fingerprint constructor.
+	 * @param fingerprint The fingerprint identifying the synchronization settings with which the manifest was created.
+	 * @throws NullPointerException if the given fingerprint is <code>null</code>.
+	 */
+	public SynchronizationManifest(final String fingerprint) {
+		this.fingerprint = requireNonNull(fingerprint, "Fingerprint cannot be null.");
+	}
+
+	/**
+	 * Retrieves the recorded state of the resource with the given path.
+	 * @param path The path of the resource relative to the base of the tree being synchronized.
+	 * @return The recorded state of the resource, or <code>null</code> if the resource has no entry in the manifest.
+	 */
+	public synchronized Entry get(final String path) {
+		return entries.get(path);
+	}
+
+	/**
+	 * Records the state of the resource with the given path, replacing any existing entry.
+	 * @param path The path of the resource relative to the base of the tree being synchronized.
+	 * @param entry The state of the resource.
+	 * @throws NullPointerException if the given path and/or entry is <code>null</code>.
+	 */
+	public synchronized void put(final String path, final Entry entry) {
+		entries.put(requireNonNull(path, "Path cannot be null."), requireNonNull(entry, "Entry cannot be null."));
+	}
+
+	/**
+	 * Removes the recorded state of the resource with the given path. If the path indicates a collection, that is it is empty or ends with a slash, the entries
+	 * of all descendant resources are removed as well.
+	 * @param path The path of the resource relative to the base of the tree being synchronized.
+	 */
+	public synchronized void remove(final String path) {
+		if(path.isEmpty() || path.endsWith("/")) { //if this is a collection path, remove the descendants as well
+			entries.subMap(path, true, path + Character.MAX_VALUE, false).clear();
+		} else {
+			entries.remove(path);
+		}
+	}
+
+	/**
+	 * Retrieves the known digest of a resource's contents, if the resource has not changed since the digest was determined.
+	 * @param resourceURI The URI of the resource.
+	 * @param contentLength The current content length of the resource, or -1 if not known.
+	 * @param modifiedTime The current content modified time of the resource in milliseconds.
+	 * @return The digest of the resource contents, or <code>null</code> if no digest is known for the resource in its current state.
+	 */
+	public synchronized byte[] getContentDigest(final URI resourceURI, final long contentLength, final long modifiedTime) {
+		retainedContentDigestURIs.add(resourceURI);
+		final ContentDigest contentDigest = contentDigests.get(resourceURI);
+		if(contentDigest != null && contentDigest.contentLength == contentLength && contentDigest.modifiedTime == modifiedTime) {
+			return contentDigest.digest.clone();
+		}
+		return null;
+	}
+
+	/**
+	 * Records the digest of a resource's contents, replacing any known digest for the resource.
+	 * @param resourceURI The URI of the resource.
+	 * @param contentLength The content length of the resource from which the digest was determined, or -1 if not known.
+	 * @param modifiedTime The content modified time of the resource from which the digest was determined, in milliseconds.
+	 * @param digest The digest of the resource contents.
+	 * @throws NullPointerException if the given resource URI and/or digest is <code>null</code>.
+	 */
+	public synchronized void putContentDigest(final URI resourceURI, final long contentLength, final long modifiedTime, final byte[] digest) {
+		contentDigests.put(requireNonNull(resourceURI, "Resource URI cannot be null."), new ContentDigest(contentLength, modifiedTime, digest.clone()));
+		retainedContentDigestURIs.add(resourceURI);
+	}
+
+	/**
+	 * Indicates that any known digest of a resource's contents should be kept when the manifest is saved, even though the digest was not retrieved.
+	 * @param resourceURI The URI of a resource that still exists.
+	 * @throws NullPointerException if the given resource URI is <code>null</code>.
+	 */
+	public synchronized void retainContentDigest(final URI resourceURI) {
+		retainedContentDigestURIs.add(requireNonNull(resourceURI, "Resource URI cannot be null."));
+	}
+
+	/**
+	 * Indicates that any known digests of the contents of a collection and all its descendants should be kept when the manifest is saved, such as when the
+	 * descendants of an unchanged collection are not synchronized.
+	 * @param collectionURI The URI of a collection that still exists.
+	 * @throws NullPointerException if the given collection URI is <code>null</code>.
+	 */
+	public synchronized void retainContentDigests(final URI collectionURI) {
+		retainedContentDigestURIs.add(requireNonNull(collectionURI, "Collection URI cannot be null."));
+		retainedContentDigestCollectionURIs.add(collectionURI);
+	}
+
+	/**
+	 * Determines whether the known digest of a resource's contents should be kept when the manifest is saved.
+	 * @param resourceURI The URI of the resource.
+	 * @return <code>true</code> if the digest of the resource contents, or of the contents of the descendants of one of its ancestors, has been retained.
+	 * @see #retainContentDigest(URI)
+	 * @see #retainContentDigests(URI)
+	 */
+	private boolean isContentDigestRetained(final URI resourceURI) {
+		if(retainedContentDigestURIs.contains(resourceURI)) {
+			return true;
+		}
+		URI descendantURI = resourceURI;
+		String descendantPath;
+		while((descendantPath = descendantURI.getRawPath()) != null && descendantPath.length() > 1 && !descendantPath.endsWith("/..")) { //check the ancestors, stopping at the top of the hierarchy
+			final URI ancestorURI = descendantURI.resolve(descendantPath.endsWith("/") ? ".." : ".");
+			if(retainedContentDigestCollectionURIs.contains(ancestorURI)) {
+				return true;
+			}
+			descendantURI = ancestorURI;
+		}
+		return false;
+	}
+
+	/**
+	 * Loads a manifest from a file.
+	 * @param file The file from which to load the manifest.
+	 * @return The manifest loaded from the file.
+	 * @throws IOException if there is an error reading from the file, or if the file does not contain a manifest in a supported format.
+	 */
+	public static SynchronizationManifest load(final File file) throws IOException {
+		final DataInputStream inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+		try {
+			if(inputStream.readInt() != MAGIC_NUMBER) {
+				throw new IOException("File " + file + " is not a synchronization manifest.");
+			}
+			final int formatVersion = inputStream.readInt();
+			if(formatVersion < 1 || formatVersion > FORMAT_VERSION) {
+				throw new IOException("Synchronization manifest " + file + " has unsupported format version " + formatVersion + ".");
+			}
+			final SynchronizationManifest manifest = new SynchronizationManifest(inputStream.readUTF());
+			final int entryCount = inputStream.readInt();
+			for(int i = 0; i < entryCount; ++i) {
+				final String path = inputStream.readUTF();
+				manifest.entries.put(path, new Entry(inputStream.readLong(), inputStream.readLong(), inputStream.readLong(), inputStream.readLong(),
+						inputStream.readLong(), inputStream.readLong()));
+			}
+			if(formatVersion >= 2) { //content digests were added in version 2
+				final int contentDigestCount = inputStream.readInt();
+				for(int i = 0; i < contentDigestCount; ++i) {
+					final URI resourceURI = URI.create(inputStream.readUTF());
+					final long contentLength = inputStream.readLong();
+					final long modifiedTime = inputStream.readLong();
+					final byte[] digest = new byte[inputStream.readUnsignedShort()];
+					inputStream.readFully(digest);
+					manifest.contentDigests.put(resourceURI, new ContentDigest(contentLength, modifiedTime, digest));
+				}
+			}
+			return manifest;
+		} finally {
+			inputStream.close();
+		}
+	}
+
+	/**
+	 * Saves the manifest to a file. The manifest is first written to a temporary file which then replaces the given file, so that an existing manifest is not
+	 * lost if the manifest cannot be saved. Content digests that have not been retained are discarded.
+	 * @param file The file to which to save the manifest.
+	 * @throws IOException if there is an error writing to the file.
+	 */
+	public synchronized void save(final File file) throws IOException {
+		final Iterator<URI> contentDigestURIIterator = contentDigests.keySet().iterator();
+		while(contentDigestURIIterator.hasNext()) { //discard the digests of resources not encountered during synchronization
+			if(!isContentDigestRetained(contentDigestURIIterator.next())) {
+				contentDigestURIIterator.remove();
+			}
+		}
+		final File tempFile = new File(file.getPath() + ".tmp");
+		final DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+		try {
+			outputStream.writeInt(MAGIC_NUMBER);
+			outputStream.writeInt(FORMAT_VERSION);
+			outputStream.writeUTF(getFingerprint());
+			outputStream.writeInt(entries.size());
+			for(final Map.Entry<String, Entry> pathEntry : entries.entrySet()) {
+				outputStream.writeUTF(pathEntry.getKey());
+				final Entry entry = pathEntry.getValue();
+				outputStream.writeLong(entry.getSourceContentLength());
+				outputStream.writeLong(entry.getSourceModifiedTime());
+				outputStream.writeLong(entry.getSourceMetadataHash());
+				outputStream.writeLong(entry.getDestinationContentLength());
+				outputStream.writeLong(entry.getDestinationModifiedTime());
+				outputStream.writeLong(entry.getDestinationMetadataHash());
+			}
+			outputStream.writeInt(contentDigests.size());
+			for(final Map.Entry<URI, ContentDigest> uriContentDigest : contentDigests.entrySet()) {
+				outputStream.writeUTF(uriContentDigest.getKey().toString());
+				final ContentDigest contentDigest = uriContentDigest.getValue();
+				outputStream.writeLong(contentDigest.contentLength);
+				outputStream.writeLong(contentDigest.modifiedTime);
+				outputStream.writeShort(contentDigest.digest.length);
+				outputStream.write(contentDigest.digest);
+			}
+		} finally {
+			outputStream.close();
+		}
+		Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/**
+	 * The recorded state of a synchronized source and destination resource.
+	 * @author Garret Wilson
+	 */
+	public static class Entry {
+
+		private final long sourceContentLength;
+
+		/** @return The content length of the source resource, or -1 if not known. */
+		public long getSourceContentLength() {
+			return sourceContentLength;
+		}
+
+		private final long sourceModifiedTime;
+
+		/** @return The content modified time of the source resource in milliseconds, or {@link SynchronizationManifest#UNKNOWN_TIME} if not known. */
+		public long getSourceModifiedTime() {
+			return sourceModifiedTime;
+		}
+
+		private final long sourceMetadataHash;
+
+		/** @return The hash of the source resource metadata. */
+		public long getSourceMetadataHash() {
+			return sourceMetadataHash;
+		}
+
+		private final long destinationContentLength;
+
+		/** @return The content length of the destination resource, or -1 if not known. */
+		public long getDestinationContentLength() {
+			return destinationContentLength;
+		}
+
+		private final long destinationModifiedTime;
+
+		/** @return The content modified time of the destination resource in milliseconds, or {@link SynchronizationManifest#UNKNOWN_TIME} if not known. */
+		public long getDestinationModifiedTime() {
+			return destinationModifiedTime;
+		}
+
+		private final long destinationMetadataHash;
+
+		/** @return The hash of the destination resource metadata. */
+		public long getDestinationMetadataHash() {
+			return destinationMetadataHash;
+		}
+
+		/**
+		 * Constructor.
+		 * @param sourceContentLength The content length of the source resource, or -1 if not known.
+		 * @param sourceModifiedTime The content modified time of the source resource in milliseconds, or {@link SynchronizationManifest#UNKNOWN_TIME} if not known.
+		 * @param sourceMetadataHash The hash of the source resource metadata.
+		 * @param destinationContentLength The content length of the destination resource, or -1 if not known.
+		 * @param destinationModifiedTime The content modified time of the destination resource in milliseconds, or {@link SynchronizationManifest#UNKNOWN_TIME} if not
+		 *          known.
+		 * @param destinationMetadataHash The hash of the destination resource metadata.
+		 */
+		public Entry(final long sourceContentLength, final long sourceModifiedTime, final long sourceMetadataHash, final long destinationContentLength,
+				final long destinationModifiedTime, final long destinationMetadataHash) {
+			this.sourceContentLength = sourceContentLength;
+			this.sourceModifiedTime = sourceModifiedTime;
+			this.sourceMetadataHash = sourceMetadataHash;
+			this.destinationContentLength = destinationContentLength;
+			this.destinationModifiedTime = destinationModifiedTime;
+			this.destinationMetadataHash = destinationMetadataHash;
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(new long[] { sourceContentLength, sourceModifiedTime, sourceMetadataHash, destinationContentLength, destinationModifiedTime,
+					destinationMetadataHash });
+		}
+
+		@Override
+		public boolean equals(final Object object) {
+			if(this == object) {
+				return true;
+			}
+			if(!(object instanceof Entry)) {
+				return false;
+			}
+			final Entry entry = (Entry)object;
+			return sourceContentLength == entry.sourceContentLength && sourceModifiedTime == entry.sourceModifiedTime
+					&& sourceMetadataHash == entry.sourceMetadataHash && destinationContentLength == entry.destinationContentLength
+					&& destinationModifiedTime == entry.destinationModifiedTime && destinationMetadataHash == entry.destinationMetadataHash;
+		}
+	}
+
+	/**
+	 * A digest of resource contents along with the state of the resource when the digest was determined.
+	 * @author Garret Wilson
+	 */
+	private static class ContentDigest {
+
+		/** The content length of the resource, or -1 if not known. */
+		private final long contentLength;
+
+		/** The content modified time of the resource in milliseconds. */
+		private final long modifiedTime;
+
+		/** The digest of the resource contents. */
+		private final byte[] digest;
+
+		/**
+		 * Constructor.
+		 * @param contentLength The content length of the resource, or -1 if not known.
+		 * @param modifiedTime The content modified time of the resource in milliseconds.
+		 * @param digest The digest of the resource contents.
+		 */
+		public ContentDigest(final long contentLength, final long modifiedTime, final byte[] digest) {
+			this.contentLength = contentLength;
+			this.modifiedTime = modifiedTime;
+			this.digest = digest;
+		}
+	}
+
+}
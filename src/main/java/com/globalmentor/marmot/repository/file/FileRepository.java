@@ -18,6 +18,13 @@
 
 import java.io.*;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
 
 import org.urframework.*;
@@ -32,8 +39,10 @@
 
 import static com.globalmentor.io.Files.*;
 import static com.globalmentor.java.Bytes.*;
+import static com.globalmentor.java.Conditions.*;
 import static com.globalmentor.net.URIs.*;
 
+import com.globalmentor.event.ProgressEvent;
 import com.globalmentor.event.ProgressListener;
 import com.globalmentor.io.*;
 import com.globalmentor.iso.datetime.ISODateTime;
@@ -70,6 +79,9 @@ public class FileRepository extends AbstractHierarchicalSourceRepository impleme
 	/** The extension used for directories to hold resource children. */
 	//TODO move if needed	protected static final String DIRECTORY_EXTENSION="@";	//TODO promote to parent file-based class
 
+	/** The maximum number of bytes to transfer between file channels at a time when copying a file, so that progress may be reported periodically. */
+	public static final long FILE_TRANSFER_CHUNK_SIZE = 8 * 1024 * 1024;
+
 	/** The name component of the Marmot description of a file resource. */
 	public static final String MARMOT_DESCRIPTION_NAME = "marmot-description";
 
@@ -105,6 +117,31 @@ protected FileFilter getFileFilter() {
 		return fileFilter;
 	}
 
+	/** The default minimum content length, in bytes, at which content buffers are mapped into memory rather than read into the heap. */
+	public static final long DEFAULT_MEMORY_MAPPING_THRESHOLD = 1 << 20;
+
+	/** The minimum content length, in bytes, at which content buffers are mapped into memory rather than read into the heap. */
+	private long memoryMappingThreshold = DEFAULT_MEMORY_MAPPING_THRESHOLD;
+
+	/**
+	 * @return The minimum content length, in bytes, at which content buffers are mapped into memory rather than read into the heap.
+	 * @see #getResourceContentBuffer(URI)
+	 */
+	public long getMemoryMappingThreshold() {
+		return memoryMappingThreshold;
+	}
+
+	/**
+	 * Sets the minimum content length at which content buffers are mapped into memory rather than read into the heap.
+	 * @param memoryMappingThreshold The minimum content length, in bytes, at which content should be mapped into memory.
+	 * @throws IllegalArgumentException if the given threshold is negative.
+	 * @see #getResourceContentBuffer(URI)
+	 */
+	public void setMemoryMappingThreshold(final long memoryMappingThreshold) {
+		checkArgument(memoryMappingThreshold >= 0, "Invalid memory mapping threshold {0}.", memoryMappingThreshold);
+		this.memoryMappingThreshold = memoryMappingThreshold;
+	}
+
 	/**
 	 * Default constructor with no root URI defined. The root URI must be defined before the repository is opened.
 	 */
@@ -196,6 +233,58 @@ protected URFResource getResourceDescriptionImpl(final URI resourceURI) throws R
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This implementation scans the directory of each group of sibling resources once using {@link #scanDirectory(File)}, creating descriptions only for the
+	 * requested resources. Resources not found in a scan, as well as resources with no requested siblings, are retrieved individually.
+	 * </p>
+	 */
+	@Override
+	protected Map<URI, URFResource> getResourceDescriptionsImpl(final Collection<URI> resourceURIs) throws ResourceIOException {
+		final Map<URI, URFResource> resourceDescriptions = new HashMap<URI, URFResource>(resourceURIs.size());
+		final URF urf = createURF(); //create a new URF data model
+		for(final Map.Entry<URI, List<URI>> parentResourceURIEntry : groupResourceURIsByParent(resourceURIs).entrySet()) {
+			final URI parentResourceURI = parentResourceURIEntry.getKey();
+			final List<URI> childResourceURIs = parentResourceURIEntry.getValue();
+			if(parentResourceURI == null || childResourceURIs.size() < 2) { //a single resource is retrieved more efficiently on its own
+				continue;
+			}
+			final File parentDirectory = new File(getSourceResourceURI(parentResourceURI)); //create a file object for the parent resource
+			if(!parentDirectory.isDirectory()) { //if there is no parent directory, the individual retrievals will report the problem
+				continue;
+			}
+			final List<DirectoryEntry> directoryEntries;
+			try {
+				directoryEntries = scanDirectory(parentDirectory); //get the visible entries in the directory
+			} catch(final IOException ioException) { //if an I/O exception occurs
+				throw toResourceIOException(parentResourceURI, ioException); //translate the exception to a resource I/O exception and throw that
+			}
+			final Set<URI> remainingResourceURIs = new HashSet<URI>(childResourceURIs);
+			for(final DirectoryEntry directoryEntry : directoryEntries) {
+				final File file = directoryEntry.getFile();
+				final URI childResourceURI = getRepositoryResourceURI(toURI(file, directoryEntry.getAttributes().isDirectory())); //get a public URI to represent the file resource
+				if(remainingResourceURIs.remove(childResourceURI)) { //if this resource was requested
+					try {
+						resourceDescriptions.put(childResourceURI,
+								createResourceDescription(urf, childResourceURI, file, directoryEntry.getAttributes(), directoryEntry.getDescriptionFile())); //create a resource description for this file using the information from the scan
+					} catch(final IOException ioException) { //if an I/O exception occurs
+						throw toResourceIOException(childResourceURI, ioException); //translate the exception to a resource I/O exception and throw that
+					}
+					if(remainingResourceURIs.isEmpty()) { //if we've found all the requested resources in this directory
+						break;
+					}
+				}
+			}
+		}
+		for(final URI resourceURI : resourceURIs) { //retrieve any descriptions we didn't find in a directory scan
+			if(!resourceDescriptions.containsKey(resourceURI)) {
+				resourceDescriptions.put(resourceURI, getResourceDescriptionImpl(resourceURI));
+			}
+		}
+		return resourceDescriptions;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * <p>
@@ -205,24 +294,134 @@ protected URFResource getResourceDescriptionImpl(final URI resourceURI) throws R
 	@Override
 	protected InputStream getResourceInputStreamImpl(final URI resourceURI) throws ResourceIOException {
 		try {
-			final File resourceFile = new File(getSourceResourceURI(resourceURI)); //create a file object from the private URI
-			if(isCollectionURI(resourceURI)) { //if the resource is a collection
-				final URI contentURI = resolve(resourceURI, COLLECTION_CONTENT_NAME); //determine the URI to use for content
-				final File contentFile = new File(getSourceResourceURI(contentURI)); //create a file object from the private URI of the special collection content resource
-				if(contentFile.exists()) { //if there is a special collection content resource
-					return new FileInputStream(contentFile); //return an input stream to the file
-				} else { //if there is no collection content resource
-					checkFileExists(resourceFile); //make sure the real problem isn't that the resource file itself doesn't exist
-					return new ByteArrayInputStream(NO_BYTES); //return an input stream to an empty byte array
+			final File contentFile = getContentFile(resourceURI); //find out where the content is stored
+			if(contentFile == null) { //if this is a collection with no content
+				return new ByteArrayInputStream(NO_BYTES); //return an input stream to an empty byte array
+			}
+			return new FileInputStream(contentFile); //return an input stream to the file; this will check for the file's existence
+		} catch(final IOException ioException) { //if an I/O exception occurs
+			throw toResourceIOException(resourceURI, ioException); //translate the exception to a resource I/O exception and throw that
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This implementation positions the file channel of the content file directly at the offset rather than reading the bytes before it.
+	 * </p>
+	 */
+	@Override
+	protected InputStream getResourceInputStreamImpl(final URI resourceURI, final long offset, final long length) throws ResourceIOException {
+		try {
+			final File contentFile = getContentFile(resourceURI); //find out where the content is stored
+			if(contentFile == null) { //if this is a collection with no content
+				return new ByteArrayInputStream(NO_BYTES); //return an input stream to an empty byte array
+			}
+			final FileInputStream inputStream = new FileInputStream(contentFile); //this will check for the file's existence
+			try {
+				inputStream.getChannel().position(offset); //a position past the end of the file simply results in no content being read
+			} catch(final IOException ioException) {
+				inputStream.close(); //don't leave the file open
+				throw ioException;
+			}
+			return length >= 0 ? new ContentRangeInputStream(inputStream, length) : inputStream; //restrict the stream to the given length, if any
+		} catch(final IOException ioException) { //if an I/O exception occurs
+			throw toResourceIOException(resourceURI, ioException); //translate the exception to a resource I/O exception and throw that
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This implementation reads the content file directly into an array of the exact size of the file, without first loading the resource description.
+	 * </p>
+	 */
+	@Override
+	protected byte[] getResourceContentsImpl(final URI resourceURI) throws ResourceIOException {
+		try {
+			final File contentFile = getContentFile(resourceURI); //find out where the content is stored
+			if(contentFile == null) { //if this is a collection with no content
+				return NO_BYTES;
+			}
+			final FileInputStream inputStream = new FileInputStream(contentFile); //this will check for the file's existence
+			try {
+				final FileChannel channel = inputStream.getChannel();
+				final long size = channel.size();
+				if(size > Integer.MAX_VALUE) { //if the resource is too large to be placed in a byte array
+					throw new IllegalArgumentException("Resource " + resourceURI + " is too large to return as a byte array: " + size);
 				}
-			} else { //if the resource is not a collection
-				return new FileInputStream(resourceFile); //return an input stream to the file; this will check for the file's existence
+				final byte[] bytes = new byte[(int)size];
+				final ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
+				while(byteBuffer.hasRemaining()) {
+					if(channel.read(byteBuffer) < 0) { //if the file was truncated while we were reading it
+						return Arrays.copyOf(bytes, byteBuffer.position()); //return only what we read
+					}
+				}
+				return bytes;
+			} finally {
+				inputStream.close(); //always close the input stream
 			}
 		} catch(final IOException ioException) { //if an I/O exception occurs
 			throw toResourceIOException(resourceURI, ioException); //translate the exception to a resource I/O exception and throw that
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Content of at least {@link #getMemoryMappingThreshold()} bytes is mapped into memory directly from the content file; smaller content is read into the
+	 * heap using {@link #getResourceContentsImpl(URI)}, as mapping small files costs more than it saves.
+	 * </p>
+	 * <p>
+	 * A mapped file remains mapped until the buffer is garbage collected; on some platforms (notably Windows) the file cannot be deleted or replaced until then.
+	 * </p>
+	 */
+	@Override
+	protected ByteBuffer getResourceContentBufferImpl(final URI resourceURI) throws ResourceIOException {
+		try {
+			final File contentFile = getContentFile(resourceURI); //find out where the content is stored
+			if(contentFile != null) { //if there is a content file
+				final FileInputStream inputStream = new FileInputStream(contentFile); //this will check for the file's existence
+				try {
+					final FileChannel channel = inputStream.getChannel();
+					final long size = channel.size();
+					if(size > Integer.MAX_VALUE) { //if the resource is too large to be placed in a byte buffer
+						throw new IllegalArgumentException("Resource " + resourceURI + " is too large to return as a byte buffer: " + size);
+					}
+					if(size >= getMemoryMappingThreshold()) { //if the content is large enough to be worth mapping
+						return channel.map(FileChannel.MapMode.READ_ONLY, 0, size); //the mapping remains valid after the channel is closed
+					}
+				} finally {
+					inputStream.close(); //always close the input stream
+				}
+			}
+		} catch(final IOException ioException) { //if an I/O exception occurs
+			throw toResourceIOException(resourceURI, ioException); //translate the exception to a resource I/O exception and throw that
+		}
+		return super.getResourceContentBufferImpl(resourceURI); //read small content into the heap
+	}
+
+	/**
+	 * Determines the file in which the content of the given resource is stored. For collections, this is the {@value #COLLECTION_CONTENT_NAME} file, if any.
+	 * @param resourceURI The URI of the resource.
+	 * @return The file containing the content of the resource, or <code>null</code> if the resource is a collection with no content.
+	 * @throws FileNotFoundException if the resource is a collection that does not exist.
+	 * @throws IOException if there is an error determining the content file.
+	 */
+	protected File getContentFile(final URI resourceURI) throws IOException {
+		final File resourceFile = new File(getSourceResourceURI(resourceURI)); //create a file object from the private URI
+		if(isCollectionURI(resourceURI)) { //if the resource is a collection
+			final URI contentURI = resolve(resourceURI, COLLECTION_CONTENT_NAME); //determine the URI to use for content
+			final File contentFile = new File(getSourceResourceURI(contentURI)); //create a file object from the private URI of the special collection content resource
+			if(contentFile.exists()) { //if there is a special collection content resource
+				return contentFile;
+			}
+			checkFileExists(resourceFile); //make sure the real problem isn't that the resource file itself doesn't exist
+			return null;
+		}
+		return resourceFile; //non-collections store their content in the resource file itself
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * <p>
@@ -269,7 +468,8 @@ protected OutputStream getResourceOutputStream(final URI resourceURI, final File
 	/**
 	 * {@inheritDoc}
 	 * <p>
-	 * This implementation ignores child resources for which {@link #isSourceResourceVisible(URI)} returns <code>false</code>.
+	 * This implementation ignores child resources not accepted by {@link #getFileFilter()}. The directory entries are streamed rather than listed, and scanning
+	 * stops at the first visible entry.
 	 * </p>
 	 */
 	@Override
@@ -278,7 +478,26 @@ protected boolean hasChildrenImpl(final URI resourceURI) throws ResourceIOExcept
 		try {
 			if(isCollectionURI(resourceURI)) {
 				checkDirectoryExists(resourceFile);
-				return resourceFile.listFiles(getFileFilter()).length > 0; //see if there is more than one file in this directory meeting our criteria
+				final FileFilter fileFilter = getFileFilter();
+				final DirectoryStream<Path> directoryStream = java.nio.file.Files.newDirectoryStream(resourceFile.toPath()); //stream the directory entries
+				try {
+					for(final Path path : directoryStream) { //look at each entry only until we find a visible one
+						final boolean isVisible;
+						if(fileFilter == this.fileFilter) { //if the default file filter is being used, apply its criteria without checking whether each entry is a directory twice
+							isVisible = !java.nio.file.Files.isHidden(path) && isSourceResourceVisible(toURI(path.toFile(), java.nio.file.Files.isDirectory(path)));
+						} else { //if the file filter has been overridden, let it decide
+							isVisible = fileFilter.accept(path.toFile());
+						}
+						if(isVisible) { //ignore hidden files and non-visible resources
+							return true; //there is no need to look further
+						}
+					}
+				} catch(final DirectoryIteratorException directoryIteratorException) { //if there was an error iterating the directory
+					throw directoryIteratorException.getCause(); //throw the underlying I/O exception
+				} finally {
+					directoryStream.close(); //always close the directory stream
+				}
+				return false; //we found no visible entries
 			} else {
 				checkFileExists(resourceFile);
 				return false;
@@ -291,7 +510,8 @@ protected boolean hasChildrenImpl(final URI resourceURI) throws ResourceIOExcept
 	/**
 	 * {@inheritDoc}
 	 * <p>
-	 * This implementation does not include child resources for which {@link #isSourceResourceVisible(URI)} returns <code>false</code>.
+	 * This implementation does not include child resources for which {@link #isSourceResourceVisible(URI)} returns <code>false</code>. Each directory is scanned
+	 * only once using {@link #scanDirectory(File)}.
 	 * </p>
 	 */
 	@Override
@@ -302,25 +522,30 @@ public List<URFResource> getChildResourceDescriptionsImpl(final URI resourceURI,
 			final List<URFResource> childResourceList = new ArrayList<URFResource>(); //create a list to hold the files that are not directories	
 			if(isCollectionURI(resourceURI) && resourceDirectory.isDirectory()) { //if there is a directory for this resource
 				final URF urf = createURF(); //create a new URF data model
-				final File[] files = resourceDirectory.listFiles(getFileFilter()); //get a list of all files in the directory
-				for(final File file : files) { //for each file in the directory
-					final URI childResourcePrivateURI = toURI(file);
-					if(isSourceResourceVisible(childResourcePrivateURI)) { //if the associated child resource is visible
-						final URI childResourcePublicURI = getRepositoryResourceURI(childResourcePrivateURI); //get a public URI to represent the file resource
-						if(getSubrepository(childResourcePublicURI) == this) { //if this child wouldn't be located in a subrepository (i.e. ignore resources obscured by subrepositories)
-							if(resourceFilter == null || resourceFilter.isPass(childResourcePublicURI)) { //if we should include this resource based upon its URI
-								final URFResource childResourceDescription;
-								try {
-									childResourceDescription = createResourceDescription(urf, childResourcePublicURI, file); //create a resource description for this file
-								} catch(final IOException ioException) { //if an I/O exception occurs
-									throw toResourceIOException(getRepositoryResourceURI(toURI(file)), ioException); //translate the exception to a resource I/O exception and throw that, using a public URI to represent the file resource
-								}
-								if(resourceFilter == null || resourceFilter.isPass(childResourceDescription)) { //if we should include this resource based upon its description
-									childResourceList.add(childResourceDescription); //add the resource to our list
-									if(depth != 0 && file.isDirectory()) { //if this file is a directory and we haven't reached the bottom
-										final int newDepth = depth != INFINITE_DEPTH ? depth - 1 : depth; //reduce the depth by one, unless we're using the unlimited depth value
-										childResourceList.addAll(getChildResourceDescriptions(childResourcePublicURI, resourceFilter, newDepth)); //get a list of child descriptions for the resource we just created and add them to the list
-									}
+				final List<DirectoryEntry> directoryEntries;
+				try {
+					directoryEntries = scanDirectory(resourceDirectory); //get the visible entries in the directory
+				} catch(final IOException ioException) { //if an I/O exception occurs
+					throw toResourceIOException(resourceURI, ioException); //translate the exception to a resource I/O exception and throw that
+				}
+				for(final DirectoryEntry directoryEntry : directoryEntries) { //for each file in the directory
+					final File file = directoryEntry.getFile();
+					final boolean isDirectory = directoryEntry.getAttributes().isDirectory();
+					final URI childResourcePublicURI = getRepositoryResourceURI(toURI(file, isDirectory)); //get a public URI to represent the file resource
+					if(getSubrepository(childResourcePublicURI) == this) { //if this child wouldn't be located in a subrepository (i.e. ignore resources obscured by subrepositories)
+						if(resourceFilter == null || resourceFilter.isPass(childResourcePublicURI)) { //if we should include this resource based upon its URI
+							final URFResource childResourceDescription;
+							try {
+								childResourceDescription = createResourceDescription(urf, childResourcePublicURI, file, directoryEntry.getAttributes(),
+										directoryEntry.getDescriptionFile()); //create a resource description for this file using the information from the scan
+							} catch(final IOException ioException) { //if an I/O exception occurs
+								throw toResourceIOException(childResourcePublicURI, ioException); //translate the exception to a resource I/O exception and throw that
+							}
+							if(resourceFilter == null || resourceFilter.isPass(childResourceDescription)) { //if we should include this resource based upon its description
+								childResourceList.add(childResourceDescription); //add the resource to our list
+								if(depth != 0 && isDirectory) { //if this file is a directory and we haven't reached the bottom
+									final int newDepth = depth != INFINITE_DEPTH ? depth - 1 : depth; //reduce the depth by one, unless we're using the unlimited depth value
+									childResourceList.addAll(getChildResourceDescriptions(childResourcePublicURI, resourceFilter, newDepth)); //get a list of child descriptions for the resource we just created and add them to the list
 								}
 							}
 						}
@@ -342,6 +567,113 @@ public List<URFResource> getChildResourceDescriptionsImpl(final URI resourceURI,
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This implementation does not include child resources for which {@link #isSourceResourceVisible(URI)} returns <code>false</code>. Each description is
+	 * created with its own data model so that descriptions already visited are not retained during traversal. Each directory is scanned only once using
+	 * {@link #scanDirectory(File)}.
+	 * </p>
+	 */
+	@Override
+	protected boolean visitChildResourceDescriptionsImpl(final URI resourceURI, final ResourceFilter resourceFilter, final int depth,
+			final ResourceVisitor visitor) throws IOException {
+		if(depth == 0) { //a depth of zero means don't visit child resources
+			return true;
+		}
+		final File resourceDirectory = new File(getSourceResourceURI(resourceURI)); //create a file object for the resource
+		if(!isCollectionURI(resourceURI) || !resourceDirectory.isDirectory()) { //if there is no directory for this resource
+			return true; //there are no children to visit
+		}
+		final List<DirectoryEntry> directoryEntries;
+		try {
+			directoryEntries = scanDirectory(resourceDirectory); //get the visible entries in the directory
+		} catch(final IOException ioException) { //if an I/O exception occurs
+			throw toResourceIOException(resourceURI, ioException); //translate the exception to a resource I/O exception and throw that
+		}
+		final int childDepth = depth != INFINITE_DEPTH ? depth - 1 : depth; //reduce the depth by one, unless we're using the unlimited depth value
+		for(final DirectoryEntry directoryEntry : directoryEntries) { //for each file in the directory
+			final File file = directoryEntry.getFile();
+			final boolean isDirectory = directoryEntry.getAttributes().isDirectory();
+			final URI childResourcePublicURI = getRepositoryResourceURI(toURI(file, isDirectory)); //get a public URI to represent the file resource
+			if(getSubrepository(childResourcePublicURI) == this) { //if this child wouldn't be located in a subrepository (i.e. ignore resources obscured by subrepositories)
+				if(resourceFilter == null || resourceFilter.isPass(childResourcePublicURI)) { //if we should include this resource based upon its URI
+					final URFResource childResourceDescription;
+					try {
+						childResourceDescription = createResourceDescription(createURF(), childResourcePublicURI, file, directoryEntry.getAttributes(),
+								directoryEntry.getDescriptionFile()); //create a resource description for this file using the information from the scan
+					} catch(final IOException ioException) { //if an I/O exception occurs
+						throw toResourceIOException(childResourcePublicURI, ioException); //translate the exception to a resource I/O exception and throw that
+					}
+					if(resourceFilter == null || resourceFilter.isPass(childResourceDescription)) { //if we should include this resource based upon its description
+						if(!visitor.visit(childResourceDescription)) { //visit the resource; if we should stop traversal
+							return false;
+						}
+						if(childDepth != 0 && isDirectory) { //if this file is a directory and we haven't reached the bottom
+							if(!visitChildResourceDescriptionsImpl(childResourcePublicURI, resourceFilter, childDepth, visitor)) { //visit the descendants of the directory
+								return false;
+							}
+						}
+					}
+				}
+			}
+		}
+		return visitChildSubrepositoryResourceDescriptions(resourceURI, resourceFilter, depth, visitor); //visit any mapped subrepositories
+	}
+
+	/**
+	 * Scans a directory a single time, reading the attributes of each visible entry and pairing it with its resource description file, if any. Files not
+	 * accepted by {@link #getFileFilter()} are skipped; if the default file filter is in use, its criteria are applied using the attributes already read.
+	 * Description files that are themselves entries of the scanned directory are found from the scan rather than by checking the file system for each entry.
+	 * @param directory The directory to scan.
+	 * @return The visible entries of the directory.
+	 * @throws NullPointerException if the given directory is <code>null</code>.
+	 * @throws IOException if there is an error reading the directory.
+	 * @see #getResourceDescriptionFile(File, boolean)
+	 */
+	protected List<DirectoryEntry> scanDirectory(final File directory) throws IOException {
+		final Set<String> filenames = new HashSet<String>(); //keep track of all the filenames, including hidden ones, so that we can find description files
+		final Map<File, BasicFileAttributes> visibleFileAttributes = new LinkedHashMap<File, BasicFileAttributes>(); //keep the visible files in the order found
+		final FileFilter fileFilter = getFileFilter();
+		final boolean isDefaultFileFilter = fileFilter == this.fileFilter; //see if we can apply the default criteria ourselves
+		final DirectoryStream<Path> directoryStream = java.nio.file.Files.newDirectoryStream(directory.toPath()); //stream the directory entries
+		try {
+			for(final Path path : directoryStream) {
+				filenames.add(path.getFileName().toString());
+				final File file = path.toFile();
+				if(isDefaultFileFilter) { //if the default file filter is in use, apply its criteria using the attributes we read
+					if(java.nio.file.Files.isHidden(path)) { //ignore hidden files
+						continue;
+					}
+					final BasicFileAttributes attributes = java.nio.file.Files.readAttributes(path, BasicFileAttributes.class); //read all the attributes we need at once
+					if(isSourceResourceVisible(toURI(file, attributes.isDirectory()))) { //if the associated resource is visible
+						visibleFileAttributes.put(file, attributes);
+					}
+				} else if(fileFilter.accept(file)) { //if the file filter has been overridden, let it decide
+					visibleFileAttributes.put(file, java.nio.file.Files.readAttributes(path, BasicFileAttributes.class));
+				}
+			}
+		} catch(final DirectoryIteratorException directoryIteratorException) { //if there was an error iterating the directory
+			throw directoryIteratorException.getCause(); //throw the underlying I/O exception
+		} finally {
+			directoryStream.close(); //always close the directory stream
+		}
+		final List<DirectoryEntry> directoryEntries = new ArrayList<DirectoryEntry>(visibleFileAttributes.size());
+		for(final Map.Entry<File, BasicFileAttributes> visibleFileAttributesEntry : visibleFileAttributes.entrySet()) {
+			final File file = visibleFileAttributesEntry.getKey();
+			final BasicFileAttributes attributes = visibleFileAttributesEntry.getValue();
+			final File descriptionFile = getResourceDescriptionFile(file, attributes.isDirectory()); //see where the description would be stored
+			final boolean descriptionFileExists;
+			if(file.getParentFile().equals(descriptionFile.getParentFile()) && isSourceResourceDescription(toURI(descriptionFile, false))) { //if the description file would be an entry in this directory
+				descriptionFileExists = filenames.contains(descriptionFile.getName()); //we already know whether it exists
+			} else { //if the description is stored elsewhere (e.g. inside a directory or in a file stream)
+				descriptionFileExists = descriptionFile.exists(); //we'll have to check the file system
+			}
+			directoryEntries.add(new DirectoryEntry(file, attributes, descriptionFileExists ? descriptionFile : null));
+		}
+		return directoryEntries;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * <p>
@@ -486,7 +818,7 @@ protected void copyResourceImpl(final URI resourceURI, final URI destinationURI,
 				final URI destinationContentURI = resolve(destinationURI, COLLECTION_CONTENT_NAME); //determine the URI to use for content at the destination
 				final File destinationContentFile = new File(getSourceResourceURI(destinationContentURI)); //create a file object from the private URI of the special collection content resource at the destination
 				if(contentFile.exists()) { //if there is a special collection content resource
-					copy(contentFile, destinationFile, true, true); //copy over the collection content resource
+					copyFileContent(contentFile, destinationContentFile, progressListener); //copy over the collection content resource
 				} else { //if there is no collection content resource
 					if(destinationContentFile.exists()) { //make sure the destination has no content file to match
 						delete(destinationContentFile);
@@ -506,17 +838,9 @@ protected void copyResourceImpl(final URI resourceURI, final URI destinationURI,
 						throw new ResourceStateException(destinationURI, "Destination resource already exists.");
 					}
 				}
-				copy(sourceFile, destinationFile, false, overwrite, progressListener); //copy the file
-			}
-			final File sourceDescriptionFile = getResourceDescriptionFile(sourceFile); //get the file used for storing the description
-			final File destinationDescriptionFile = getResourceDescriptionFile(destinationFile); //get the destination file used for storing the description
-			if(sourceDescriptionFile.exists()) { //if the source file has a description file
-				copy(sourceDescriptionFile, destinationDescriptionFile); //always copy over the description file---we don't want to risk that a single resource copy has an outdated description file that was already existing
-			} else { //if the source file has no description file
-				if(destinationDescriptionFile.exists()) { //remove the destination description file if it exists (which might happen if we copy a resource without a description, overwriting a resource that had a description
-					delete(destinationDescriptionFile);
-				}
+				copyFileContent(sourceFile, destinationFile, progressListener); //copy the file
 			}
+			copyResourceDescriptionFile(getResourceDescriptionFile(sourceFile), getResourceDescriptionFile(destinationFile)); //copy the description along with the content
 		} catch(final IOException ioException) { //if an I/O exception occurs
 			throw toResourceIOException(resourceURI, ioException); //translate the exception to a resource I/O exception and throw that
 		}
@@ -543,6 +867,111 @@ protected void copyResourceImpl(final URI resourceURI, final URI destinationURI,
 		*/
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * If the destination repository is also a {@link FileRepository} and a non-collection resource is being copied, this implementation creates the destination
+	 * resource with the source description and no content using the public methods of the destination repository, creating any missing parent resources, and
+	 * then copies the content directly into the created file using {@link #copyFileContent(File, File, ProgressListener)}, without streaming the content through
+	 * the heap. Otherwise this implementation delegates to the default copy operation.
+	 * </p>
+	 */
+	@Override
+	protected void copyResourceImpl(final URI resourceURI, final Repository destinationRepository, final URI destinationURI, final boolean overwrite,
+			final ProgressListener progressListener) throws ResourceIOException {
+		if(destinationRepository instanceof FileRepository && !isCollectionURI(resourceURI) && !isCollectionURI(destinationURI)) { //if we are copying a file to another file repository
+			final FileRepository destinationFileRepository = (FileRepository)destinationRepository;
+			if(destinationFileRepository.getSubrepository(destinationURI) == destinationFileRepository) { //if the destination repository itself stores the resource
+				final URFResource resourceDescription = getResourceDescription(resourceURI); //get a description of the resource; this will throw an exception if the source resource doesn't exist
+				if(!overwrite && destinationFileRepository.resourceExists(destinationURI)) {
+					throw new ResourceStateException(destinationURI, "Destination resource already exists.");
+				}
+				destinationFileRepository.createParentResources(destinationURI); //make sure the destination has somewhere to put the resource
+				destinationFileRepository.createResource(destinationURI, resourceDescription, NO_BYTES); //create the resource and its description through the destination repository
+				try {
+					final File sourceFile = new File(getSourceResourceURI(resourceURI)); //create a file object for the source resource
+					final File destinationFile = new File(destinationFileRepository.getSourceResourceURI(destinationURI)); //create a file object for the created destination resource
+					copyFileContent(sourceFile, destinationFile, progressListener); //fill the created file with the content
+				} catch(final IOException ioException) { //if an I/O exception occurs
+					try {
+						destinationFileRepository.deleteResource(destinationURI); //don't leave a resource with missing content
+					} catch(final ResourceIOException resourceIOException) {
+						ioException.addSuppressed(resourceIOException);
+					}
+					throw toResourceIOException(resourceURI, ioException); //translate the exception to a resource I/O exception and throw that
+				} finally {
+					destinationFileRepository.invalidateCachedResourceDescription(destinationURI); //the content length and modified time of the destination have changed
+				}
+				return;
+			}
+		}
+		super.copyResourceImpl(resourceURI, destinationRepository, destinationURI, overwrite, progressListener); //use the default copy operation
+	}
+
+	/**
+	 * Copies the content of one file to another using file channels, allowing the operating system to transfer the bytes directly between the files (e.g. using
+	 * <code>sendfile</code>) rather than copying them through the Java heap. Any existing destination file is replaced. The destination file is given the last
+	 * modified time of the source file, as this repository stores the content modified time in the file timestamp.
+	 * <p>
+	 * The content is transferred in chunks of at most {@link #FILE_TRANSFER_CHUNK_SIZE} bytes, and the given progress listener, if any, is notified after each
+	 * chunk.
+	 * </p>
+	 * <p>
+	 * Only the main content of the file is copied; any NTFS alternate data streams are not transferred.
+	 * </p>
+	 * @param sourceFile The file the content of which to copy.
+	 * @param destinationFile The file to which the content should be copied.
+	 * @param progressListener A listener to be notified of progress, or <code>null</code> if no progress notifications is requested.
+	 * @throws IOException if there is an error copying the file content.
+	 */
+	protected void copyFileContent(final File sourceFile, final File destinationFile, final ProgressListener progressListener) throws IOException {
+		final FileInputStream inputStream = new FileInputStream(sourceFile);
+		try {
+			final FileOutputStream outputStream = new FileOutputStream(destinationFile); //create or truncate the destination file
+			try {
+				final FileChannel sourceChannel = inputStream.getChannel();
+				final FileChannel destinationChannel = outputStream.getChannel();
+				final long size = sourceChannel.size();
+				long position = 0;
+				while(position < size) {
+					final long count = sourceChannel.transferTo(position, Math.min(FILE_TRANSFER_CHUNK_SIZE, size - position), destinationChannel); //transfer the next chunk
+					if(count <= 0) { //if the source file was truncated while we were copying it
+						throw new IOException("Only " + position + " of " + size + " bytes could be copied from " + sourceFile + " to " + destinationFile + ".");
+					}
+					position += count;
+					if(progressListener != null) {
+						progressListener.progressed(new ProgressEvent(destinationFile, count, position, size));
+					}
+				}
+			} finally {
+				outputStream.close(); //always close the output stream
+			}
+		} finally {
+			inputStream.close(); //always close the input stream
+		}
+		final long lastModified = sourceFile.lastModified(); //keep the content modified time
+		if(lastModified != 0 && !destinationFile.setLastModified(lastModified)) {
+			throw new IOException("Unable to set the last modified time of " + destinationFile);
+		}
+	}
+
+	/**
+	 * Copies a resource description file to accompany a copied resource. If the source description file does not exist, any existing destination description
+	 * file is removed; we don't want to risk that a copied resource has an outdated description file that was already existing.
+	 * @param sourceDescriptionFile The file storing the description of the source resource.
+	 * @param destinationDescriptionFile The file for storing the description of the destination resource.
+	 * @throws IOException if there is an error copying or removing the description file.
+	 */
+	protected void copyResourceDescriptionFile(final File sourceDescriptionFile, final File destinationDescriptionFile) throws IOException {
+		if(sourceDescriptionFile.exists()) { //if the source file has a description file
+			copy(sourceDescriptionFile, destinationDescriptionFile); //always copy over the description file
+		} else { //if the source file has no description file
+			if(destinationDescriptionFile.exists()) { //remove the destination description file if it exists (which might happen if we copy a resource without a description, overwriting a resource that had a description
+				delete(destinationDescriptionFile);
+			}
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * <p>
@@ -591,18 +1020,40 @@ protected void moveResourceImpl(final URI resourceURI, final URI destinationURI,
 	 */
 	protected URFResource createResourceDescription(final URF urf, final URI resourceURI, final File resourceFile) throws IOException {
 		checkFileExists(resourceFile);
-		final URFResource resource = loadResourceDescription(urf, resourceFile); //load the resource description, if there is one
+		final File resourceDescriptionFile = getResourceDescriptionFile(resourceFile); //get the file for storing the description
+		final BasicFileAttributes attributes = java.nio.file.Files.readAttributes(resourceFile.toPath(), BasicFileAttributes.class); //read all the attributes we need at once
+		return createResourceDescription(urf, resourceURI, resourceFile, attributes, resourceDescriptionFile.exists() ? resourceDescriptionFile : null);
+	}
+
+	/**
+	 * Creates a resource description to represent a single file, using file information that has already been retrieved, such as during a directory scan.
+	 * @param urf The URF data model to use when creating this resource.
+	 * @param resourceURI The URI of the resource being described.
+	 * @param resourceFile The file for which a resource should be created.
+	 * @param attributes The attributes of the resource file.
+	 * @param resourceDescriptionFile The file holding the description of the resource, or <code>null</code> if the resource has no description file.
+	 * @return A resource description of the given file.
+	 * @throws IOException if there is an error creating the resource description.
+	 * @throws IllegalArgumentException if a non-collection URI is given to access a directory.
+	 * @see #scanDirectory(File)
+	 */
+	protected URFResource createResourceDescription(final URF urf, final URI resourceURI, final File resourceFile, final BasicFileAttributes attributes,
+			final File resourceDescriptionFile) throws IOException {
+		final URFResource resource = loadResourceDescription(urf, getRepositoryResourceURI(toURI(resourceFile, attributes.isDirectory())), resourceFile,
+				resourceDescriptionFile); //load the resource description, if there is one
 		long contentLength = 0; //we'll update the content length if we can
 		ISODateTime contentModified = null; //we'll get the content modified from the file or, for a directory, from its content file, if any---but not from a directory itself
-		if(resourceFile.isDirectory()) { //if this is a directory
+		if(attributes.isDirectory()) { //if this is a directory
 			if(!isCollectionURI(resourceURI)) { //if a non-collection URI was used for the directory
 				throw new IllegalArgumentException("Non-collection URI " + resourceURI + " used for directory " + resourceFile);
 			}
 			final URI contentURI = resolve(resourceURI, COLLECTION_CONTENT_NAME); //determine the URI to use for content
 			final File contentFile = new File(getSourceResourceURI(contentURI)); //create a file object from the private URI of the special collection content resource
-			if(contentFile.exists()) { //if there is a special collection content resource
-				contentLength = contentFile.length(); //use the length of the special collection content resource
-				contentModified = new ISODateTime(contentFile.lastModified()); //set the modified timestamp as the last modified date of the content file			
+			try {
+				final BasicFileAttributes contentAttributes = java.nio.file.Files.readAttributes(contentFile.toPath(), BasicFileAttributes.class); //read the attributes of the special collection content resource, if there is one
+				contentLength = contentAttributes.size(); //use the length of the special collection content resource
+				contentModified = new ISODateTime(contentAttributes.lastModifiedTime().toMillis()); //set the modified timestamp as the last modified date of the content file
+			} catch(final NoSuchFileException noSuchFileException) { //if there is no special collection content resource, there is no content
 			}
 		} else { //if this file is not a directory
 			/*TODO fix
@@ -610,8 +1061,8 @@ protected URFResource createResourceDescription(final URF urf, final URI resourc
 						final String label=FileUtilities.removeExtension(FileUtilities.decodeFilename(filename));
 						addLabel(resource, label); //add the unescaped filename without an extension as a label
 			*/
-			contentLength = resourceFile.length(); //use the file length
-			contentModified = new ISODateTime(resourceFile.lastModified()); //set the modified timestamp as the last modified date of the resource file			
+			contentLength = attributes.size(); //use the file length
+			contentModified = new ISODateTime(attributes.lastModifiedTime().toMillis()); //set the modified timestamp as the last modified date of the resource file
 			//TODO del			updateContentType(resource);	//update the content type information based upon the repository defaults
 		}
 		setContentLength(resource, contentLength); //indicate the length of the content
@@ -626,10 +1077,23 @@ protected URFResource createResourceDescription(final URF urf, final URI resourc
 	 * prefix, containing {@value #MARMOT_DESCRIPTION_NAME}, and ending with the extension for TURF files.
 	 * @param resourceFile The file of a resource.
 	 * @return A new file designating the location of the resource description.
+	 * @see #getResourceDescriptionFile(File, boolean)
 	 */
 	protected File getResourceDescriptionFile(final File resourceFile) {
+		return getResourceDescriptionFile(resourceFile, resourceFile.isDirectory()); //check whether the file is a directory
+	}
+
+	/**
+	 * Determines the file that holds the description of the given resource file, when it is already known whether the resource file is a directory. This version
+	 * uses a separate distinct file beginning with the Unix hidden prefix, containing {@value #MARMOT_DESCRIPTION_NAME}, and ending with the extension for TURF
+	 * files.
+	 * @param resourceFile The file of a resource.
+	 * @param isDirectory Whether the resource file is a directory.
+	 * @return A new file designating the location of the resource description.
+	 */
+	protected File getResourceDescriptionFile(final File resourceFile, final boolean isDirectory) {
 		//TODO only use the UNIX hidden filename prefix for UNIX file systems---probably in a subclass
-		if(resourceFile.isDirectory()) { //if this is a directory
+		if(isDirectory) { //if this is a directory
 			return new File(resourceFile, addExtension(addExtension(Files.UNIX_HIDDEN_FILENAME_PREFIX + COLLECTION_CONTENT_NAME, MARMOT_DESCRIPTION_NAME),
 					NAME_EXTENSION)); //return a file in the form ".@.marmot-description.turf"
 		} else { //if this is not a directory
@@ -681,10 +1145,24 @@ protected boolean isSourceResourceVisible(final URI privateResourceURI) {
 	 * @see #getResourceDescriptionFile(File)
 	 */
 	protected URFResource loadResourceDescription(final URF urf, final File resourceFile) throws IOException {
-		final URI resourceURI = getRepositoryResourceURI(toURI(resourceFile)); //get a public URI to represent the file resource
 		final File resourceDescriptionFile = getResourceDescriptionFile(resourceFile); //get the file for storing the description
+		return loadResourceDescription(urf, getRepositoryResourceURI(toURI(resourceFile)), resourceFile, resourceDescriptionFile.exists() ? resourceDescriptionFile
+				: null); //load the description using a public URI to represent the file resource
+	}
+
+	/**
+	 * Loads a resource description for a single file from a description file that has already been located.
+	 * @param urf The URF data model to use when creating this resource.
+	 * @param resourceURI The public URI of the resource.
+	 * @param resourceFile The file of a resource.
+	 * @param resourceDescriptionFile The file holding the description of the resource, or <code>null</code> if the resource has no description file.
+	 * @return A resource description of the given file.
+	 * @throws IOException if there is an error loading the resource description.
+	 */
+	protected URFResource loadResourceDescription(final URF urf, final URI resourceURI, final File resourceFile, final File resourceDescriptionFile)
+			throws IOException {
 		final URFResource resourceDescription;
-		if(resourceDescriptionFile.exists()) { //if there is a description file
+		if(resourceDescriptionFile != null) { //if there is a description file
 			try {
 				resourceDescription = URFFiles.read(resourceDescriptionFile, urf, resourceURI, getDescriptionIO()); //read the description using the given URF instance, using the resource URI as the base URI
 			} catch(final IOException ioException) { //if an error occurs
@@ -761,11 +1239,13 @@ protected void saveResourceDescription(URFResource resourceDescription, final Fi
 	 * <dl>
 	 * <dt>{@link FileNotFoundException}</dt>
 	 * <dd>{@link ResourceNotFoundException}</dd>
+	 * <dt>{@link NoSuchFileException}</dt>
+	 * <dd>{@link ResourceNotFoundException}</dd>
 	 * </dl>
 	 */
 	@Override
 	protected ResourceIOException toResourceIOException(final URI resourceURI, final Throwable throwable) {
-		if(throwable instanceof FileNotFoundException) {
+		if(throwable instanceof FileNotFoundException || throwable instanceof NoSuchFileException) {
 			return new ResourceNotFoundException(resourceURI, throwable);
 		} else { //if this is not one of our specially-handled exceptions
 			return super.toResourceIOException(resourceURI, throwable); //convert the exception normally
@@ -825,6 +1305,52 @@ protected void afterClose() throws ResourceIOException {
 
 	}
 
+	/**
+	 * A visible entry found while scanning a directory, along with the information gathered during the scan.
+	 * @author Garret Wilson
+	 * @see FileRepository#scanDirectory(File)
+	 */
+	protected static class DirectoryEntry {
+
+		/** The file of the entry. */
+		private final File file;
+
+		/** @return The file of the entry. */
+		public File getFile() {
+			return file;
+		}
+
+		/** The attributes of the file, read during the scan. */
+		private final BasicFileAttributes attributes;
+
+		/** @return The attributes of the file, read during the scan. */
+		public BasicFileAttributes getAttributes() {
+			return attributes;
+		}
+
+		/** The file holding the description of the entry, or <code>null</code> if the entry has no description file. */
+		private final File descriptionFile;
+
+		/** @return The file holding the description of the entry, or <code>null</code> if the entry has no description file. */
+		public File getDescriptionFile() {
+			return descriptionFile;
+		}
+
+		/**
+		 * Constructor.
+		 * @param file The file of the entry.
+		 * @param attributes The attributes of the file, read during the scan.
+		 * @param descriptionFile The file holding the description of the entry, or <code>null</code> if the entry has no description file.
+		 * @throws NullPointerException if the given file and/or attributes is <code>null</code>.
+		 */
+		public DirectoryEntry(final File file, final BasicFileAttributes attributes, final File descriptionFile) {
+			this.file = requireNonNull(file, "File cannot be null.");
+			this.attributes = requireNonNull(attributes, "Attributes cannot be null.");
+			this.descriptionFile = descriptionFile;
+		}
+
+	}
+
 	//MaintenanceRepository
 
 	private boolean rewriteResourceDescriptions = false;
@@ -95,7 +95,7 @@ protected Repository createSubrepository(final URI publicRepositoryURI, final UR
 	 * </p>
 	 */
 	@Override
-	protected File getResourceDescriptionFile(final File resourceFile) {
+	protected File getResourceDescriptionFile(final File resourceFile, final boolean isDirectory) {
 		return changeName(resourceFile, resourceFile.getName() + Files.NTFS_ADS_DELIMITER + MARMOT_DESCRIPTION_NAME); //return a file in the form "file.ext:marmot-description"
 	}
 
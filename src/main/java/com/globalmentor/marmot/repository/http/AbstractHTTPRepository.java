@@ -220,6 +220,39 @@ protected InputStream getResourceInputStreamImpl(final URI resourceURI) throws R
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This implementation requests only the given range from the server using the HTTP <code>Range</code> header. For collections, this implementation
+	 * retrieves the content of the {@value #COLLECTION_CONTENT_NAME} file, if any.
+	 * </p>
+	 * @see RangeHTTPResource
+	 */
+	@Override
+	protected InputStream getResourceInputStreamImpl(final URI resourceURI, final long offset, final long length) throws ResourceIOException {
+		final PasswordAuthentication passwordAuthentication = getPasswordAuthentication(); //get authentication, if any
+		try {
+			if(isCollectionURI(resourceURI)) { //if the resource is a collection
+				final URI contentURI = resolve(resourceURI, COLLECTION_CONTENT_NAME); //determine the URI to use for content
+				final RangeHTTPResource contentHTTPResource = new RangeHTTPResource(getSourceResourceURI(contentURI), getHTTPClient(), passwordAuthentication); //create a resource for special collection content resource
+				if(contentHTTPResource.exists()) { //if there is a special collection content resource
+					return contentHTTPResource.getInputStream(offset, length); //return an input stream to the range of the collection content resource
+				} else { //if there is no collection content resource
+					return new ByteArrayInputStream(NO_BYTES); //return an input stream to an empty byte array
+				}
+			} else { //if the resource is not a collection
+				final RangeHTTPResource httpResource = new RangeHTTPResource(getSourceResourceURI(resourceURI), getHTTPClient(), passwordAuthentication); //create an HTTP resource
+				return httpResource.getInputStream(offset, length); //return an input stream to the range of the resource
+			}
+		} catch(final IOException ioException) { //if an I/O exception occurs
+			throw toResourceIOException(resourceURI, ioException); //translate the exception to a resource I/O exception and throw that
+		} finally {
+			if(passwordAuthentication != null) { //if we used password authentication
+				fill(passwordAuthentication.getPassword(), (char)0); //always erase the password from memory as a security measure when we're done with the authentication object
+			}
+		}
+	}
+
 	///** {@inheritDoc} For collections, this implementation stores the content in the {@value #COLLECTION_CONTENT_NAME} file. */
 	/*TODO fix
 		@Override
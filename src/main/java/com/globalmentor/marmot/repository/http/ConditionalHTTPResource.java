@@ -0,0 +1,109 @@
+/*
+ * Copyright © 2013 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.marmot.repository.http;
+
+import java.io.*;
+import java.net.*;
+
+import static java.util.Objects.*;
+import static com.globalmentor.net.http.HTTP.*;
+
+import com.globalmentor.net.http.*;
+
+/**
+ * An HTTP resource that can make conditional requests, so that the content of the resource is only transferred if it has changed from a known version.
+ * <p>
+ * A version is identified by its entity tag using the HTTP <code>If-None-Match</code> header. A <code>304 Not Modified</code> response indicates that the known
+ * version is still current. The <code>If-Modified-Since</code> header is not supported, as it only indicates whether a resource has changed <em>after</em> a
+ * given time, rather than whether it differs from a given version.
+ * </p>
+ * @author Garret Wilson
+ * @see <a href="http://tools.ietf.org/html/rfc7232">RFC 7232: Hypertext Transfer Protocol (HTTP/1.1): Conditional Requests</a>
+ */
+public class ConditionalHTTPResource extends RangeHTTPResource {
+
+	/** The header for making a request conditional on the entity tag not matching. */
+	public static final String IF_NONE_MATCH_HEADER = "If-None-Match";
+
+	/** The status code indicating that the resource has not been modified. */
+	public static final int NOT_MODIFIED_STATUS_CODE = 304;
+
+	/**
+	 * Reference URI, client, and password authentication constructor.
+	 * @param referenceURI The reference URI for the new resource.
+	 * @param client The HTTP client used to create a connection to this resource.
+	 * @param passwordAuthentication The password authentication being used, or <code>null</code> if no password authentication is given.
+	 * @throws NullPointerException if the given reference URI and/or client is <code>null</code>.
+	 */
+	public ConditionalHTTPResource(final URI referenceURI, final HTTPClient client, final PasswordAuthentication passwordAuthentication) {
+		super(referenceURI, client, passwordAuthentication);
+	}
+
+	/**
+	 * Determines whether the resource has changed from the version with the given entity tag using a conditional <code>HEAD</code> request.
+	 * @param entityTag The entity tag of the known version, including any quotes.
+	 * @return <code>true</code> if the resource no longer matches the given entity tag.
+	 * @throws NullPointerException if the given entity tag is <code>null</code>.
+	 * @throws IOException if there was an error invoking the method.
+	 */
+	public boolean isModified(final String entityTag) throws IOException {
+		return sendConditionalRequest(HEAD_METHOD, IF_NONE_MATCH_HEADER, requireNonNull(entityTag, "Entity tag cannot be null.")) != null;
+	}
+
+	/**
+	 * Retrieves an input stream to the content of the resource using a conditional <code>GET</code> request, only if the resource has changed from the version
+	 * with the given entity tag.
+	 * @param entityTag The entity tag of the known version, including any quotes.
+	 * @return An input stream to the content of the resource, or <code>null</code> if the resource still matches the given entity tag.
+	 * @throws NullPointerException if the given entity tag is <code>null</code>.
+	 * @throws IOException if there was an error invoking the method.
+	 */
+	public InputStream getInputStreamIfModified(final String entityTag) throws IOException {
+		final HTTPResponse response = sendConditionalRequest(GET_METHOD, IF_NONE_MATCH_HEADER, requireNonNull(entityTag, "Entity tag cannot be null."));
+		return response != null ? response.getBodyInputStream() : null;
+	}
+
+	/**
+	 * Sends a request with the given condition header. The request is retried according to the retry policy, if any.
+	 * @param method The HTTP method of the request, which must be idempotent.
+	 * @param conditionHeader The name of the header specifying the condition.
+	 * @param conditionValue The value of the header specifying the condition.
+	 * @return The response to the request, or <code>null</code> if the server indicated that the resource has not been modified.
+	 * @throws IOException if there was an error invoking the method.
+	 */
+	protected HTTPResponse sendConditionalRequest(final String method, final String conditionHeader, final String conditionValue) throws IOException {
+		return sendIdempotent(new HTTPRetryPolicy.Request<HTTPResponse>() {
+
+			@Override
+			public HTTPResponse send() throws IOException {
+				final HTTPRequest request = new DefaultHTTPRequest(method, getURI());
+				request.setHeader(conditionHeader, conditionValue);
+				final HTTPResponse response;
+				try {
+					response = sendRequest(request);
+				} catch(final HTTPException httpException) {
+					if(httpException.getStatusCode() == NOT_MODIFIED_STATUS_CODE) { //if the client treats the not modified response as an error
+						return null;
+					}
+					throw httpException;
+				}
+				return response.getStatusCode() != NOT_MODIFIED_STATUS_CODE ? response : null;
+			}
+		});
+	}
+
+}
@@ -0,0 +1,532 @@
+/*
+ * Copyright © 2013 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.marmot.repository.http;
+
+import java.io.*;
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.globalmentor.java.Conditions.*;
+import static java.util.Objects.*;
+
+import com.globalmentor.log.Log;
+import com.globalmentor.net.http.HTTPException;
+
+/**
+ * A policy for retrying idempotent HTTP requests that fail because of transient errors, such as server errors with a <code>5xx</code> status code or reset
+ * connections.
+ * <p>
+ * Retries are delayed using exponential backoff with full jitter: before each retry the policy waits a random time between zero and the current delay, which
+ * starts at the initial delay and is multiplied for each retry, up to the maximum delay.
+ * </p>
+ * <p>
+ * Each host has a circuit breaker. After a number of consecutive transient failures for a host, the circuit for that host is opened and requests to the host
+ * fail immediately with a {@link CircuitOpenException} until the open duration has elapsed. The next request is then allowed through as a trial; if it
+ * succeeds the circuit is closed, and if it fails the circuit is opened again. If the circuit opens while a request is being retried, the error of the last
+ * attempt is reported rather than the open circuit.
+ * </p>
+ * <p>
+ * A request that fails after part of its result has been consumed may report the error using an {@link UnrepeatableRequestException}; the error is recorded
+ * by the circuit breaker, but the request is not retried. Requests that are not idempotent, such as uploads, can be subjected to the circuit breaker without
+ * being retried using {@link #beginAttempt(URI)}.
+ * </p>
+ * <p>
+ * Waiting between retries is performed as a {@link ForkJoinPool.ManagedBlocker}, so that a fork/join pool may compensate for workers waiting to retry.
+ * </p>
+ * <p>
+ * A single policy may be shared among repositories so that the circuit breakers and metrics cover all requests to each host. This class is thread safe.
+ * </p>
+ * @author Garret Wilson
+ */
+public class HTTPRetryPolicy {
+
+	/**
+	 * An idempotent HTTP request that may be sent more than once.
+	 * @param <T> The type of result of the request.
+	 * @author Garret Wilson
+	 */
+	public interface Request<T> {
+
+		/**
+		 * Sends the request.
+		 * @return The result of the request.
+		 * @throws IOException if there was an error sending the request or processing the response.
+		 */
+		public T send() throws IOException;
+	}
+
+	/** The default maximum number of attempts, including the first attempt. */
+	public static final int DEFAULT_MAX_ATTEMPTS = 4;
+
+	/** The default delay in milliseconds before the first retry. */
+	public static final long DEFAULT_INITIAL_DELAY = 500;
+
+	/** The default maximum delay in milliseconds between retries. */
+	public static final long DEFAULT_MAX_DELAY = 30 * 1000;
+
+	/** The default number of consecutive transient failures after which the circuit for a host is opened. */
+	public static final int DEFAULT_FAILURE_THRESHOLD = 8;
+
+	/** The default time in milliseconds that a circuit remains open before a trial request is allowed. */
+	public static final long DEFAULT_OPEN_DURATION = 60 * 1000;
+
+	/** The factor by which the delay increases after each retry. */
+	private static final int BACKOFF_MULTIPLIER = 2;
+
+	private volatile int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+
+	/** @return The maximum number of attempts, including the first attempt. */
+	public int getMaxAttempts() {
+		return maxAttempts;
+	}
+
+	/**
+	 * Sets the maximum number of attempts.
+	 * @param maxAttempts The maximum number of attempts, including the first attempt; <code>1</code> indicates that requests should not be retried.
+	 * @throws IllegalArgumentException if the given maximum is not positive.
+	 */
+	public void setMaxAttempts(final int maxAttempts) {
+		checkArgument(maxAttempts > 0, "Invalid maximum number of attempts {0}.", maxAttempts);
+		this.maxAttempts = maxAttempts;
+	}
+
+	private volatile long initialDelay = DEFAULT_INITIAL_DELAY;
+
+	/** @return The delay in milliseconds before the first retry. */
+	public long getInitialDelay() {
+		return initialDelay;
+	}
+
+	/**
+	 * Sets the delay before the first retry.
+	 * @param initialDelay The delay in milliseconds before the first retry.
+	 * @throws IllegalArgumentException if the given delay is negative.
+	 */
+	public void setInitialDelay(final long initialDelay) {
+		checkArgument(initialDelay >= 0, "Invalid initial delay {0}.", initialDelay);
+		this.initialDelay = initialDelay;
+	}
+
+	private volatile long maxDelay = DEFAULT_MAX_DELAY;
+
+	/** @return The maximum delay in milliseconds between retries. */
+	public long getMaxDelay() {
+		return maxDelay;
+	}
+
+	/**
+	 * Sets the maximum delay between retries.
+	 * @param maxDelay The maximum delay in milliseconds between retries.
+	 * @throws IllegalArgumentException if the given delay is negative.
+	 */
+	public void setMaxDelay(final long maxDelay) {
+		checkArgument(maxDelay >= 0, "Invalid maximum delay {0}.", maxDelay);
+		this.maxDelay = maxDelay;
+	}
+
+	private volatile int failureThreshold = DEFAULT_FAILURE_THRESHOLD;
+
+	/** @return The number of consecutive transient failures after which the circuit for a host is opened. */
+	public int getFailureThreshold() {
+		return failureThreshold;
+	}
+
+	/**
+	 * Sets the number of consecutive transient failures after which the circuit for a host is opened.
+	 * @param failureThreshold The number of consecutive transient failures after which the circuit for a host is opened.
+	 * @throws IllegalArgumentException if the given threshold is not positive.
+	 */
+	public void setFailureThreshold(final int failureThreshold) {
+		checkArgument(failureThreshold > 0, "Invalid failure threshold {0}.", failureThreshold);
+		this.failureThreshold = failureThreshold;
+	}
+
+	private volatile long openDuration = DEFAULT_OPEN_DURATION;
+
+	/** @return The time in milliseconds that a circuit remains open before a trial request is allowed. */
+	public long getOpenDuration() {
+		return openDuration;
+	}
+
+	/**
+	 * Sets the time that a circuit remains open before a trial request is allowed.
+	 * @param openDuration The time in milliseconds that a circuit remains open.
+	 * @throws IllegalArgumentException if the given duration is negative.
+	 */
+	public void setOpenDuration(final long openDuration) {
+		checkArgument(openDuration >= 0, "Invalid open duration {0}.", openDuration);
+		this.openDuration = openDuration;
+	}
+
+	/** The number of retries that have been made. */
+	private final AtomicLong retryCount = new AtomicLong();
+
+	/** @return The number of retries that have been made. */
+	public long getRetryCount() {
+		return retryCount.get();
+	}
+
+	/** The number of times a circuit has been opened. */
+	private final AtomicLong circuitOpenCount = new AtomicLong();
+
+	/** @return The number of times a circuit has been opened. */
+	public long getCircuitOpenCount() {
+		return circuitOpenCount.get();
+	}
+
+	/** The number of requests that were not sent because the circuit for the host was open. */
+	private final AtomicLong rejectedCount = new AtomicLong();
+
+	/** @return The number of requests that were not sent because the circuit for the host was open. */
+	public long getRejectedCount() {
+		return rejectedCount.get();
+	}
+
+	/** The circuit breakers, keyed to host and port. */
+	private final ConcurrentMap<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<String, CircuitBreaker>();
+
+	/** @return The hosts, along with their ports, for which the circuit is currently open. */
+	public Set<String> getOpenCircuitHosts() {
+		final Set<String> openCircuitHosts = new TreeSet<String>();
+		final long now = currentTimeMillis();
+		for(final Map.Entry<String, CircuitBreaker> circuitBreakerEntry : circuitBreakers.entrySet()) {
+			if(circuitBreakerEntry.getValue().isOpen(now)) {
+				openCircuitHosts.add(circuitBreakerEntry.getKey());
+			}
+		}
+		return openCircuitHosts;
+	}
+
+	/**
+	 * Determines the circuit breaker for the host of the given URI, creating one if needed.
+	 * @param uri The URI of the resource being requested.
+	 * @return The circuit breaker for the host and port of the URI.
+	 */
+	protected CircuitBreaker getCircuitBreaker(final URI uri) {
+		final String host = uri.getHost() + (uri.getPort() >= 0 ? ":" + uri.getPort() : "");
+		CircuitBreaker circuitBreaker = circuitBreakers.get(host);
+		if(circuitBreaker == null) {
+			final CircuitBreaker newCircuitBreaker = new CircuitBreaker(host);
+			circuitBreaker = circuitBreakers.putIfAbsent(host, newCircuitBreaker);
+			if(circuitBreaker == null) {
+				circuitBreaker = newCircuitBreaker;
+			}
+		}
+		return circuitBreaker;
+	}
+
+	/**
+	 * Sends an idempotent request, retrying it if it fails because of a transient error.
+	 * @param <T> The type of result of the request.
+	 * @param uri The URI of the resource being requested.
+	 * @param request The request to send; it must be safe to send more than once.
+	 * @return The result of the request.
+	 * @throws NullPointerException if the given URI and/or request is <code>null</code>.
+	 * @throws CircuitOpenException if the circuit for the host is open before the first attempt.
+	 * @throws IOException if there was an error sending the request, after any retries.
+	 * @see #isTransient(IOException)
+	 */
+	public <T> T send(final URI uri, final Request<T> request) throws IOException {
+		requireNonNull(request, "Request cannot be null.");
+		final CircuitBreaker circuitBreaker = getCircuitBreaker(requireNonNull(uri, "URI cannot be null."));
+		long delay = getInitialDelay();
+		IOException lastIOException = null; //the error of the previous attempt, if any
+		for(int attempt = 1;; ++attempt) {
+			if(!circuitBreaker.allowRequest()) {
+				rejectedCount.incrementAndGet();
+				final CircuitOpenException circuitOpenException = new CircuitOpenException(uri, circuitBreaker.getHost());
+				if(lastIOException != null) { //if the circuit opened while we were retrying, report the actual error
+					lastIOException.addSuppressed(circuitOpenException);
+					throw lastIOException;
+				}
+				throw circuitOpenException;
+			}
+			try {
+				final T result = request.send();
+				circuitBreaker.recordSuccess();
+				return result;
+			} catch(final RuntimeException runtimeException) {
+				circuitBreaker.endTrial(); //don't leave the circuit waiting on a trial that will never be recorded
+				throw runtimeException;
+			} catch(final IOException ioException) {
+				if(!recordFailure(circuitBreaker, ioException)) { //if the server gave a definite answer, the host is working
+					throw ioException;
+				}
+				if(ioException instanceof UnrepeatableRequestException || attempt >= getMaxAttempts()) { //if the request can't be repeated or we've run out of attempts
+					throw ioException;
+				}
+				lastIOException = ioException;
+				retryCount.incrementAndGet();
+				Log.debug("Retrying request for", uri, "after transient error", ioException);
+				try {
+					sleep(ThreadLocalRandom.current().nextLong(delay + 1)); //full jitter
+				} catch(final InterruptedException interruptedException) {
+					Thread.currentThread().interrupt(); //preserve the interrupted status and give up
+					throw ioException;
+				}
+				delay = Math.min(delay * BACKOFF_MULTIPLIER, getMaxDelay());
+			}
+		}
+	}
+
+	/**
+	 * Records the outcome of a failed request with a circuit breaker. A transient error is recorded as a failure; any other error is a definite answer from the
+	 * server and is recorded as a success. The error wrapped by an {@link UnrepeatableRequestException} is used to make the determination.
+	 * @param circuitBreaker The circuit breaker of the host.
+	 * @param ioException The error that occurred.
+	 * @return <code>true</code> if the error was transient.
+	 */
+	private boolean recordFailure(final CircuitBreaker circuitBreaker, final IOException ioException) {
+		final Throwable cause = ioException.getCause();
+		final IOException error = ioException instanceof UnrepeatableRequestException && cause instanceof IOException ? (IOException)cause : ioException;
+		if(isTransient(error)) {
+			circuitBreaker.recordFailure();
+			return true;
+		} else {
+			circuitBreaker.recordSuccess();
+			return false;
+		}
+	}
+
+	/**
+	 * Begins a single attempt at a request that will not be retried, such as a request that is not idempotent, subjecting it to the circuit breaker of the host.
+	 * The outcome of the attempt must be reported using {@link Attempt#succeeded()} or {@link Attempt#failed(IOException)}.
+	 * @param uri The URI of the resource being requested.
+	 * @return The attempt that was begun.
+	 * @throws NullPointerException if the given URI is <code>null</code>.
+	 * @throws CircuitOpenException if the circuit for the host is open.
+	 */
+	public Attempt beginAttempt(final URI uri) throws CircuitOpenException {
+		final CircuitBreaker circuitBreaker = getCircuitBreaker(requireNonNull(uri, "URI cannot be null."));
+		if(!circuitBreaker.allowRequest()) {
+			rejectedCount.incrementAndGet();
+			throw new CircuitOpenException(uri, circuitBreaker.getHost());
+		}
+		return new Attempt(circuitBreaker);
+	}
+
+	/**
+	 * Waits before a retry. This implementation sleeps as a {@link ForkJoinPool.ManagedBlocker}, so that if the current thread is a fork/join worker the pool
+	 * may activate another worker while this one waits.
+	 * @param delay The time in milliseconds to wait.
+	 * @throws InterruptedException if the thread was interrupted while waiting.
+	 */
+	protected void sleep(final long delay) throws InterruptedException {
+		final long wakeTime = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay);
+		ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+
+			@Override
+			public boolean block() throws InterruptedException {
+				final long remainingTime = wakeTime - System.nanoTime();
+				if(remainingTime > 0) {
+					TimeUnit.NANOSECONDS.sleep(remainingTime);
+				}
+				return true;
+			}
+
+			@Override
+			public boolean isReleasable() {
+				return wakeTime - System.nanoTime() <= 0;
+			}
+		});
+	}
+
+	/**
+	 * Returns the current time used by the circuit breakers.
+	 * @return The current time in milliseconds.
+	 * @see System#currentTimeMillis()
+	 */
+	protected long currentTimeMillis() {
+		return System.currentTimeMillis();
+	}
+
+	/**
+	 * Determines whether the given error is transient, so that the request may succeed if retried.
+	 * <p>
+	 * This implementation considers HTTP errors with a <code>5xx</code> status code, reset or refused connections, and timeouts to be transient.
+	 * </p>
+	 * @param ioException The error that occurred.
+	 * @return <code>true</code> if the request should be retried.
+	 */
+	protected boolean isTransient(final IOException ioException) {
+		if(ioException instanceof CircuitOpenException) {
+			return false;
+		}
+		if(ioException instanceof HTTPException) {
+			return ((HTTPException)ioException).getStatusCode() >= 500;
+		}
+		return ioException instanceof SocketException || ioException instanceof SocketTimeoutException;
+	}
+
+	/**
+	 * Indicates that a request was not sent because the circuit breaker for the host was open after repeated failures.
+	 * @author Garret Wilson
+	 */
+	public static class CircuitOpenException extends IOException {
+
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * URI and host constructor.
+		 * @param uri The URI of the resource being requested.
+		 * @param host The host and port for which the circuit is open.
+		 */
+		public CircuitOpenException(final URI uri, final String host) {
+			super("Request for " + uri + " not sent; circuit open for host " + host + " after repeated failures.");
+		}
+	}
+
+	/**
+	 * Indicates that a request failed after part of its result had already been consumed, so that it cannot be retried. The transience of the wrapped error is
+	 * still recorded by the circuit breaker.
+	 * @author Garret Wilson
+	 */
+	public static class UnrepeatableRequestException extends IOException {
+
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Message and cause constructor.
+		 * @param message The description of the error.
+		 * @param cause The error that caused the request to fail.
+		 */
+		public UnrepeatableRequestException(final String message, final IOException cause) {
+			super(message, cause);
+		}
+	}
+
+	/**
+	 * A single attempt at a request that is not retried, the outcome of which is recorded by the circuit breaker of the host.
+	 * @author Garret Wilson
+	 * @see HTTPRetryPolicy#beginAttempt(URI)
+	 */
+	public class Attempt {
+
+		private final CircuitBreaker circuitBreaker;
+
+		/** Whether the outcome of the attempt has been recorded. */
+		private boolean ended = false;
+
+		/**
+		 * Circuit breaker constructor.
+		 * @param circuitBreaker The circuit breaker of the host.
+		 */
+		protected Attempt(final CircuitBreaker circuitBreaker) {
+			this.circuitBreaker = circuitBreaker;
+		}
+
+		/** Records that the request succeeded. Only the first outcome recorded is used. */
+		public synchronized void succeeded() {
+			if(!ended) {
+				ended = true;
+				circuitBreaker.recordSuccess();
+			}
+		}
+
+		/**
+		 * Records that the request failed. Only the first outcome recorded is used.
+		 * @param ioException The error that occurred.
+		 */
+		public synchronized void failed(final IOException ioException) {
+			if(!ended) {
+				ended = true;
+				recordFailure(circuitBreaker, ioException);
+			}
+		}
+	}
+
+	/**
+	 * Tracks the consecutive failures of a host.
+	 * @author Garret Wilson
+	 */
+	protected class CircuitBreaker {
+
+		private final String host;
+
+		/** @return The host and port. */
+		public String getHost() {
+			return host;
+		}
+
+		/** The number of consecutive transient failures. */
+		private int failureCount = 0;
+
+		/** The time the circuit was opened, or <code>-1</code> if the circuit is closed. */
+		private long openTime = -1;
+
+		/** Whether a trial request is in progress after the open duration elapsed. */
+		private boolean trialInProgress = false;
+
+		/**
+		 * Host constructor.
+		 * @param host The host and port.
+		 */
+		public CircuitBreaker(final String host) {
+			this.host = host;
+		}
+
+		/**
+		 * Determines if the circuit is open at the given time.
+		 * @param time The current time.
+		 * @return <code>true</code> if requests would currently be rejected.
+		 */
+		public synchronized boolean isOpen(final long time) {
+			return openTime >= 0 && (time - openTime < getOpenDuration() || trialInProgress);
+		}
+
+		/**
+		 * Determines whether a request may be sent. If the circuit is open but the open duration has elapsed, a single trial request is allowed.
+		 * @return <code>true</code> if the request may be sent.
+		 */
+		public synchronized boolean allowRequest() {
+			if(openTime < 0) { //if the circuit is closed
+				return true;
+			}
+			if(trialInProgress || currentTimeMillis() - openTime < getOpenDuration()) {
+				return false;
+			}
+			trialInProgress = true;
+			return true;
+		}
+
+		/** Ends any trial request without recording its outcome, so that another trial may be made. */
+		public synchronized void endTrial() {
+			trialInProgress = false;
+		}
+
+		/** Records that a request succeeded, closing the circuit. */
+		public synchronized void recordSuccess() {
+			failureCount = 0;
+			openTime = -1;
+			trialInProgress = false;
+		}
+
+		/** Records that a request failed with a transient error, opening the circuit if the failure threshold is reached. */
+		public synchronized void recordFailure() {
+			++failureCount;
+			if(trialInProgress || (openTime < 0 && failureCount >= getFailureThreshold())) { //if a trial failed or too many requests failed
+				circuitOpenCount.incrementAndGet();
+				Log.warn("Opening circuit for host", host, "after", failureCount, "consecutive failures.");
+				openTime = currentTimeMillis();
+				trialInProgress = false;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright © 2013 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.marmot.repository.http;
+
+import java.io.*;
+import java.net.*;
+
+import static com.globalmentor.java.Bytes.*;
+import static com.globalmentor.java.Conditions.*;
+import static com.globalmentor.net.http.HTTP.*;
+
+import com.globalmentor.marmot.repository.ContentRangeInputStream;
+import com.globalmentor.net.http.*;
+
+/**
+ * An HTTP resource that can retrieve a range of its content using the HTTP <code>Range</code> header.
+ * <p>
+ * If the server ignores the range and returns the entire content, the bytes before the range are skipped and the content is limited on the client side, so
+ * the returned input stream always reflects the requested range.
+ * </p>
+ * <p>
+ * If a retry policy is set, the idempotent requests made by {@link #exists()} and the <code>getInputStream()</code> methods are retried after transient
+ * errors.
+ * </p>
+ * @author Garret Wilson
+ * @see <a href="http://tools.ietf.org/html/rfc7233">RFC 7233: Hypertext Transfer Protocol (HTTP/1.1): Range Requests</a>
+ */
+public class RangeHTTPResource extends HTTPResource {
+
+	/** The header for requesting a range of content. */
+	public static final String RANGE_HEADER = "Range";
+
+	/** The status code indicating that the response contains only the requested range of content. */
+	public static final int PARTIAL_CONTENT_STATUS_CODE = 206;
+
+	/** The status code indicating that the requested range lies beyond the end of the content. */
+	public static final int RANGE_NOT_SATISFIABLE_STATUS_CODE = 416;
+
+	/**
+	 * Reference URI, client, and password authentication constructor.
+	 * @param referenceURI The reference URI for the new resource.
+	 * @param client The HTTP client used to create a connection to this resource.
+	 * @param passwordAuthentication The password authentication being used, or <code>null</code> if no password authentication is given.
+	 * @throws NullPointerException if the given reference URI and/or client is <code>null</code>.
+	 */
+	public RangeHTTPResource(final URI referenceURI, final HTTPClient client, final PasswordAuthentication passwordAuthentication) {
+		super(referenceURI, client, passwordAuthentication);
+	}
+
+	/** The policy for retrying idempotent requests, or <code>null</code> if requests should not be retried. */
+	private volatile HTTPRetryPolicy retryPolicy = null;
+
+	/** @return The policy for retrying idempotent requests, or <code>null</code> if requests are not retried. */
+	public HTTPRetryPolicy getRetryPolicy() {
+		return retryPolicy;
+	}
+
+	/**
+	 * Sets the policy for retrying idempotent requests.
+	 * @param retryPolicy The policy for retrying idempotent requests, or <code>null</code> if requests should not be retried.
+	 */
+	public void setRetryPolicy(final HTTPRetryPolicy retryPolicy) {
+		this.retryPolicy = retryPolicy;
+	}
+
+	/**
+	 * Sends an idempotent request using the retry policy, if any.
+	 * @param <T> The type of result of the request.
+	 * @param request The idempotent request to send.
+	 * @return The result of the request.
+	 * @throws IOException if there was an error sending the request, after any retries.
+	 * @see #getRetryPolicy()
+	 */
+	protected <T> T sendIdempotent(final HTTPRetryPolicy.Request<T> request) throws IOException {
+		final HTTPRetryPolicy retryPolicy = getRetryPolicy();
+		return retryPolicy != null ? retryPolicy.send(getURI(), request) : request.send();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This version retries the request according to the retry policy, if any.
+	 * </p>
+	 */
+	@Override
+	public boolean exists() throws IOException {
+		return sendIdempotent(new HTTPRetryPolicy.Request<Boolean>() {
+
+			@Override
+			public Boolean send() throws IOException {
+				return RangeHTTPResource.super.exists();
+			}
+		});
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This version retries the request according to the retry policy, if any. Only the request is retried; an error while reading the returned stream is
+	 * reported to the reader.
+	 * </p>
+	 */
+	@Override
+	public InputStream getInputStream() throws IOException {
+		return sendIdempotent(new HTTPRetryPolicy.Request<InputStream>() {
+
+			@Override
+			public InputStream send() throws IOException {
+				return RangeHTTPResource.super.getInputStream();
+			}
+		});
+	}
+
+	/**
+	 * Creates the value of a byte range header for the given range.
+	 * @param offset The number of bytes at the start of the content to skip.
+	 * @param length The number of bytes to read, or <code>-1</code> if all the content after the offset should be read.
+	 * @return A range header value such as <code>bytes=100-199</code> or <code>bytes=100-</code>.
+	 * @throws IllegalArgumentException if the given offset is negative or the given length is not positive and not <code>-1</code>.
+	 */
+	public static String createByteRange(final long offset, final long length) {
+		checkArgument(offset >= 0, "Invalid content offset {0}.", offset);
+		checkArgument(length > 0 || length == -1, "Invalid content length {0}.", length);
+		return "bytes=" + offset + '-' + (length >= 0 ? Long.toString(offset + length - 1) : "");
+	}
+
+	/**
+	 * Retrieves an input stream to a range of the content of the resource using a <code>GET</code> request with a <code>Range</code> header. The request is
+	 * retried according to the retry policy, if any.
+	 * @param offset The number of bytes at the start of the content to skip.
+	 * @param length The maximum number of bytes to read, or <code>-1</code> if all the content after the offset should be read.
+	 * @return An input stream to the given range of the content of the resource.
+	 * @throws IllegalArgumentException if the given offset is negative or the given length is less than <code>-1</code>.
+	 * @throws IOException if there was an error invoking the method.
+	 */
+	public InputStream getInputStream(final long offset, final long length) throws IOException {
+		checkArgument(offset >= 0, "Invalid content offset {0}.", offset);
+		checkArgument(length >= -1, "Invalid content length {0}.", length);
+		if(length == 0) { //if no content is requested, don't bother the server
+			return new ByteArrayInputStream(NO_BYTES);
+		}
+		if(offset == 0 && length < 0) { //if all the content is requested, there is no need for a range
+			return getInputStream();
+		}
+		return sendIdempotent(new HTTPRetryPolicy.Request<InputStream>() {
+
+			@Override
+			public InputStream send() throws IOException {
+				final HTTPRequest request = new DefaultHTTPRequest(GET_METHOD, getURI()); //create a GET request
+				request.setHeader(RANGE_HEADER, createByteRange(offset, length)); //ask for only the content in the range
+				final HTTPResponse response;
+				try {
+					response = sendRequest(request);
+				} catch(final HTTPException httpException) {
+					if(httpException.getStatusCode() == RANGE_NOT_SATISFIABLE_STATUS_CODE) { //if the offset lies beyond the end of the content
+						return new ByteArrayInputStream(NO_BYTES); //there is no content in the range
+					}
+					throw httpException;
+				}
+				final InputStream inputStream = response.getBodyInputStream(); //get the body of the response
+				if(response.getStatusCode() == PARTIAL_CONTENT_STATUS_CODE) { //if the server honored the range
+					return inputStream;
+				}
+				try { //the server sent all the content, so remove the extra content on our side
+					ContentRangeInputStream.skipFully(inputStream, offset);
+				} catch(final IOException ioException) {
+					inputStream.close();
+					throw ioException;
+				}
+				return length >= 0 ? new ContentRangeInputStream(inputStream, length) : inputStream;
+			}
+		});
+	}
+
+}
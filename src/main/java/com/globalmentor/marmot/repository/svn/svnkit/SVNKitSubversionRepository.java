@@ -19,6 +19,7 @@
 import java.io.*;
 import java.net.URI;
 import java.util.*;
+import java.util.concurrent.*;
 
 import org.tmatesoft.svn.core.*;
 import org.tmatesoft.svn.core.auth.ISVNAuthenticationManager;
@@ -26,7 +27,7 @@
 import org.tmatesoft.svn.core.internal.io.fs.FSRepositoryFactory;
 import org.tmatesoft.svn.core.internal.io.svn.SVNRepositoryFactoryImpl;
 import org.tmatesoft.svn.core.io.*;
-import org.tmatesoft.svn.core.io.diff.SVNDeltaGenerator;
+import org.tmatesoft.svn.core.io.diff.*;
 import org.tmatesoft.svn.core.wc.SVNWCUtil;
 import org.urframework.*;
 import org.urframework.content.Content;
@@ -34,6 +35,7 @@
 
 import static java.util.Arrays.*;
 import static java.util.Collections.*;
+import static java.util.Objects.*;
 import static org.tmatesoft.svn.core.SVNProperty.*;
 import static org.urframework.content.Content.*;
 
@@ -66,9 +68,13 @@
  * <p>
  * This implementation considers {@link Content#CREATED_PROPERTY_URI} and {@link Content#MODIFIED_PROPERTY_URI} to be live properties.
  * </p>
+ * <p>
+ * Each modification is normally committed separately, producing a new revision. Many modifications can be committed together in a single revision using
+ * {@link #beginBatch(String)}.
+ * </p>
  * @author Garret Wilson
  */
-public class SVNKitSubversionRepository extends AbstractHierarchicalSourceRepository {
+public class SVNKitSubversionRepository extends AbstractHierarchicalSourceRepository implements BatchRepository {
 
 	static { //set up the types of Subversion repositories we support
 		DAVRepositoryFactory.setup();
@@ -76,6 +82,9 @@ public class SVNKitSubversionRepository extends AbstractHierarchicalSourceReposi
 		SVNRepositoryFactoryImpl.setup();
 	}
 
+	/** The name of the digest algorithm of the checksums Subversion maintains for file contents. */
+	public static final String MD5_DIGEST_ALGORITHM = "MD5";
+
 	/**
 	 * Default constructor with no root URI defined. The root URI must be defined before the repository is opened.
 	 */
@@ -127,9 +136,21 @@ public SVNKitSubversionRepository(final URI publicRepositoryURI, final URI priva
 		urfResourceDescriptionIO.setFormatted(false); //turn off formatting
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This version transfers the session pool sizes and revision to the new subrepository. The subrepository uses the session pool of this repository rather than
+	 * creating its own, so that the repository and all its subrepositories together never use more sessions than the pool size.
+	 * </p>
+	 */
 	@Override
 	protected Repository createSubrepository(final URI publicRepositoryURI, final URI privateRepositoryURI) {
-		return new SVNKitSubversionRepository(publicRepositoryURI, privateRepositoryURI); //create and return a new file repository
+		final SVNKitSubversionRepository subrepository = new SVNKitSubversionRepository(publicRepositoryURI, privateRepositoryURI); //create a new Subversion repository
+		subrepository.setSessionPoolSize(getSessionPoolSize());
+		subrepository.setContentSessionPoolSize(getContentSessionPoolSize());
+		subrepository.sessionRepository = sessionRepository; //share the sessions of the repository that owns the pool
+		subrepository.revision = getRevision(); //a subrepository of a snapshot is a snapshot at the same revision, with its own revision cache for its own paths
+		return subrepository;
 	}
 
 	//	/**
@@ -177,14 +198,623 @@ public void setPassword(final char[] password) {
 		this.password = password;
 	}
 
-	/** The SVNKit Subversion repository, or <code>null</code> if the repository is closed. */
-	private SVNRepository svnRepository = null;
+	/** The revision number indicating the latest revision of the repository. */
+	public static final long HEAD_REVISION = -1;
+
+	/** The revision at which resources are accessed, or {@link #HEAD_REVISION} if the latest revision is accessed. */
+	private long revision = HEAD_REVISION;
+
+	/** @return The revision at which resources are accessed, or {@link #HEAD_REVISION} if the latest revision is accessed. */
+	public long getRevision() {
+		return revision;
+	}
+
+	/** @return <code>true</code> if this repository is a read-only snapshot of resources at a fixed revision. */
+	public boolean isSnapshot() {
+		return revision != HEAD_REVISION;
+	}
+
+	/** The cache of information about nodes at fixed revisions, shared among all snapshots created from this repository. */
+	private SVNRevisionCache revisionCache = new SVNRevisionCache();
+
+	/** @return The cache of information about nodes at fixed revisions, shared among all snapshots created from this repository. */
+	public SVNRevisionCache getRevisionCache() {
+		return revisionCache;
+	}
+
+	/**
+	 * Creates a read-only snapshot of this repository at the given revision. All resources in the snapshot are accessed at the given revision, so that the
+	 * snapshot presents a consistent view of the repository regardless of later commits. Because resources never change at a given revision, the snapshot caches
+	 * node kinds, directory listings, and resource descriptions in the revision cache without ever invalidating them. All snapshots created from this repository
+	 * share the same revision cache. Attempts to modify resources in the snapshot result in a {@link ResourceForbiddenException}.
+	 * <p>
+	 * The snapshot is a separate repository with its own session pool; it must be opened before use and closed when no longer needed. The snapshot is created
+	 * using {@link #createSnapshotRepository(URI, URI)} and has the same settings as this repository, including its live properties and content type mappings.
+	 * Subrepositories created from this repository are replaced in the snapshot by snapshots of the subrepositories at the same revision, sharing the sessions
+	 * of the snapshot.
+	 * </p>
+	 * @param revision The revision at which resources should be accessed.
+	 * @return A read-only repository accessing resources at the given revision.
+	 * @throws IllegalArgumentException if the given revision is negative.
+	 * @throws IllegalStateException if a subrepository is registered that is not a Subversion repository sharing the sessions of this repository, and therefore
+	 *           cannot be accessed at the given revision.
+	 * @see #getRevisionCache()
+	 */
+	public SVNKitSubversionRepository atRevision(final long revision) {
+		checkArgument(revision >= 0, "Invalid revision {0}.", revision);
+		final SVNKitSubversionRepository snapshot = createSnapshotRepository(getRootURI(), getSourceURI());
+		transferSnapshotSettings(snapshot, revision);
+		return snapshot;
+	}
+
+	/**
+	 * Creates a new, unconfigured repository to serve as a snapshot of this repository. Subclasses that determine differently which resources are visible, or
+	 * otherwise customize how resources are accessed, should override this method to return an instance of the subclass.
+	 * @param publicRepositoryURI The URI identifying the location of the snapshot.
+	 * @param privateRepositoryURI The URI identifying the private namespace managed by the snapshot.
+	 * @return A new repository of the same type as this repository.
+	 * @see #atRevision(long)
+	 */
+	protected SVNKitSubversionRepository createSnapshotRepository(final URI publicRepositoryURI, final URI privateRepositoryURI) {
+		return new SVNKitSubversionRepository(publicRepositoryURI, privateRepositoryURI);
+	}
+
+	/**
+	 * Transfers the settings of this repository to a snapshot, along with snapshots of any subrepositories.
+	 * @param snapshot The snapshot to configure.
+	 * @param revision The revision at which the snapshot accesses resources.
+	 * @throws IllegalStateException if a subrepository is registered that is not a Subversion repository sharing the sessions of this repository.
+	 */
+	private void transferSnapshotSettings(final SVNKitSubversionRepository snapshot, final long revision) {
+		snapshot.setUsername(getUsername());
+		final char[] password = getPassword();
+		snapshot.setPassword(password != null ? password.clone() : null); //each repository erases its own password when disposed
+		snapshot.setSessionPoolSize(getSessionPoolSize());
+		snapshot.setContentSessionPoolSize(getContentSessionPoolSize());
+		snapshot.setAutoOpen(isAutoOpen());
+		for(final URI livePropertyURI : getLivePropertyURIs()) {
+			snapshot.addLivePropertyURI(livePropertyURI);
+		}
+		snapshot.setExtensionContentTypes(getExtensionContentTypes());
+		snapshot.setContentTypeCharsets(getContentTypeCharsets());
+		snapshot.revisionCache = getRevisionCache();
+		snapshot.revision = revision;
+		for(final Map.Entry<URIPath, Repository> pathRepositoryEntry : getPathRepositories().entrySet()) {
+			final Repository subrepository = pathRepositoryEntry.getValue();
+			checkState(subrepository instanceof SVNKitSubversionRepository && ((SVNKitSubversionRepository)subrepository).sessionRepository == sessionRepository,
+					"Subrepository {0} cannot be accessed at revision {1}.", pathRepositoryEntry.getKey(), revision);
+			final SVNKitSubversionRepository svnSubrepository = (SVNKitSubversionRepository)subrepository;
+			final SVNKitSubversionRepository subrepositorySnapshot = svnSubrepository.createSnapshotRepository(svnSubrepository.getRootURI(),
+					svnSubrepository.getSourceURI());
+			subrepositorySnapshot.sessionRepository = snapshot.sessionRepository; //share the sessions of the snapshot, as the subrepository shares ours
+			svnSubrepository.transferSnapshotSettings(subrepositorySnapshot, revision);
+			snapshot.registerPathRepository(pathRepositoryEntry.getKey(), subrepositorySnapshot);
+		}
+	}
+
+	/**
+	 * Creates a read-only snapshot of this repository at its current latest revision.
+	 * @return A read-only repository accessing resources at the latest revision at the time this method was called.
+	 * @throws ResourceIOException if there was an error determining the latest revision.
+	 * @see #atRevision(long)
+	 */
+	public SVNKitSubversionRepository atLatestRevision() throws ResourceIOException {
+		checkOpen(); //make sure the repository is open
+		try {
+			final SVNRepository svnRepository = acquireSVNRepository(); //get an SVNKit repository session for use by this thread alone
+			try {
+				return atRevision(svnRepository.getLatestRevision());
+			} finally {
+				releaseSVNRepository(svnRepository);
+			}
+		} catch(final SVNException svnException) {
+			throw toResourceIOException(getRootURI(), svnException);
+		}
+	}
+
+	/**
+	 * Ensures that resources can be modified in this repository.
+	 * @param resourceURI The URI of the resource to be modified.
+	 * @throws ResourceForbiddenException if this repository is a read-only snapshot.
+	 * @see #isSnapshot()
+	 */
+	protected void checkModifiable(final URI resourceURI) throws ResourceForbiddenException {
+		if(isSnapshot()) {
+			throw new ResourceForbiddenException(resourceURI, "Repository snapshot at revision " + getRevision() + " cannot be modified.");
+		}
+	}
+
+	/**
+	 * Determines the kind of node at the given path at the revision of this repository. For snapshots, the node kind is retrieved from the revision cache if
+	 * possible.
+	 * @param svnRepository The SVNKit repository session held by the caller.
+	 * @param resourceURIPath The path of the node.
+	 * @return The kind of node at the given path, which will be {@link SVNNodeKind#NONE} if there is no such node.
+	 * @throws SVNException if there is an error accessing the Subversion repository.
+	 * @see SVNRepository#checkPath(String, long)
+	 */
+	protected SVNNodeKind checkPath(final SVNRepository svnRepository, final URIPath resourceURIPath) throws SVNException {
+		final String path = resourceURIPath.toDecodedString();
+		final long revision = getRevision();
+		if(revision == HEAD_REVISION) { //the latest revision can change at any time, so don't cache it
+			return svnRepository.checkPath(path, revision);
+		}
+		final SVNRevisionCache revisionCache = getRevisionCache();
+		SVNNodeKind nodeKind = revisionCache.getNodeKind(path, revision);
+		if(nodeKind == null) {
+			nodeKind = svnRepository.checkPath(path, revision);
+			revisionCache.putNodeKind(path, revision, nodeKind);
+		}
+		return nodeKind;
+	}
+
+	/**
+	 * Retrieves the directory entries of the children of the directory at the given path at the revision of this repository. For snapshots, the entries are
+	 * retrieved from the revision cache if possible.
+	 * @param svnRepository The SVNKit repository session held by the caller.
+	 * @param resourceURIPath The path of the directory.
+	 * @return The directory entries of the children of the directory.
+	 * @throws SVNException if there is an error accessing the Subversion repository.
+	 * @see SVNRepository#getDir(String, long, SVNProperties, Collection)
+	 */
+	protected Collection<SVNDirEntry> getDirEntries(final SVNRepository svnRepository, final URIPath resourceURIPath) throws SVNException {
+		final String path = resourceURIPath.toDecodedString();
+		final long revision = getRevision();
+		if(revision == HEAD_REVISION) { //the latest revision can change at any time, so don't cache it
+			@SuppressWarnings("unchecked")
+			final Collection<SVNDirEntry> dirEntries = svnRepository.getDir(path, revision, null, (Collection<?>)null);
+			return dirEntries;
+		}
+		final SVNRevisionCache revisionCache = getRevisionCache();
+		Collection<SVNDirEntry> dirEntries = revisionCache.getDirEntries(path, revision);
+		if(dirEntries == null) {
+			@SuppressWarnings("unchecked")
+			final Collection<SVNDirEntry> childDirEntries = svnRepository.getDir(path, revision, null, (Collection<?>)null);
+			revisionCache.putDirEntries(path, revision, childDirEntries); //the cache keeps its own copies
+			dirEntries = childDirEntries;
+		}
+		return dirEntries;
+	}
+
+	/**
+	 * Checks that a collection resource exists as a Subversion directory at the revision of this repository, and determines a revision at which the directory
+	 * is known to exist. For snapshots the revision of the snapshot is used, and the node kind is retrieved from the revision cache if possible; otherwise the
+	 * revision in which the directory was last changed is retrieved along with the node kind.
+	 * @param svnRepository The SVNKit repository session held by the caller.
+	 * @param resourceURI The URI of the collection resource.
+	 * @return A revision at which the directory exists.
+	 * @throws ResourceNotFoundException if the identified resource does not exist.
+	 * @throws ResourceStateException if the node is not a directory.
+	 * @throws SVNException if there is an error accessing the Subversion repository.
+	 */
+	protected long checkDirectory(final SVNRepository svnRepository, final URI resourceURI) throws ResourceIOException, SVNException {
+		final URIPath resourceURIPath = getResourceURIPath(resourceURI); //get the path to the resource
+		if(isSnapshot()) { //snapshots already know their revision
+			checkNodeKind(checkPath(svnRepository, resourceURIPath), resourceURI);
+			return getRevision();
+		}
+		final SVNDirEntry dirEntry = svnRepository.info(resourceURIPath.toDecodedString(), getRevision()); //find out the node kind and revision in the same request
+		checkNodeKind(dirEntry, resourceURI);
+		return dirEntry.getRevision();
+	}
+
+	/**
+	 * Finds the directory entry with the given name.
+	 * @param dirEntries The directory entries to search.
+	 * @param name The name of the directory entry to find.
+	 * @return The directory entry with the given name, or <code>null</code> if there is no such directory entry.
+	 */
+	protected static SVNDirEntry getDirEntry(final Collection<SVNDirEntry> dirEntries, final String name) {
+		for(final SVNDirEntry dirEntry : dirEntries) {
+			if(name.equals(dirEntry.getName())) {
+				return dirEntry;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Retrieves the directory entries of the {@value #COLLECTION_CONTENT_NAME} files of several collections at the revision of this repository. Subversion
+	 * provides no single request reporting the sizes and dates of the files within several directories, so rather than requesting each entry in turn, the
+	 * requests are issued together on as many sessions as the pool allows, using the lookup threads. If the current thread already holds a session,
+	 * other sessions might never become available, so in that case the entries are requested one after another using the held session. For snapshots, collections
+	 * the descriptions of which are already in the revision cache are skipped, as their content files will not be needed.
+	 * @param resourceURIs The URIs of the collection resources.
+	 * @return The directory entries of the content files, if any, of the collections, wrapped in collections that are empty if a collection has no content
+	 *         file, and keyed to the URIs of the collections.
+	 * @throws SVNException if there is an error accessing the Subversion repository.
+	 */
+	protected Map<URI, Collection<SVNDirEntry>> getCollectionContentDirEntries(final Collection<URI> resourceURIs) throws SVNException {
+		final List<URI> contentResourceURIs = new ArrayList<URI>(resourceURIs.size());
+		for(final URI resourceURI : resourceURIs) {
+			if(!isSnapshot() || getRevisionCache().getResourceDescription(getResourceURIPath(resourceURI).toDecodedString(), getRevision()) == null) {
+				contentResourceURIs.add(resourceURI);
+			}
+		}
+		final Map<URI, Collection<SVNDirEntry>> contentDirEntries = new ConcurrentHashMap<URI, Collection<SVNDirEntry>>(contentResourceURIs.size());
+		if(contentResourceURIs.isEmpty()) {
+			return contentDirEntries;
+		}
+		final Iterator<URI> contentResourceURIIterator = contentResourceURIs.iterator(); //each session takes its next collection from here
+		final Callable<Void> retrieval = new Callable<Void>() {
+
+			@Override
+			public Void call() throws SVNException {
+				final SVNRepository svnRepository = acquireSVNRepository(); //get an SVNKit repository session for use by this thread alone
+				try {
+					while(true) {
+						final URI resourceURI;
+						synchronized(contentResourceURIIterator) {
+							if(!contentResourceURIIterator.hasNext()) {
+								return null;
+							}
+							resourceURI = contentResourceURIIterator.next();
+						}
+						final SVNDirEntry contentDirEntry = svnRepository.info(getResourceURIPath(resolve(resourceURI, COLLECTION_CONTENT_NAME)).toDecodedString(),
+								getRevision());
+						contentDirEntries.put(resourceURI, contentDirEntry != null ? singletonList(contentDirEntry) : Collections.<SVNDirEntry>emptyList());
+					}
+				} finally {
+					releaseSVNRepository(svnRepository);
+				}
+			}
+		};
+		final int sessionCount = getSVNRepositoryPool().isHeld() ? 1 : Math.min(getSVNRepositoryPool().getSize(), contentResourceURIs.size());
+		if(sessionCount == 1) { //if only one session can be used, use it on this thread
+			try {
+				retrieval.call();
+			} catch(final SVNException svnException) {
+				throw svnException;
+			} catch(final Exception exception) {
+				throw unexpected(exception); //the retrieval only throws Subversion exceptions
+			}
+			return contentDirEntries;
+		}
+		final ExecutorService lookupExecutorService = getLookupExecutorService();
+		checkState(lookupExecutorService != null, "Repository is not open.");
+		final List<Future<Void>> retrievalFutures = new ArrayList<Future<Void>>(sessionCount);
+		try {
+			for(int i = 0; i < sessionCount; ++i) {
+				retrievalFutures.add(lookupExecutorService.submit(retrieval));
+			}
+			for(final Future<Void> retrievalFuture : retrievalFutures) {
+				try {
+					retrievalFuture.get();
+				} catch(final ExecutionException executionException) {
+					final Throwable cause = executionException.getCause();
+					if(cause instanceof SVNException) {
+						throw (SVNException)cause;
+					} else if(cause instanceof RuntimeException) {
+						throw (RuntimeException)cause;
+					}
+					throw unexpected(cause);
+				}
+			}
+		} catch(final InterruptedException interruptedException) {
+			Thread.currentThread().interrupt(); //restore the interrupted status
+			throw new SVNCancelException(SVNErrorMessage.create(SVNErrorCode.CANCELLED, "Interrupted while retrieving collection content information."));
+		} finally {
+			for(final Future<Void> retrievalFuture : retrievalFutures) { //if we stopped early, don't make any more requests
+				retrievalFuture.cancel(true);
+			}
+		}
+		return contentDirEntries;
+	}
+
+	/**
+	 * Retrieves the Subversion custom properties of all the children of the directory at the given path at the revision of this repository, using a single
+	 * status report rather than separately requesting the properties of each child. The repository session is temporarily relocated to the directory for the
+	 * report.
+	 * @param svnRepository The SVNKit repository session held by the caller.
+	 * @param resourceURIPath The path of the directory.
+	 * @param baseRevision A revision at which the directory exists at the given path, used as the base revision of the report.
+	 * @return The properties of the children of the directory, keyed to child name; children with no custom properties may not be present.
+	 * @throws SVNException if there is an error accessing the Subversion repository.
+	 * @see SVNRepository#status(long, String, SVNDepth, ISVNReporterBaton, ISVNEditor)
+	 */
+	protected Map<String, SVNProperties> getChildProperties(final SVNRepository svnRepository, final URIPath resourceURIPath, final long baseRevision)
+			throws SVNException {
+		final SVNURL location = svnRepository.getLocation(); //remember where the session was
+		String path = resourceURIPath.toDecodedString();
+		if(path.endsWith(String.valueOf(PATH_SEPARATOR))) { //SVNKit doesn't want a trailing slash on a URL
+			path = path.substring(0, path.length() - 1);
+		}
+		if(!path.isEmpty()) { //status reports are anchored at the session location
+			svnRepository.setLocation(location.appendPath(path, false), false);
+		}
+		try {
+			final ChildPropertiesEditor editor = new ChildPropertiesEditor();
+			svnRepository.status(getRevision(), null, SVNDepth.IMMEDIATES, new ISVNReporterBaton() {
+
+				@Override
+				public void report(final ISVNReporter reporter) throws SVNException {
+					reporter.setPath("", null, baseRevision, SVNDepth.IMMEDIATES, true); //pretend to have an empty directory, so that every child is reported as added along with its properties
+					reporter.finishReport();
+				}
+			}, editor);
+			return editor.getChildProperties();
+		} finally {
+			if(!path.isEmpty()) {
+				svnRepository.setLocation(location, false); //put the session back where it was for the next user
+			}
+		}
+	}
+
+	/**
+	 * An editor that collects the custom properties of the immediate children of the directory at which an edit is anchored. Contents and nested children are
+	 * ignored.
+	 * @author Garret Wilson
+	 */
+	protected static class ChildPropertiesEditor implements ISVNEditor {
+
+		/** The properties of the children, keyed to child name. */
+		private final Map<String, SVNProperties> childProperties = new HashMap<String, SVNProperties>();
+
+		/** @return The properties of the children, keyed to child name. */
+		public Map<String, SVNProperties> getChildProperties() {
+			return childProperties;
+		}
+
+		/** The paths of the directories currently open, with the most recently opened first. */
+		private final Deque<String> dirPaths = new ArrayDeque<String>();
+
+		/**
+		 * Records a property of a child.
+		 * @param path The path of the child relative to the anchor of the edit.
+		 * @param propertyName The name of the property.
+		 * @param propertyValue The value of the property, or <code>null</code> if the property is being removed.
+		 */
+		protected void addProperty(final String path, final String propertyName, final SVNPropertyValue propertyValue) {
+			if(path.isEmpty() || propertyValue == null || !SVNProperty.isRegularProperty(propertyName)) { //ignore the anchor itself, removals, and entry properties
+				return;
+			}
+			final String name = path.substring(path.lastIndexOf(PATH_SEPARATOR) + 1); //the children are immediate, so the name is the last path segment
+			SVNProperties properties = childProperties.get(name);
+			if(properties == null) {
+				properties = new SVNProperties();
+				childProperties.put(name, properties);
+			}
+			properties.put(propertyName, propertyValue);
+		}
+
+		@Override
+		public void targetRevision(final long revision) throws SVNException {
+		}
+
+		@Override
+		public void openRoot(final long revision) throws SVNException {
+			dirPaths.push("");
+		}
+
+		@Override
+		public void deleteEntry(final String path, final long revision) throws SVNException {
+		}
+
+		@Override
+		public void absentDir(final String path) throws SVNException {
+		}
+
+		@Override
+		public void absentFile(final String path) throws SVNException {
+		}
+
+		@Override
+		public void addDir(final String path, final String copyFromPath, final long copyFromRevision) throws SVNException {
+			dirPaths.push(path);
+		}
+
+		@Override
+		public void openDir(final String path, final long revision) throws SVNException {
+			dirPaths.push(path);
+		}
+
+		@Override
+		public void changeDirProperty(final String name, final SVNPropertyValue value) throws SVNException {
+			addProperty(dirPaths.peek(), name, value);
+		}
+
+		@Override
+		public void closeDir() throws SVNException {
+			dirPaths.pop();
+		}
+
+		@Override
+		public void addFile(final String path, final String copyFromPath, final long copyFromRevision) throws SVNException {
+		}
+
+		@Override
+		public void openFile(final String path, final long revision) throws SVNException {
+		}
+
+		@Override
+		public void changeFileProperty(final String path, final String propertyName, final SVNPropertyValue propertyValue) throws SVNException {
+			addProperty(path, propertyName, propertyValue);
+		}
+
+		@Override
+		public void closeFile(final String path, final String textChecksum) throws SVNException {
+		}
+
+		@Override
+		public SVNCommitInfo closeEdit() throws SVNException {
+			return null;
+		}
+
+		@Override
+		public void abortEdit() throws SVNException {
+		}
+
+		@Override
+		public void applyTextDelta(final String path, final String baseChecksum) throws SVNException {
+		}
+
+		@Override
+		public OutputStream textDeltaChunk(final String path, final SVNDiffWindow diffWindow) throws SVNException {
+			return null;
+		}
+
+		@Override
+		public void textDeltaEnd(final String path) throws SVNException {
+		}
+	}
+
+	/** The default maximum number of SVNKit repository sessions used at the same time. */
+	public static final int DEFAULT_SESSION_POOL_SIZE = 4;
+
+	/** The maximum number of SVNKit repository sessions used at the same time. */
+	private volatile int sessionPoolSize = DEFAULT_SESSION_POOL_SIZE;
+
+	/** @return The maximum number of SVNKit repository sessions used at the same time. */
+	public int getSessionPoolSize() {
+		return sessionPoolSize;
+	}
+
+	/**
+	 * Sets the maximum number of SVNKit repository sessions used at the same time. The new size takes effect the next time the repository is opened.
+	 * @param sessionPoolSize The maximum number of SVNKit repository sessions used at the same time.
+	 * @throws IllegalArgumentException if the given size is not positive.
+	 */
+	public void setSessionPoolSize(final int sessionPoolSize) {
+		checkArgument(sessionPoolSize > 0, "Invalid session pool size {0}.", sessionPoolSize);
+		this.sessionPoolSize = sessionPoolSize;
+	}
+
+	/** The default maximum number of SVNKit repository sessions used at the same time for streaming resource contents. */
+	public static final int DEFAULT_CONTENT_SESSION_POOL_SIZE = 4;
+
+	/** The maximum number of SVNKit repository sessions used at the same time for streaming resource contents. */
+	private volatile int contentSessionPoolSize = DEFAULT_CONTENT_SESSION_POOL_SIZE;
+
+	/** @return The maximum number of SVNKit repository sessions used at the same time for streaming resource contents. */
+	public int getContentSessionPoolSize() {
+		return contentSessionPoolSize;
+	}
+
+	/**
+	 * Sets the maximum number of SVNKit repository sessions used at the same time for streaming resource contents. These sessions are separate from the session
+	 * pool, so that open content streams never keep other operations from acquiring sessions. When all content sessions are in use, content is retrieved
+	 * completely before being returned. The new size takes effect the next time the repository is opened.
+	 * @param contentSessionPoolSize The maximum number of SVNKit repository sessions used at the same time for streaming resource contents, or <code>0</code> if
+	 *          content should never be streamed.
+	 * @throws IllegalArgumentException if the given size is negative.
+	 */
+	public void setContentSessionPoolSize(final int contentSessionPoolSize) {
+		checkArgument(contentSessionPoolSize >= 0, "Invalid content session pool size {0}.", contentSessionPoolSize);
+		this.contentSessionPoolSize = contentSessionPoolSize;
+	}
+
+	/** The repository owning the pool of sessions used by this repository; either this repository or the repository from which this subrepository was created. */
+	private SVNKitSubversionRepository sessionRepository = this;
+
+	/** The pool of SVNKit repository sessions owned by this repository, or <code>null</code> if the repository has not been opened or uses a shared pool. */
+	private volatile SVNRepositoryPool svnRepositoryPool = null;
+
+	/**
+	 * Returns the pool of SVNKit repository sessions, which provides metrics such as the time spent waiting for a session. A subrepository returns the pool of
+	 * the repository from which it was created.
+	 * @return The pool of SVNKit repository sessions, or <code>null</code> if the repository owning the pool has not been opened.
+	 */
+	public SVNRepositoryPool getSVNRepositoryPool() {
+		return sessionRepository != this ? sessionRepository.getSVNRepositoryPool() : svnRepositoryPool;
+	}
+
+	/**
+	 * The pool of SVNKit repository sessions for streaming resource contents owned by this repository, or <code>null</code> if the repository has not been
+	 * opened, uses a shared pool, or does not stream content.
+	 */
+	private volatile SVNRepositoryPool contentSVNRepositoryPool = null;
+
+	/**
+	 * Returns the pool of SVNKit repository sessions for streaming resource contents. A subrepository returns the pool of the repository from which it was
+	 * created.
+	 * @return The pool of SVNKit repository sessions for streaming resource contents, or <code>null</code> if the repository owning the pool has not been opened
+	 *         or does not stream content.
+	 * @see #getContentSessionPoolSize()
+	 */
+	public SVNRepositoryPool getContentSVNRepositoryPool() {
+		return sessionRepository != this ? sessionRepository.getContentSVNRepositoryPool() : contentSVNRepositoryPool;
+	}
+
+	/** The URL of the Subversion location of this repository, at which sessions are acquired, or <code>null</code> if the repository has not been opened. */
+	private volatile SVNURL svnURL = null;
+
+	/**
+	 * The pools from which the current thread acquired the sessions it has not yet released, most recent first, so that each session is given back to the pool
+	 * it came from even if the repository was closed and reopened in the meantime.
+	 */
+	private final ThreadLocal<Deque<SVNRepositoryPool>> threadSVNRepositoryPools = new ThreadLocal<Deque<SVNRepositoryPool>>();
+
+	/** The size in bytes of the buffer between the thread retrieving resource content and the thread reading it. */
+	public static final int CONTENT_PIPE_SIZE = 64 * 1024;
+
+	/** The executor service retrieving resource contents in the background, or <code>null</code> if the repository has not been opened. */
+	private volatile ExecutorService contentExecutorService = null;
+
+	/**
+	 * The executor service performing concurrent lookups of node information owned by this repository, or <code>null</code> if the repository has not been
+	 * opened or uses a shared pool of sessions.
+	 */
+	private volatile ExecutorService lookupExecutorService = null;
+
+	/**
+	 * Returns the executor service performing concurrent lookups of node information, such as the {@value #COLLECTION_CONTENT_NAME} files of several
+	 * collections. It is separate from the threads retrieving content, so that lookups can't occupy the threads streams need, and it has no more threads than
+	 * there are sessions in the pool. A subrepository returns the executor service of the repository from which it was created.
+	 * @return The executor service performing lookups, or <code>null</code> if the repository owning the pool of sessions has not been opened.
+	 */
+	protected ExecutorService getLookupExecutorService() {
+		return sessionRepository != this ? sessionRepository.getLookupExecutorService() : lookupExecutorService;
+	}
 
-	/** @return The SVNKit Subversion repository, or <code>null</code> if the repository is closed. */
-	protected SVNRepository getSVNRepository() {
+	/**
+	 * Acquires an SVNKit repository session for exclusive use by the current thread, waiting if all sessions are in use. If the current thread already holds a
+	 * session, that same session is returned. The returned session must be given back using {@link #releaseSVNRepository(SVNRepository)}, normally in a
+	 * <code>finally</code> block. The session is located at the Subversion location of this repository until it is released, even if the pool is shared with
+	 * another repository.
+	 * @return An SVNKit repository session.
+	 * @throws IllegalStateException if the repository, or the repository owning a shared session pool, is not open.
+	 * @throws SVNException if there is an error creating a session or the thread was interrupted while waiting for a session.
+	 * @see SVNRepositoryPool#acquire(SVNURL)
+	 */
+	protected SVNRepository acquireSVNRepository() throws SVNException {
+		final SVNURL svnURL = this.svnURL;
+		checkState(svnURL != null, "Repository is not open.");
+		if(sessionRepository != this) { //make sure the repository owning the shared pool is open
+			try {
+				sessionRepository.checkOpen();
+			} catch(final ResourceIOException resourceIOException) {
+				throw new SVNException(SVNErrorMessage.create(SVNErrorCode.IO_ERROR, resourceIOException.getMessage()), resourceIOException);
+			}
+		}
+		final SVNRepositoryPool svnRepositoryPool = getSVNRepositoryPool();
+		checkState(svnRepositoryPool != null, "Repository is not open.");
+		final SVNRepository svnRepository = svnRepositoryPool.acquire(svnURL);
+		Deque<SVNRepositoryPool> svnRepositoryPools = threadSVNRepositoryPools.get();
+		if(svnRepositoryPools == null) {
+			svnRepositoryPools = new ArrayDeque<SVNRepositoryPool>();
+			threadSVNRepositoryPools.set(svnRepositoryPools);
+		}
+		svnRepositoryPools.addFirst(svnRepositoryPool); //remember where the session came from
 		return svnRepository;
 	}
 
+	/**
+	 * Releases an SVNKit repository session previously retrieved using {@link #acquireSVNRepository()}. The session is given back to the pool from which it was
+	 * acquired, even if the repository has since been closed and reopened with a new pool.
+	 * @param svnRepository The SVNKit repository session no longer in use.
+	 * @throws IllegalStateException if the given session is not held by the current thread.
+	 * @see SVNRepositoryPool#release(SVNRepository)
+	 */
+	protected void releaseSVNRepository(final SVNRepository svnRepository) {
+		final Deque<SVNRepositoryPool> svnRepositoryPools = threadSVNRepositoryPools.get();
+		checkState(svnRepositoryPools != null && !svnRepositoryPools.isEmpty(), "Subversion session not held by the current thread.");
+		final SVNRepositoryPool svnRepositoryPool = svnRepositoryPools.removeFirst();
+		if(svnRepositoryPools.isEmpty()) { //don't keep thread-local state around for threads no longer using sessions
+			threadSVNRepositoryPools.remove();
+		}
+		svnRepositoryPool.release(svnRepository);
+	}
+
 	/**
 	 * Translates a SVNKit directory entry to the equivalent public URI in the public repository URI namespace. This method ensures that directories provide URIs
 	 * with an appropriate collection ending slash.
@@ -210,7 +840,9 @@ protected URI getRepositoryResourceURI(final URI baseURI, final SVNDirEntry dirE
 	/**
 	 * {@inheritDoc}
 	 * <p>
-	 * This version connects to the SVNKit repository.
+	 * This version creates a pool of sessions to the SVNKit repository and a separate pool of sessions for streaming content, along with the threads used for
+	 * retrieving content and the threads used for concurrent lookups. A subrepository uses the pools and lookup threads of the repository from which it was
+	 * created instead of creating its own.
 	 * </p>
 	 */
 	@Override
@@ -224,24 +856,75 @@ public void openImpl() throws ResourceIOException {
 			} else { //all other URIs should be in the correct format already
 				svnURL = SVNURL.parseURIEncoded(sourceURI.toASCIIString());
 			}
+			final ISVNAuthenticationManager authenticationManager;
+			final String username = getUsername();
+			if(username != null) { //if a username is given
+				final char[] password = getPassword();
+				authenticationManager = SVNWCUtil.createDefaultAuthenticationManager(username, password != null ? new String(password) : ""); //create a default username/password authentication manager
+			} else { //if no username is given
+				authenticationManager = SVNWCUtil.createDefaultAuthenticationManager(); //create a default authentication manager with the default authentication configured on the system for Subversion
+			}
+			this.svnURL = svnURL;
+			if(sessionRepository == this) { //subrepositories share the pool of their parent
+				svnRepositoryPool = new SVNRepositoryPool(svnURL, authenticationManager, getSessionPoolSize()); //sessions will be created as needed, all sharing the authentication manager
+				final int contentSessionPoolSize = getContentSessionPoolSize(); //streamed content gets its own sessions so that open streams can't starve other operations
+				contentSVNRepositoryPool = contentSessionPoolSize > 0 ? new SVNRepositoryPool(svnURL, authenticationManager, contentSessionPoolSize) : null;
+				final int sessionPoolSize = getSessionPoolSize();
+				final ThreadPoolExecutor lookupExecutorService = new ThreadPoolExecutor(sessionPoolSize, sessionPoolSize, 60, TimeUnit.SECONDS,
+						new LinkedBlockingQueue<Runnable>(), new ThreadFactory() { //lookups never need more threads than there are sessions
+
+							@Override
+							public Thread newThread(final Runnable runnable) {
+								final Thread thread = new Thread(runnable, "Subversion lookup " + svnURL);
+								thread.setDaemon(true);
+								return thread;
+							}
+						});
+				lookupExecutorService.allowCoreThreadTimeOut(true); //don't keep idle threads around
+				this.lookupExecutorService = lookupExecutorService;
+			}
+			contentExecutorService = Executors.newCachedThreadPool(new ThreadFactory() { //content is retrieved on daemon threads so that abandoned retrievals won't keep the application alive
 
-			svnRepository = SVNRepositoryFactory.create(svnURL); //create a new SVNKit repository
-			synchronized(svnRepository) {
-				final ISVNAuthenticationManager authenticationManager;
-				final String username = getUsername();
-				if(username != null) { //if a username is given
-					final char[] password = getPassword();
-					authenticationManager = SVNWCUtil.createDefaultAuthenticationManager(username, password != null ? new String(password) : ""); //create a default username/password authentication manager
-				} else { //if no username is given
-					authenticationManager = SVNWCUtil.createDefaultAuthenticationManager(); //create a default authentication manager with the default authentication configured on the system for Subversion
+				@Override
+				public Thread newThread(final Runnable runnable) {
+					final Thread thread = new Thread(runnable, "Subversion content retrieval " + svnURL);
+					thread.setDaemon(true);
+					return thread;
 				}
-				svnRepository.setAuthenticationManager(authenticationManager); //set the repository's authentication manager
-			}
+			});
 		} catch(final SVNException svnException) {
 			throw toResourceIOException(getSourceURI(), svnException);
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This version closes the pools of sessions to the SVNKit repository, unless the pools are shared with the repository from which this subrepository was
+	 * created. Content retrievals already in progress are allowed to finish.
+	 * </p>
+	 */
+	@Override
+	protected void closeImpl() throws ResourceIOException {
+		final ExecutorService contentExecutorService = this.contentExecutorService;
+		if(contentExecutorService != null) {
+			contentExecutorService.shutdown(); //content streams already returned can still be read
+		}
+		final ExecutorService lookupExecutorService = this.lookupExecutorService; //only shut down lookup threads this repository owns
+		if(lookupExecutorService != null) {
+			lookupExecutorService.shutdown();
+		}
+		final SVNRepositoryPool svnRepositoryPool = this.svnRepositoryPool; //only close a pool this repository owns
+		if(svnRepositoryPool != null) {
+			svnRepositoryPool.close(); //sessions still in use will be closed when they are released
+		}
+		final SVNRepositoryPool contentSVNRepositoryPool = this.contentSVNRepositoryPool;
+		if(contentSVNRepositoryPool != null) {
+			contentSVNRepositoryPool.close(); //content streams still being read will close their sessions when done
+		}
+		super.closeImpl();
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * <p>
@@ -257,9 +940,11 @@ protected boolean resourceExistsImpl(URI resourceURI) throws ResourceIOException
 		final URIPath resourceURIPath = getResourceURIPath(resourceURI); //get the path to the resource
 		try {
 			final SVNNodeKind nodeKind;
-			final SVNRepository svnRepository = getSVNRepository(); //get the SVNKit repository and prevent other threads for accessing it simultaneously
-			synchronized(svnRepository) {
-				nodeKind = svnRepository.checkPath(resourceURIPath.toDecodedString(), -1); //see what kind of resource this is
+			final SVNRepository svnRepository = acquireSVNRepository(); //get an SVNKit repository session for use by this thread alone
+			try {
+				nodeKind = checkPath(svnRepository, resourceURIPath); //see what kind of resource this is
+			} finally {
+				releaseSVNRepository(svnRepository);
 			}
 			final boolean isCollection = isCollectionURI(resourceURI);
 			if(isCollection) { //if the resource is a collection
@@ -272,16 +957,30 @@ protected boolean resourceExistsImpl(URI resourceURI) throws ResourceIOException
 		}
 	}
 
-	@Override
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * For snapshots, this implementation first attempts to retrieve the description from the revision cache.
+	 * </p>
+	 */
+	@Override
 	protected URFResource getResourceDescriptionImpl(final URI resourceURI) throws ResourceIOException {
 		final URF urf = createURF(); //create a new URF data model
 		final URIPath resourceURIPath = getResourceURIPath(resourceURI); //get the path to the resource
+		if(isSnapshot()) { //if resources at this revision never change, see if we already have a description
+			final URFResource cachedResourceDescription = getRevisionCache().getResourceDescription(resourceURIPath.toDecodedString(), getRevision());
+			if(cachedResourceDescription != null) {
+				return cachedResourceDescription;
+			}
+		}
 		try {
-			final SVNRepository svnRepository = getSVNRepository(); //get the SVNKit repository and prevent other threads for accessing it simultaneously
-			synchronized(svnRepository) {
-				final SVNDirEntry dirEntry = svnRepository.info(resourceURIPath.toDecodedString(), -1); //get the directory entry for this resource
+			final SVNRepository svnRepository = acquireSVNRepository(); //get an SVNKit repository session for use by this thread alone
+			try {
+				final SVNDirEntry dirEntry = svnRepository.info(resourceURIPath.toDecodedString(), getRevision()); //get the directory entry for this resource
 				checkNodeKind(dirEntry, resourceURI); //make sure the node is the correct kind for our resource URI, and that the node exists
 				return createResourceDescription(urf, resourceURI, dirEntry); //create and return a description of the resource
+			} finally {
+				releaseSVNRepository(svnRepository);
 			}
 		} catch(final SVNException svnException) {
 			throw toResourceIOException(resourceURI, svnException);
@@ -290,44 +989,418 @@ protected URFResource getResourceDescriptionImpl(final URI resourceURI) throws R
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This implementation retrieves the directory entries of the parent directory of each group of sibling resources using a single
+	 * {@link SVNRepository#getDir(String, long, SVNProperties, Collection)} call, creating descriptions only for the requested resources. Resources not found in
+	 * a parent directory, as well as resources with no requested siblings, are retrieved individually.
+	 * </p>
+	 */
+	@Override
+	protected Map<URI, URFResource> getResourceDescriptionsImpl(final Collection<URI> resourceURIs) throws ResourceIOException {
+		final Map<URI, URFResource> resourceDescriptions = new HashMap<URI, URFResource>(resourceURIs.size());
+		final URF urf = createURF(); //create a new URF data model
+		for(final Map.Entry<URI, List<URI>> parentResourceURIEntry : groupResourceURIsByParent(resourceURIs).entrySet()) {
+			final URI parentResourceURI = parentResourceURIEntry.getKey();
+			final List<URI> childResourceURIs = parentResourceURIEntry.getValue();
+			if(parentResourceURI == null || childResourceURIs.size() < 2) { //a single resource is retrieved more efficiently on its own
+				continue;
+			}
+			final URIPath parentResourceURIPath = getResourceURIPath(parentResourceURI); //get the path to the parent resource
+			final Collection<SVNDirEntry> dirEntries;
+			try {
+				final SVNRepository svnRepository = acquireSVNRepository(); //get an SVNKit repository session for use by this thread alone
+				try {
+					if(checkPath(svnRepository, parentResourceURIPath) != SVNNodeKind.DIR) { //if there is no parent directory, the individual retrievals will report the problem
+						continue;
+					}
+					dirEntries = getDirEntries(svnRepository, parentResourceURIPath); //get a collection of child directory entries
+				} finally {
+					releaseSVNRepository(svnRepository);
+				}
+			} catch(final SVNException svnException) {
+				throw toResourceIOException(parentResourceURI, svnException);
+			}
+			final Set<URI> remainingResourceURIs = new HashSet<URI>(childResourceURIs);
+			for(final SVNDirEntry dirEntry : dirEntries) { //for each of the child resource directory entries
+				final URI childResourceURI = getRepositoryResourceURI(parentResourceURI, dirEntry); //get the public URI for this resource
+				if(remainingResourceURIs.remove(childResourceURI)) { //if this resource was requested
+					try {
+						resourceDescriptions.put(childResourceURI, createResourceDescription(urf, childResourceURI, dirEntry)); //create a resource from this URI and directory entry
+					} catch(final SVNException svnException) {
+						throw toResourceIOException(childResourceURI, svnException);
+					} catch(final DataException dataException) { //if the data wasn't correct
+						throw toResourceIOException(childResourceURI, dataException); //translate the exception to a resource I/O exception and throw that
+					}
+				}
+			}
+		}
+		for(final URI resourceURI : resourceURIs) { //retrieve any descriptions we didn't find in a parent directory
+			if(!resourceDescriptions.containsKey(resourceURI)) {
+				resourceDescriptions.put(resourceURI, getResourceDescriptionImpl(resourceURI));
+			}
+		}
+		return resourceDescriptions;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * <p>
 	 * For collections, this implementation retrieves the content of the {@value #COLLECTION_CONTENT_NAME} file, if any.
 	 * </p>
+	 * <p>
+	 * This implementation streams the content: it is retrieved on a separate thread using a session from the content session pool, and the returned input stream
+	 * provides bytes as soon as they arrive. At most {@value #CONTENT_PIPE_SIZE} bytes are buffered; retrieval waits until the caller reads more. The content
+	 * session is held until all the content has been read or the input stream is closed, so the returned stream must always be closed. Because content sessions
+	 * are separate from the session pool, open streams never keep other operations from acquiring sessions. If no content session is immediately available, the
+	 * content is instead retrieved completely before returning.
+	 * </p>
+	 * @see #getContentSessionPoolSize()
 	 */
 	@Override
 	protected InputStream getResourceInputStreamImpl(final URI resourceURI) throws ResourceIOException {
-		final SVNRepository svnRepository = getSVNRepository(); //get the SVNKit repository and prevent other threads for accessing it simultaneously
-		synchronized(svnRepository) {
+		try {
+			final URIPath contentURIPath;
+			final SVNRepositoryPool contentSVNRepositoryPool = getContentSVNRepositoryPool();
+			final SVNRepository svnRepository = acquireSVNRepository(); //get an SVNKit repository session for use by this thread alone
 			try {
-				final URIPath resourceURIPath = getResourceURIPath(resourceURI); //get the path to the resource
-				checkNodeKind(svnRepository.checkPath(resourceURIPath.toDecodedString(), -1), resourceURI); //see what kind of resource this is, verifying the node kind and making sure the node exists
-				final URIPath contentURIPath; //we'll determine the URI path to use for content
-				final boolean isCollection = isCollectionURI(resourceURI);
-				if(isCollection) { //if the resource is a collection
-					contentURIPath = resourceURIPath.resolve(COLLECTION_CONTENT_NAME); //the URI path to use for content uses the special collection content resource
-					final SVNNodeKind contentNodeKind = svnRepository.checkPath(contentURIPath.toDecodedString(), -1); //see what kind of resource the content is
-					if(contentNodeKind == SVNNodeKind.NONE) { //if we're looking for collection content, this is not a problem---the collection simply has no content
-						return EMPTY_INPUT_STREAM;
-					} else if(contentNodeKind != SVNNodeKind.FILE) { //if the content file not a file
-						throw new ResourceStateException(resourceURI, "Found non-file node kind " + contentNodeKind + " for collection content path " + contentURIPath);
+				contentURIPath = getContentURIPath(svnRepository, resourceURI); //determine the URI path to use for content
+				if(contentURIPath == null) { //if we're looking for collection content, this is not a problem---the collection simply has no content
+					return EMPTY_INPUT_STREAM;
+				}
+				if(contentSVNRepositoryPool == null || !contentSVNRepositoryPool.tryReserve()) { //if no content session is free, retrieve the content on this thread using this session
+					final TempOutputStream tempOutputStream = new TempOutputStream(false); //create a temporary output stream that won't automatically delete its contents when closed
+					svnRepository.getFile(contentURIPath.toDecodedString(), getRevision(), null, tempOutputStream); //retrieve the contents of the content file; if SVNKit closes the output stream, it won't matter, because we turned off auto-dispose
+					try {
+						return tempOutputStream.getInputStream(); //return an input stream to the data; the returned input stream will delete the temporary file, if any
+					} catch(final IOException ioException) {
+						tempOutputStream.dispose(); //dispose of our output stream
+						throw toResourceIOException(resourceURI, ioException);
+					}
+				}
+			} finally {
+				releaseSVNRepository(svnRepository);
+			}
+			return getContentInputStream(resourceURI, contentURIPath, contentSVNRepositoryPool); //stream the content using the reserved content session
+		} catch(final SVNException svnException) {
+			throw toResourceIOException(resourceURI, svnException);
+		}
+	}
+
+	/**
+	 * Starts retrieving the content of a Subversion file in the background and returns an input stream to the content as it arrives. The file is assumed to
+	 * exist. Any error retrieving the content is reported by the returned input stream once the bytes retrieved before the error have been read.
+	 * @param resourceURI The URI of the resource the content of which is being retrieved.
+	 * @param contentURIPath The path of the file holding the content.
+	 * @param contentSVNRepositoryPool The pool in which a session has been reserved for retrieving the content; the reservation will be used or cancelled.
+	 * @return An input stream to the content of the file.
+	 * @throws IllegalStateException if the repository is not open.
+	 * @see SVNRepositoryPool#tryReserve()
+	 */
+	protected InputStream getContentInputStream(final URI resourceURI, final URIPath contentURIPath, final SVNRepositoryPool contentSVNRepositoryPool) {
+		final ContentInputStream inputStream = new ContentInputStream(CONTENT_PIPE_SIZE);
+		final OutputStream outputStream = inputStream.getOutputStream();
+		final SVNURL svnURL = this.svnURL;
+		final long revision = getRevision();
+		final ExecutorService contentExecutorService = this.contentExecutorService;
+		try {
+			checkState(svnURL != null && contentExecutorService != null, "Repository is not open.");
+			contentExecutorService.execute(new Runnable() {
+
+				@Override
+				public void run() {
+					try {
+						final SVNRepository svnRepository = contentSVNRepositoryPool.acquireReserved(svnURL); //get the content session reserved for this retrieval
+						try {
+							svnRepository.getFile(contentURIPath.toDecodedString(), revision, null, outputStream); //write the content to the buffer, waiting whenever the buffer is full
+						} finally {
+							contentSVNRepositoryPool.release(svnRepository);
+						}
+					} catch(final SVNException svnException) { //if the reader closed the stream early, there is no one to receive the error, which is fine
+						inputStream.setFailure(toResourceIOException(resourceURI, svnException));
+					} catch(final RuntimeException runtimeException) {
+						inputStream.setFailure(toResourceIOException(resourceURI, runtimeException));
+					} finally {
+						try {
+							outputStream.close(); //let the reader know there is no more content
+						} catch(final IOException ioException) {
+							Log.warn("Error closing content buffer for resource", resourceURI, ioException);
+						}
 					}
-				} else { //if the resource is not a collection
-					contentURIPath = resourceURIPath; //we'll get the content from the file itself
 				}
-				final TempOutputStream tempOutputStream = new TempOutputStream(false); //create a temporary output stream that won't automatically delete its contents when closed
-				svnRepository.getFile(contentURIPath.toDecodedString(), -1, null, tempOutputStream); //retrieve the contents of the content file; if SVNKit closes the output stream, it won't matter, because we turned off auto-dispose
+			});
+		} catch(final RuntimeException runtimeException) { //if retrieval couldn't be started (e.g. the repository was closed), give back the content session
+			contentSVNRepositoryPool.cancelReservation();
+			throw runtimeException;
+		}
+		return inputStream;
+	}
+
+	/**
+	 * An input stream receiving content through a bounded buffer from an output stream written by another thread. Written bytes are available to the reader
+	 * immediately, and the writer waits while the buffer is full; neither side polls. If the writing thread reports a failure before closing its output stream,
+	 * the failure is thrown to the reader once all bytes written before the failure have been read. Once the input stream is closed, further writing fails.
+	 * @author Garret Wilson
+	 */
+	protected static class ContentInputStream extends InputStream {
+
+		/** The circular buffer of bytes written but not yet read. */
+		private final byte[] buffer;
+
+		/** The index in the buffer of the next byte to read. */
+		private int readIndex = 0;
+
+		/** The number of bytes in the buffer not yet read. */
+		private int count = 0;
+
+		/** Whether the writer has closed its output stream. */
+		private boolean isWriterClosed = false;
+
+		/** Whether the input stream has been closed. */
+		private boolean isClosed = false;
+
+		/** The error that ended writing of the content, or <code>null</code> if no error has occurred. */
+		private IOException failure = null;
+
+		/**
+		 * Records the error that ended writing of the content. This method must be called before the writer closes its output stream.
+		 * @param failure The error that occurred.
+		 */
+		public synchronized void setFailure(final IOException failure) {
+			this.failure = failure;
+		}
+
+		/** The output stream to which the content is written. */
+		private final OutputStream outputStream = new OutputStream() {
+
+			@Override
+			public void write(final int b) throws IOException {
+				write(new byte[] { (byte)b }, 0, 1);
+			}
+
+			@Override
+			public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+				receive(bytes, offset, length);
+			}
+
+			@Override
+			public void close() throws IOException {
+				closeWriter();
+			}
+		};
+
+		/** @return The output stream to which the content is written by another thread. */
+		public OutputStream getOutputStream() {
+			return outputStream;
+		}
+
+		/**
+		 * Buffer size constructor.
+		 * @param bufferSize The size in bytes of the buffer.
+		 * @throws IllegalArgumentException if the given buffer size is not positive.
+		 */
+		public ContentInputStream(final int bufferSize) {
+			checkArgument(bufferSize > 0, "Invalid buffer size {0}.", bufferSize);
+			buffer = new byte[bufferSize];
+		}
+
+		/**
+		 * Waits on this stream's monitor, converting an interruption to an I/O exception.
+		 * @throws InterruptedIOException if the thread was interrupted while waiting.
+		 */
+		private void await() throws InterruptedIOException {
+			try {
+				wait();
+			} catch(final InterruptedException interruptedException) {
+				Thread.currentThread().interrupt(); //restore the interrupted status
+				throw new InterruptedIOException("Interrupted while waiting for content.");
+			}
+		}
+
+		/**
+		 * Adds written bytes to the buffer, waiting for the reader whenever the buffer is full.
+		 * @param bytes The bytes written.
+		 * @param offset The offset of the first byte written.
+		 * @param length The number of bytes written.
+		 * @throws IOException if the writer or reader has closed its stream, or the thread was interrupted while waiting.
+		 */
+		protected synchronized void receive(final byte[] bytes, int offset, int length) throws IOException {
+			if(offset < 0 || length < 0 || offset + length > bytes.length) {
+				throw new IndexOutOfBoundsException();
+			}
+			if(isWriterClosed) {
+				throw new IOException("Content output stream closed.");
+			}
+			while(length > 0) {
+				while(count == buffer.length && !isClosed) {
+					await();
+				}
+				if(isClosed) { //if the reader is no longer interested, stop the writer
+					throw new IOException("Content input stream closed.");
+				}
+				final int writeIndex = (readIndex + count) % buffer.length;
+				final int writeCount = Math.min(length, Math.min(buffer.length - count, buffer.length - writeIndex)); //fill only up to the end of the buffer at a time
+				System.arraycopy(bytes, offset, buffer, writeIndex, writeCount);
+				count += writeCount;
+				offset += writeCount;
+				length -= writeCount;
+				notifyAll(); //make the bytes available to the reader immediately
+			}
+		}
+
+		/** Indicates that the writer has finished writing content. */
+		protected synchronized void closeWriter() {
+			isWriterClosed = true;
+			notifyAll();
+		}
+
+		/**
+		 * Waits until there are bytes to read, the writer has finished, or this stream has been closed.
+		 * @return <code>true</code> if there are bytes to read, or <code>false</code> if the end of the content has been reached.
+		 * @throws IOException if this stream has been closed, the thread was interrupted while waiting, or an error ended writing of the content.
+		 */
+		private boolean awaitContent() throws IOException {
+			while(count == 0 && !isWriterClosed && !isClosed) {
+				await();
+			}
+			if(isClosed) {
+				throw new IOException("Content input stream closed.");
+			}
+			if(count == 0) { //if we've reached the end of the content, make sure it's not the end because of an error
+				if(failure != null) {
+					throw failure;
+				}
+				return false;
+			}
+			return true;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 * <p>
+		 * This version throws any error that ended writing instead of indicating the end of the stream.
+		 * </p>
+		 */
+		@Override
+		public synchronized int read() throws IOException {
+			if(!awaitContent()) {
+				return -1;
+			}
+			final int b = buffer[readIndex] & 0xff;
+			readIndex = (readIndex + 1) % buffer.length;
+			--count;
+			notifyAll(); //let the writer know there is room in the buffer
+			return b;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 * <p>
+		 * This version throws any error that ended writing instead of indicating the end of the stream.
+		 * </p>
+		 */
+		@Override
+		public synchronized int read(final byte[] bytes, final int offset, final int length) throws IOException {
+			if(offset < 0 || length < 0 || offset + length > bytes.length) {
+				throw new IndexOutOfBoundsException();
+			}
+			if(length == 0) {
+				return 0;
+			}
+			if(!awaitContent()) {
+				return -1;
+			}
+			final int readCount = Math.min(length, Math.min(count, buffer.length - readIndex)); //read only up to the end of the buffer at a time
+			System.arraycopy(buffer, readIndex, bytes, offset, readCount);
+			readIndex = (readIndex + readCount) % buffer.length;
+			count -= readCount;
+			notifyAll(); //let the writer know there is room in the buffer
+			return readCount;
+		}
+
+		@Override
+		public synchronized int available() throws IOException {
+			return count;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 * <p>
+		 * This version discards any unread content and makes further writing fail, so that the writer stops.
+		 * </p>
+		 */
+		@Override
+		public synchronized void close() throws IOException {
+			isClosed = true;
+			count = 0;
+			notifyAll();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * For the {@value #MD5_DIGEST_ALGORITHM} algorithm, this implementation uses the checksum Subversion maintains for each file, so that the contents need not be
+	 * retrieved. Other algorithms are delegated to the parent implementation.
+	 * </p>
+	 */
+	@Override
+	protected byte[] getResourceContentDigestImpl(final URI resourceURI, final String algorithm) throws ResourceIOException {
+		if(MD5_DIGEST_ALGORITHM.equalsIgnoreCase(algorithm)) { //if Subversion already knows the digest
+			try {
+				final SVNRepository svnRepository = acquireSVNRepository(); //get an SVNKit repository session for use by this thread alone
 				try {
-					return tempOutputStream.getInputStream(); //return an input stream to the data; the returned input stream will delete the temporary file, if any
-				} catch(final IOException ioException) {
-					tempOutputStream.dispose(); //dispose of our output stream
-					throw toResourceIOException(resourceURI, ioException);
+					final URIPath contentURIPath = getContentURIPath(svnRepository, resourceURI); //determine the URI path to use for content
+					if(contentURIPath != null) { //if there is content, get its checksum from the file properties
+						final SVNProperties properties = new SVNProperties();
+						svnRepository.getFile(contentURIPath.toDecodedString(), getRevision(), properties, null);
+						final String checksum = properties.getStringValue(SVNProperty.CHECKSUM); //the checksum is a hex MD5 digest
+						if(checksum != null) {
+							final byte[] digest = new byte[checksum.length() / 2];
+							for(int i = 0; i < digest.length; ++i) {
+								digest[i] = (byte)Integer.parseInt(checksum.substring(i * 2, i * 2 + 2), 16);
+							}
+							return digest;
+						}
+					}
+				} finally {
+					releaseSVNRepository(svnRepository);
 				}
+			} catch(final NumberFormatException numberFormatException) { //if the checksum isn't hex, just calculate the digest normally
+				Log.warn("Invalid Subversion checksum for resource", resourceURI, numberFormatException);
 			} catch(final SVNException svnException) {
 				throw toResourceIOException(resourceURI, svnException);
 			}
 		}
+		return super.getResourceContentDigestImpl(resourceURI, algorithm);
+	}
+
+	/**
+	 * Determines the path of the file holding the contents of a resource, making sure the resource exists. The caller must hold the given SVNKit repository
+	 * session.
+	 * @param svnRepository The SVNKit repository session.
+	 * @param resourceURI The URI of the resource.
+	 * @return The path of the file holding the contents of the resource, or <code>null</code> if the resource is a collection with no
+	 *         {@value #COLLECTION_CONTENT_NAME} file.
+	 * @throws ResourceNotFoundException if the identified resource does not exist.
+	 * @throws ResourceStateException if the resource or its content file is of an unexpected node kind.
+	 * @throws SVNException if there is an error accessing the Subversion repository.
+	 */
+	protected URIPath getContentURIPath(final SVNRepository svnRepository, final URI resourceURI) throws ResourceIOException, SVNException {
+		final URIPath resourceURIPath = getResourceURIPath(resourceURI); //get the path to the resource
+		checkNodeKind(checkPath(svnRepository, resourceURIPath), resourceURI); //see what kind of resource this is, verifying the node kind and making sure the node exists
+		if(isCollectionURI(resourceURI)) { //if the resource is a collection
+			final URIPath contentURIPath = resourceURIPath.resolve(COLLECTION_CONTENT_NAME); //the URI path to use for content uses the special collection content resource
+			final SVNNodeKind contentNodeKind = checkPath(svnRepository, contentURIPath); //see what kind of resource the content is
+			if(contentNodeKind == SVNNodeKind.NONE) { //the collection simply has no content
+				return null;
+			} else if(contentNodeKind != SVNNodeKind.FILE) { //if the content file not a file
+				throw new ResourceStateException(resourceURI, "Found non-file node kind " + contentNodeKind + " for collection content path " + contentURIPath);
+			}
+			return contentURIPath;
+		}
+		return resourceURIPath; //we'll get the content from the file itself
 	}
 
 	/**
@@ -338,32 +1411,36 @@ protected InputStream getResourceInputStreamImpl(final URI resourceURI) throws R
 	 */
 	@Override
 	protected OutputStream getResourceOutputStreamImpl(final URI resourceURI, final ISODateTime newContentModified) throws ResourceIOException {
+		checkModifiable(resourceURI);
 		final URIPath resourceURIPath = getResourceURIPath(resourceURI); //get the path to the resource
-		final SVNRepository svnRepository = getSVNRepository(); //get the SVNKit repository and prevent other threads for accessing it simultaneously
-		synchronized(svnRepository) {
+		final SVNDirEntry dirEntry;
+		try {
+			final SVNRepository svnRepository = acquireSVNRepository(); //get an SVNKit repository session for use by this thread alone
 			try {
-				final SVNDirEntry dirEntry = svnRepository.info(resourceURIPath.toDecodedString(), -1); //get the directory entry for this resource
-				checkNodeKind(dirEntry, resourceURI); //make sure the node is the correct kind for our resource URI, and that the node exists
-				final TempOutputStream tempOutputStream = new TempOutputStream() { //create a new temporary output stream that, before it is closed, will save the collected bytes to the existing resource
-
-					@Override
-					protected void beforeClose() throws IOException { //when the output stream is ready to be closed
-						super.beforeClose();
-						final InputStream inputStream = toMarkSupportedInputStream(getInputStream()); //get an input stream to the data, making sure it supports mark/reset
-						try {
-							setResourceContents(resourceURI, null, dirEntry, inputStream); //set resource contents from the resource input stream
-						} finally
-						//always make sure the input stream is closed; this is especially important if we were using a temporary file
-						{
-							inputStream.close();
-						}
-					}
-				};
-				return tempOutputStream; //return the temporary output stream we created
-			} catch(final SVNException svnException) {
-				throw toResourceIOException(resourceURI, svnException);
+				dirEntry = svnRepository.info(resourceURIPath.toDecodedString(), getRevision()); //get the directory entry for this resource
+			} finally {
+				releaseSVNRepository(svnRepository);
 			}
+		} catch(final SVNException svnException) {
+			throw toResourceIOException(resourceURI, svnException);
 		}
+		checkNodeKind(dirEntry, resourceURI); //make sure the node is the correct kind for our resource URI, and that the node exists
+		final TempOutputStream tempOutputStream = new TempOutputStream() { //create a new temporary output stream that, before it is closed, will save the collected bytes to the existing resource
+
+			@Override
+			protected void beforeClose() throws IOException { //when the output stream is ready to be closed
+				super.beforeClose();
+				final InputStream inputStream = toMarkSupportedInputStream(getInputStream()); //get an input stream to the data, making sure it supports mark/reset
+				try {
+					setResourceContents(resourceURI, null, dirEntry, inputStream); //set resource contents from the resource input stream
+				} finally
+				//always make sure the input stream is closed; this is especially important if we were using a temporary file
+				{
+					inputStream.close();
+				}
+			}
+		};
+		return tempOutputStream; //return the temporary output stream we created
 	}
 
 	/**
@@ -378,15 +1455,14 @@ protected boolean hasChildrenImpl(final URI resourceURI) throws ResourceIOExcept
 			return false;
 		}
 		final URIPath resourceURIPath = getResourceURIPath(resourceURI); //get the path to the resource
-		final SVNRepository svnRepository = getSVNRepository(); //get the SVNKit repository and prevent other threads for accessing it simultaneously
-		synchronized(svnRepository) {
+		try {
+			final SVNRepository svnRepository = acquireSVNRepository(); //get an SVNKit repository session for use by this thread alone
 			try {
-				final SVNNodeKind nodeKind = checkNodeKind(svnRepository.checkPath(resourceURIPath.toDecodedString(), -1), resourceURI); //get and check the node kind, making sure the node exists
+				final SVNNodeKind nodeKind = checkNodeKind(checkPath(svnRepository, resourceURIPath), resourceURI); //get and check the node kind, making sure the node exists
 				if(nodeKind != SVNNodeKind.DIR) { //only Subversion directories can have children
 					return false;
 				}
-				@SuppressWarnings("unchecked")
-				final Collection<SVNDirEntry> childDirEntries = svnRepository.getDir(resourceURIPath.toDecodedString(), -1, null, (Collection<?>)null); //get a collection of child directory entries
+				final Collection<SVNDirEntry> childDirEntries = getDirEntries(svnRepository, resourceURIPath); //get a collection of child directory entries
 				for(final SVNDirEntry childDirEntry : childDirEntries) { //make sure one of the directory entries is visible
 					final URI childResourceURI = getRepositoryResourceURI(resourceURI, childDirEntry); //get the public URI for this resource
 					final URI sourceChildResourceURI = getSourceResourceURI(childResourceURI); //get the private version of this child resource
@@ -395,16 +1471,22 @@ protected boolean hasChildrenImpl(final URI resourceURI) throws ResourceIOExcept
 					}
 				}
 				return false; //there were no children, or no children were publicly visible
-			} catch(final SVNException svnException) {
-				throw toResourceIOException(resourceURI, svnException);
+			} finally {
+				releaseSVNRepository(svnRepository);
 			}
+		} catch(final SVNException svnException) {
+			throw toResourceIOException(resourceURI, svnException);
 		}
 	}
 
 	/**
 	 * {@inheritDoc}
 	 * <p>
-	 * This implementation does not include child resources for which {@link #isSourceResourceVisible(URI)} returns <code>false</code>.
+	 * This implementation does not include child resources for which {@link #isSourceResourceVisible(URI)} returns <code>false</code>. Each directory is listed
+	 * once with all directory entry fields, and the properties of all its children are retrieved together in a single status report. Without a filter, the
+	 * listing of each child directory is used both to describe the child's {@value #COLLECTION_CONTENT_NAME} content and to retrieve the next level of children.
+	 * Otherwise, or at the last level, the {@value #COLLECTION_CONTENT_NAME} files of all the child directories are retrieved together, and only child
+	 * directories that pass the filter are listed.
 	 * </p>
 	 */
 	@Override
@@ -415,56 +1497,220 @@ public List<URFResource> getChildResourceDescriptionsImpl(final URI resourceURI,
 		}
 		final URIPath resourceURIPath = getResourceURIPath(resourceURI); //get the path to the resource
 		try {
-			final SVNRepository svnRepository = getSVNRepository(); //get the SVNKit repository and prevent other threads for accessing it simultaneously
 			final Collection<SVNDirEntry> dirEntries;
-			synchronized(svnRepository) { //we aren't locking the actual repository, so we might as well synchronize our access to it at a local level rather than holding it across the children iteration
-				final SVNNodeKind nodeKind = checkNodeKind(svnRepository.checkPath(resourceURIPath.toDecodedString(), -1), resourceURI); //get and check the node kind, making sure the node exists
-				if(nodeKind != SVNNodeKind.DIR) { //only Subversion directories can have children
-					return emptyList();
-				}
-				@SuppressWarnings("unchecked")
-				final Collection<SVNDirEntry> childDirEntries = svnRepository.getDir(resourceURIPath.toDecodedString(), -1, null, (Collection<?>)null); //get a collection of child directory entries
-				dirEntries = childDirEntries; //save the directory entries; distinct variables are used solely to suppress the unchecked cast warning at a smaller granularity
+			final long baseRevision; //a revision at which the directory is known to exist
+			final SVNRepository svnRepository = acquireSVNRepository(); //get an SVNKit repository session for use by this thread alone
+			try { //we only hold the session while retrieving the directory listing, not across the children iteration
+				baseRevision = checkDirectory(svnRepository, resourceURI); //make sure the directory exists
+				dirEntries = getDirEntries(svnRepository, resourceURIPath); //get a collection of child directory entries
+			} finally {
+				releaseSVNRepository(svnRepository);
 			}
-			final URF urf = createURF(); //create a new URF data model
 			final List<URFResource> childResources = new ArrayList<URFResource>();
-			for(final SVNDirEntry dirEntry : dirEntries) { //for each of the child resource directory entries
-				final URI childResourceURI = getRepositoryResourceURI(resourceURI, dirEntry); //get the public URI for this resource
-				if(childResourceURI.equals(resourceURI)) { //ignore the resource itself
-					continue;
+			getChildResourceDescriptions(createURF(), resourceURI, baseRevision, dirEntries, resourceFilter, depth, childResources);
+			return childResources; //return the list of resources we constructed
+		} catch(final SVNException svnException) {
+			throw toResourceIOException(resourceURI, svnException);
+		} catch(final DataException dataException) { //if the data wasn't correct
+			throw toResourceIOException(resourceURI, dataException); //translate the exception to a resource I/O exception and throw that
+		}
+	}
+
+	/**
+	 * Collects descriptions of the child resources of a directory for which the directory entries have already been retrieved, recursively collecting
+	 * descriptions of lower levels as requested.
+	 * @param urf The URF data model to use when creating descriptions.
+	 * @param resourceURI The URI of the directory resource.
+	 * @param baseRevision A revision at which the directory is known to exist.
+	 * @param dirEntries The directory entries of the children of the directory.
+	 * @param resourceFilter The filter that determines whether child resources should be included, or <code>null</code> if the child resources should not be
+	 *          filtered.
+	 * @param depth The zero-based depth of child resources which should recursively be retrieved, or {@link Repository#INFINITE_DEPTH} for an infinite depth.
+	 * @param childResources The list to which descriptions of the child resources will be added.
+	 * @throws ResourceIOException if there is an error accessing the repository.
+	 * @throws SVNException if there is an error accessing the Subversion repository.
+	 * @throws DataException if the data was not what was expected.
+	 */
+	protected void getChildResourceDescriptions(final URF urf, final URI resourceURI, final long baseRevision, final Collection<SVNDirEntry> dirEntries,
+			final ResourceFilter resourceFilter, final int depth, final List<URFResource> childResources) throws ResourceIOException, SVNException, DataException {
+		final URIPath resourceURIPath = getResourceURIPath(resourceURI); //get the path to the resource
+		final int newDepth = depth != INFINITE_DEPTH ? depth - 1 : depth; //reduce the depth by one, unless we're using the unlimited depth value
+		final Map<URI, SVNDirEntry> childDirEntryMap = getIncludedChildDirEntries(resourceURI, dirEntries, resourceFilter); //find the children to describe
+		Map<String, SVNProperties> childProperties = null; //we'll retrieve the properties of all children at once, only if they are needed
+		final List<URI> childCollectionURIs = new ArrayList<URI>();
+		for(final Map.Entry<URI, SVNDirEntry> childDirEntryEntry : childDirEntryMap.entrySet()) {
+			final SVNDirEntry dirEntry = childDirEntryEntry.getValue();
+			if(dirEntry.getKind() == SVNNodeKind.DIR) {
+				childCollectionURIs.add(childDirEntryEntry.getKey());
+			}
+			if(dirEntry.hasProperties() && childProperties == null) { //if a child has properties, get the properties of all the children
+				final SVNRepository svnRepository = acquireSVNRepository(); //get an SVNKit repository session for use by this thread alone
+				try {
+					childProperties = getChildProperties(svnRepository, resourceURIPath, baseRevision);
+				} finally {
+					releaseSVNRepository(svnRepository);
 				}
-				final URI sourceChildResourceURI = getSourceResourceURI(childResourceURI); //get the private version of this child resource
-				if(!isSourceResourceVisible(sourceChildResourceURI)) { //ignore invisible resources
-					continue;
+			}
+		}
+		final boolean isListedFirst = resourceFilter == null && newDepth != 0; //without a filter every child directory will be listed anyway, so the listings can provide the content files
+		final Map<URI, Collection<SVNDirEntry>> childCollectionDirEntries;
+		if(isListedFirst) {
+			childCollectionDirEntries = new HashMap<URI, Collection<SVNDirEntry>>(childCollectionURIs.size());
+			if(!childCollectionURIs.isEmpty()) {
+				final SVNRepository svnRepository = acquireSVNRepository(); //get an SVNKit repository session for use by this thread alone
+				try {
+					for(final URI childCollectionURI : childCollectionURIs) {
+						childCollectionDirEntries.put(childCollectionURI, getDirEntries(svnRepository, getResourceURIPath(childCollectionURI)));
+					}
+				} finally {
+					releaseSVNRepository(svnRepository);
 				}
-				if(getSubrepository(childResourceURI) == this) { //if this child wouldn't be located in a subrepository (i.e. ignore resources obscured by subrepositories)
-					if(resourceFilter == null || resourceFilter.isPass(childResourceURI)) { //if we should include this resource based upon its URI
-						final URFResource childResourceDescription = createResourceDescription(urf, childResourceURI, dirEntry); //create a resource from this URI and directory entry
-						if(resourceFilter == null || resourceFilter.isPass(childResourceDescription)) { //if we should include this resource based upon its description
-							childResources.add(childResourceDescription); //add this child resource description to our list
-							if(depth != 0 && dirEntry.getKind() == SVNNodeKind.DIR) { //if this child is a directory and we haven't reached the bottom
-								final int newDepth = depth != INFINITE_DEPTH ? depth - 1 : depth; //reduce the depth by one, unless we're using the unlimited depth value
-								childResources.addAll(getChildResourceDescriptions(childResourceURI, resourceFilter, newDepth)); //get a list of child descriptions for the resource we just created and add them to the list
-							}
+			}
+		} else {
+			childCollectionDirEntries = emptyMap();
+		}
+		final Map<URI, Collection<SVNDirEntry>> contentDirEntries = isListedFirst ? childCollectionDirEntries
+				: getCollectionContentDirEntries(childCollectionURIs); //otherwise find all the content files of this level together, and only list directories that pass the filter
+		for(final Map.Entry<URI, SVNDirEntry> childDirEntryEntry : childDirEntryMap.entrySet()) { //for each of the child resource directory entries
+			final URI childResourceURI = childDirEntryEntry.getKey();
+			final SVNDirEntry dirEntry = childDirEntryEntry.getValue();
+			final SVNProperties properties = childProperties != null ? childProperties.get(dirEntry.getName()) : null; //if the properties were somehow not reported, they will be retrieved separately
+			final URFResource childResourceDescription = createResourceDescription(urf, childResourceURI, dirEntry, properties,
+					contentDirEntries.get(childResourceURI)); //create a resource from this URI and directory entry
+			if(resourceFilter == null || resourceFilter.isPass(childResourceDescription)) { //if we should include this resource based upon its description
+				childResources.add(childResourceDescription); //add this child resource description to our list
+				if(dirEntry.getKind() == SVNNodeKind.DIR && newDepth != 0) { //if this child is a directory and we haven't reached the bottom
+					Collection<SVNDirEntry> childDirEntries = childCollectionDirEntries.get(childResourceURI);
+					if(childDirEntries == null) { //only list directories that passed the filter
+						final SVNRepository svnRepository = acquireSVNRepository(); //get an SVNKit repository session for use by this thread alone
+						try {
+							childDirEntries = getDirEntries(svnRepository, getResourceURIPath(childResourceURI));
+						} finally {
+							releaseSVNRepository(svnRepository);
 						}
 					}
+					getChildResourceDescriptions(urf, childResourceURI, isSnapshot() ? getRevision() : dirEntry.getRevision(), childDirEntries, resourceFilter,
+							newDepth, childResources); //get descriptions of the children of the resource we just described
+				}
+			}
+		}
+		//aggregate any mapped subrepositories
+		for(final Repository childSubrepository : getChildSubrepositories(resourceURI)) { //see if any subrepositories are mapped as children of this repository
+			final URI childSubrepositoryURI = childSubrepository.getRootURI(); //get the URI of the subrepository
+			childResources.add(childSubrepository.getResourceDescription(childSubrepositoryURI)); //get a description of the subrepository root resource
+			if(depth == INFINITE_DEPTH || depth > 0) { //if we should get child resources lower in the hierarchy
+				childResources.addAll(childSubrepository.getChildResourceDescriptions(childSubrepositoryURI, resourceFilter, depth == INFINITE_DEPTH ? depth
+						: depth - 1)); //get descriptions of subrepository children
+			}
+		}
+	}
+
+	/**
+	 * Determines which children of a directory should be described: those that are visible, that are not obscured by subrepositories, and the URIs of which pass
+	 * the given filter.
+	 * @param resourceURI The URI of the directory resource.
+	 * @param dirEntries The directory entries of the children of the directory.
+	 * @param resourceFilter The filter that determines whether child resources should be included, or <code>null</code> if the child resources should not be
+	 *          filtered.
+	 * @return The directory entries of the children to describe, in the order listed, keyed to the public URIs of the children.
+	 */
+	protected Map<URI, SVNDirEntry> getIncludedChildDirEntries(final URI resourceURI, final Collection<SVNDirEntry> dirEntries,
+			final ResourceFilter resourceFilter) {
+		final Map<URI, SVNDirEntry> childDirEntryMap = new LinkedHashMap<URI, SVNDirEntry>(dirEntries.size());
+		for(final SVNDirEntry dirEntry : dirEntries) { //for each of the child resource directory entries
+			final URI childResourceURI = getRepositoryResourceURI(resourceURI, dirEntry); //get the public URI for this resource
+			if(childResourceURI.equals(resourceURI)) { //ignore the resource itself
+				continue;
+			}
+			if(!isSourceResourceVisible(getSourceResourceURI(childResourceURI))) { //ignore invisible resources
+				continue;
+			}
+			if(getSubrepository(childResourceURI) != this) { //ignore resources obscured by subrepositories
+				continue;
+			}
+			if(resourceFilter == null || resourceFilter.isPass(childResourceURI)) { //if we should include this resource based upon its URI
+				childDirEntryMap.put(childResourceURI, dirEntry);
+			}
+		}
+		return childDirEntryMap;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This implementation does not include child resources for which {@link #isSourceResourceVisible(URI)} returns <code>false</code>. A repository session is
+	 * only held while retrieving each directory listing and description, not while the visitor is processing a resource. The properties and
+	 * {@value #COLLECTION_CONTENT_NAME} files of the children of each directory are retrieved together before the children are visited.
+	 * </p>
+	 */
+	@Override
+	protected boolean visitChildResourceDescriptionsImpl(final URI resourceURI, final ResourceFilter resourceFilter, final int depth,
+			final ResourceVisitor visitor) throws IOException {
+		if(depth == 0 || !isCollectionURI(resourceURI)) { //a depth of zero means don't visit child resources; likewise, non-collections can't have children
+			return true;
+		}
+		final URIPath resourceURIPath = getResourceURIPath(resourceURI); //get the path to the resource
+		final Collection<SVNDirEntry> dirEntries;
+		final long baseRevision; //a revision at which the directory is known to exist
+		try {
+			final SVNRepository svnRepository = acquireSVNRepository(); //get an SVNKit repository session for use by this thread alone
+			try {
+				baseRevision = checkDirectory(svnRepository, resourceURI); //make sure the directory exists
+				dirEntries = getDirEntries(svnRepository, resourceURIPath); //get a collection of child directory entries
+			} finally {
+				releaseSVNRepository(svnRepository);
+			}
+		} catch(final SVNException svnException) {
+			throw toResourceIOException(resourceURI, svnException);
+		}
+		final int childDepth = depth != INFINITE_DEPTH ? depth - 1 : depth; //reduce the depth by one, unless we're using the unlimited depth value
+		final Map<URI, SVNDirEntry> childDirEntryMap = getIncludedChildDirEntries(resourceURI, dirEntries, resourceFilter); //find the children to describe
+		Map<String, SVNProperties> childProperties = null; //we'll retrieve the properties of all children at once, only if they are needed
+		final Map<URI, Collection<SVNDirEntry>> contentDirEntries;
+		try {
+			final List<URI> childCollectionURIs = new ArrayList<URI>();
+			for(final Map.Entry<URI, SVNDirEntry> childDirEntryEntry : childDirEntryMap.entrySet()) {
+				final SVNDirEntry dirEntry = childDirEntryEntry.getValue();
+				if(dirEntry.getKind() == SVNNodeKind.DIR) {
+					childCollectionURIs.add(childDirEntryEntry.getKey());
+				}
+				if(dirEntry.hasProperties() && childProperties == null) { //if a child has properties, get the properties of all the children
+					final SVNRepository svnRepository = acquireSVNRepository(); //get an SVNKit repository session for use by this thread alone
+					try {
+						childProperties = getChildProperties(svnRepository, resourceURIPath, baseRevision);
+					} finally {
+						releaseSVNRepository(svnRepository);
+					}
 				}
 			}
-			//aggregate any mapped subrepositories
-			for(final Repository childSubrepository : getChildSubrepositories(resourceURI)) { //see if any subrepositories are mapped as children of this repository
-				final URI childSubrepositoryURI = childSubrepository.getRootURI(); //get the URI of the subrepository
-				childResources.add(childSubrepository.getResourceDescription(childSubrepositoryURI)); //get a description of the subrepository root resource
-				if(depth == INFINITE_DEPTH || depth > 0) { //if we should get child resources lower in the hierarchy
-					childResources.addAll(childSubrepository.getChildResourceDescriptions(childSubrepositoryURI, resourceFilter, depth == INFINITE_DEPTH ? depth
-							: depth - 1)); //get descriptions of subrepository children
+			contentDirEntries = getCollectionContentDirEntries(childCollectionURIs); //find all the content files of this level together
+		} catch(final SVNException svnException) {
+			throw toResourceIOException(resourceURI, svnException);
+		}
+		for(final Map.Entry<URI, SVNDirEntry> childDirEntryEntry : childDirEntryMap.entrySet()) { //for each of the child resource directory entries
+			final URI childResourceURI = childDirEntryEntry.getKey();
+			final SVNDirEntry dirEntry = childDirEntryEntry.getValue();
+			final URFResource childResourceDescription;
+			try {
+				final SVNProperties properties = childProperties != null ? childProperties.get(dirEntry.getName()) : null; //if the properties were somehow not reported, they will be retrieved separately
+				childResourceDescription = createResourceDescription(createURF(), childResourceURI, dirEntry, properties, contentDirEntries.get(childResourceURI)); //create a resource from this URI and directory entry
+			} catch(final SVNException svnException) {
+				throw toResourceIOException(childResourceURI, svnException);
+			} catch(final DataException dataException) { //if the data wasn't correct
+				throw toResourceIOException(childResourceURI, dataException); //translate the exception to a resource I/O exception and throw that
+			}
+			if(resourceFilter == null || resourceFilter.isPass(childResourceDescription)) { //if we should include this resource based upon its description
+				if(!visitor.visit(childResourceDescription)) { //visit the resource; if we should stop traversal
+					return false;
+				}
+				if(childDepth != 0 && dirEntry.getKind() == SVNNodeKind.DIR) { //if this child is a directory and we haven't reached the bottom
+					if(!visitChildResourceDescriptionsImpl(childResourceURI, resourceFilter, childDepth, visitor)) { //visit the descendants of the directory
+						return false;
+					}
 				}
 			}
-			return childResources; //return the list of resources we constructed
-		} catch(final SVNException svnException) {
-			throw toResourceIOException(resourceURI, svnException);
-		} catch(final DataException dataException) { //if the data wasn't correct
-			throw toResourceIOException(resourceURI, dataException); //translate the exception to a resource I/O exception and throw that
 		}
+		return visitChildSubrepositoryResourceDescriptions(resourceURI, resourceFilter, depth, visitor); //visit any mapped subrepositories
 	}
 
 	/**
@@ -475,6 +1721,7 @@ public List<URFResource> getChildResourceDescriptionsImpl(final URI resourceURI,
 	 */
 	@Override
 	protected OutputStream createResourceImpl(final URI resourceURI, final URFResource resourceDescription) throws ResourceIOException {
+		checkModifiable(resourceURI);
 		final TempOutputStream tempOutputStream = new TempOutputStream() { //create a new temporary output stream that, before it is closed, will save the collected bytes to a new resource
 
 			@Override
@@ -496,17 +1743,21 @@ protected void beforeClose() throws IOException { //when the output stream is re
 	@Override
 	protected URFResource createResourceImpl(final URI resourceURI, final URFResource resourceDescription, final byte[] resourceContents)
 			throws ResourceIOException {
-		synchronized(svnRepository) {
+		checkModifiable(resourceURI);
+		try {
+			final SVNRepository svnRepository = acquireSVNRepository(); //get an SVNKit repository session for use by this thread alone
 			try {
 				setResourceContents(resourceURI, resourceDescription, null, new ByteArrayInputStream(resourceContents)); //create the resource, providing the resource contents in an input stream
 				final URIPath resourceURIPath = getResourceURIPath(resourceURI); //get the path to the resource
-				final SVNDirEntry dirEntry = svnRepository.info(resourceURIPath.toDecodedString(), -1); //get the updated directory entry for this resource
+				final SVNDirEntry dirEntry = svnRepository.info(resourceURIPath.toDecodedString(), getRevision()); //get the updated directory entry for this resource
 				return createResourceDescription(createURF(), resourceURI, dirEntry); //create and return the latest description of the resource
-			} catch(final SVNException svnException) {
-				throw toResourceIOException(resourceURI, svnException);
-			} catch(final DataException dataException) { //if the data wasn't correct
-				throw toResourceIOException(resourceURI, dataException); //translate the exception to a resource I/O exception and throw that
+			} finally {
+				releaseSVNRepository(svnRepository);
 			}
+		} catch(final SVNException svnException) {
+			throw toResourceIOException(resourceURI, svnException);
+		} catch(final DataException dataException) { //if the data wasn't correct
+			throw toResourceIOException(resourceURI, dataException); //translate the exception to a resource I/O exception and throw that
 		}
 	}
 
@@ -533,60 +1784,19 @@ protected void setResourceContents(final URI resourceURI, final URFResource reso
 		} else { //if the resource is not a collection
 			contentURIPath = resourceURIPath; //we'll get the content from the file itself
 		}
-		final SVNRepository svnRepository = getSVNRepository(); //get the SVNKit repository and prevent other threads for accessing it simultaneously
-		synchronized(svnRepository) {
+		try {
+			final SVNRepository svnRepository = acquireSVNRepository(); //get an SVNKit repository session for use by this thread alone
 			try {
 				//see if we have a content resource; if the collection doesn't exist yet, then of course the content file doesn't yet exist
 				//this check must be done outside of an edit or we will get a SVNKit reentrant error
-				final boolean contentFileExists = dirEntry != null ? svnRepository.checkPath(contentURIPath.toDecodedString(), -1) != SVNNodeKind.NONE : false;
+				final boolean contentFileExists = dirEntry != null ? checkPath(svnRepository, contentURIPath) != SVNNodeKind.NONE : false;
 				//TODO probably transfer the check for a non-collection content file existing here as well, so this variable will be put to use for both kinds of resources
 				final ISVNEditor editor = svnRepository.getCommitEditor("Marmot resource creation.", null, true, null); //get a commit editor to the repository
 				try {
 					editor.openRoot(-1); //open the root to start making changes
-					if(isCollectionURI(resourceURI)) { //if we're creating a collection
-						if(dirEntry != null) { //if the directory supposedly exists
-							editor.openDir(resourceURIPath.toDecodedString(), -1); //open the directory for modification
-						} else {
-							editor.addDir(resourceURIPath.toDecodedString(), null, -1); //show that we are adding a directory to the repository
-						}
-						final boolean hasContent = !isEmpty(inputStream); //see if content is given
-						//if the directory already exists, we need to always make sure the content file, if any, is up-to-date;
-						//otherwise, for a new collection, we only care if we have something to write
-						if(dirEntry != null || hasContent) {
-							if(contentFileExists || hasContent) { //if the file doesn't exist and there's nothing to write, there's nothing to do
-								//we'll write content even if we have no content---if there once was a content file,
-								//we'll keep it---even a zero-byte file---in order to maintain modified dates and such:
-								//if(hasContent) //if we have content to write
-								if(contentFileExists) { //if the content file exists
-									editor.openFile(contentURIPath.toDecodedString(), -1); //open the content file for modification
-								} else {
-									editor.addFile(contentURIPath.toDecodedString(), null, -1); //add the content file
-								}
-								editor.applyTextDelta(contentURIPath.toDecodedString(), null); //start with a blank checksum; we'll not compare the file to any existing file, even when updating files
-								final SVNDeltaGenerator deltaGenerator = new SVNDeltaGenerator();
-								final String checksum = deltaGenerator.sendDelta(contentURIPath.toDecodedString(), inputStream, editor, true); //create a new delta for the contents
-								editor.closeFile(contentURIPath.toDecodedString(), checksum); //finish the content file addition
-							}
-						}
-						if(resourceDescription != null) { //if we have a description of the resource, set its properties
-							alterResourceProperties(resourceURI, DefaultURFResourceAlteration.createResourceAlteration(resourceDescription), editor, dirEntry,
-									SVNNodeKind.DIR); //alter the properties to be exactly those specified by the given resource description
-						}
+					editResourceContents(editor, resourceURI, resourceDescription, dirEntry, contentFileExists, inputStream);
+					if(isCollection) { //if we're creating a collection
 						editor.closeDir(); //close the directory we added
-					} else { //if we're creating a non-collection resource
-						if(dirEntry != null) { //if the file supposedly exists
-							editor.openFile(resourceURIPath.toDecodedString(), -1); //open the file for modification
-						} else {
-							editor.addFile(resourceURIPath.toDecodedString(), null, -1); //show that we are adding a file to the repository
-						}
-						editor.applyTextDelta(resourceURIPath.toDecodedString(), null); //start with a blank checksum; we'll not compare the file to any existing file, even when updating files
-						final SVNDeltaGenerator deltaGenerator = new SVNDeltaGenerator();
-						final String checksum = deltaGenerator.sendDelta(resourceURIPath.toDecodedString(), inputStream, editor, true); //create a new delta for the contents
-						if(resourceDescription != null) { //if we have a description of the resource, set its properties
-							alterResourceProperties(resourceURI, DefaultURFResourceAlteration.createResourceAlteration(resourceDescription), editor, dirEntry,
-									SVNNodeKind.FILE); //alter the properties to be exactly those specified by the given resource description
-						}
-						editor.closeFile(resourceURIPath.toDecodedString(), checksum); //finish the file addition
 					}
 					editor.closeDir(); //close the root
 					editor.closeEdit(); //try to finalize the edit
@@ -594,13 +1804,82 @@ protected void setResourceContents(final URI resourceURI, final URFResource reso
 					editor.abortEdit(); //abort the edit we had scheduled
 					throw svnException; //rethrow the exception
 				}
-			} catch(final IOException ioException) {
-				throw toResourceIOException(resourceURI, ioException);
-			} catch(final SVNException svnException) {
-				throw toResourceIOException(resourceURI, svnException);
-			} catch(final DataException dataException) { //if the data wasn't correct
-				throw toResourceIOException(resourceURI, dataException); //translate the exception to a resource I/O exception and throw that
+			} finally {
+				releaseSVNRepository(svnRepository);
+			}
+		} catch(final IOException ioException) {
+			throw toResourceIOException(resourceURI, ioException);
+		} catch(final SVNException svnException) {
+			throw toResourceIOException(resourceURI, svnException);
+		} catch(final DataException dataException) { //if the data wasn't correct
+			throw toResourceIOException(resourceURI, dataException); //translate the exception to a resource I/O exception and throw that
+		}
+	}
+
+	/**
+	 * Stores the contents and optional description of a new or existing resource as part of an in-progress commit edit, with the parent directory of the
+	 * resource already open. For a file, the file is closed when its contents have been sent. For a directory, the directory is left open so that the caller
+	 * may edit its children; the caller must close the directory.
+	 * @param editor The editor indicating the in-progress commit edits.
+	 * @param resourceURI The reference URI to use to identify the resource.
+	 * @param resourceDescription A description of the resource, or <code>null</code> if the resource properties should not be altered; the resource URI is
+	 *          ignored.
+	 * @param dirEntry The SVNKit directory entry of the existing file or directory, or <code>null</code> if the resource does not exist and is being created.
+	 * @param contentFileExists Whether the {@value #COLLECTION_CONTENT_NAME} file of an existing collection exists.
+	 * @param inputStream The input stream containing the contents to store in the resource.
+	 * @throws NullPointerException if the given editor, resource URI, and/or input stream is <code>null</code>.
+	 * @throws IllegalArgumentException if the given input stream does not support mark/reset.
+	 * @throws SVNException if there is an error editing the resource.
+	 * @throws IOException if the contents could not be read or the resource properties could not be altered.
+	 * @throws DataException if the data was not what was expected.
+	 */
+	protected void editResourceContents(final ISVNEditor editor, final URI resourceURI, final URFResource resourceDescription, final SVNDirEntry dirEntry,
+			final boolean contentFileExists, final InputStream inputStream) throws SVNException, IOException, DataException {
+		final URIPath resourceURIPath = getResourceURIPath(resourceURI); //get the path to the resource
+		if(isCollectionURI(resourceURI)) { //if we're creating a collection
+			final URIPath contentURIPath = resourceURIPath.resolve(COLLECTION_CONTENT_NAME); //the URI path to use for content uses the special collection content resource
+			if(dirEntry != null) { //if the directory supposedly exists
+				editor.openDir(resourceURIPath.toDecodedString(), -1); //open the directory for modification
+			} else {
+				editor.addDir(resourceURIPath.toDecodedString(), null, -1); //show that we are adding a directory to the repository
+			}
+			final boolean hasContent = !isEmpty(inputStream); //see if content is given
+			//if the directory already exists, we need to always make sure the content file, if any, is up-to-date;
+			//otherwise, for a new collection, we only care if we have something to write
+			if(dirEntry != null || hasContent) {
+				if(contentFileExists || hasContent) { //if the file doesn't exist and there's nothing to write, there's nothing to do
+					//we'll write content even if we have no content---if there once was a content file,
+					//we'll keep it---even a zero-byte file---in order to maintain modified dates and such:
+					//if(hasContent) //if we have content to write
+					if(contentFileExists) { //if the content file exists
+						editor.openFile(contentURIPath.toDecodedString(), -1); //open the content file for modification
+					} else {
+						editor.addFile(contentURIPath.toDecodedString(), null, -1); //add the content file
+					}
+					editor.applyTextDelta(contentURIPath.toDecodedString(), null); //start with a blank checksum; we'll not compare the file to any existing file, even when updating files
+					final SVNDeltaGenerator deltaGenerator = new SVNDeltaGenerator();
+					final String checksum = deltaGenerator.sendDelta(contentURIPath.toDecodedString(), inputStream, editor, true); //create a new delta for the contents
+					editor.closeFile(contentURIPath.toDecodedString(), checksum); //finish the content file addition
+				}
+			}
+			if(resourceDescription != null) { //if we have a description of the resource, set its properties
+				alterResourceProperties(resourceURI, DefaultURFResourceAlteration.createResourceAlteration(resourceDescription), editor, dirEntry,
+						SVNNodeKind.DIR); //alter the properties to be exactly those specified by the given resource description
+			}
+		} else { //if we're creating a non-collection resource
+			if(dirEntry != null) { //if the file supposedly exists
+				editor.openFile(resourceURIPath.toDecodedString(), -1); //open the file for modification
+			} else {
+				editor.addFile(resourceURIPath.toDecodedString(), null, -1); //show that we are adding a file to the repository
+			}
+			editor.applyTextDelta(resourceURIPath.toDecodedString(), null); //start with a blank checksum; we'll not compare the file to any existing file, even when updating files
+			final SVNDeltaGenerator deltaGenerator = new SVNDeltaGenerator();
+			final String checksum = deltaGenerator.sendDelta(resourceURIPath.toDecodedString(), inputStream, editor, true); //create a new delta for the contents
+			if(resourceDescription != null) { //if we have a description of the resource, set its properties
+				alterResourceProperties(resourceURI, DefaultURFResourceAlteration.createResourceAlteration(resourceDescription), editor, dirEntry,
+						SVNNodeKind.FILE); //alter the properties to be exactly those specified by the given resource description
 			}
+			editor.closeFile(resourceURIPath.toDecodedString(), checksum); //finish the file addition
 		}
 	}
 
@@ -612,14 +1891,14 @@ protected void setResourceContents(final URI resourceURI, final URFResource reso
 	 */
 	@Override
 	protected void deleteResourceImpl(final URI resourceURI) throws ResourceIOException {
+		checkModifiable(resourceURI);
 		final URI sourceResourceURI = getSourceResourceURI(resourceURI);
 		if(isSourceResourceVisible(sourceResourceURI)) { //if this is a visible resource
 			final URIPath resourceURIPath = getResourceURIPath(resourceURI); //get the path to the resource
-			final SVNRepository svnRepository = getSVNRepository(); //get the SVNKit repository and prevent other threads for accessing it simultaneously
-			synchronized(svnRepository) {
-
+			try {
+				final SVNRepository svnRepository = acquireSVNRepository(); //get an SVNKit repository session for use by this thread alone
 				try {
-					final SVNNodeKind nodeKind = svnRepository.checkPath(resourceURIPath.toDecodedString(), -1); //see what kind of resource this is
+					final SVNNodeKind nodeKind = checkPath(svnRepository, resourceURIPath); //see what kind of resource this is
 					if(nodeKind == SVNNodeKind.NONE) { //if there is no node
 						return; //the node doesn't exist, so no need to delete it
 					}
@@ -634,20 +1913,23 @@ protected void deleteResourceImpl(final URI resourceURI) throws ResourceIOExcept
 						editor.abortEdit(); //abort the edit we had scheduled
 						throw svnException; //rethrow the exception
 					}
-				} catch(final SVNException svnException) {
-					throw toResourceIOException(resourceURI, svnException);
+				} finally {
+					releaseSVNRepository(svnRepository);
 				}
+			} catch(final SVNException svnException) {
+				throw toResourceIOException(resourceURI, svnException);
 			}
 		}
 	}
 
 	@Override
 	protected URFResource alterResourcePropertiesImpl(final URI resourceURI, final URFResourceAlteration resourceAlteration) throws ResourceIOException {
+		checkModifiable(resourceURI);
 		final URIPath resourceURIPath = getResourceURIPath(resourceURI); //get the path to the resource
-		final SVNRepository svnRepository = getSVNRepository(); //get the SVNKit repository and prevent other threads for accessing it simultaneously
-		synchronized(svnRepository) {
+		try {
+			final SVNRepository svnRepository = acquireSVNRepository(); //get an SVNKit repository session for use by this thread alone
 			try {
-				SVNDirEntry dirEntry = svnRepository.info(resourceURIPath.toDecodedString(), -1); //get the directory entry for this resource
+				SVNDirEntry dirEntry = svnRepository.info(resourceURIPath.toDecodedString(), getRevision()); //get the directory entry for this resource
 				final SVNNodeKind nodeKind = checkNodeKind(dirEntry, resourceURI); //make sure the node is the correct kind for our resource URI, and that the node exists
 				final ISVNEditor editor = svnRepository.getCommitEditor("Marmot resource property modification.", null, true, null); //get a commit editor to the repository
 				try {
@@ -668,15 +1950,17 @@ protected URFResource alterResourcePropertiesImpl(final URI resourceURI, final U
 					editor.abortEdit(); //abort the edit we had scheduled
 					throw svnException; //rethrow the exception
 				}
-				dirEntry = svnRepository.info(resourceURIPath.toDecodedString(), -1); //get updated directory entry for this resource---after all, we just altered properties
+				dirEntry = svnRepository.info(resourceURIPath.toDecodedString(), getRevision()); //get updated directory entry for this resource---after all, we just altered properties
 				return createResourceDescription(createURF(), resourceURI, dirEntry); //get the latest description of the resource and return it
-			} catch(final IOException ioException) {
-				throw toResourceIOException(resourceURI, ioException);
-			} catch(final SVNException svnException) {
-				throw toResourceIOException(resourceURI, svnException);
-			} catch(final DataException dataException) { //if the data wasn't correct
-				throw toResourceIOException(resourceURI, dataException); //translate the exception to a resource I/O exception and throw that
+			} finally {
+				releaseSVNRepository(svnRepository);
 			}
+		} catch(final IOException ioException) {
+			throw toResourceIOException(resourceURI, ioException);
+		} catch(final SVNException svnException) {
+			throw toResourceIOException(resourceURI, svnException);
+		} catch(final DataException dataException) { //if the data wasn't correct
+			throw toResourceIOException(resourceURI, dataException); //translate the exception to a resource I/O exception and throw that
 		}
 	}
 
@@ -754,6 +2038,418 @@ protected void alterResourceProperties(final URI resourceURI, final URFResourceA
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This implementation returns a {@link Batch} that applies all its changes using a single Subversion commit, producing a single revision.
+	 * </p>
+	 * @throws ResourceForbiddenException if this repository is a read-only snapshot.
+	 */
+	@Override
+	public Batch beginBatch(final String message) throws ResourceIOException {
+		checkModifiable(getRootURI());
+		checkOpen(); //make sure the repository is open
+		return new Batch(message != null ? message : "Marmot batch modification.");
+	}
+
+	/**
+	 * A batch of changes to this repository applied in a single Subversion commit.
+	 * <p>
+	 * Before the commit, the session is used only to list the parent directories of the changed resources, to determine which resources already exist. The
+	 * changes are then sent using a single commit editor in path order, opening and closing each directory once. Resources in subrepositories cannot be changed
+	 * in a batch.
+	 * </p>
+	 * @author Garret Wilson
+	 */
+	public class Batch implements RepositoryBatch {
+
+		/** The commit log message. */
+		private final String message;
+
+		/** @return The commit log message. */
+		public String getMessage() {
+			return message;
+		}
+
+		/** The recorded changes, keyed to decoded resource path. Sorting the paths places each collection before its descendants. */
+		private final SortedMap<String, Change> changes = new TreeMap<String, Change>();
+
+		/** Whether the batch has been committed or discarded. */
+		private boolean finished = false;
+
+		/**
+		 * Message constructor.
+		 * @param message The commit log message.
+		 * @throws NullPointerException if the given message is <code>null</code>.
+		 */
+		protected Batch(final String message) {
+			this.message = requireNonNull(message, "Message cannot be null.");
+		}
+
+		@Override
+		public SVNKitSubversionRepository getRepository() {
+			return SVNKitSubversionRepository.this;
+		}
+
+		@Override
+		public int getSize() {
+			return changes.size();
+		}
+
+		/**
+		 * Checks and normalizes the URI of a resource to be changed.
+		 * @param resourceURI The URI of the resource to be changed.
+		 * @return The normalized resource URI.
+		 * @throws NullPointerException if the given resource URI is <code>null</code>.
+		 * @throws IllegalArgumentException if the given URI designates a resource that does not reside inside this repository, or that lies in a subrepository.
+		 * @throws IllegalStateException if the batch has already been committed or discarded.
+		 */
+		protected URI checkChangeResourceURI(URI resourceURI) {
+			checkState(!finished, "Batch has already been committed or discarded.");
+			resourceURI = checkResourceURI(resourceURI); //makes sure the resource URI is valid and normalize the URI
+			checkArgument(getSubrepository(resourceURI) == SVNKitSubversionRepository.this, "Resource {0} lies in a subrepository.", resourceURI);
+			return resourceURI;
+		}
+
+		/**
+		 * Records a change, making sure that it doesn't conflict with other changes.
+		 * @param change The change to record.
+		 * @throws IllegalStateException if the resource has already been changed in the batch, or if an ancestor collection is being deleted in the batch.
+		 */
+		protected void addChange(final Change change) {
+			final Change existingChange = changes.get(change.path);
+			if(existingChange != null) { //the only change allowed to follow another is a creation following a deletion, which replaces the resource
+				checkState(existingChange.isDeletion() && change.resourceDescription != null, "Resource {0} has already been changed in the batch.",
+						change.resourceURI);
+				change.isReplacement = true;
+			}
+			for(String ancestorPath = getParentPath(change.path); ancestorPath != null; ancestorPath = getParentPath(ancestorPath)) {
+				final Change ancestorChange = changes.get(ancestorPath);
+				checkState(ancestorChange == null || !ancestorChange.isDeletion(), "Ancestor of resource {0} is being deleted in the batch.", change.resourceURI);
+			}
+			changes.put(change.path, change);
+		}
+
+		@Override
+		public OutputStream createResource(URI resourceURI, final URFResource resourceDescription) throws ResourceIOException {
+			resourceURI = checkChangeResourceURI(resourceURI);
+			final Change change = new Change(resourceURI, requireNonNull(resourceDescription, "Resource description cannot be null."));
+			change.contentOutputStream = new TempOutputStream(false) { //create a temporary output stream that won't delete its contents when closed, so that they will be available when committing
+
+				@Override
+				protected void beforeClose() throws IOException {
+					super.beforeClose();
+					change.isContentWritten = true;
+				}
+			};
+			addChange(change);
+			return change.contentOutputStream;
+		}
+
+		@Override
+		public void createResource(URI resourceURI, final URFResource resourceDescription, final byte[] resourceContents) throws ResourceIOException {
+			resourceURI = checkChangeResourceURI(resourceURI);
+			final Change change = new Change(resourceURI, requireNonNull(resourceDescription, "Resource description cannot be null."));
+			change.contentBytes = requireNonNull(resourceContents, "Resource contents cannot be null.").clone(); //copy the contents so that later changes by the caller don't affect the batch
+			change.isContentWritten = true;
+			addChange(change);
+		}
+
+		@Override
+		public void alterResourceProperties(URI resourceURI, final URFResourceAlteration resourceAlteration) {
+			resourceURI = checkChangeResourceURI(resourceURI);
+			final Change change = new Change(resourceURI, null);
+			change.resourceAlteration = requireNonNull(resourceAlteration, "Resource alteration cannot be null.");
+			addChange(change);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 * <p>
+		 * This implementation ignores requests to delete all resource for which {@link #isSourceResourceVisible(URI)} returns <code>false</code>.
+		 * </p>
+		 */
+		@Override
+		public void deleteResource(URI resourceURI) {
+			resourceURI = checkChangeResourceURI(resourceURI);
+			checkArgument(!resourceURI.equals(getRootURI()), "Cannot delete repository base URI {0}.", resourceURI);
+			if(!isSourceResourceVisible(getSourceResourceURI(resourceURI))) { //invisible resources are never deleted
+				return;
+			}
+			final Change change = new Change(resourceURI, null);
+			final boolean isChanged = isCollectionURI(resourceURI) ? !changes.subMap(change.path, change.path + Character.MAX_VALUE).isEmpty() //all descendant paths start with the path of the collection
+					: changes.containsKey(change.path);
+			checkState(!isChanged, "Resource {0} or one of its descendants has already been changed in the batch.", resourceURI);
+			addChange(change);
+		}
+
+		@Override
+		public void commit() throws ResourceIOException {
+			checkState(!finished, "Batch has already been committed or discarded.");
+			checkOpen(); //make sure the repository is still open, just as when changing it directly
+			for(final Change change : changes.values()) {
+				checkState(change.isDeletion() || change.resourceAlteration != null || change.isContentWritten, "Contents of resource {0} are still being written.",
+						change.resourceURI);
+			}
+			finished = true;
+			if(changes.isEmpty()) { //don't produce an empty revision
+				return;
+			}
+			URI resourceURI = getRootURI(); //keep track of the resource being changed, for reporting errors
+			try {
+				final SVNRepository svnRepository = acquireSVNRepository(); //get an SVNKit repository session for use by this thread alone
+				try {
+					//determine which resources exist; this must be done outside of an edit or we will get a SVNKit reentrant error
+					final Map<String, Collection<SVNDirEntry>> pathDirEntries = new HashMap<String, Collection<SVNDirEntry>>(); //the directory listings we retrieve, keyed to directory path
+					final Set<String> deletedPaths = new HashSet<String>(); //the paths being deleted or replaced, which will have no existing descendants
+					for(final Change change : changes.values()) {
+						resourceURI = change.resourceURI;
+						SVNDirEntry dirEntry = null;
+						if(!hasAncestorPath(change.path, deletedPaths)) { //only look for the resource if it won't have been deleted with some ancestor
+							final Collection<SVNDirEntry> parentDirEntries = listDirectory(svnRepository, getParentPath(change.path), pathDirEntries);
+							dirEntry = parentDirEntries != null ? getDirEntry(parentDirEntries, change.getName()) : null;
+						}
+						if(change.isDeletion() || change.isReplacement) {
+							change.isExisting = dirEntry != null;
+							deletedPaths.add(change.path);
+							dirEntry = null; //a replaced resource will be created anew
+						}
+						if(change.resourceDescription != null) { //if the resource is being created
+							if(dirEntry != null && dirEntry.getKind() != (isCollectionURI(resourceURI) ? SVNNodeKind.DIR : SVNNodeKind.FILE)) { //if a resource of a different kind is being replaced
+								change.isExisting = true;
+								change.isReplacement = true;
+								dirEntry = null;
+							}
+							if(dirEntry != null && isCollectionURI(resourceURI)) { //if an existing collection is being updated, see if it has a content file
+								final Collection<SVNDirEntry> childDirEntries = listDirectory(svnRepository, change.path, pathDirEntries);
+								change.isContentFileExisting = childDirEntries != null && getDirEntry(childDirEntries, COLLECTION_CONTENT_NAME) != null;
+							}
+						} else if(change.resourceAlteration != null) { //if the properties of the resource are being altered, the resource must exist
+							checkNodeKind(dirEntry, resourceURI);
+						}
+						change.dirEntry = dirEntry;
+					}
+					//send all the changes in a single edit
+					final ISVNEditor editor = svnRepository.getCommitEditor(getMessage(), null, true, null); //get a commit editor to the repository
+					boolean isEditClosed = false;
+					try {
+						editor.openRoot(-1); //open the root to start making changes
+						final Deque<String> openDirPaths = new ArrayDeque<String>(); //the paths of the directories below the root currently open, with the most recently opened first
+						for(final Change change : changes.values()) {
+							resourceURI = change.resourceURI;
+							final String parentPath = getParentPath(change.path);
+							while(!openDirPaths.isEmpty() && !parentPath.startsWith(openDirPaths.peek())) { //close any directories that are not ancestors of this resource
+								editor.closeDir();
+								openDirPaths.pop();
+							}
+							int pathIndex = openDirPaths.isEmpty() ? 0 : openDirPaths.peek().length(); //open any ancestor directories not yet open
+							while(pathIndex < parentPath.length()) {
+								pathIndex = parentPath.indexOf(PATH_SEPARATOR, pathIndex) + 1;
+								final String dirPath = parentPath.substring(0, pathIndex);
+								editor.openDir(dirPath, -1);
+								openDirPaths.push(dirPath);
+							}
+							if(change.isExisting) { //if an existing resource is being deleted or replaced
+								editor.deleteEntry(change.path, -1);
+							}
+							if(change.resourceDescription != null) { //if the resource is being created
+								final InputStream inputStream = toMarkSupportedInputStream(change.getContentInputStream()); //get an input stream to the contents, making sure it supports mark/reset
+								try {
+									editResourceContents(editor, resourceURI, change.resourceDescription, change.dirEntry, change.isContentFileExisting, inputStream);
+								} finally {
+									inputStream.close(); //this will delete any temporary file
+								}
+								if(isCollectionURI(resourceURI)) { //the new directory was left open for its children
+									openDirPaths.push(change.path);
+								}
+							} else if(change.resourceAlteration != null) { //if the properties of the resource are being altered
+								if(isCollectionURI(resourceURI)) {
+									editor.openDir(change.path, -1);
+									openDirPaths.push(change.path);
+									SVNKitSubversionRepository.this.alterResourceProperties(resourceURI, change.resourceAlteration, editor, change.dirEntry,
+											SVNNodeKind.DIR); //the batch method of the same name hides the repository method
+								} else {
+									editor.openFile(change.path, -1);
+									SVNKitSubversionRepository.this.alterResourceProperties(resourceURI, change.resourceAlteration, editor, change.dirEntry,
+											SVNNodeKind.FILE);
+									editor.closeFile(change.path, null);
+								}
+							}
+						}
+						resourceURI = getRootURI();
+						while(!openDirPaths.isEmpty()) { //close the remaining directories
+							editor.closeDir();
+							openDirPaths.pop();
+						}
+						editor.closeDir(); //close the root
+						editor.closeEdit(); //try to finalize the edit
+						isEditClosed = true;
+					} finally {
+						if(!isEditClosed) { //if we couldn't finish the edit, make sure none of the changes are made
+							try {
+								editor.abortEdit(); //abort the edit we had scheduled
+							} catch(final SVNException svnException) {
+								Log.warn("Error aborting Subversion batch commit.", svnException);
+							}
+						}
+					}
+				} finally {
+					releaseSVNRepository(svnRepository);
+				}
+			} catch(final IOException ioException) {
+				throw toResourceIOException(resourceURI, ioException);
+			} catch(final SVNException svnException) {
+				throw toResourceIOException(resourceURI, svnException);
+			} catch(final DataException dataException) { //if the data wasn't correct
+				throw toResourceIOException(resourceURI, dataException); //translate the exception to a resource I/O exception and throw that
+			} finally {
+				for(final Change change : changes.values()) {
+					invalidateCachedResourceDescription(change.resourceURI); //the resource and any descendants may have changed
+					change.dispose();
+				}
+			}
+		}
+
+		@Override
+		public void discard() {
+			if(!finished) {
+				finished = true;
+				for(final Change change : changes.values()) {
+					change.dispose();
+				}
+			}
+		}
+
+		/**
+		 * Retrieves the directory entries of the children of the directory at the given path, if it exists.
+		 * @param svnRepository The SVNKit repository session held by the caller.
+		 * @param path The decoded path of the directory.
+		 * @param pathDirEntries The directory listings already retrieved, keyed to directory path, to which any new listing will be added.
+		 * @return The directory entries of the children of the directory, or <code>null</code> if there is no directory at the given path.
+		 * @throws SVNException if there is an error accessing the Subversion repository.
+		 */
+		protected Collection<SVNDirEntry> listDirectory(final SVNRepository svnRepository, final String path,
+				final Map<String, Collection<SVNDirEntry>> pathDirEntries) throws SVNException {
+			if(pathDirEntries.containsKey(path)) {
+				return pathDirEntries.get(path);
+			}
+			Collection<SVNDirEntry> dirEntries = null;
+			if(svnRepository.checkPath(path, getRevision()) == SVNNodeKind.DIR) {
+				@SuppressWarnings("unchecked")
+				final Collection<SVNDirEntry> childDirEntries = svnRepository.getDir(path, getRevision(), null, (Collection<?>)null);
+				dirEntries = childDirEntries;
+			}
+			pathDirEntries.put(path, dirEntries);
+			return dirEntries;
+		}
+
+		/**
+		 * A change to a single resource.
+		 * @author Garret Wilson
+		 */
+		protected class Change {
+
+			/** The normalized URI of the resource. */
+			final URI resourceURI;
+
+			/** The decoded path of the resource, ending with a slash for collections. */
+			final String path;
+
+			/** The description of a resource being created, or <code>null</code> if the resource is not being created. */
+			final URFResource resourceDescription;
+
+			/** The contents of a resource being created, if given as bytes. */
+			byte[] contentBytes = null;
+
+			/** The contents of a resource being created, if written to an output stream. */
+			TempOutputStream contentOutputStream = null;
+
+			/** Whether the contents of a resource being created have been completely written. */
+			boolean isContentWritten = false;
+
+			/** The alterations to the properties of the resource, or <code>null</code> if the properties are not being altered. */
+			URFResourceAlteration resourceAlteration = null;
+
+			/** Whether any existing resource will be deleted before being created again. */
+			boolean isReplacement = false;
+
+			/** Whether an existing resource is to be deleted, as determined when committing. */
+			boolean isExisting = false;
+
+			/** Whether an existing collection being updated has a content file, as determined when committing. */
+			boolean isContentFileExisting = false;
+
+			/** The directory entry of an existing resource being updated, as determined when committing. */
+			SVNDirEntry dirEntry = null;
+
+			/**
+			 * Constructor.
+			 * @param resourceURI The normalized URI of the resource.
+			 * @param resourceDescription The description of a resource being created, or <code>null</code> if the resource is not being created.
+			 */
+			Change(final URI resourceURI, final URFResource resourceDescription) {
+				this.resourceURI = resourceURI;
+				this.path = getResourceURIPath(resourceURI).toDecodedString();
+				this.resourceDescription = resourceDescription;
+			}
+
+			/** @return Whether the resource is only being deleted. */
+			boolean isDeletion() {
+				return resourceDescription == null && resourceAlteration == null;
+			}
+
+			/** @return The name of the resource, without any ending slash. */
+			String getName() {
+				final String name = path.endsWith(String.valueOf(PATH_SEPARATOR)) ? path.substring(0, path.length() - 1) : path;
+				return name.substring(name.lastIndexOf(PATH_SEPARATOR) + 1);
+			}
+
+			/**
+			 * Returns an input stream to the contents of a resource being created.
+			 * @return An input stream to the recorded contents.
+			 * @throws IOException if there is an error accessing the recorded contents.
+			 */
+			InputStream getContentInputStream() throws IOException {
+				return contentOutputStream != null ? contentOutputStream.getInputStream() : new ByteArrayInputStream(contentBytes);
+			}
+
+			/** Releases any temporary storage used for recording the contents. */
+			void dispose() {
+				if(contentOutputStream != null) {
+					contentOutputStream.dispose();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Determines the decoded path of the parent collection of a resource with the given decoded path.
+	 * @param path The decoded path of the resource relative to the repository, ending with a slash for collections.
+	 * @return The decoded path of the parent collection, or <code>null</code> if the path is that of the root.
+	 */
+	protected static String getParentPath(final String path) {
+		if(path.isEmpty()) {
+			return null;
+		}
+		final int endIndex = path.endsWith(String.valueOf(PATH_SEPARATOR)) ? path.length() - 1 : path.length();
+		return path.substring(0, path.lastIndexOf(PATH_SEPARATOR, endIndex - 1) + 1);
+	}
+
+	/**
+	 * Determines whether the path of an ancestor of a resource is among the given paths.
+	 * @param path The decoded path of the resource relative to the repository.
+	 * @param ancestorPaths The decoded paths of potential ancestors.
+	 * @return <code>true</code> if one of the ancestors of the resource is one of the given paths.
+	 */
+	protected static boolean hasAncestorPath(final String path, final Set<String> ancestorPaths) {
+		for(String ancestorPath = getParentPath(path); ancestorPath != null; ancestorPath = getParentPath(ancestorPath)) {
+			if(ancestorPaths.contains(ancestorPath)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * <p>
@@ -797,17 +2493,18 @@ protected void moveResourceImpl(final URI resourceURI, final URI destinationURI,
 	 */
 	protected void transferResource(final URI resourceURI, final URI destinationURI, final boolean overwrite, final boolean move,
 			final ProgressListener progressListener) throws ResourceIOException {
+		checkModifiable(destinationURI);
 		if(!isSourceResourceVisible(getSourceResourceURI(resourceURI))) { //if this is not a visible resource
 			throw new ResourceNotFoundException(resourceURI);
 		}
 		final URIPath resourceURIPath = getResourceURIPath(resourceURI); //get the path to the resource
 		final URIPath destinationURIPath = getResourceURIPath(destinationURI); //get the path to the destination resource
-		final SVNRepository svnRepository = getSVNRepository(); //get the SVNKit repository and prevent other threads for accessing it simultaneously
-		synchronized(svnRepository) {
+		try {
+			final SVNRepository svnRepository = acquireSVNRepository(); //get an SVNKit repository session for use by this thread alone
 			try {
-				final SVNDirEntry dirEntry = svnRepository.info(resourceURIPath.toDecodedString(), -1); //get the directory entry for this resource
+				final SVNDirEntry dirEntry = svnRepository.info(resourceURIPath.toDecodedString(), getRevision()); //get the directory entry for this resource
 				checkNodeKind(dirEntry, resourceURI); //make sure the node is the correct kind for our resource URI, and that the node exists
-				final SVNNodeKind destinationNodeKind = svnRepository.checkPath(destinationURIPath.toDecodedString(), -1);
+				final SVNNodeKind destinationNodeKind = checkPath(svnRepository, destinationURIPath);
 				if(destinationNodeKind != SVNNodeKind.NONE && !overwrite) { //if the destination resource already exists but we shouldn't overwrite
 					throw new ResourceStateException(destinationURI, "Destination resource already exists.");
 				}
@@ -832,9 +2529,11 @@ protected void transferResource(final URI resourceURI, final URI destinationURI,
 					editor.abortEdit(); //abort the edit we had scheduled
 					throw svnException; //rethrow the exception
 				}
-			} catch(final SVNException svnException) {
-				throw toResourceIOException(resourceURI, svnException);
+			} finally {
+				releaseSVNRepository(svnRepository);
 			}
+		} catch(final SVNException svnException) {
+			throw toResourceIOException(resourceURI, svnException);
 		}
 	}
 
@@ -872,7 +2571,7 @@ protected URFResource createResourceDescription(final URF urf, final URI resourc
 
 	/**
 	 * Creates a resource description to represent a single SVNKit node. The resource is assumed to exist. The directory entry is guaranteed to be the correct
-	 * kind for the given resource URI. This method is thread-safe.
+	 * kind for the given resource URI. For snapshots, descriptions are cached in the revision cache. This method is thread-safe.
 	 * @param urf The URF data model to use when creating this resource.
 	 * @param resourceURI The URI of the resource being described.
 	 * @param dirEntry The directory entry for the Subversion node.
@@ -884,23 +2583,57 @@ protected URFResource createResourceDescription(final URF urf, final URI resourc
 	 * @throws ResourceIOException if there was an error accessing the resource description.
 	 * @throws DataException if the data was not what was expected.
 	 */
-	protected URFResource createResourceDescription(final URF urf, final URI resourceURI, final SVNDirEntry dirEntry, SVNProperties properties)
+	protected URFResource createResourceDescription(final URF urf, final URI resourceURI, final SVNDirEntry dirEntry, final SVNProperties properties)
 			throws SVNException, ResourceIOException, DataException {
+		return createResourceDescription(urf, resourceURI, dirEntry, properties, null);
+	}
+
+	/**
+	 * Creates a resource description to represent a single SVNKit node, using information already retrieved where possible. The resource is assumed to exist.
+	 * The directory entry is guaranteed to be the correct kind for the given resource URI. For snapshots, descriptions are cached in the revision cache. This
+	 * method is thread-safe.
+	 * @param urf The URF data model to use when creating this resource.
+	 * @param resourceURI The URI of the resource being described.
+	 * @param dirEntry The directory entry for the Subversion node.
+	 * @param properties The properties that are known, or <code>null</code> if properties have not yet been retrieved for the resource.
+	 * @param childDirEntries The directory entries of the children of a directory node, or any directory entries known to include that of the
+	 *          {@value #COLLECTION_CONTENT_NAME} file if it exists, from which the content file will be determined; or <code>null</code> if the content file
+	 *          has not yet been looked for.
+	 * @return A resource description of the given SVNKit node.
+	 * @throws NullPointerException if the given data model, resource URI, and/or directory entry is <code>null</code>.
+	 * @throws IllegalArgumentException if a non-collection URI is given to access a directory.
+	 * @throws SVNException if there is an error creating the resource description.
+	 * @throws ResourceIOException if there was an error accessing the resource description.
+	 * @throws DataException if the data was not what was expected.
+	 */
+	protected URFResource createResourceDescription(final URF urf, final URI resourceURI, final SVNDirEntry dirEntry, SVNProperties properties,
+			final Collection<SVNDirEntry> childDirEntries) throws SVNException, ResourceIOException, DataException {
 		final URIPath resourceURIPath = getResourceURIPath(resourceURI); //get the path to the resource
+		if(isSnapshot()) { //if resources at this revision never change, see if we already have a description
+			final URFResource cachedResourceDescription = getRevisionCache().getResourceDescription(resourceURIPath.toDecodedString(), getRevision());
+			if(cachedResourceDescription != null) {
+				return cachedResourceDescription;
+			}
+		}
 		final URFResource resource = urf.createResource(resourceURI); //create a default resource description
 		SVNNodeKind nodeKind = dirEntry.getKind(); //find out what kind of node this is
 		//		final String filename = resourceFile.getName(); //get the name of the file
 		final long contentLength; //we'll update the content length if we can
 		ISODateTime contentModified = null; //we'll get the content modified from the file or, for a directory, from its content file, if any---but not from a directory itself
-		final SVNRepository svnRepository = getSVNRepository(); //get the SVNKit repository and prevent other threads for accessing it simultaneously
-		synchronized(svnRepository) {
+		final SVNRepository svnRepository = acquireSVNRepository(); //get an SVNKit repository session for use by this thread alone
+		try {
 			if(nodeKind == SVNNodeKind.DIR) { //if this is a directory
 				if(!isCollectionURI(resourceURI)) { //if a non-collection URI was used for the directory
 					throw new IllegalArgumentException("Non-collection URI " + resourceURI + " used for directory " + resourceURI);
 				}
-				final URI contentURI = resolve(resourceURI, COLLECTION_CONTENT_NAME); //determine the URI to use for content
-				final URIPath contentURIPath = getResourceURIPath(contentURI);
-				final SVNDirEntry contentDirEntry = svnRepository.info(contentURIPath.toDecodedString(), -1); //get the directory entry for the special collection content resource
+				final SVNDirEntry contentDirEntry; //get the directory entry for the special collection content resource
+				if(childDirEntries != null) { //if we already know the children or the content file, the content file will be among them
+					contentDirEntry = getDirEntry(childDirEntries, COLLECTION_CONTENT_NAME);
+				} else { //if we don't know the children, ask for the content file directly
+					final URI contentURI = resolve(resourceURI, COLLECTION_CONTENT_NAME); //determine the URI to use for content
+					final URIPath contentURIPath = getResourceURIPath(contentURI);
+					contentDirEntry = svnRepository.info(contentURIPath.toDecodedString(), getRevision());
+				}
 				if(contentDirEntry != null) { //if there is a special collection content file
 					contentLength = contentDirEntry.getSize(); //use the size of the special collection content resource
 					contentModified = new ISODateTime(contentDirEntry.getDate()); //set the modified timestamp as the last modified date of the content file 
@@ -917,9 +2650,9 @@ protected URFResource createResourceDescription(final URF urf, final URI resourc
 				if(properties == null) { //if no properties were given
 					properties = new SVNProperties(); //load the properties from the repository
 					if(nodeKind == SVNNodeKind.FILE) { //get the properties based upon the node type
-						svnRepository.getFile(resourceURIPath.toDecodedString(), -1, properties, null);
+						svnRepository.getFile(resourceURIPath.toDecodedString(), getRevision(), properties, null);
 					} else if(nodeKind == SVNNodeKind.DIR) {
-						svnRepository.getDir(resourceURIPath.toDecodedString(), -1, properties, (Collection<?>)null);
+						svnRepository.getDir(resourceURIPath.toDecodedString(), getRevision(), properties, (Collection<?>)null);
 					} else {
 						throw new ResourceIOException(resourceURI, "Unrecognized directory entry node kind: " + nodeKind);
 					}
@@ -952,11 +2685,19 @@ protected URFResource createResourceDescription(final URF urf, final URI resourc
 			}
 			//live properties
 			setContentLength(resource, contentLength); //indicate the length of the content
+			if(nodeKind == SVNNodeKind.DIR) { //the last changed revision of a directory changes whenever anything beneath it changes
+				resource.setPropertyValue(Marmot.TREE_REVISION_PROPERTY_URI, dirEntry.getRevision());
+			}
 			//in SVNKit for the time being the live last-modified date overrides everything
 			if(contentModified != null) { //if we have a content modified time
 				setModified(resource, contentModified); //set the modified timestamp as the last modified date
 			}
 			//TODO fix synchronize-last-modified-time business; see WebDavRepository
+		} finally {
+			releaseSVNRepository(svnRepository);
+		}
+		if(isSnapshot()) { //resources at this revision never change, so the description can be reused
+			getRevisionCache().putResourceDescription(resourceURIPath.toDecodedString(), getRevision(), resource);
 		}
 		return resource; //return the resource that represents the file
 	}
@@ -1030,7 +2771,7 @@ public synchronized void dispose() {
 	}
 
 	/**
-	 * Traverses all resources in the repository starting from the root. Traversal is synchronized on the repository.
+	 * Traverses all resources in the repository starting from the root. A single repository session is held during traversal.
 	 * @param visitor The visitor to visit the resource.
 	 * @return <code>true</code> if traversal should continue to other nodes or <code>false</code> if traversal should stop.
 	 * @throws SVNException if there is an error accessing the repository.
@@ -1041,7 +2782,7 @@ public boolean traverse(final Visitor visitor) throws SVNException {
 	}
 
 	/**
-	 * Traverses a resource and its descendants. Traversal is synchronized on the repository.
+	 * Traverses a resource and its descendants. A single repository session is held during traversal.
 	 * @param resourceURI The URI of the resource that will be traversed.
 	 * @param visitor The visitor to visit the resource.
 	 * @return <code>true</code> if traversal should continue to other nodes or <code>false</code> if traversal should stop.
@@ -1049,15 +2790,17 @@ public boolean traverse(final Visitor visitor) throws SVNException {
 	 */
 	public boolean traverse(final URI resourceURI, final Visitor visitor) throws SVNException {
 		final URIPath resourceURIPath = getResourceURIPath(resourceURI); //get the path to the resource
-		final SVNRepository svnRepository = getSVNRepository(); //get the SVNKit repository and prevent other threads for accessing it simultaneously
-		synchronized(svnRepository) { //we aren't locking the actual repository, so we might as well synchronize our access to it at a local level rather than holding it across the children iteration
-			final SVNDirEntry dirEntry = svnRepository.info(resourceURIPath.toDecodedString(), -1); //get the directory entry for this resource
+		final SVNRepository svnRepository = acquireSVNRepository(); //get an SVNKit repository session for use by this thread alone
+		try {
+			final SVNDirEntry dirEntry = svnRepository.info(resourceURIPath.toDecodedString(), getRevision()); //get the directory entry for this resource
 			return traverse(resourceURI, dirEntry, visitor);
+		} finally {
+			releaseSVNRepository(svnRepository);
 		}
 	}
 
 	/**
-	 * Traverses a resource and its descendants. Traversal is synchronized on the repository.
+	 * Traverses a resource and its descendants. A single repository session is held during traversal.
 	 * @param resourceURI The URI of the resource that will be traversed.
 	 * @param dirEntry The directory entry of the resource.
 	 * @param visitor The visitor to visit the resource.
@@ -1066,34 +2809,35 @@ public boolean traverse(final URI resourceURI, final Visitor visitor) throws SVN
 	 */
 	protected boolean traverse(final URI resourceURI, final SVNDirEntry dirEntry, final Visitor visitor) throws SVNException {
 		final URIPath resourceURIPath = getResourceURIPath(resourceURI); //get the path to the resource
-		final SVNRepository svnRepository = getSVNRepository(); //get the SVNKit repository and prevent other threads for accessing it simultaneously
-		synchronized(svnRepository) { //we aren't locking the actual repository, so we might as well synchronize our access to it at a local level rather than holding it across the children iteration
+		final SVNRepository svnRepository = acquireSVNRepository(); //get an SVNKit repository session for use by this thread alone
+		try {
 			if(!visitor.visit(this, resourceURI, resourceURIPath, svnRepository, dirEntry)) { //visit the directory entry; if we should stop traversal
 				return false;
 			}
 			if(dirEntry.getKind() == SVNNodeKind.DIR) { //if this is a directory
 				return traverseChildren(resourceURI, dirEntry, visitor); //traverse its children
 			}
+		} finally {
+			releaseSVNRepository(svnRepository);
 		}
 		return true;
 	}
 
 	/**
-	 * Traverses the children of a resource and their descendants. Traversal is synchronized on the repository.
+	 * Traverses the children of a resource and their descendants. A single repository session is held during traversal.
 	 * @param resourceURI The URI of the resource the children of which will be traversed.
 	 * @param dirEntry The directory entry of the resource.
 	 * @param visitor The visitor to visit the resource.
 	 * @return <code>true</code> if traversal should continue to other nodes or <code>false</code> if traversal should stop.
 	 * @throws SVNException if the given directory entry does not represent a directory.
 	 * @throws SVNException if there is an error accessing the repository.
-	 * @see #getSVNRepository()
+	 * @see #acquireSVNRepository()
 	 */
 	protected boolean traverseChildren(final URI resourceURI, final SVNDirEntry dirEntry, final Visitor visitor) throws SVNException {
 		final URIPath resourceURIPath = getResourceURIPath(resourceURI); //get the path to the resource
-		final SVNRepository svnRepository = getSVNRepository(); //get the SVNKit repository and prevent other threads for accessing it simultaneously
-		synchronized(svnRepository) { //we aren't locking the actual repository, so we might as well synchronize our access to it at a local level rather than holding it across the children iteration
-			@SuppressWarnings("unchecked")
-			final Collection<SVNDirEntry> childDirEntries = svnRepository.getDir(resourceURIPath.toDecodedString(), -1, null, (Collection<?>)null); //get a collection of child directory entries
+		final SVNRepository svnRepository = acquireSVNRepository(); //get an SVNKit repository session for use by this thread alone
+		try {
+			final Collection<SVNDirEntry> childDirEntries = getDirEntries(svnRepository, resourceURIPath); //get a collection of child directory entries
 			for(final SVNDirEntry childDirEntry : childDirEntries) { //for each of the child resource directory entries
 				final URI childResourceURI = getRepositoryResourceURI(resourceURI, childDirEntry); //get the public URI for the child resource
 				if(childResourceURI.equals(resourceURI)) { //ignore the resource itself
@@ -1103,6 +2847,8 @@ protected boolean traverseChildren(final URI resourceURI, final SVNDirEntry dirE
 					return false;
 				}
 			}
+		} finally {
+			releaseSVNRepository(svnRepository);
 		}
 		return true;
 	}
@@ -1143,9 +2889,9 @@ public boolean visit(final SVNKitSubversionRepository repository, final URI reso
 				final SVNNodeKind nodeKind = svnDirEntry.getKind();
 				final SVNProperties properties = new SVNProperties(); //load the properties from the repository
 				if(nodeKind == SVNNodeKind.FILE) { //get the properties based upon the node type
-					svnRepository.getFile(resourceURIPath.toDecodedString(), -1, properties, null);
+					svnRepository.getFile(resourceURIPath.toDecodedString(), repository.getRevision(), properties, null);
 				} else if(nodeKind == SVNNodeKind.DIR) {
-					svnRepository.getDir(resourceURIPath.toDecodedString(), -1, properties, (Collection<?>)null);
+					svnRepository.getDir(resourceURIPath.toDecodedString(), repository.getRevision(), properties, (Collection<?>)null);
 				} else {
 					throw unexpected("Resource " + resourceURI + " unrecognized directory entry node kind: " + nodeKind);
 				}
@@ -1253,8 +2999,8 @@ protected abstract NameValuePair<String, SVNPropertyValue> getNewProperty(final
 		 * @throws SVNException if there is an error accessing the repository.
 		 */
 		public void commitRenames(final SVNKitSubversionRepository repository) throws SVNException {
-			final SVNRepository svnRepository = repository.getSVNRepository(); //get the SVNKit repository and prevent other threads for accessing it simultaneously
-			synchronized(svnRepository) {
+			final SVNRepository svnRepository = repository.acquireSVNRepository(); //get an SVNKit repository session for use by this thread alone
+			try {
 				final ISVNEditor editor = svnRepository.getCommitEditor("Marmot obsolete property removals and renames.", null, true, null); //get a commit editor to the repository
 				try {
 					editor.openRoot(-1); //open the root to start making changes
@@ -1297,6 +3043,8 @@ public void commitRenames(final SVNKitSubversionRepository repository) throws SV
 					editor.abortEdit(); //abort the edit we had scheduled
 					throw svnException; //rethrow the exception
 				}
+			} finally {
+				repository.releaseSVNRepository(svnRepository);
 			}
 		}
 
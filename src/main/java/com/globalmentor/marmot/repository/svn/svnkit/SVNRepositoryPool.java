@@ -0,0 +1,365 @@
+/*
+ * Copyright © 2013 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.marmot.repository.svn.svnkit;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import static com.globalmentor.java.Conditions.*;
+import static java.util.Objects.*;
+
+import org.tmatesoft.svn.core.*;
+import org.tmatesoft.svn.core.auth.ISVNAuthenticationManager;
+import org.tmatesoft.svn.core.io.*;
+
+/**
+ * A bounded pool of SVNKit repository sessions to the same Subversion repository, allowing several threads to access the repository at the same time.
+ * <p>
+ * A session is acquired using {@link #acquire()} and must be returned using {@link #release(SVNRepository)}, normally in a <code>finally</code> block. Sessions
+ * are bound to the acquiring thread and acquisition is reentrant: if a thread that already holds a session acquires a session again, the same session is
+ * returned, and the session is only returned to the pool when it has been released as many times as it was acquired. A thread therefore never holds more than
+ * one session, and nested acquisitions never wait for other threads.
+ * </p>
+ * <p>
+ * A session may be acquired for a location other than the pool URL, such as the location of a subrepository sharing the pool. The session is moved to the
+ * requested location for the duration of the acquisition, and moved back to the location of the enclosing acquisition, or to the pool URL, when released.
+ * </p>
+ * <p>
+ * Sessions are created as needed, up to the size of the pool, using {@link SVNRepositoryFactory#create(SVNURL)} with a shared authentication manager. When all
+ * sessions are in use, acquiring threads wait in order. The time spent waiting is recorded so that the pool size can be tuned. Alternatively a session can be
+ * reserved without waiting using {@link #tryReserve()} and acquired later by another thread using {@link #acquireReserved(SVNURL)}.
+ * </p>
+ * <p>
+ * This class is thread safe.
+ * </p>
+ * @author Garret Wilson
+ */
+public class SVNRepositoryPool {
+
+	/** The URL of the Subversion repository. */
+	private final SVNURL svnURL;
+
+	/** @return The URL of the Subversion repository. */
+	public SVNURL getSVNURL() {
+		return svnURL;
+	}
+
+	/** The authentication manager shared by all sessions. */
+	private final ISVNAuthenticationManager authenticationManager;
+
+	/** @return The authentication manager shared by all sessions. */
+	public ISVNAuthenticationManager getAuthenticationManager() {
+		return authenticationManager;
+	}
+
+	/** The maximum number of sessions. */
+	private final int size;
+
+	/** @return The maximum number of sessions. */
+	public int getSize() {
+		return size;
+	}
+
+	/** The permits for acquiring sessions; there is one permit for each session in the pool. */
+	private final Semaphore permits;
+
+	/** The sessions not currently in use. */
+	private final Deque<SVNRepository> idleSVNRepositories = new ArrayDeque<SVNRepository>();
+
+	/** Whether the pool has been closed. */
+	private volatile boolean closed = false;
+
+	/** The session held by the current thread, if any, along with the number of times it has been acquired. */
+	private final ThreadLocal<Lease> threadLease = new ThreadLocal<Lease>();
+
+	/** The number of sessions that have been acquired from the pool, not counting reentrant acquisitions. */
+	private final AtomicLong acquireCount = new AtomicLong();
+
+	/** @return The number of sessions that have been acquired from the pool, not counting reentrant acquisitions. */
+	public long getAcquireCount() {
+		return acquireCount.get();
+	}
+
+	/** The number of acquisitions that had to wait for a session to be released. */
+	private final AtomicLong waitCount = new AtomicLong();
+
+	/** @return The number of acquisitions that had to wait for a session to be released. */
+	public long getWaitCount() {
+		return waitCount.get();
+	}
+
+	/** The total time in nanoseconds spent waiting for sessions to be released. */
+	private final AtomicLong totalWaitTime = new AtomicLong();
+
+	/** @return The total time in nanoseconds spent waiting for sessions to be released. */
+	public long getTotalWaitTime() {
+		return totalWaitTime.get();
+	}
+
+	/** The longest time in nanoseconds spent waiting for a session to be released. */
+	private final AtomicLong maxWaitTime = new AtomicLong();
+
+	/** @return The longest time in nanoseconds spent waiting for a session to be released. */
+	public long getMaxWaitTime() {
+		return maxWaitTime.get();
+	}
+
+	/** The number of sessions that have been created. */
+	private final AtomicLong createCount = new AtomicLong();
+
+	/** @return The number of sessions that have been created. */
+	public long getCreateCount() {
+		return createCount.get();
+	}
+
+	/** @return The number of sessions currently in use. */
+	public int getActiveCount() {
+		return size - permits.availablePermits();
+	}
+
+	/**
+	 * Subversion URL, authentication manager, and size constructor.
+	 * @param svnURL The URL of the Subversion repository.
+	 * @param authenticationManager The authentication manager shared by all sessions.
+	 * @param size The maximum number of sessions.
+	 * @throws NullPointerException if the given URL and/or authentication manager is <code>null</code>.
+	 * @throws IllegalArgumentException if the given size is not positive.
+	 */
+	public SVNRepositoryPool(final SVNURL svnURL, final ISVNAuthenticationManager authenticationManager, final int size) {
+		this.svnURL = requireNonNull(svnURL, "Subversion URL cannot be null.");
+		this.authenticationManager = requireNonNull(authenticationManager, "Authentication manager cannot be null.");
+		checkArgument(size > 0, "Invalid session pool size {0}.", size);
+		this.size = size;
+		this.permits = new Semaphore(size, true); //use a fair semaphore so that waiting threads are served in order
+	}
+
+	/** @return <code>true</code> if the current thread holds a session from this pool. */
+	public boolean isHeld() {
+		return threadLease.get() != null;
+	}
+
+	/**
+	 * Acquires a session at the pool URL for the current thread, waiting if all sessions are in use. If the current thread already holds a session, that session
+	 * is returned without waiting.
+	 * @return A session to the Subversion repository, which must later be released using {@link #release(SVNRepository)}.
+	 * @throws IllegalStateException if the pool has been closed.
+	 * @throws SVNCancelException if the thread was interrupted while waiting for a session.
+	 * @throws SVNException if there was an error creating a new session.
+	 * @see #getSVNURL()
+	 */
+	public SVNRepository acquire() throws SVNException {
+		return acquire(getSVNURL());
+	}
+
+	/**
+	 * Acquires a session at the given location for the current thread, waiting if all sessions are in use. If the current thread already holds a session, that
+	 * session is returned without waiting, moved to the given location until it is released.
+	 * @param location The URL within the Subversion repository at which the session should be located, such as the location of a subrepository.
+	 * @return A session to the Subversion repository, which must later be released using {@link #release(SVNRepository)}.
+	 * @throws NullPointerException if the given location is <code>null</code>.
+	 * @throws IllegalStateException if the pool has been closed.
+	 * @throws SVNCancelException if the thread was interrupted while waiting for a session.
+	 * @throws SVNException if there was an error creating a new session or moving the session to the given location.
+	 */
+	public SVNRepository acquire(final SVNURL location) throws SVNException {
+		requireNonNull(location, "Location cannot be null.");
+		final Lease lease = threadLease.get();
+		if(lease != null) { //if this thread already has a session, reuse it
+			if(!location.equals(lease.locations.peekFirst())) { //if the enclosing acquisition is somewhere else, move the session until it is released
+				lease.svnRepository.setLocation(location, false);
+			}
+			lease.locations.addFirst(location);
+			return lease.svnRepository;
+		}
+		checkState(!closed, "Subversion session pool has been closed.");
+		if(!permits.tryAcquire()) { //if no session is immediately available, wait for one and record how long we waited
+			final long waitStart = System.nanoTime();
+			try {
+				permits.acquire();
+			} catch(final InterruptedException interruptedException) {
+				Thread.currentThread().interrupt(); //restore the interrupted status
+				throw new SVNCancelException(SVNErrorMessage.create(SVNErrorCode.CANCELLED, "Interrupted while waiting for a Subversion session."));
+			}
+			final long waitTime = System.nanoTime() - waitStart;
+			waitCount.incrementAndGet();
+			totalWaitTime.addAndGet(waitTime);
+			long currentMaxWaitTime;
+			while(waitTime > (currentMaxWaitTime = maxWaitTime.get()) && !maxWaitTime.compareAndSet(currentMaxWaitTime, waitTime))
+				;
+		}
+		return lease(location);
+	}
+
+	/**
+	 * Reserves a session without waiting, so that it can later be acquired by another thread using {@link #acquireReserved(SVNURL)}. Each successful reservation
+	 * must be followed by exactly one call to {@link #acquireReserved(SVNURL)} or {@link #cancelReservation()}.
+	 * @return <code>true</code> if a session was reserved, or <code>false</code> if all sessions are in use or reserved.
+	 * @throws IllegalStateException if the pool has been closed.
+	 */
+	public boolean tryReserve() {
+		checkState(!closed, "Subversion session pool has been closed.");
+		return permits.tryAcquire();
+	}
+
+	/**
+	 * Gives back a session reserved using {@link #tryReserve()} that will not be acquired after all.
+	 */
+	public void cancelReservation() {
+		permits.release();
+	}
+
+	/**
+	 * Acquires a session previously reserved using {@link #tryReserve()}, possibly by another thread, for the current thread at the given location. This method
+	 * never waits. The session may be acquired even if the pool was closed after the reservation was made; it will be closed when released. If the session cannot
+	 * be acquired, the reservation is cancelled.
+	 * @param location The URL within the Subversion repository at which the session should be located.
+	 * @return A session to the Subversion repository, which must later be released using {@link #release(SVNRepository)}.
+	 * @throws NullPointerException if the given location is <code>null</code>.
+	 * @throws IllegalStateException if the current thread already holds a session from this pool.
+	 * @throws SVNException if there was an error creating a new session or moving the session to the given location.
+	 */
+	public SVNRepository acquireReserved(final SVNURL location) throws SVNException {
+		requireNonNull(location, "Location cannot be null.");
+		if(threadLease.get() != null) {
+			permits.release(); //the reservation can't be used
+			throw new IllegalStateException("Subversion session already held by the current thread.");
+		}
+		return lease(location);
+	}
+
+	/**
+	 * Leases a session to the current thread at the given location, using a permit already acquired. If a session cannot be leased, the permit is released.
+	 * @param location The URL within the Subversion repository at which the session should be located.
+	 * @return A session to the Subversion repository.
+	 * @throws SVNException if there was an error creating a new session or moving the session to the given location.
+	 */
+	private SVNRepository lease(final SVNURL location) throws SVNException {
+		try {
+			SVNRepository svnRepository;
+			synchronized(idleSVNRepositories) {
+				svnRepository = idleSVNRepositories.pollFirst(); //use the most recently released session, which is the most likely to still be connected
+			}
+			if(svnRepository == null) { //if there are no idle sessions, create a new one
+				svnRepository = SVNRepositoryFactory.create(getSVNURL());
+				svnRepository.setAuthenticationManager(getAuthenticationManager());
+				createCount.incrementAndGet();
+			}
+			if(!location.equals(getSVNURL())) { //idle sessions are kept at the pool URL
+				try {
+					svnRepository.setLocation(location, false);
+				} catch(final SVNException svnException) {
+					svnRepository.closeSession(); //don't pool a session in an unknown location
+					throw svnException;
+				}
+			}
+			threadLease.set(new Lease(svnRepository, location));
+			acquireCount.incrementAndGet();
+			return svnRepository;
+		} catch(final SVNException svnException) {
+			permits.release(); //give back the permit if we couldn't get a session
+			throw svnException;
+		} catch(final RuntimeException runtimeException) {
+			permits.release();
+			throw runtimeException;
+		}
+	}
+
+	/**
+	 * Releases a session acquired by the current thread. The session is moved back to the location of the enclosing acquisition, if any, and is only returned to
+	 * the pool once it has been released as many times as it was acquired. If the pool has been closed, the session is closed rather than being returned to the
+	 * pool.
+	 * @param svnRepository The session to release.
+	 * @throws NullPointerException if the given session is <code>null</code>.
+	 * @throws IllegalStateException if the given session is not held by the current thread, or the session could not be moved back to the location of the
+	 *           enclosing acquisition.
+	 */
+	public void release(final SVNRepository svnRepository) {
+		requireNonNull(svnRepository, "Subversion session cannot be null.");
+		final Lease lease = threadLease.get();
+		checkState(lease != null && lease.svnRepository == svnRepository, "Subversion session not held by the current thread.");
+		final SVNURL location = lease.locations.removeFirst();
+		final SVNURL enclosingLocation = lease.locations.peekFirst();
+		if(enclosingLocation != null) { //if the session is still in use further up the call stack
+			if(!enclosingLocation.equals(location)) {
+				try {
+					svnRepository.setLocation(enclosingLocation, false); //put the session back where the enclosing acquisition expects it
+				} catch(final SVNException svnException) {
+					throw new IllegalStateException("Unable to move Subversion session back to " + enclosingLocation + ".", svnException);
+				}
+			}
+			return;
+		}
+		threadLease.remove();
+		boolean isReusable = !closed; //if the pool was closed while the session was in use, close the session
+		if(isReusable && !location.equals(getSVNURL())) { //idle sessions are kept at the pool URL
+			try {
+				svnRepository.setLocation(getSVNURL(), false);
+			} catch(final SVNException svnException) {
+				isReusable = false;
+			}
+		}
+		try {
+			if(!isReusable) {
+				svnRepository.closeSession();
+			} else {
+				synchronized(idleSVNRepositories) {
+					idleSVNRepositories.addFirst(svnRepository);
+				}
+			}
+		} finally {
+			permits.release();
+		}
+	}
+
+	/**
+	 * Closes the pool and all idle sessions. Sessions in use are closed when they are released. Once closed, no more sessions can be acquired.
+	 */
+	public void close() {
+		closed = true;
+		synchronized(idleSVNRepositories) {
+			for(final SVNRepository svnRepository : idleSVNRepositories) {
+				svnRepository.closeSession();
+			}
+			idleSVNRepositories.clear();
+		}
+	}
+
+	/**
+	 * A session held by a thread.
+	 * @author Garret Wilson
+	 */
+	private static class Lease {
+
+		/** The session being held. */
+		final SVNRepository svnRepository;
+
+		/** The location requested by each acquisition of the session by the thread that has not yet been released, most recent first. */
+		final Deque<SVNURL> locations = new ArrayDeque<SVNURL>();
+
+		/**
+		 * Session and location constructor.
+		 * @param svnRepository The session being held.
+		 * @param location The location requested by the first acquisition of the session.
+		 */
+		Lease(final SVNRepository svnRepository, final SVNURL location) {
+			this.svnRepository = svnRepository;
+			locations.addFirst(location);
+		}
+	}
+
+}
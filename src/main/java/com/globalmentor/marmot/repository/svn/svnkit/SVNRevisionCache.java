@@ -0,0 +1,318 @@
+/*
+ * Copyright © 2013 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.marmot.repository.svn.svnkit;
+
+import java.util.*;
+
+import org.tmatesoft.svn.core.*;
+import org.urframework.*;
+
+import com.globalmentor.marmot.repository.Repositories;
+
+import static com.globalmentor.java.Conditions.*;
+import static java.util.Collections.*;
+import static java.util.Objects.*;
+
+/**
+ * A size-bounded cache of information about Subversion nodes at fixed revisions, keyed to node path and revision. Because a node at a given revision never
+ * changes, cached information never needs to be invalidated; the least recently used information is evicted when the cache is full.
+ * <p>
+ * Node kinds, directory listings, and resource descriptions are cached. Directory entries and descriptions are copied both when they are cached and when they
+ * are retrieved, so that callers may modify the entries and descriptions they receive without affecting the cache or each other.
+ * </p>
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ * @author Garret Wilson
+ * @see SVNKitSubversionRepository#atRevision(long)
+ */
+public class SVNRevisionCache {
+
+	/** The default maximum number of entries to cache. */
+	public static final int DEFAULT_MAXIMUM_SIZE = 10000;
+
+	/** The maximum number of entries to cache. */
+	private final int maximumSize;
+
+	/** @return The maximum number of entries to cache. */
+	public int getMaximumSize() {
+		return maximumSize;
+	}
+
+	/** The number of entries found in the cache. */
+	private long hitCount = 0;
+
+	/** @return The number of entries found in the cache. */
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	/** The number of entries requested but not found in the cache. */
+	private long missCount = 0;
+
+	/** @return The number of entries requested but not found in the cache. */
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	/** The number of entries discarded because the cache was full. */
+	private long evictionCount = 0;
+
+	/** @return The number of entries discarded because the cache was full. */
+	public synchronized long getEvictionCount() {
+		return evictionCount;
+	}
+
+	/** The cached entries, in order of least recent access. */
+	private final Map<Key, Object> entries = new LinkedHashMap<Key, Object>(16, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<Key, Object> eldest) {
+			if(size() > getMaximumSize()) { //if the cache has grown too large
+				++evictionCount; //this method is only called from synchronized methods of the cache
+				return true;
+			}
+			return false;
+		}
+	};
+
+	/** @return The number of entries currently cached. */
+	public synchronized int getSize() {
+		return entries.size();
+	}
+
+	/**
+	 * Default constructor using the default maximum size.
+	 * @see #DEFAULT_MAXIMUM_SIZE
+	 */
+	public SVNRevisionCache() {
+		this(DEFAULT_MAXIMUM_SIZE);
+	}
+
+	/**
+	 * Maximum size constructor.
+	 * @param maximumSize The maximum number of entries to cache.
+	 * @throws IllegalArgumentException if the given maximum size is not positive.
+	 */
+	public SVNRevisionCache(final int maximumSize) {
+		checkArgument(maximumSize > 0, "Invalid maximum size {0}.", maximumSize);
+		this.maximumSize = maximumSize;
+	}
+
+	/**
+	 * Retrieves the cached node kind of the given path.
+	 * @param path The decoded path of the node relative to the repository.
+	 * @param revision The revision of the node.
+	 * @return The cached node kind, or <code>null</code> if the node kind is not cached.
+	 * @throws NullPointerException if the given path is <code>null</code>.
+	 * @throws IllegalArgumentException if the given revision is negative.
+	 */
+	public SVNNodeKind getNodeKind(final String path, final long revision) {
+		return (SVNNodeKind)get(new Key(Key.Type.NODE_KIND, path, revision));
+	}
+
+	/**
+	 * Caches the node kind of the given path.
+	 * @param path The decoded path of the node relative to the repository.
+	 * @param revision The revision of the node.
+	 * @param nodeKind The kind of the node.
+	 * @throws NullPointerException if the given path and/or node kind is <code>null</code>.
+	 * @throws IllegalArgumentException if the given revision is negative.
+	 */
+	public void putNodeKind(final String path, final long revision, final SVNNodeKind nodeKind) {
+		put(new Key(Key.Type.NODE_KIND, path, revision), requireNonNull(nodeKind, "Node kind cannot be null."));
+	}
+
+	/**
+	 * Retrieves the cached directory entries of the children of the given path.
+	 * @param path The decoded path of the directory relative to the repository.
+	 * @param revision The revision of the directory.
+	 * @return Copies of the cached child directory entries, or <code>null</code> if the directory listing is not cached.
+	 * @throws NullPointerException if the given path is <code>null</code>.
+	 * @throws IllegalArgumentException if the given revision is negative.
+	 */
+	public List<SVNDirEntry> getDirEntries(final String path, final long revision) {
+		@SuppressWarnings("unchecked")
+		final List<SVNDirEntry> dirEntries = (List<SVNDirEntry>)get(new Key(Key.Type.DIR_ENTRIES, path, revision));
+		return dirEntries != null ? copy(dirEntries) : null;
+	}
+
+	/**
+	 * Caches copies of the directory entries of the children of the given path.
+	 * @param path The decoded path of the directory relative to the repository.
+	 * @param revision The revision of the directory.
+	 * @param dirEntries The child directory entries.
+	 * @throws NullPointerException if the given path and/or directory entries is <code>null</code>.
+	 * @throws IllegalArgumentException if the given revision is negative.
+	 */
+	public void putDirEntries(final String path, final long revision, final Collection<SVNDirEntry> dirEntries) {
+		put(new Key(Key.Type.DIR_ENTRIES, path, revision), unmodifiableList(copy(dirEntries)));
+	}
+
+	/**
+	 * Retrieves a copy of the cached description of the resource at the given path.
+	 * @param path The decoded path of the resource relative to the repository.
+	 * @param revision The revision of the resource.
+	 * @return A copy of the cached description of the resource, or <code>null</code> if no description is cached.
+	 * @throws NullPointerException if the given path is <code>null</code>.
+	 * @throws IllegalArgumentException if the given revision is negative.
+	 */
+	public URFResource getResourceDescription(final String path, final long revision) {
+		final URFResource resourceDescription = (URFResource)get(new Key(Key.Type.RESOURCE_DESCRIPTION, path, revision));
+		return resourceDescription != null ? copy(resourceDescription) : null;
+	}
+
+	/**
+	 * Caches a copy of the description of the resource at the given path.
+	 * @param path The decoded path of the resource relative to the repository.
+	 * @param revision The revision of the resource.
+	 * @param resourceDescription The description of the resource.
+	 * @throws NullPointerException if the given path and/or resource description is <code>null</code>.
+	 * @throws IllegalArgumentException if the given revision is negative.
+	 */
+	public void putResourceDescription(final String path, final long revision, final URFResource resourceDescription) {
+		put(new Key(Key.Type.RESOURCE_DESCRIPTION, path, revision), copy(resourceDescription));
+	}
+
+	/**
+	 * Retrieves a cached value, updating the cache statistics.
+	 * @param key The key of the value.
+	 * @return The cached value, or <code>null</code> if no value is cached for the key.
+	 */
+	protected synchronized Object get(final Key key) {
+		final Object value = entries.get(key);
+		if(value != null) {
+			++hitCount;
+		} else {
+			++missCount;
+		}
+		return value;
+	}
+
+	/**
+	 * Caches a value, replacing any value already cached for the key.
+	 * @param key The key of the value.
+	 * @param value The value to cache.
+	 */
+	protected synchronized void put(final Key key, final Object value) {
+		entries.put(key, value);
+	}
+
+	/** Removes all cached entries. Removed entries are not counted as evictions. */
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * Creates a deep copy of a resource description, including the descriptions of its property values.
+	 * @param resourceDescription The resource description to copy.
+	 * @return A copy of the given resource description.
+	 * @see Repositories#copyResourceDescription(URFResource)
+	 */
+	protected static URFResource copy(final URFResource resourceDescription) {
+		return Repositories.copyResourceDescription(resourceDescription);
+	}
+
+	/**
+	 * Creates copies of directory entries.
+	 * @param dirEntries The directory entries to copy.
+	 * @return A new list containing copies of the given directory entries.
+	 */
+	protected static List<SVNDirEntry> copy(final Collection<SVNDirEntry> dirEntries) {
+		final List<SVNDirEntry> dirEntriesCopy = new ArrayList<SVNDirEntry>(dirEntries.size());
+		for(final SVNDirEntry dirEntry : dirEntries) {
+			dirEntriesCopy.add(copy(dirEntry));
+		}
+		return dirEntriesCopy;
+	}
+
+	/**
+	 * Creates a copy of a directory entry, including its relative path and lock, which can be changed after the entry is created.
+	 * @param dirEntry The directory entry to copy.
+	 * @return A copy of the given directory entry.
+	 */
+	protected static SVNDirEntry copy(final SVNDirEntry dirEntry) {
+		final Date date = dirEntry.getDate();
+		final SVNDirEntry dirEntryCopy = new SVNDirEntry(dirEntry.getURL(), dirEntry.getRepositoryRoot(), dirEntry.getName(), dirEntry.getKind(),
+				dirEntry.getSize(), dirEntry.hasProperties(), dirEntry.getRevision(), date != null ? new Date(date.getTime()) : null, dirEntry.getAuthor(),
+				dirEntry.getCommitMessage());
+		dirEntryCopy.setRelativePath(dirEntry.getRelativePath());
+		dirEntryCopy.setLock(dirEntry.getLock()); //locks are immutable
+		return dirEntryCopy;
+	}
+
+	/**
+	 * The key of a cache entry, identifying the type of information along with the path and revision of the node.
+	 * @author Garret Wilson
+	 */
+	protected static class Key {
+
+		/** The type of information cached. */
+		public enum Type {
+			/** The kind of node. */
+			NODE_KIND,
+			/** The directory entries of the children of a directory. */
+			DIR_ENTRIES,
+			/** The description of the resource represented by the node. */
+			RESOURCE_DESCRIPTION
+		}
+
+		/** The type of information cached. */
+		private final Type type;
+
+		/** The decoded path of the node relative to the repository. */
+		private final String path;
+
+		/** The revision of the node. */
+		private final long revision;
+
+		/**
+		 * Constructor.
+		 * @param type The type of information cached.
+		 * @param path The decoded path of the node relative to the repository.
+		 * @param revision The revision of the node.
+		 * @throws NullPointerException if the given type and/or path is <code>null</code>.
+		 * @throws IllegalArgumentException if the given revision is negative.
+		 */
+		public Key(final Type type, final String path, final long revision) {
+			this.type = requireNonNull(type, "Type cannot be null.");
+			this.path = requireNonNull(path, "Path cannot be null.");
+			checkArgument(revision >= 0, "Invalid revision {0}.", revision);
+			this.revision = revision;
+		}
+
+		@Override
+		public int hashCode() {
+			return (type.hashCode() * 31 + path.hashCode()) * 31 + (int)(revision ^ (revision >>> 32));
+		}
+
+		@Override
+		public boolean equals(final Object object) {
+			if(this == object) {
+				return true;
+			}
+			if(!(object instanceof Key)) {
+				return false;
+			}
+			final Key key = (Key)object;
+			return type == key.type && revision == key.revision && path.equals(key.path);
+		}
+	}
+
+}
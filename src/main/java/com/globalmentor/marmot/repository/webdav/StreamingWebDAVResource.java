@@ -0,0 +1,655 @@
+/*
+ * Copyright © 2013 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.marmot.repository.webdav;
+
+import java.io.*;
+import java.net.*;
+import java.nio.*;
+import java.util.*;
+
+import javax.xml.parsers.*;
+import javax.xml.stream.*;
+
+import static java.nio.charset.StandardCharsets.*;
+import static java.util.Objects.*;
+import static javax.xml.stream.XMLStreamConstants.*;
+
+import static com.globalmentor.net.URIs.*;
+
+import com.globalmentor.marmot.repository.http.HTTPRetryPolicy;
+import com.globalmentor.model.NameValuePair;
+import com.globalmentor.net.http.*;
+import com.globalmentor.net.http.webdav.*;
+
+import org.w3c.dom.*;
+
+/**
+ * A WebDAV resource that can report the results of a <code>PROPFIND</code> one resource at a time as the multistatus response is being read.
+ * <p>
+ * Rather than building a document for the entire multistatus response, the response is parsed incrementally using StAX, so that memory use is bounded by the
+ * size of the properties of a single resource, and the traversal can be stopped early. The list-returning {@link #propFind(Depth)} uses the same parser, so
+ * that no document is built for a multistatus response.
+ * </p>
+ * <p>
+ * Only properties reported with a <code>200</code> status are reported. A property with only text content is reported as a
+ * {@link WebDAVLiteralPropertyValue}; a property containing elements is reported as a {@link WebDAVDocumentFragmentPropertyValue}. Because some servers omit
+ * the trailing slash from the <code>href</code> of a collection, the URI of a resource reported as a collection is always given as a collection URI.
+ * </p>
+ * <p>
+ * Content can also be uploaded as it is written using {@link #getOutputStream(long, int)}, rather than being collected in its entirety before being sent.
+ * </p>
+ * <p>
+ * If a retry policy is set, the idempotent <code>HEAD</code>, <code>GET</code>, and <code>PROPFIND</code> requests made by {@link #exists()},
+ * {@link #getInputStream()}, and the <code>propFind()</code> methods are retried after transient errors. Streamed uploads are not retried, but are subject to
+ * the circuit breaker of the policy.
+ * </p>
+ * @author Garret Wilson
+ * @see <a href="http://tools.ietf.org/html/rfc4918">RFC 4918: HTTP Extensions for Web Distributed Authoring and Versioning (WebDAV)</a>
+ */
+public class StreamingWebDAVResource extends WebDAVResource {
+
+	/** The WebDAV <code>PROPFIND</code> method. */
+	public static final String PROPFIND_METHOD = "PROPFIND";
+
+	/** The header for indicating the depth of a WebDAV request. */
+	public static final String DEPTH_HEADER = "Depth";
+
+	/** The default size of the buffer used when streaming content. */
+	public static final int DEFAULT_STREAMING_BUFFER_SIZE = 64 * 1024;
+
+	/** The namespace of the WebDAV elements. */
+	private static final String WEBDAV_NAMESPACE_URI = "DAV:";
+
+	/** The shared factory for parsing multistatus responses; once configured, a factory may be used concurrently to create readers. */
+	private static final XMLInputFactory XML_INPUT_FACTORY;
+
+	static {
+		XML_INPUT_FACTORY = XMLInputFactory.newInstance();
+		XML_INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE); //don't process DTDs or external entities
+		XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+	}
+
+	/**
+	 * A visitor of the properties of resources reported in a multistatus response.
+	 * @author Garret Wilson
+	 */
+	public interface PropertiesVisitor {
+
+		/**
+		 * Visits the properties of a single resource.
+		 * @param resourceURI The URI of the resource.
+		 * @param properties The properties of the resource.
+		 * @return <code>true</code> if the remaining resources should be visited, or <code>false</code> if the traversal should stop.
+		 * @throws IOException if there is an error processing the properties.
+		 */
+		public boolean visit(final URI resourceURI, final Map<WebDAVPropertyName, WebDAVProperty> properties) throws IOException;
+
+	}
+
+	/**
+	 * Reference URI, client, and password authentication constructor.
+	 * @param referenceURI The reference URI for the new resource.
+	 * @param client The HTTP client used to create a connection to this resource.
+	 * @param passwordAuthentication The password authentication being used, or <code>null</code> if no password authentication is given.
+	 * @throws NullPointerException if the given reference URI and/or client is <code>null</code>.
+	 */
+	public StreamingWebDAVResource(final URI referenceURI, final HTTPClient client, final PasswordAuthentication passwordAuthentication) {
+		super(referenceURI, client, passwordAuthentication);
+		this.passwordAuthentication = passwordAuthentication;
+	}
+
+	/** The password authentication being used, or <code>null</code> if no password authentication is given. */
+	private final PasswordAuthentication passwordAuthentication;
+
+	/** The policy for retrying idempotent requests, or <code>null</code> if requests should not be retried. */
+	private volatile HTTPRetryPolicy retryPolicy = null;
+
+	/** @return The policy for retrying idempotent requests, or <code>null</code> if requests are not retried. */
+	public HTTPRetryPolicy getRetryPolicy() {
+		return retryPolicy;
+	}
+
+	/**
+	 * Sets the policy for retrying idempotent requests.
+	 * @param retryPolicy The policy for retrying idempotent requests, or <code>null</code> if requests should not be retried.
+	 */
+	public void setRetryPolicy(final HTTPRetryPolicy retryPolicy) {
+		this.retryPolicy = retryPolicy;
+	}
+
+	/**
+	 * Sends an idempotent request using the retry policy, if any.
+	 * @param <T> The type of result of the request.
+	 * @param request The idempotent request to send.
+	 * @return The result of the request.
+	 * @throws IOException if there was an error sending the request, after any retries.
+	 * @see #getRetryPolicy()
+	 */
+	protected <T> T sendIdempotent(final HTTPRetryPolicy.Request<T> request) throws IOException {
+		final HTTPRetryPolicy retryPolicy = getRetryPolicy();
+		return retryPolicy != null ? retryPolicy.send(getURI(), request) : request.send();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This version retries the request according to the retry policy, if any.
+	 * </p>
+	 */
+	@Override
+	public boolean exists() throws IOException {
+		return sendIdempotent(new HTTPRetryPolicy.Request<Boolean>() {
+
+			@Override
+			public Boolean send() throws IOException {
+				return StreamingWebDAVResource.super.exists();
+			}
+		});
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This version retries the request according to the retry policy, if any. Only the request is retried; an error while reading the returned stream is
+	 * reported to the reader.
+	 * </p>
+	 */
+	@Override
+	public InputStream getInputStream() throws IOException {
+		return sendIdempotent(new HTTPRetryPolicy.Request<InputStream>() {
+
+			@Override
+			public InputStream send() throws IOException {
+				return StreamingWebDAVResource.super.getInputStream();
+			}
+		});
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This version retries the request according to the retry policy, if any.
+	 * </p>
+	 */
+	@Override
+	public Map<WebDAVPropertyName, WebDAVProperty> propFind() throws IOException {
+		return sendIdempotent(new HTTPRetryPolicy.Request<Map<WebDAVPropertyName, WebDAVProperty>>() {
+
+			@Override
+			public Map<WebDAVPropertyName, WebDAVProperty> send() throws IOException {
+				return StreamingWebDAVResource.super.propFind();
+			}
+		});
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This version parses the response incrementally rather than building a document for the entire response, and retries the request according to the retry
+	 * policy, if any.
+	 * </p>
+	 */
+	@Override
+	public List<NameValuePair<URI, Map<WebDAVPropertyName, WebDAVProperty>>> propFind(final Depth depth) throws IOException {
+		return sendIdempotent(new HTTPRetryPolicy.Request<List<NameValuePair<URI, Map<WebDAVPropertyName, WebDAVProperty>>>>() {
+
+			@Override
+			public List<NameValuePair<URI, Map<WebDAVPropertyName, WebDAVProperty>>> send() throws IOException {
+				final List<NameValuePair<URI, Map<WebDAVPropertyName, WebDAVProperty>>> propertyMaps = new ArrayList<NameValuePair<URI, Map<WebDAVPropertyName, WebDAVProperty>>>(); //a retry starts with a new list
+				sendPropFind(depth, new PropertiesVisitor() {
+
+					@Override
+					public boolean visit(final URI resourceURI, final Map<WebDAVPropertyName, WebDAVProperty> properties) {
+						propertyMaps.add(new NameValuePair<URI, Map<WebDAVPropertyName, WebDAVProperty>>(resourceURI, properties));
+						return true;
+					}
+				});
+				return propertyMaps;
+			}
+		});
+	}
+
+	/**
+	 * Retrieves an output stream that uploads content to this resource using a <code>PUT</code> request as the content is written. If the content length is
+	 * known, it is sent in the <code>Content-Length</code> header; otherwise the content is sent using chunked transfer encoding. Only a buffer of the given size
+	 * is held in memory. The request is completed when the output stream is closed.
+	 * <p>
+	 * Because the content cannot be resent, any password authentication is sent preemptively using HTTP <code>Basic</code> authentication; servers requiring
+	 * other authentication schemes should use the buffered {@link #getOutputStream()} instead.
+	 * </p>
+	 * <p>
+	 * The HTTP client only sends request bodies that are already in memory, so the request is sent using a connection opened by {@link #openConnection()}. If a
+	 * retry policy is set, the request is not retried, but it is refused if the circuit for the host is open, and its outcome is recorded by the circuit breaker.
+	 * </p>
+	 * @param contentLength The exact number of bytes that will be written, or <code>-1</code> if the content length is not known. If a length is given, writing
+	 *          more bytes or closing the stream after writing fewer bytes results in an error.
+	 * @param bufferSize The size of the buffer, which is also the size of each chunk if chunked transfer encoding is used.
+	 * @return An output stream for writing the content of the resource.
+	 * @throws IllegalArgumentException if the given buffer size is not positive.
+	 * @throws IOException if there was an error opening the connection.
+	 */
+	public OutputStream getOutputStream(final long contentLength, final int bufferSize) throws IOException {
+		if(bufferSize <= 0) {
+			throw new IllegalArgumentException("Invalid buffer size: " + bufferSize);
+		}
+		final HTTPRetryPolicy retryPolicy = getRetryPolicy();
+		final HTTPRetryPolicy.Attempt attempt = retryPolicy != null ? retryPolicy.beginAttempt(getURI()) : null; //the upload can't be retried, but it can still be subject to the circuit breaker
+		final HttpURLConnection connection;
+		final OutputStream connectionOutputStream;
+		try {
+			connection = openConnection();
+			connection.setRequestMethod("PUT");
+			connection.setDoOutput(true);
+			if(contentLength >= 0) { //if we know how much content there will be
+				connection.setFixedLengthStreamingMode(contentLength);
+			} else { //if we don't know the length of the content
+				connection.setChunkedStreamingMode(bufferSize);
+			}
+			if(passwordAuthentication != null) { //send credentials before the content, as they can't be sent afterwards in response to a challenge
+				connection.setRequestProperty("Authorization", "Basic " + createBasicCredentials(passwordAuthentication));
+			}
+			connectionOutputStream = connection.getOutputStream(); //connect and send the request headers
+		} catch(final IOException ioException) {
+			if(attempt != null) {
+				attempt.failed(ioException);
+			}
+			throw ioException;
+		}
+		return new BufferedOutputStream(connectionOutputStream, bufferSize) {
+
+			/**
+			 * {@inheritDoc}
+			 * <p>
+			 * This version records any error with the circuit breaker.
+			 * </p>
+			 */
+			@Override
+			public synchronized void write(final int b) throws IOException {
+				try {
+					super.write(b);
+				} catch(final IOException ioException) {
+					if(attempt != null) {
+						attempt.failed(ioException);
+					}
+					throw ioException;
+				}
+			}
+
+			/**
+			 * {@inheritDoc}
+			 * <p>
+			 * This version records any error with the circuit breaker.
+			 * </p>
+			 */
+			@Override
+			public synchronized void write(final byte[] b, final int off, final int len) throws IOException {
+				try {
+					super.write(b, off, len);
+				} catch(final IOException ioException) {
+					if(attempt != null) {
+						attempt.failed(ioException);
+					}
+					throw ioException;
+				}
+			}
+
+			/** Whether the stream has been closed. */
+			private boolean closed = false;
+
+			/**
+			 * {@inheritDoc}
+			 * <p>
+			 * This version completes the request and checks the response status.
+			 * </p>
+			 * @throws IOException if the server did not accept the content.
+			 */
+			@Override
+			public void close() throws IOException {
+				if(closed) {
+					return;
+				}
+				closed = true;
+				boolean isCompleted = false;
+				try {
+					super.close(); //send any remaining content and finish the request
+					final int statusCode = connection.getResponseCode();
+					if(statusCode < 200 || statusCode >= 300) { //if the content wasn't stored
+						throw new IOException("Error storing content of " + getURI() + ": " + statusCode + " " + connection.getResponseMessage());
+					}
+					final InputStream responseInputStream = connection.getInputStream();
+					try {
+						final byte[] buffer = new byte[1024];
+						while(responseInputStream.read(buffer) >= 0) {} //read any response body, as the connection can only be kept alive for other requests once the response has been read
+					} finally {
+						responseInputStream.close();
+					}
+					isCompleted = true;
+					if(attempt != null) {
+						attempt.succeeded();
+					}
+				} catch(final IOException ioException) {
+					if(attempt != null) {
+						attempt.failed(ioException);
+					}
+					throw ioException;
+				} finally {
+					if(!isCompleted) { //if the request failed, the connection can't be reused
+						connection.disconnect(); //this closes the underlying connection rather than returning it to the keep-alive cache
+					}
+				}
+			}
+		};
+	}
+
+	/**
+	 * Opens a connection for a request that streams its content. The connection is opened using the Java URL handlers, which use the system proxy selector and,
+	 * for HTTPS, the default SSL socket factory and host name verifier.
+	 * <p>
+	 * Subclasses may override this method to configure the connection in the same manner as the HTTP client, such as using a specific proxy, SSL configuration,
+	 * or timeouts.
+	 * </p>
+	 * @return A new, unconnected HTTP connection to this resource.
+	 * @throws IOException if there was an error opening the connection or the resource is not an HTTP resource.
+	 */
+	protected HttpURLConnection openConnection() throws IOException {
+		final URLConnection connection = getURI().toURL().openConnection();
+		if(!(connection instanceof HttpURLConnection)) {
+			throw new IOException("Cannot stream content to non-HTTP resource " + getURI() + ".");
+		}
+		connection.setUseCaches(false);
+		return (HttpURLConnection)connection;
+	}
+
+	/**
+	 * Creates the credentials for HTTP <code>Basic</code> authentication, encoded in base64. Intermediate copies of the password are erased; the password of the
+	 * given password authentication is left intact.
+	 * @param passwordAuthentication The password authentication.
+	 * @return The base64 encoding of the user name and password.
+	 */
+	protected static String createBasicCredentials(final PasswordAuthentication passwordAuthentication) {
+		final char[] password = passwordAuthentication.getPassword().clone(); //the password authentication returns its own array, which must not be erased, so make a copy
+		final char[] userPass = new char[passwordAuthentication.getUserName().length() + 1 + password.length];
+		passwordAuthentication.getUserName().getChars(0, passwordAuthentication.getUserName().length(), userPass, 0);
+		userPass[passwordAuthentication.getUserName().length()] = ':';
+		System.arraycopy(password, 0, userPass, passwordAuthentication.getUserName().length() + 1, password.length);
+		final ByteBuffer userPassBuffer = UTF_8.encode(CharBuffer.wrap(userPass));
+		final byte[] userPassBytes = new byte[userPassBuffer.remaining()];
+		userPassBuffer.get(userPassBytes);
+		try {
+			return Base64.getEncoder().encodeToString(userPassBytes);
+		} finally {
+			Arrays.fill(password, (char)0);
+			Arrays.fill(userPass, (char)0);
+			Arrays.fill(userPassBytes, (byte)0);
+			if(userPassBuffer.hasArray()) {
+				Arrays.fill(userPassBuffer.array(), (byte)0);
+			}
+		}
+	}
+
+	/**
+	 * Retrieves all the properties of this resource and its descendants to the given depth using a <code>PROPFIND</code> request, visiting the properties of
+	 * each resource as the response is read. An empty request body is sent, which is equivalent to an <code>allprop</code> request.
+	 * <p>
+	 * If a retry policy is set, the request is retried after a transient error only if no resources have yet been visited.
+	 * </p>
+	 * @param depth The depth of the request.
+	 * @param visitor The visitor to receive the properties of each resource.
+	 * @return <code>true</code> if all the resources were visited, or <code>false</code> if the visitor stopped the traversal.
+	 * @throws NullPointerException if the given depth and/or visitor is <code>null</code>.
+	 * @throws IOException if there was an error invoking the method or reading the response.
+	 */
+	public boolean propFind(final Depth depth, final PropertiesVisitor visitor) throws IOException {
+		requireNonNull(visitor, "Visitor cannot be null.");
+		final boolean[] isVisited = new boolean[] { false }; //keep track of whether the visitor has seen any resources
+		final PropertiesVisitor trackingVisitor = new PropertiesVisitor() {
+
+			@Override
+			public boolean visit(final URI resourceURI, final Map<WebDAVPropertyName, WebDAVProperty> properties) throws IOException {
+				isVisited[0] = true;
+				return visitor.visit(resourceURI, properties);
+			}
+		};
+		return sendIdempotent(new HTTPRetryPolicy.Request<Boolean>() {
+
+			@Override
+			public Boolean send() throws IOException {
+				try {
+					return sendPropFind(depth, trackingVisitor);
+				} catch(final IOException ioException) {
+					if(isVisited[0]) { //once resources have been visited, the request can no longer be retried without visiting them again
+						throw new HTTPRetryPolicy.UnrepeatableRequestException("Error reading " + PROPFIND_METHOD + " response after resources were visited: "
+								+ ioException.getMessage(), ioException);
+					}
+					throw ioException;
+				}
+			}
+		});
+	}
+
+	/**
+	 * Sends a <code>PROPFIND</code> request and visits the properties of each resource as the response is read.
+	 * @param depth The depth of the request.
+	 * @param visitor The visitor to receive the properties of each resource.
+	 * @return <code>true</code> if all the resources were visited, or <code>false</code> if the visitor stopped the traversal.
+	 * @throws IOException if there was an error invoking the method or reading the response.
+	 */
+	protected boolean sendPropFind(final Depth depth, final PropertiesVisitor visitor) throws IOException {
+		final HTTPRequest request = new DefaultHTTPRequest(PROPFIND_METHOD, getURI()); //create a PROPFIND request
+		request.setHeader(DEPTH_HEADER, getDepthHeaderValue(depth)); //indicate the depth
+		final HTTPResponse response = sendRequest(request);
+		final InputStream inputStream = response.getBodyInputStream(); //get the body of the response
+		try {
+			return visitMultistatus(inputStream, visitor);
+		} finally {
+			inputStream.close(); //if the traversal was stopped, this abandons the rest of the response
+		}
+	}
+
+	/**
+	 * Determines the value of the <code>Depth</code> header for the given depth.
+	 * @param depth The depth of a request.
+	 * @return The depth header value: <code>0</code>, <code>1</code>, or <code>infinity</code>.
+	 * @throws NullPointerException if the given depth is <code>null</code>.
+	 */
+	public static String getDepthHeaderValue(final Depth depth) {
+		return requireNonNull(depth, "Depth cannot be null.") == Depth.INFINITY ? "infinity" : Integer.toString(depth.ordinal()); //finite depths are ordered by value
+	}
+
+	/**
+	 * Parses a multistatus document, visiting the properties of each resource as its response is read.
+	 * @param inputStream The input stream containing the multistatus document.
+	 * @param visitor The visitor to receive the properties of each resource.
+	 * @return <code>true</code> if all the resources were visited, or <code>false</code> if the visitor stopped the traversal.
+	 * @throws IOException if there was an error reading or parsing the document.
+	 */
+	protected boolean visitMultistatus(final InputStream inputStream, final PropertiesVisitor visitor) throws IOException {
+		final Document document; //the document used to hold the elements of complex property values
+		try {
+			final DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
+			documentBuilderFactory.setNamespaceAware(true);
+			document = documentBuilderFactory.newDocumentBuilder().newDocument();
+		} catch(final ParserConfigurationException parserConfigurationException) {
+			throw new IOException(parserConfigurationException);
+		}
+		try {
+			final XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(inputStream);
+			try {
+				while(reader.hasNext()) {
+					if(reader.next() == START_ELEMENT && isWebDAVElement(reader, "response")) { //D:response
+						final Map<WebDAVPropertyName, WebDAVProperty> properties = new HashMap<WebDAVPropertyName, WebDAVProperty>();
+						URI resourceURI = readResponse(reader, document, properties);
+						if(resourceURI != null) {
+							if(!isCollectionURI(resourceURI) && WebDAVRepository.isCollection(properties)) { //if the server left the trailing slash off a collection
+								resourceURI = toCollectionURI(resourceURI);
+							}
+							if(!visitor.visit(resourceURI, properties)) { //visit the resource; if we should stop traversal
+								return false;
+							}
+						}
+					}
+				}
+				return true;
+			} finally {
+				reader.close();
+			}
+		} catch(final XMLStreamException xmlStreamException) {
+			throw new IOException(xmlStreamException);
+		}
+	}
+
+	/**
+	 * Reads a single <code>D:response</code> element, gathering the properties reported with a <code>200</code> status.
+	 * @param reader The reader, positioned at the start of the response element; on return, positioned at the end of the element.
+	 * @param document The document for creating the elements of complex property values.
+	 * @param properties The map to receive the properties.
+	 * @return The URI of the resource, or <code>null</code> if the response did not identify a resource.
+	 * @throws XMLStreamException if there was an error parsing the response.
+	 */
+	protected URI readResponse(final XMLStreamReader reader, final Document document, final Map<WebDAVPropertyName, WebDAVProperty> properties)
+			throws XMLStreamException {
+		URI resourceURI = null;
+		while(reader.nextTag() == START_ELEMENT) { //look at each child of the response
+			if(isWebDAVElement(reader, "href")) { //D:href
+				resourceURI = getURI().resolve(reader.getElementText().trim()); //references may be relative to the request URI
+			} else if(isWebDAVElement(reader, "propstat")) { //D:propstat
+				final Map<WebDAVPropertyName, WebDAVProperty> propStatProperties = new HashMap<WebDAVPropertyName, WebDAVProperty>();
+				boolean isOK = false;
+				while(reader.nextTag() == START_ELEMENT) { //look at each child of the property status
+					if(isWebDAVElement(reader, "prop")) { //D:prop
+						while(reader.nextTag() == START_ELEMENT) { //look at each property
+							final WebDAVPropertyName propertyName = new WebDAVPropertyName(reader.getNamespaceURI() != null ? reader.getNamespaceURI() : "",
+									reader.getLocalName());
+							propStatProperties.put(propertyName, new WebDAVProperty(propertyName, readPropertyValue(reader, document)));
+						}
+					} else if(isWebDAVElement(reader, "status")) { //D:status
+						final String status = reader.getElementText().trim(); //e.g. "HTTP/1.1 200 OK"
+						final int codeBegin = status.indexOf(' ') + 1;
+						isOK = status.startsWith("200", codeBegin);
+					} else { //ignore other elements such as D:responsedescription
+						skipElement(reader);
+					}
+				}
+				if(isOK) { //only use properties that were successfully retrieved
+					properties.putAll(propStatProperties);
+				}
+			} else { //ignore other elements such as D:status and D:responsedescription
+				skipElement(reader);
+			}
+		}
+		return resourceURI;
+	}
+
+	/**
+	 * Reads the value of a property.
+	 * @param reader The reader, positioned at the start of the property element; on return, positioned at the end of the element.
+	 * @param document The document for creating the elements of a complex property value.
+	 * @return A literal value if the property only has text content, or a document fragment value if the property contains elements.
+	 * @throws XMLStreamException if there was an error parsing the property.
+	 */
+	protected WebDAVPropertyValue readPropertyValue(final XMLStreamReader reader, final Document document) throws XMLStreamException {
+		final StringBuilder text = new StringBuilder();
+		DocumentFragment documentFragment = null;
+		int eventType;
+		while((eventType = reader.next()) != END_ELEMENT) {
+			switch(eventType) {
+				case START_ELEMENT:
+					if(documentFragment == null) {
+						documentFragment = document.createDocumentFragment();
+						if(text.length() > 0) {
+							documentFragment.appendChild(document.createTextNode(text.toString()));
+						}
+					}
+					documentFragment.appendChild(readElement(reader, document));
+					break;
+				case CHARACTERS:
+				case CDATA:
+				case SPACE:
+				case ENTITY_REFERENCE:
+					if(documentFragment != null) {
+						documentFragment.appendChild(document.createTextNode(reader.getText()));
+					} else {
+						text.append(reader.getText());
+					}
+					break;
+			}
+		}
+		return documentFragment != null ? new WebDAVDocumentFragmentPropertyValue(documentFragment) : new WebDAVLiteralPropertyValue(text.toString());
+	}
+
+	/**
+	 * Reads an element and its content into a DOM element.
+	 * @param reader The reader, positioned at the start of the element; on return, positioned at the end of the element.
+	 * @param document The document for creating the element.
+	 * @return The element read.
+	 * @throws XMLStreamException if there was an error parsing the element.
+	 */
+	protected static Element readElement(final XMLStreamReader reader, final Document document) throws XMLStreamException {
+		final String prefix = reader.getPrefix();
+		final String localName = reader.getLocalName();
+		final Element element = document.createElementNS(reader.getNamespaceURI(), prefix != null && !prefix.isEmpty() ? prefix + ':' + localName : localName);
+		for(int i = 0; i < reader.getAttributeCount(); ++i) {
+			final String attributePrefix = reader.getAttributePrefix(i);
+			final String attributeLocalName = reader.getAttributeLocalName(i);
+			element.setAttributeNS(reader.getAttributeNamespace(i), attributePrefix != null && !attributePrefix.isEmpty() ? attributePrefix + ':'
+					+ attributeLocalName : attributeLocalName, reader.getAttributeValue(i));
+		}
+		int eventType;
+		while((eventType = reader.next()) != END_ELEMENT) {
+			switch(eventType) {
+				case START_ELEMENT:
+					element.appendChild(readElement(reader, document));
+					break;
+				case CHARACTERS:
+				case CDATA:
+				case SPACE:
+				case ENTITY_REFERENCE:
+					element.appendChild(document.createTextNode(reader.getText()));
+					break;
+			}
+		}
+		return element;
+	}
+
+	/**
+	 * Skips the current element and all its content.
+	 * @param reader The reader, positioned at the start of the element; on return, positioned at the end of the element.
+	 * @throws XMLStreamException if there was an error parsing the element.
+	 */
+	protected static void skipElement(final XMLStreamReader reader) throws XMLStreamException {
+		int level = 1;
+		while(level > 0) {
+			final int eventType = reader.next();
+			if(eventType == START_ELEMENT) {
+				++level;
+			} else if(eventType == END_ELEMENT) {
+				--level;
+			}
+		}
+	}
+
+	/**
+	 * Determines whether the reader is positioned at a WebDAV element with the given local name.
+	 * @param reader The reader.
+	 * @param localName The local name of the WebDAV element.
+	 * @return <code>true</code> if the current element is in the <code>DAV:</code> namespace and has the given local name.
+	 */
+	private static boolean isWebDAVElement(final XMLStreamReader reader, final String localName) {
+		return WEBDAV_NAMESPACE_URI.equals(reader.getNamespaceURI()) && localName.equals(reader.getLocalName());
+	}
+
+}
@@ -97,6 +97,9 @@ protected Repository createSubrepository(final URI publicRepositoryURI, final UR
 		final SubversionWebDAVRepository repository = new SubversionWebDAVRepository(publicRepositoryURI, privateRepositoryURI, getHTTPClient()); //create a new repository
 		repository.setUsername(getUsername()); //transfer authentication info
 		repository.setPassword(getPassword()); //transfer authentication info
+		repository.setMaxIdleWebDAVResources(getMaxIdleWebDAVResources()); //transfer the resource reuse setting
+		repository.setStreamingUploadBufferSize(getStreamingUploadBufferSize()); //transfer the upload setting
+		repository.setRetryPolicy(getRetryPolicy()); //share the retry policy, so that requests to the same host share circuit breakers
 		return repository; //return the new repository
 	}
 
@@ -20,6 +20,7 @@
 import java.net.*;
 import java.text.DateFormat;
 import java.util.*;
+import java.util.concurrent.*;
 
 import static java.util.Arrays.*;
 import static java.util.Collections.*;
@@ -29,6 +30,7 @@
 import static org.urframework.dcmi.DCMI.*;
 
 import static com.globalmentor.java.Bytes.*;
+import static com.globalmentor.java.Conditions.*;
 import static com.globalmentor.model.Locales.*;
 import static com.globalmentor.net.URIs.*;
 import static com.globalmentor.net.http.webdav.WebDAV.*;
@@ -42,6 +44,9 @@
 import com.globalmentor.log.Log;
 import com.globalmentor.marmot.Marmot;
 import com.globalmentor.marmot.repository.*;
+import com.globalmentor.marmot.repository.http.ConditionalHTTPResource;
+import com.globalmentor.marmot.repository.http.HTTPRetryPolicy;
+import com.globalmentor.marmot.repository.http.RangeHTTPResource;
 import com.globalmentor.model.NameValuePair;
 import com.globalmentor.net.*;
 import com.globalmentor.net.http.*;
@@ -86,8 +91,6 @@ public class WebDAVRepository extends AbstractHierarchicalSourceRepository {
 	/** The URI to the Marmot WebDAV repository namespace. */
 	public static final URI MARMOT_WEBDAV_REPOSITORY_NAMESPACE_URI = Marmot.NAMESPACE_URI.resolve("repository/webdav/");
 
-	//TODO the current technique of erasing the password after each call may become obsolete when the HTTP client supports persistent connections
-
 	/** The extension used for directories to hold resource children. */
 	//TODO move if needed	protected static final String DIRECTORY_EXTENSION="@";	//TODO promote to parent file-based class
 
@@ -185,6 +188,10 @@ protected Repository createSubrepository(final URI publicRepositoryURI, final UR
 		final WebDAVRepository repository = new WebDAVRepository(publicRepositoryURI, privateRepositoryURI, getHTTPClient()); //create a new repository
 		repository.setUsername(getUsername()); //transfer authentication info
 		repository.setPassword(getPassword()); //transfer authentication info
+		repository.setMaxIdleWebDAVResources(getMaxIdleWebDAVResources()); //transfer the resource reuse setting
+		repository.setAlterationConcurrency(getAlterationConcurrency()); //transfer the alteration concurrency setting
+		repository.setStreamingUploadBufferSize(getStreamingUploadBufferSize()); //transfer the upload setting
+		repository.setRetryPolicy(getRetryPolicy()); //share the retry policy, so that requests to the same host share circuit breakers
 		return repository; //return the new repository
 	}
 
@@ -291,6 +298,7 @@ public String getUsername() {
 	 */
 	public void setUsername(final String username) {
 		this.username = username;
+		resetSharedPasswordAuthentication(); //the shared authentication no longer reflects the credentials
 	}
 
 	/** The password to use in accessing the repository, or <code>null</code> if no password is specified. */
@@ -307,6 +315,7 @@ public char[] getPassword() {
 	 */
 	public void setPassword(final char[] password) {
 		this.password = password;
+		resetSharedPasswordAuthentication(); //the shared authentication no longer reflects the credentials
 	}
 
 	/**
@@ -321,6 +330,188 @@ protected PasswordAuthentication getPasswordAuthentication() {
 		return username != null && password != null ? new PasswordAuthentication(username, password) : null; //return new password authentication if this information is available
 	}
 
+	/** The password authentication shared among all WebDAV resources created by this repository, or <code>null</code> if it has not yet been created. */
+	private PasswordAuthentication sharedPasswordAuthentication = null;
+
+	/**
+	 * Returns the password authentication shared among all WebDAV resources created by this repository. The shared password authentication is created when
+	 * first needed and is replaced when the credentials change. Its password is never erased, as resources and streams created earlier may still be using it;
+	 * callers must not modify the returned password authentication.
+	 * @return A password authentication object with the repository's username and password, or <code>null</code> if no username and password are specified.
+	 * @see #getPasswordAuthentication()
+	 */
+	protected synchronized PasswordAuthentication getSharedPasswordAuthentication() {
+		if(sharedPasswordAuthentication == null) { //if we haven't yet created shared authentication
+			sharedPasswordAuthentication = getPasswordAuthentication(); //create password authentication, if any
+		}
+		return sharedPasswordAuthentication;
+	}
+
+	/**
+	 * Releases the shared password authentication, if any, so that new password authentication will be created when next needed, and removes all idle WebDAV
+	 * resources, which use the old authentication. The old password authentication is not erased, as resources and streams still in use may depend on it; it
+	 * will be discarded once they are no longer used.
+	 * @see #getSharedPasswordAuthentication()
+	 */
+	private synchronized void resetSharedPasswordAuthentication() {
+		sharedPasswordAuthentication = null; //release the shared authentication
+		idleWebDAVResources.clear(); //don't reuse resources with old authentication
+	}
+
+	/**
+	 * The default maximum number of idle WebDAV resources kept for reuse. A WebDAV resource is only a lightweight handle identifying a resource along with its
+	 * authentication and retry policy; reusing one does not reuse any network connection, which is managed by the HTTP client.
+	 */
+	public static final int DEFAULT_MAX_IDLE_WEBDAV_RESOURCES = 16;
+
+	/** The maximum number of idle WebDAV resources kept for reuse. */
+	private volatile int maxIdleWebDAVResources = DEFAULT_MAX_IDLE_WEBDAV_RESOURCES;
+
+	/** @return The maximum number of idle WebDAV resources kept for reuse; <code>0</code> indicates that WebDAV resources are not reused. */
+	public int getMaxIdleWebDAVResources() {
+		return maxIdleWebDAVResources;
+	}
+
+	/**
+	 * Sets the maximum number of idle WebDAV resources kept for reuse.
+	 * @param maxIdleWebDAVResources The maximum number of idle WebDAV resources kept for reuse; <code>0</code> indicates that WebDAV resources should not be
+	 *          reused.
+	 * @throws IllegalArgumentException if the given maximum is negative.
+	 */
+	public void setMaxIdleWebDAVResources(final int maxIdleWebDAVResources) {
+		checkArgument(maxIdleWebDAVResources >= 0, "Invalid maximum number of idle WebDAV resources {0}.", maxIdleWebDAVResources);
+		this.maxIdleWebDAVResources = maxIdleWebDAVResources;
+		if(maxIdleWebDAVResources == 0) { //if resources should no longer be reused
+			idleWebDAVResources.clear(); //release the idle resources
+		}
+	}
+
+	/** The size of the buffer used for streaming uploads, or <code>0</code> if content is collected in its entirety before being uploaded. */
+	private volatile int streamingUploadBufferSize = 0;
+
+	/**
+	 * @return The size of the buffer used for streaming uploads, or <code>0</code> if content written to output streams is collected in its entirety before being
+	 *         uploaded.
+	 */
+	public int getStreamingUploadBufferSize() {
+		return streamingUploadBufferSize;
+	}
+
+	/**
+	 * Sets the size of the buffer used for streaming uploads. When streaming uploads are enabled, content written to resource output streams is sent to the
+	 * server as it is written, using chunked transfer encoding if the length of the content is not known, and only a buffer of the given size is held by the
+	 * client. Because streamed content cannot be resent in response to an authentication challenge, credentials are sent preemptively using HTTP
+	 * <code>Basic</code> authentication, so streaming uploads should only be enabled for servers accepting such authentication, preferably over HTTPS.
+	 * @param streamingUploadBufferSize The size of the buffer used for streaming uploads, such as
+	 *          {@link StreamingWebDAVResource#DEFAULT_STREAMING_BUFFER_SIZE}, or <code>0</code> if content should be collected in its entirety before being
+	 *          uploaded.
+	 * @throws IllegalArgumentException if the given buffer size is negative.
+	 * @see StreamingWebDAVResource#getOutputStream(long, int)
+	 */
+	public void setStreamingUploadBufferSize(final int streamingUploadBufferSize) {
+		checkArgument(streamingUploadBufferSize >= 0, "Invalid streaming upload buffer size {0}.", streamingUploadBufferSize);
+		this.streamingUploadBufferSize = streamingUploadBufferSize;
+	}
+
+	/**
+	 * Retrieves an output stream for storing the content of a WebDAV resource, streaming the content if streaming uploads are enabled.
+	 * <p>
+	 * Streamed content is always sent using chunked transfer encoding. A content length from a resource description is not sent, as a caller writing a
+	 * different number of bytes would cause the upload to fail.
+	 * </p>
+	 * @param contentWebDAVResource The WebDAV resource in which the content will be stored.
+	 * @return An output stream for storing the content of the WebDAV resource.
+	 * @throws IOException if there is an error opening the output stream.
+	 * @see #getStreamingUploadBufferSize()
+	 */
+	protected OutputStream getContentOutputStream(final StreamingWebDAVResource contentWebDAVResource) throws IOException {
+		final int bufferSize = getStreamingUploadBufferSize();
+		return bufferSize > 0 ? contentWebDAVResource.getOutputStream(-1, bufferSize) : contentWebDAVResource.getOutputStream();
+	}
+
+	/**
+	 * The idle WebDAV resources available for reuse, keyed to their private URIs and kept in least-recently-used order. These are request handles rather than
+	 * connections; network connections are managed by the HTTP client.
+	 */
+	private final Map<URI, StreamingWebDAVResource> idleWebDAVResources = synchronizedMap(new LinkedHashMap<URI, StreamingWebDAVResource>(16, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<URI, StreamingWebDAVResource> eldest) {
+			return size() > getMaxIdleWebDAVResources();
+		}
+	});
+
+	/**
+	 * Creates a new WebDAV resource for the given private URI using the shared password authentication.
+	 * @param sourceResourceURI The URI of the resource in the private namespace.
+	 * @return A new WebDAV resource for the given URI.
+	 * @see #getSharedPasswordAuthentication()
+	 */
+	protected StreamingWebDAVResource createWebDAVResource(final URI sourceResourceURI) {
+		final StreamingWebDAVResource webdavResource = new StreamingWebDAVResource(sourceResourceURI, getHTTPClient(), getSharedPasswordAuthentication());
+		webdavResource.setRetryPolicy(getRetryPolicy());
+		return webdavResource;
+	}
+
+	/**
+	 * Creates a new plain HTTP resource for retrieving content from the given private URI using the shared password authentication and the retry policy.
+	 * @param sourceResourceURI The URI of the resource in the private namespace.
+	 * @return A new HTTP resource for the given URI that can make range and conditional requests.
+	 * @see #getSharedPasswordAuthentication()
+	 * @see #getRetryPolicy()
+	 */
+	protected ConditionalHTTPResource createHTTPResource(final URI sourceResourceURI) {
+		final ConditionalHTTPResource httpResource = new ConditionalHTTPResource(sourceResourceURI, getHTTPClient(), getSharedPasswordAuthentication());
+		httpResource.setRetryPolicy(getRetryPolicy());
+		return httpResource;
+	}
+
+	/** The policy for retrying idempotent requests, or <code>null</code> if requests should not be retried. */
+	private volatile HTTPRetryPolicy retryPolicy = null;
+
+	/** @return The policy for retrying idempotent requests, or <code>null</code> if requests are not retried. */
+	public HTTPRetryPolicy getRetryPolicy() {
+		return retryPolicy;
+	}
+
+	/**
+	 * Sets the policy for retrying idempotent requests. Only requests that retrieve information, such as <code>PROPFIND</code> and <code>GET</code>, are
+	 * retried; requests that modify resources are never retried, although streamed uploads are subject to the circuit breakers of the policy. The policy is shared with any subrepositories created afterwards.
+	 * @param retryPolicy The policy for retrying idempotent requests, or <code>null</code> if requests should not be retried.
+	 * @see StreamingWebDAVResource#setRetryPolicy(HTTPRetryPolicy)
+	 */
+	public void setRetryPolicy(final HTTPRetryPolicy retryPolicy) {
+		this.retryPolicy = retryPolicy;
+		idleWebDAVResources.clear(); //don't reuse resources with the old policy
+	}
+
+	/**
+	 * Retrieves a WebDAV resource for exclusive use with the given private URI, reusing an idle WebDAV resource if one is available. The returned resource must
+	 * be given back using {@link #releaseWebDAVResource(WebDAVResource)} when it is no longer in use, and must not be released if some returned object such as a
+	 * stream continues to use it.
+	 * @param sourceResourceURI The URI of the resource in the private namespace.
+	 * @return A WebDAV resource for the given URI not in use by any other caller.
+	 * @see #createWebDAVResource(URI)
+	 */
+	protected StreamingWebDAVResource acquireWebDAVResource(final URI sourceResourceURI) {
+		final StreamingWebDAVResource webdavResource = idleWebDAVResources.remove(sourceResourceURI); //take an idle resource, if any, so that no one else can use it
+		return webdavResource != null ? webdavResource : createWebDAVResource(sourceResourceURI); //create a new resource if there is no idle one
+	}
+
+	/**
+	 * Makes a WebDAV resource previously retrieved using {@link #acquireWebDAVResource(URI)} available for reuse. The resource will be discarded if resources
+	 * are not being reused.
+	 * @param webdavResource The WebDAV resource no longer in use.
+	 * @see #getMaxIdleWebDAVResources()
+	 */
+	protected void releaseWebDAVResource(final StreamingWebDAVResource webdavResource) {
+		if(getMaxIdleWebDAVResources() > 0) { //if we reuse resources
+			idleWebDAVResources.put(webdavResource.getURI(), webdavResource); //keep the resource for reuse, replacing any other idle resource with the same URI
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * <p>
@@ -333,27 +524,23 @@ protected boolean resourceExistsImpl(final URI resourceURI) throws ResourceIOExc
 		if(!isSourceResourceVisible(privateResourceURI)) { //if this resource should not be public
 			return false; //ignore this resource
 		}
-		final PasswordAuthentication passwordAuthentication = getPasswordAuthentication(); //get authentication, if any
+		final StreamingWebDAVResource webdavResource = acquireWebDAVResource(privateResourceURI); //get a WebDAV resource, reusing an idle one if available
 		try {
-			final WebDAVResource webdavResource = new WebDAVResource(privateResourceURI, getHTTPClient(), passwordAuthentication); //create a WebDAV resource
 			return webdavResource.exists(); //see if the WebDAV resource exists		
 		} catch(final HTTPRedirectException httpRedirectException) { //if the WebDAV resource tries to redirect us somewhere else
 			return false; //consider this to indicate that the resource, as identified by the resource URI, does not exist
 		} catch(final IOException ioException) { //if an I/O exception occurs
 			throw toResourceIOException(resourceURI, ioException); //translate the exception to a resource I/O exception and throw that
 		} finally {
-			if(passwordAuthentication != null) { //if we used password authentication
-				fill(passwordAuthentication.getPassword(), (char)0); //always erase the password from memory as a security measure when we're done with the authentication object
-			}
+			releaseWebDAVResource(webdavResource); //make the WebDAV resource available for reuse
 		}
 	}
 
 	@Override
 	protected URFResource getResourceDescriptionImpl(final URI resourceURI) throws ResourceIOException {
 		final URF urf = createURF(); //create a new URF data model
-		final PasswordAuthentication passwordAuthentication = getPasswordAuthentication(); //get authentication, if any
+		final StreamingWebDAVResource webdavResource = acquireWebDAVResource(getSourceResourceURI(resourceURI)); //get a WebDAV resource, reusing an idle one if available
 		try {
-			final WebDAVResource webdavResource = new WebDAVResource(getSourceResourceURI(resourceURI), getHTTPClient(), passwordAuthentication); //create a WebDAV resource
 			final Map<WebDAVPropertyName, WebDAVProperty> properties = webdavResource.propFind(); //get the properties of this resource
 			return createResourceDescription(urf, resourceURI, properties); //create a resource from this URI and property list
 		} catch(final IOException ioException) { //if an I/O exception occurs
@@ -361,42 +548,597 @@ protected URFResource getResourceDescriptionImpl(final URI resourceURI) throws R
 		} catch(final DataException dataException) { //if the data wasn't correct
 			throw toResourceIOException(resourceURI, dataException); //translate the exception to a resource I/O exception and throw that
 		} finally {
-			if(passwordAuthentication != null) { //if we used password authentication
-				fill(passwordAuthentication.getPassword(), (char)0); //always erase the password from memory as a security measure when we're done with the authentication object
+			releaseWebDAVResource(webdavResource); //make the WebDAV resource available for reuse
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This implementation performs a single {@link Depth#ONE} PROPFIND on the parent collection of each group of sibling resources, creating descriptions only
+	 * for the requested resources. Resources not found in a parent's response, as well as resources with no requested siblings, are retrieved individually.
+	 * </p>
+	 */
+	@Override
+	protected Map<URI, URFResource> getResourceDescriptionsImpl(final Collection<URI> resourceURIs) throws ResourceIOException {
+		final Map<URI, URFResource> resourceDescriptions = new HashMap<URI, URFResource>(resourceURIs.size());
+		final URF urf = createURF(); //create a new URF data model
+		for(final Map.Entry<URI, List<URI>> parentResourceURIEntry : groupResourceURIsByParent(resourceURIs).entrySet()) {
+			final URI parentResourceURI = parentResourceURIEntry.getKey();
+			final List<URI> childResourceURIs = parentResourceURIEntry.getValue();
+			if(parentResourceURI == null || childResourceURIs.size() < 2) { //a single resource is retrieved more efficiently on its own
+				continue;
+			}
+			final List<NameValuePair<URI, Map<WebDAVPropertyName, WebDAVProperty>>> propertyMaps;
+			final StreamingWebDAVResource webdavResource = acquireWebDAVResource(getSourceResourceURI(parentResourceURI)); //get a WebDAV resource, reusing an idle one if available
+			try {
+				propertyMaps = webdavResource.propFind(Depth.ONE); //get the properties of the parent and its children
+			} catch(final HTTPNotFoundException httpNotFoundException) { //if the parent doesn't exist, the individual retrievals will report the problem
+				continue;
+			} catch(final IOException ioException) { //if an I/O exception occurs
+				throw toResourceIOException(parentResourceURI, ioException); //translate the exception to a resource I/O exception and throw that
+			} finally {
+				releaseWebDAVResource(webdavResource); //make the WebDAV resource available for reuse
+			}
+			final Set<URI> remainingResourceURIs = new HashSet<URI>(childResourceURIs);
+			for(final NameValuePair<URI, Map<WebDAVPropertyName, WebDAVProperty>> propertyMap : propertyMaps) { //look at each property map
+				final URI childResourceURI = getRepositoryResourceURI(propertyMap.getName()); //get the public URI of the resource this property list represents
+				if(remainingResourceURIs.remove(childResourceURI)) { //if this resource was requested
+					try {
+						resourceDescriptions.put(childResourceURI, createResourceDescription(urf, childResourceURI, propertyMap.getValue())); //create a resource from this URI and property lists
+					} catch(final IOException ioException) { //if an I/O exception occurs
+						throw toResourceIOException(childResourceURI, ioException); //translate the exception to a resource I/O exception and throw that
+					} catch(final DataException dataException) { //if the data wasn't correct
+						throw toResourceIOException(childResourceURI, dataException); //translate the exception to a resource I/O exception and throw that
+					}
+				}
 			}
 		}
+		for(final URI resourceURI : resourceURIs) { //retrieve any descriptions we didn't find in a parent's response
+			if(!resourceDescriptions.containsKey(resourceURI)) {
+				resourceDescriptions.put(resourceURI, getResourceDescriptionImpl(resourceURI));
+			}
+		}
+		return resourceDescriptions;
 	}
 
 	/**
 	 * {@inheritDoc}
 	 * <p>
-	 * For collections, this implementation retrieves the content of the {@value #COLLECTION_CONTENT_NAME} file, if any.
+	 * For collections, this implementation retrieves the content of the {@value #COLLECTION_CONTENT_NAME} file, if any. Rather than first checking for the
+	 * existence of the content file, the content is requested directly, so that only a single request is needed if the content file exists.
 	 * </p>
 	 */
 	@Override
 	protected InputStream getResourceInputStreamImpl(final URI resourceURI) throws ResourceIOException {
-		final PasswordAuthentication passwordAuthentication = getPasswordAuthentication(); //get authentication, if any
 		try {
-			final WebDAVResource webdavResource = new WebDAVResource(getSourceResourceURI(resourceURI), getHTTPClient(), passwordAuthentication); //create a WebDAV resource
 			if(isCollectionURI(resourceURI)) { //if the resource is a collection
 				final URI contentURI = resolve(resourceURI, COLLECTION_CONTENT_NAME); //determine the URI to use for content
-				final WebDAVResource contentWebDAVResource = new WebDAVResource(getSourceResourceURI(contentURI), getHTTPClient(), passwordAuthentication); //create a WebDAV resource for special collection content resource TODO cache these resources, maybe
-				if(contentWebDAVResource.exists()) { //if there is a special collection content resource
-					return contentWebDAVResource.getInputStream(); //return an input stream to the collection content resource
+				final WebDAVResource contentWebDAVResource = createWebDAVResource(getSourceResourceURI(contentURI)); //create a WebDAV resource for special collection content resource; it isn't reused, as the returned stream may still be using it
+				try {
+					return contentWebDAVResource.getInputStream(); //return an input stream to the collection content resource, if there is one
+				} catch(final HTTPNotFoundException httpNotFoundException) { //if there is no collection content resource
+					final StreamingWebDAVResource webdavResource = acquireWebDAVResource(getSourceResourceURI(resourceURI)); //get a WebDAV resource, reusing an idle one if available
+					try {
+						if(!webdavResource.exists()) { //if the content resource doesn't exist because the collection itself doesn't exist
+							throw new HTTPNotFoundException("Collection resource " + webdavResource.getURI() + " does not exist.");
+						}
+					} finally {
+						releaseWebDAVResource(webdavResource); //make the WebDAV resource available for reuse
+					}
+					return new ByteArrayInputStream(NO_BYTES); //return an input stream to an empty byte array
+				}
+			} else { //if the resource is not a collection
+				return createWebDAVResource(getSourceResourceURI(resourceURI)).getInputStream(); //return an input stream to the resource
+			}
+		} catch(final IOException ioException) { //if an I/O exception occurs
+			throw toResourceIOException(resourceURI, ioException); //translate the exception to a resource I/O exception and throw that
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This implementation requests only the given range from the server using the HTTP <code>Range</code> header. For collections, this implementation
+	 * retrieves the content of the {@value #COLLECTION_CONTENT_NAME} file, if any.
+	 * </p>
+	 * @see RangeHTTPResource
+	 */
+	@Override
+	protected InputStream getResourceInputStreamImpl(final URI resourceURI, final long offset, final long length) throws ResourceIOException {
+		try {
+			if(isCollectionURI(resourceURI)) { //if the resource is a collection
+				final URI contentURI = resolve(resourceURI, COLLECTION_CONTENT_NAME); //determine the URI to use for content
+				final RangeHTTPResource contentHTTPResource = createHTTPResource(getSourceResourceURI(contentURI)); //create a resource for special collection content resource
+				if(contentHTTPResource.exists()) { //if there is a special collection content resource
+					return contentHTTPResource.getInputStream(offset, length); //return an input stream to the range of the collection content resource
 				} else { //if there is no collection content resource
-					if(!webdavResource.exists()) { //if the content resource doesn't exist because the collection itself doesn't exist
-						throw new HTTPNotFoundException("Collection resource " + webdavResource.getURI() + " does not exist.");
+					final StreamingWebDAVResource webdavResource = acquireWebDAVResource(getSourceResourceURI(resourceURI)); //get a WebDAV resource, reusing an idle one if available
+					try {
+						if(!webdavResource.exists()) { //if the content resource doesn't exist because the collection itself doesn't exist
+							throw new HTTPNotFoundException("Collection resource " + webdavResource.getURI() + " does not exist.");
+						}
+					} finally {
+						releaseWebDAVResource(webdavResource); //make the WebDAV resource available for reuse
 					}
 					return new ByteArrayInputStream(NO_BYTES); //return an input stream to an empty byte array
 				}
 			} else { //if the resource is not a collection
-				return webdavResource.getInputStream(); //return an input stream to the resource
+				final RangeHTTPResource httpResource = createHTTPResource(getSourceResourceURI(resourceURI)); //content is retrieved using a plain HTTP GET
+				return httpResource.getInputStream(offset, length); //return an input stream to the range of the resource
+			}
+		} catch(final IOException ioException) { //if an I/O exception occurs
+			throw toResourceIOException(resourceURI, ioException); //translate the exception to a resource I/O exception and throw that
+		}
+	}
+
+	/** The name of the WebDAV property containing the entity tag of a resource. */
+	private static final WebDAVPropertyName GET_ETAG_PROPERTY_NAME = new WebDAVPropertyName(WEBDAV_NAMESPACE.toString(), "getetag");
+
+	/** The maximum number of content digests to remember. */
+	private static final int MAX_CONTENT_DIGEST_CACHE_SIZE = 1000;
+
+	/** The most recently determined content digests, keyed to the URIs of the resources holding the content. */
+	private final Map<URI, ContentDigest> contentDigestCache = synchronizedMap(new LinkedHashMap<URI, ContentDigest>(16, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<URI, ContentDigest> eldest) {
+			return size() > MAX_CONTENT_DIGEST_CACHE_SIZE;
+		}
+	});
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * WebDAV provides no checksum of resource contents, but this implementation remembers each digest it determines along with the strong entity tag
+	 * (<code>D:getetag</code>) of the content at the time. If the entity tag of the content has not changed, the remembered digest is returned without retrieving
+	 * the contents again. The entity tag reported when the resource was last listed or described is used if known, so that no further request is needed.
+	 * </p>
+	 * @see #getKnownEntityTag(URI)
+	 */
+	@Override
+	protected byte[] getResourceContentDigestImpl(final URI resourceURI, final String algorithm) throws ResourceIOException {
+		final URI contentURI = isCollectionURI(resourceURI) ? resolve(resourceURI, COLLECTION_CONTENT_NAME) : resourceURI; //collection content is stored in a special resource
+		String entityTag = getKnownEntityTag(resourceURI); //use the entity tag from the last description if we can
+		if(entityTag == null) { //if we don't know the entity tag, ask for it
+			final StreamingWebDAVResource contentWebDAVResource = acquireWebDAVResource(getSourceResourceURI(contentURI)); //get a WebDAV resource, reusing an idle one if available
+			try {
+				final WebDAVProperty entityTagProperty = contentWebDAVResource.propFind().get(GET_ETAG_PROPERTY_NAME);
+				final WebDAVPropertyValue entityTagPropertyValue = entityTagProperty != null ? entityTagProperty.getValue() : null;
+				if(entityTagPropertyValue != null) {
+					entityTag = entityTagPropertyValue.getText().trim();
+				}
+			} catch(final HTTPNotFoundException httpNotFoundException) { //collections without content have no entity tag
+				if(contentURI == resourceURI) {
+					throw toResourceIOException(resourceURI, httpNotFoundException);
+				}
+			} catch(final IOException ioException) { //if an I/O exception occurs
+				throw toResourceIOException(resourceURI, ioException); //translate the exception to a resource I/O exception and throw that
+			} finally {
+				releaseWebDAVResource(contentWebDAVResource); //make the WebDAV resource available for reuse
+			}
+		}
+		if(entityTag != null && entityTag.startsWith("W/")) { //weak entity tags don't guarantee identical contents
+			entityTag = null;
+		}
+		if(entityTag != null) { //see if we already know the digest of this version of the content
+			final ContentDigest contentDigest = contentDigestCache.get(contentURI);
+			if(contentDigest != null && contentDigest.getEntityTag().equals(entityTag) && contentDigest.getAlgorithm().equalsIgnoreCase(algorithm)) {
+				return contentDigest.getDigest().clone();
+			}
+		}
+		final byte[] digest = super.getResourceContentDigestImpl(resourceURI, algorithm); //retrieve the contents and determine the digest
+		if(entityTag != null) { //remember the digest for this version of the content
+			contentDigestCache.put(contentURI, new ContentDigest(entityTag, algorithm, digest.clone()));
+		}
+		return digest;
+	}
+
+	/** The maximum number of content versions to remember. */
+	private static final int MAX_CONTENT_VERSION_CACHE_SIZE = 1000;
+
+	/** The most recently described content versions, keyed to the public URIs of the resources. */
+	private final Map<URI, ContentVersion> contentVersionCache = synchronizedMap(new LinkedHashMap<URI, ContentVersion>(16, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<URI, ContentVersion> eldest) {
+			return size() > MAX_CONTENT_VERSION_CACHE_SIZE;
+		}
+	});
+
+	/**
+	 * Determines the entity tag of the content version with the given modified datetime, if it is known from a previous description of the resource.
+	 * @param resourceURI The URI of the resource.
+	 * @param modified The content modified datetime of the known version of the resource.
+	 * @return The entity tag of the content with the given modified datetime, or <code>null</code> if the entity tag of that version is not known.
+	 */
+	protected String getKnownEntityTag(final URI resourceURI, final ISODateTime modified) {
+		final ContentVersion contentVersion = contentVersionCache.get(resourceURI);
+		return contentVersion != null && contentVersion.getModified().getTime() == modified.getTime() ? contentVersion.getEntityTag() : null;
+	}
+
+	/**
+	 * Determines the entity tag of the content as of the last time the resource was listed or described, if the resource has not since been modified through
+	 * this repository.
+	 * @param resourceURI The URI of the resource.
+	 * @return The entity tag of the content when the resource was last described, or <code>null</code> if no entity tag is known.
+	 */
+	protected String getKnownEntityTag(final URI resourceURI) {
+		final ContentVersion contentVersion = contentVersionCache.get(resourceURI);
+		return contentVersion != null ? contentVersion.getEntityTag() : null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This version also forgets the known content versions of the resource and of any descendants, as their entity tags may no longer be current.
+	 * </p>
+	 */
+	@Override
+	protected void invalidateCachedResourceDescription(final URI resourceURI) {
+		super.invalidateCachedResourceDescription(resourceURI);
+		if(isCollectionURI(resourceURI)) { //if this is a collection, forget the resource and all its descendants
+			final String resourceURIString = resourceURI.toString();
+			synchronized(contentVersionCache) { //iterating a synchronized map requires manual synchronization
+				final Iterator<URI> uriIterator = contentVersionCache.keySet().iterator();
+				while(uriIterator.hasNext()) {
+					if(uriIterator.next().toString().startsWith(resourceURIString)) {
+						uriIterator.remove();
+					}
+				}
+			}
+		} else {
+			contentVersionCache.remove(resourceURI);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * If the entity tag of the given version is known from a previous description of the resource, this implementation makes a conditional <code>HEAD</code>
+	 * request using the HTTP <code>If-None-Match</code> header. Otherwise the description of the resource is retrieved and compared.
+	 * </p>
+	 * @see ConditionalHTTPResource#isModified(String)
+	 */
+	@Override
+	protected boolean isResourceModifiedImpl(final URI resourceURI, final ISODateTime modified) throws ResourceIOException {
+		final String entityTag = getKnownEntityTag(resourceURI, modified);
+		if(entityTag == null) { //if we don't know the entity tag of this version
+			return super.isResourceModifiedImpl(resourceURI, modified);
+		}
+		final URI contentURI = isCollectionURI(resourceURI) ? resolve(resourceURI, COLLECTION_CONTENT_NAME) : resourceURI; //collection content is stored in a special resource
+		try {
+			return createHTTPResource(getSourceResourceURI(contentURI)).isModified(entityTag);
+		} catch(final HTTPNotFoundException httpNotFoundException) { //if the content resource no longer exists
+			if(contentURI != resourceURI) { //if the collection content was removed, the collection itself may still exist
+				return super.isResourceModifiedImpl(resourceURI, modified);
+			}
+			throw toResourceIOException(resourceURI, httpNotFoundException); //translate the exception to a resource I/O exception and throw that
+		} catch(final IOException ioException) { //if an I/O exception occurs
+			throw toResourceIOException(resourceURI, ioException); //translate the exception to a resource I/O exception and throw that
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * If the entity tag of the given version is known from a previous description of the resource, this implementation makes a conditional <code>GET</code>
+	 * request using the HTTP <code>If-None-Match</code> header, so that the contents are only transferred if they have changed.
+	 * </p>
+	 * @see ConditionalHTTPResource#getInputStreamIfModified(String)
+	 */
+	@Override
+	protected InputStream getResourceInputStreamIfModifiedImpl(final URI resourceURI, final ISODateTime modified) throws ResourceIOException {
+		final String entityTag = getKnownEntityTag(resourceURI, modified);
+		if(entityTag == null) { //if we don't know the entity tag of this version
+			return super.getResourceInputStreamIfModifiedImpl(resourceURI, modified);
+		}
+		final URI contentURI = isCollectionURI(resourceURI) ? resolve(resourceURI, COLLECTION_CONTENT_NAME) : resourceURI; //collection content is stored in a special resource
+		try {
+			return createHTTPResource(getSourceResourceURI(contentURI)).getInputStreamIfModified(entityTag);
+		} catch(final HTTPNotFoundException httpNotFoundException) { //if the content resource no longer exists
+			if(contentURI != resourceURI) { //if the collection content was removed, the collection itself may still exist
+				return getResourceInputStreamImpl(resourceURI); //the collection content is now empty, which is a modification
+			}
+			throw toResourceIOException(resourceURI, httpNotFoundException); //translate the exception to a resource I/O exception and throw that
+		} catch(final IOException ioException) { //if an I/O exception occurs
+			throw toResourceIOException(resourceURI, ioException); //translate the exception to a resource I/O exception and throw that
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * For collections, this implementation stores the content in the {@value #COLLECTION_CONTENT_NAME} file.
+	 * </p>
+	 */
+	@Override
+	protected OutputStream getResourceOutputStreamImpl(final URI resourceURI, final ISODateTime newContentModified) throws ResourceIOException {
+		try {
+			final StreamingWebDAVResource webdavResource = createWebDAVResource(getSourceResourceURI(resourceURI)); //create a WebDAV resource; it isn't reused, as the returned stream may still be using it
+			if(!webdavResource.exists()) { //if the resource doesn't already exist
+				throw new ResourceNotFoundException(resourceURI, "Cannot open output stream to non-existent resource " + resourceURI);
+			}
+			final StreamingWebDAVResource contentWebDAVResource; //determine the WebDAV resource for accessing the content file
+			if(isCollectionURI(resourceURI)) { //if the resource is a collection
+				final URI contentURI = resolve(resourceURI, COLLECTION_CONTENT_NAME); //determine the URI to use for content
+				contentWebDAVResource = createWebDAVResource(getSourceResourceURI(contentURI)); //create a WebDAV resource for special collection content resource
+			} else { //if the resource is not a collection
+				contentWebDAVResource = webdavResource; //use the normal WebDAV resource
+			}
+			OutputStream outputStream = getContentOutputStream(contentWebDAVResource); //get an output stream to the content WebDAV resource
+			if(newContentModified != null) { //if we should update the content modified datetime
+				final URFResourceAlteration resourceAlteration = DefaultURFResourceAlteration.createSetPropertiesAlteration(new DefaultURFProperty(
+						Content.MODIFIED_PROPERTY_URI, newContentModified)); //create a resource alteration for setting the content modified property
+				outputStream = new DescriptionWriterOutputStreamDecorator(outputStream, resourceURI, resourceAlteration, webdavResource, null); //wrap the output stream in a decorator that will update the WebDAV properties after the contents are stored; the shared password authentication must not be erased
 			}
+			return outputStream; //return the output stream we created
+		} catch(final IOException ioException) { //if an I/O exception occurs
+			throw toResourceIOException(resourceURI, ioException); //translate the exception to a resource I/O exception and throw that
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This implementation ignores child resources for which {@link #isSourceResourceVisible(URI)} returns <code>false</code>.
+	 * </p>
+	 */
+	@Override
+	protected boolean hasChildrenImpl(final URI resourceURI) throws ResourceIOException {
+		final URI privateResourceURI = getSourceResourceURI(resourceURI); //get the URI of the resource in the private namespace
+		final StreamingWebDAVResource webdavResource = acquireWebDAVResource(privateResourceURI); //get a WebDAV resource, reusing an idle one if available
+		try {
+			return !webdavResource.propFind(Depth.ONE, new StreamingWebDAVResource.PropertiesVisitor() { //get the properties of the resources one level down, stopping at the first child
+
+				@Override
+				public boolean visit(final URI childResourcePrivateURI, final Map<WebDAVPropertyName, WebDAVProperty> properties) {
+					return !isSourceResourceVisible(childResourcePrivateURI) || privateResourceURI.equals(childResourcePrivateURI); //stop if the associated child resource is public and the property list is *not* for this resource
+				}
+
+			}); //if the traversal was stopped, this resource has children
 		} catch(final IOException ioException) { //if an I/O exception occurs
 			throw toResourceIOException(resourceURI, ioException); //translate the exception to a resource I/O exception and throw that
 		} finally {
-			if(passwordAuthentication != null) { //if we used password authentication
-				fill(passwordAuthentication.getPassword(), (char)0); //always erase the password from memory as a security measure when we're done with the authentication object
+			releaseWebDAVResource(webdavResource); //make the WebDAV resource available for reuse
+		}
+	}
+
+	/**
+	 * Whether {@link Depth#INFINITY} PROPFIND requests are supported by the server, or <code>null</code> if support has not yet been determined.
+	 */
+	private volatile Boolean infiniteDepthSupported = null;
+
+	/**
+	 * Indicates whether the server supports {@link Depth#INFINITY} PROPFIND requests. If support has not been explicitly configured, it is determined the first
+	 * time a listing deeper than one level is requested; a server refusing such a request with <code>403 Forbidden</code> (as Apache <code>mod_dav</code> does
+	 * by default) is considered not to support infinite depth.
+	 * @return Whether the server supports infinite-depth PROPFIND requests, or <code>null</code> if support has not yet been determined.
+	 */
+	public Boolean isInfiniteDepthSupported() {
+		return infiniteDepthSupported;
+	}
+
+	/**
+	 * Sets whether the server supports {@link Depth#INFINITY} PROPFIND requests.
+	 * @param infiniteDepthSupported Whether the server supports infinite-depth PROPFIND requests, or <code>null</code> if support should be determined
+	 *          automatically.
+	 */
+	public void setInfiniteDepthSupported(final Boolean infiniteDepthSupported) {
+		this.infiniteDepthSupported = infiniteDepthSupported;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This implementation does not include child resources for which {@link #isSourceResourceVisible(URI)} returns <code>false</code>. A depth of one is
+	 * retrieved using a single {@link Depth#ONE} PROPFIND. An infinite depth is retrieved using a single {@link Depth#INFINITY} PROPFIND if the server
+	 * supports it. Other depths greater than one, as well as an infinite depth if the server does not support infinite-depth requests, are retrieved using one
+	 * {@link Depth#ONE} PROPFIND for each collection, so that a bounded listing never requests the entire subtree.
+	 * </p>
+	 * @see #isInfiniteDepthSupported()
+	 */
+	@Override
+	public List<URFResource> getChildResourceDescriptionsImpl(final URI resourceURI, final ResourceFilter resourceFilter, final int depth)
+			throws ResourceIOException {
+		if(depth != 0) { //a depth of zero means don't get child resources
+			if(depth != 1) { //if more than one level was requested
+				if(depth == INFINITE_DEPTH && !Boolean.FALSE.equals(isInfiniteDepthSupported())) { //if all descendants were requested and the server might support infinite depth
+					final List<URFResource> childResourceList = getDescendantResourceDescriptions(resourceURI, resourceFilter, depth); //try to retrieve all the descendants at once
+					if(childResourceList != null) { //if the server supports infinite depth
+						return childResourceList;
+					}
+				}
+				final List<URFResource> childResourceList = new ArrayList<URFResource>();
+				try {
+					visitChildResourceDescriptionsImpl(resourceURI, resourceFilter, depth, new ResourceVisitor() { //gather the descendants one collection at a time
+
+						@Override
+						public boolean visit(final URFResource resourceDescription) {
+							childResourceList.add(resourceDescription);
+							return true;
+						}
+
+					});
+				} catch(final IOException ioException) { //if an I/O exception occurs
+					throw toResourceIOException(resourceURI, ioException); //translate the exception to a resource I/O exception and throw that
+				}
+				return childResourceList;
+			}
+			final URI privateResourceURI = getSourceResourceURI(resourceURI); //get the URI of the resource in the private namespace
+			final List<NameValuePair<URI, Map<WebDAVPropertyName, WebDAVProperty>>> childPropertyMaps = new ArrayList<NameValuePair<URI, Map<WebDAVPropertyName, WebDAVProperty>>>(); //the properties of the children that pass the filter, keyed to their public URIs
+			final StreamingWebDAVResource webdavResource = acquireWebDAVResource(privateResourceURI); //get a WebDAV resource, reusing an idle one if available
+			try {
+				webdavResource.propFind(Depth.ONE, new StreamingWebDAVResource.PropertiesVisitor() { //process the properties of each resource as they are read
+
+					@Override
+					public boolean visit(final URI childResourcePrivateURI, final Map<WebDAVPropertyName, WebDAVProperty> properties) {
+						if(isSourceResourceVisible(childResourcePrivateURI) && !privateResourceURI.equals(childResourcePrivateURI)) { //if the associated child resource is visible and the property list is *not* for this resource
+							final URI childResourcePublicURI = getRepositoryResourceURI(childResourcePrivateURI); //get the public URI of this child resource
+							if(getSubrepository(childResourcePublicURI) == WebDAVRepository.this) { //if this child wouldn't be located in a subrepository (i.e. ignore resources obscured by subrepositories)
+								if(resourceFilter == null || resourceFilter.isPass(childResourcePublicURI)) { //if we should include this resource based upon its URI
+									childPropertyMaps.add(new NameValuePair<URI, Map<WebDAVPropertyName, WebDAVProperty>>(childResourcePublicURI, properties));
+								}
+							}
+						}
+						return true; //continue with the other resources
+					}
+
+				});
+			} catch(final IOException ioException) { //if an I/O exception occurs
+				throw toResourceIOException(resourceURI, ioException); //translate the exception to a resource I/O exception and throw that
+			} finally {
+				releaseWebDAVResource(webdavResource); //make the WebDAV resource available for reuse
+			}
+			final URF urf = createURF(); //create a new URF data model
+			final List<URFResource> childResourceList = new ArrayList<URFResource>(childPropertyMaps.size()); //create a list of child resources
+			for(final NameValuePair<URI, Map<WebDAVPropertyName, WebDAVProperty>> childPropertyMap : childPropertyMaps) { //create the descriptions only after the response has been read, as collections need another request for their content properties
+				final URI childResourcePublicURI = childPropertyMap.getName();
+				final URFResource childResourceDescription;
+				try {
+					childResourceDescription = createResourceDescription(urf, childResourcePublicURI, childPropertyMap.getValue()); //create a resource from this URI and property lists
+				} catch(final IOException ioException) { //if an I/O exception occurs
+					throw toResourceIOException(childResourcePublicURI, ioException); //translate the exception to a resource I/O exception and throw that
+				} catch(final DataException dataException) { //if the data wasn't correct
+					throw toResourceIOException(childResourcePublicURI, dataException); //translate the exception to a resource I/O exception and throw that
+				}
+				if(resourceFilter == null || resourceFilter.isPass(childResourceDescription)) { //if we should include this resource based upon its description
+					childResourceList.add(childResourceDescription); //add this child resource description to our list
+				}
+			}
+			addChildSubrepositoryResourceDescriptions(resourceURI, resourceFilter, depth, childResourceList); //aggregate any mapped subrepositories
+
+			//TODO do the special Marmot thing about checking for special Marmot directories
+
+			//TODO fix				Collections.sort(resourceList);	//sort the resource by URI
+			return childResourceList; //return the list of resources we constructed
+		} else { //if a depth of zero was requested
+			return emptyList(); //return an empty list
+		}
+	}
+
+	/**
+	 * Retrieves descriptions of the descendants of a collection using a single {@link Depth#INFINITY} PROPFIND. As with a collection-by-collection traversal,
+	 * the descendants of a collection that does not pass the filter are not included. If the server refuses the request with <code>403 Forbidden</code>, the
+	 * server is noted as not supporting infinite depth.
+	 * @param resourceURI The URI of the collection.
+	 * @param resourceFilter The filter for child resources, or <code>null</code> if all child resources should be included.
+	 * @param depth The zero-based depth of child resources which should be included, or {@link #INFINITE_DEPTH} for an infinite depth.
+	 * @return The descriptions of the descendants of the collection, or <code>null</code> if the server does not support infinite-depth requests.
+	 * @throws ResourceIOException if there is an error accessing the repository.
+	 * @see #setInfiniteDepthSupported(Boolean)
+	 */
+	protected List<URFResource> getDescendantResourceDescriptions(final URI resourceURI, final ResourceFilter resourceFilter, final int depth)
+			throws ResourceIOException {
+		final URI privateResourceURI = getSourceResourceURI(resourceURI); //get the URI of the resource in the private namespace
+		final List<NameValuePair<URI, Map<WebDAVPropertyName, WebDAVProperty>>> propertyMaps;
+		final StreamingWebDAVResource webdavResource = acquireWebDAVResource(privateResourceURI); //get a WebDAV resource, reusing an idle one if available
+		try {
+			propertyMaps = webdavResource.propFind(Depth.INFINITY); //get the properties of the entire subtree
+		} catch(final HTTPForbiddenException httpForbiddenException) { //if the server won't allow infinite depth
+			setInfiniteDepthSupported(Boolean.FALSE); //don't ask again
+			return null;
+		} catch(final IOException ioException) { //if an I/O exception occurs
+			throw toResourceIOException(resourceURI, ioException); //translate the exception to a resource I/O exception and throw that
+		} finally {
+			releaseWebDAVResource(webdavResource); //make the WebDAV resource available for reuse
+		}
+		setInfiniteDepthSupported(Boolean.TRUE); //the server supports infinite depth
+		final Map<URI, Map<WebDAVPropertyName, WebDAVProperty>> privateURIPropertyMaps = getPropertyMapsByURI(propertyMaps); //the response includes the collection content resources of all collections
+		final URF urf = createURF(); //create a new URF data model
+		final Map<URI, URFResource> privateURIResourceDescriptions = new HashMap<URI, URFResource>(propertyMaps.size()); //the descriptions of resources that pass the filter
+		try {
+			for(final NameValuePair<URI, Map<WebDAVPropertyName, WebDAVProperty>> propertyMap : propertyMaps) { //look at each property map
+				final URI childResourcePrivateURI = propertyMap.getName(); //get the private URI of the descendant resource this property list represents
+				if(isSourceResourceVisible(childResourcePrivateURI) && !privateResourceURI.equals(childResourcePrivateURI)) { //if the associated resource is visible and the property list is *not* for this resource
+					final URI relativeURI = privateResourceURI.relativize(childResourcePrivateURI); //determine how far down the resource is
+					if(relativeURI.isAbsolute() || (depth != INFINITE_DEPTH && getLevel(relativeURI) > depth)) { //if the resource isn't in this subtree, or is too deep
+						continue;
+					}
+					final URI childResourcePublicURI = getRepositoryResourceURI(childResourcePrivateURI); //get the public URI of this resource
+					if(getSubrepository(childResourcePublicURI) == this) { //if this resource wouldn't be located in a subrepository (i.e. ignore resources obscured by subrepositories)
+						if(resourceFilter == null || resourceFilter.isPass(childResourcePublicURI)) { //if we should include this resource based upon its URI
+							final URFResource childResourceDescription = createResourceDescription(urf, childResourcePublicURI, propertyMap.getValue(),
+									privateURIPropertyMaps.get(resolve(childResourcePrivateURI, COLLECTION_CONTENT_NAME))); //create a resource from this URI and property lists, using the collection content properties we already have
+							if(resourceFilter == null || resourceFilter.isPass(childResourceDescription)) { //if we should include this resource based upon its description
+								privateURIResourceDescriptions.put(childResourcePrivateURI, childResourceDescription);
+							}
+						}
+					}
+				}
+			}
+		} catch(final IOException ioException) { //if an I/O exception occurs
+			throw toResourceIOException(resourceURI, ioException); //translate the exception to a resource I/O exception and throw that
+		} catch(final DataException dataException) { //if the data wasn't correct
+			throw toResourceIOException(resourceURI, dataException); //translate the exception to a resource I/O exception and throw that
+		}
+		final List<URFResource> descendantResourceList = new ArrayList<URFResource>(privateURIResourceDescriptions.size());
+		addChildSubrepositoryResourceDescriptions(resourceURI, resourceFilter, depth, descendantResourceList); //aggregate any subrepositories mapped to the collection itself
+		for(final NameValuePair<URI, Map<WebDAVPropertyName, WebDAVProperty>> propertyMap : propertyMaps) { //keep the order of the response
+			final URI childResourcePrivateURI = propertyMap.getName();
+			final URFResource childResourceDescription = privateURIResourceDescriptions.get(childResourcePrivateURI);
+			if(childResourceDescription == null) { //if this resource wasn't included
+				continue;
+			}
+			boolean isAncestorIncluded = true; //make sure that the resource isn't below a collection that was filtered out
+			URI ancestorPrivateURI = isCollectionURI(childResourcePrivateURI) ? getParentLevel(childResourcePrivateURI) : getCurrentLevel(childResourcePrivateURI); //start with the parent collection
+			for(; !privateResourceURI.equals(ancestorPrivateURI); ancestorPrivateURI = getParentLevel(ancestorPrivateURI)) {
+				if(!privateURIResourceDescriptions.containsKey(ancestorPrivateURI)) {
+					isAncestorIncluded = false;
+					break;
+				}
+			}
+			if(isAncestorIncluded) {
+				descendantResourceList.add(childResourceDescription);
+				if(isCollectionURI(childResourcePrivateURI)) { //aggregate any subrepositories mapped to this collection
+					final URI childResourcePublicURI = getRepositoryResourceURI(childResourcePrivateURI);
+					final int childDepth = depth != INFINITE_DEPTH ? depth - getLevel(privateResourceURI.relativize(childResourcePrivateURI)) : depth; //determine how many levels remain below this collection
+					if(childDepth != 0) {
+						addChildSubrepositoryResourceDescriptions(childResourcePublicURI, resourceFilter, childDepth, descendantResourceList);
+					}
+				}
+			}
+		}
+		return descendantResourceList;
+	}
+
+	/**
+	 * Determines how many levels down a relative URI is. For example, both <code>foo</code> and <code>foo/</code> are at level one, while <code>foo/bar</code>
+	 * is at level two.
+	 * @param relativeURI The relative URI of a resource.
+	 * @return The level of the resource relative to its base.
+	 */
+	private static int getLevel(final URI relativeURI) {
+		final String path = relativeURI.getRawPath();
+		int level = 1;
+		for(int i = path.length() - 2; i >= 0; --i) { //ignore any trailing slash
+			if(path.charAt(i) == '/') {
+				++level;
+			}
+		}
+		return level;
+	}
+
+	/**
+	 * Adds the descriptions of any subrepositories mapped as children of a collection, along with their descendants.
+	 * @param resourceURI The URI of the collection.
+	 * @param resourceFilter The filter for child resources, or <code>null</code> if all child resources should be included.
+	 * @param depth The zero-based depth of child resources which should be included, or {@link #INFINITE_DEPTH} for an infinite depth; never <code>0</code>.
+	 * @param resourceDescriptions The list to which the descriptions should be added.
+	 * @throws ResourceIOException if there is an error accessing a subrepository.
+	 */
+	private void addChildSubrepositoryResourceDescriptions(final URI resourceURI, final ResourceFilter resourceFilter, final int depth,
+			final List<URFResource> resourceDescriptions) throws ResourceIOException {
+		for(final Repository childSubrepository : getChildSubrepositories(resourceURI)) { //see if any subrepositories are mapped as children of this repository
+			final URI childSubrepositoryURI = childSubrepository.getRootURI(); //get the URI of the subrepository
+			resourceDescriptions.add(childSubrepository.getResourceDescription(childSubrepositoryURI)); //get a description of the subrepository root resource
+			if(depth == INFINITE_DEPTH || depth > 0) { //if we should get child resources lower in the hierarchy
+				resourceDescriptions.addAll(childSubrepository.getChildResourceDescriptions(childSubrepositoryURI, resourceFilter, depth == INFINITE_DEPTH ? depth
+						: depth - 1)); //get descriptions of subrepository children
 			}
 		}
 	}
@@ -404,156 +1146,111 @@ protected InputStream getResourceInputStreamImpl(final URI resourceURI) throws R
 	/**
 	 * {@inheritDoc}
 	 * <p>
-	 * For collections, this implementation stores the content in the {@value #COLLECTION_CONTENT_NAME} file.
+	 * This implementation does not include child resources for which {@link #isSourceResourceVisible(URI)} returns <code>false</code>. Rather than requesting
+	 * the entire tree at once, this implementation performs a {@link Depth#ONE} PROPFIND for each collection, visiting each child resource before requesting the
+	 * children of the next collection. The PROPFIND of a child collection is performed before the collection is visited, so that the properties of its
+	 * {@value #COLLECTION_CONTENT_NAME} resource can be taken from the same response, resulting in a single request for each collection.
 	 * </p>
 	 */
 	@Override
-	protected OutputStream getResourceOutputStreamImpl(final URI resourceURI, final ISODateTime newContentModified) throws ResourceIOException {
-		final PasswordAuthentication passwordAuthentication = getPasswordAuthentication(); //get authentication, if any
-		try {
-			final WebDAVResource webdavResource = new WebDAVResource(getSourceResourceURI(resourceURI), getHTTPClient(), passwordAuthentication); //create a WebDAV resource TODO cache these resources, maybe
-			if(!webdavResource.exists()) { //if the resource doesn't already exist
-				throw new ResourceNotFoundException(resourceURI, "Cannot open output stream to non-existent resource " + resourceURI);
-			}
-			final WebDAVResource contentWebDAVResource; //determine the WebDAV resource for accessing the content file
-			if(isCollectionURI(resourceURI)) { //if the resource is a collection
-				final URI contentURI = resolve(resourceURI, COLLECTION_CONTENT_NAME); //determine the URI to use for content
-				contentWebDAVResource = new WebDAVResource(getSourceResourceURI(contentURI), getHTTPClient(), passwordAuthentication); //create a WebDAV resource for special collection content resource
-			} else { //if the resource is not a collection
-				contentWebDAVResource = webdavResource; //use the normal WebDAV resource
-			}
-			OutputStream outputStream = contentWebDAVResource.getOutputStream(); //get an output stream to the content WebDAV resource
-			if(newContentModified != null) { //if we should update the content modified datetime
-				final URFResourceAlteration resourceAlteration = DefaultURFResourceAlteration.createSetPropertiesAlteration(new DefaultURFProperty(
-						Content.MODIFIED_PROPERTY_URI, newContentModified)); //create a resource alteration for setting the content modified property
-				outputStream = new DescriptionWriterOutputStreamDecorator(outputStream, resourceURI, resourceAlteration, webdavResource, passwordAuthentication); //wrap the output stream in a decorator that will update the WebDAV properties after the contents are stored; this method will erase the provided password, if any, after it completes the resource property updates
-			}
-			return outputStream; //return the output stream we created
-		} catch(final IOException ioException) { //if an I/O exception occurs
-			throw toResourceIOException(resourceURI, ioException); //translate the exception to a resource I/O exception and throw that
-		} finally {
-			if(newContentModified == null && passwordAuthentication != null) { //if we didn't do a delayed write we used password authentication
-				fill(passwordAuthentication.getPassword(), (char)0); //always erase the password from memory as a security measure when we're done with the authentication object
-			}
+	protected boolean visitChildResourceDescriptionsImpl(final URI resourceURI, final ResourceFilter resourceFilter, final int depth,
+			final ResourceVisitor visitor) throws IOException {
+		if(depth == 0) { //a depth of zero means don't visit child resources
+			return true;
 		}
+		return visitChildResourceDescriptions(resourceURI, propFindChildren(resourceURI), resourceFilter, depth, visitor);
 	}
 
 	/**
-	 * {@inheritDoc}
-	 * <p>
-	 * This implementation ignores child resources for which {@link #isSourceResourceVisible(URI)} returns <code>false</code>.
-	 * </p>
+	 * Retrieves the properties of a collection and its immediate children using a {@link Depth#ONE} PROPFIND.
+	 * @param resourceURI The URI of the collection.
+	 * @return The properties of the collection and of each of its children, keyed to the private URI of each resource.
+	 * @throws ResourceIOException if there is an error accessing the repository.
 	 */
-	@Override
-	protected boolean hasChildrenImpl(final URI resourceURI) throws ResourceIOException {
-		final URI privateResourceURI = getSourceResourceURI(resourceURI); //get the URI of the resource in the private namespace
-		final PasswordAuthentication passwordAuthentication = getPasswordAuthentication(); //get authentication, if any
+	protected List<NameValuePair<URI, Map<WebDAVPropertyName, WebDAVProperty>>> propFindChildren(final URI resourceURI) throws ResourceIOException {
+		final StreamingWebDAVResource webdavResource = acquireWebDAVResource(getSourceResourceURI(resourceURI)); //get a WebDAV resource, reusing an idle one if available
 		try {
-			final WebDAVResource webdavResource = new WebDAVResource(privateResourceURI, getHTTPClient(), passwordAuthentication); //create a WebDAV resource
-			final List<NameValuePair<URI, Map<WebDAVPropertyName, WebDAVProperty>>> propertyMaps = webdavResource.propFind(Depth.ONE); //get the properties of the resources one level down
-			for(final NameValuePair<URI, Map<WebDAVPropertyName, WebDAVProperty>> propertyMap : propertyMaps) { //look at each property map
-				final URI childResourcePrivateURI = propertyMap.getName(); //get the private URI of the child resource this property list represents
-				if(isSourceResourceVisible(childResourcePrivateURI) && !privateResourceURI.equals(childResourcePrivateURI)) { //if the associated child resource is public and the property list is *not* for this resource
-					return true; //this resource has children
-				}
-			}
-			return false; //no properties could be found for any children
+			return webdavResource.propFind(Depth.ONE); //get the properties of the resources one level down
 		} catch(final IOException ioException) { //if an I/O exception occurs
 			throw toResourceIOException(resourceURI, ioException); //translate the exception to a resource I/O exception and throw that
 		} finally {
-			if(passwordAuthentication != null) { //if we used password authentication
-				fill(passwordAuthentication.getPassword(), (char)0); //always erase the password from memory as a security measure when we're done with the authentication object
-			}
+			releaseWebDAVResource(webdavResource); //make the WebDAV resource available for reuse
 		}
 	}
 
 	/**
-	 * {@inheritDoc}
-	 * <p>
-	 * This implementation does not include child resources for which {@link #isSourceResourceVisible(URI)} returns <code>false</code>.
-	 * </p>
+	 * Visits the children of a collection the properties of which have already been retrieved.
+	 * @param resourceURI The URI of the collection.
+	 * @param propertyMaps The properties of the collection and its immediate children, as retrieved by {@link #propFindChildren(URI)}.
+	 * @param resourceFilter The filter for child resources, or <code>null</code> if all child resources should be visited.
+	 * @param depth The zero-based depth of child resources which should recursively be visited; never <code>0</code>.
+	 * @param visitor The visitor to visit the descriptions of the child resources.
+	 * @return <code>true</code> if the traversal should continue, or <code>false</code> if the visitor requested that the traversal stop.
+	 * @throws IOException if there is an error accessing the repository.
+	 * @see #visitChildResourceDescriptionsImpl(URI, ResourceFilter, int, ResourceVisitor)
 	 */
-	@Override
-	public List<URFResource> getChildResourceDescriptionsImpl(final URI resourceURI, final ResourceFilter resourceFilter, final int depth)
-			throws ResourceIOException {
-		if(depth != 0) { //a depth of zero means don't get child resources
-			final URI privateResourceURI = getSourceResourceURI(resourceURI); //get the URI of the resource in the private namespace
-			final PasswordAuthentication passwordAuthentication = getPasswordAuthentication(); //get authentication, if any
-			try {
-				final WebDAVResource webdavResource = new WebDAVResource(privateResourceURI, getHTTPClient(), passwordAuthentication); //create a WebDAV resource
-				final Depth webdavDepth; //we'll get the depth based upon the value passed
-				try {
-					webdavDepth = depth == INFINITE_DEPTH ? Depth.INFINITY : Depth.values()[depth]; //get the depth based upon the value passed
-				} catch(final IndexOutOfBoundsException indexOutOfBoundsException) { //if an illegal depth was passed
-					throw new IllegalArgumentException(Integer.toString(depth)); //TODO later convert the depth by using infinity and checking the result
-				}
-				final URF urf = createURF(); //create a new URF data model
-				final List<NameValuePair<URI, Map<WebDAVPropertyName, WebDAVProperty>>> propertyMaps = webdavResource.propFind(webdavDepth); //get the properties of the resources
-				final List<URFResource> childResourceList = new ArrayList<URFResource>(propertyMaps.size()); //create a list of child resources no larger than the number of WebDAV resource property maps
-				for(final NameValuePair<URI, Map<WebDAVPropertyName, WebDAVProperty>> propertyMap : propertyMaps) { //look at each property map
-					final URI childResourcePrivateURI = propertyMap.getName(); //get the private URI of the child resource this property list represents
-					if(isSourceResourceVisible(childResourcePrivateURI) && !privateResourceURI.equals(childResourcePrivateURI)) { //if the associated child resource is visible and the property list is *not* for this resource
-						final URI childResourcePublicURI = getRepositoryResourceURI(childResourcePrivateURI); //get the public URI of this child resource
-						if(getSubrepository(childResourcePublicURI) == this) { //if this child wouldn't be located in a subrepository (i.e. ignore resources obscured by subrepositories)
-							if(resourceFilter == null || resourceFilter.isPass(childResourcePublicURI)) { //if we should include this resource based upon its URI
-								final URFResource childResourceDescription = createResourceDescription(urf, childResourcePublicURI, propertyMap.getValue()); //create a resource from this URI and property lists
-								if(resourceFilter == null || resourceFilter.isPass(childResourceDescription)) { //if we should include this resource based upon its description
-									childResourceList.add(childResourceDescription); //add this child resource description to our list
+	protected boolean visitChildResourceDescriptions(final URI resourceURI, final List<NameValuePair<URI, Map<WebDAVPropertyName, WebDAVProperty>>> propertyMaps,
+			final ResourceFilter resourceFilter, final int depth, final ResourceVisitor visitor) throws IOException {
+		final URI privateResourceURI = getSourceResourceURI(resourceURI); //get the URI of the resource in the private namespace
+		final int childDepth = depth != INFINITE_DEPTH ? depth - 1 : depth; //reduce the depth by one, unless we're using the unlimited depth value
+		for(final NameValuePair<URI, Map<WebDAVPropertyName, WebDAVProperty>> propertyMap : propertyMaps) { //look at each property map
+			final URI childResourcePrivateURI = propertyMap.getName(); //get the private URI of the child resource this property list represents
+			if(isSourceResourceVisible(childResourcePrivateURI) && !privateResourceURI.equals(childResourcePrivateURI)) { //if the associated child resource is visible and the property list is *not* for this resource
+				final URI childResourcePublicURI = getRepositoryResourceURI(childResourcePrivateURI); //get the public URI of this child resource
+				if(getSubrepository(childResourcePublicURI) == this) { //if this child wouldn't be located in a subrepository (i.e. ignore resources obscured by subrepositories)
+					if(resourceFilter == null || resourceFilter.isPass(childResourcePublicURI)) { //if we should include this resource based upon its URI
+						final boolean isChildTraversed = childDepth != 0 && isCollectionURI(childResourcePublicURI); //see if we'll be visiting the children of this child
+						final List<NameValuePair<URI, Map<WebDAVPropertyName, WebDAVProperty>>> childPropertyMaps = isChildTraversed ? propFindChildren(childResourcePublicURI)
+								: null; //get the properties of the children of the child collection up front, as they include the collection content properties
+						final URFResource childResourceDescription;
+						try {
+							childResourceDescription = childPropertyMaps != null ? createResourceDescription(createURF(), childResourcePublicURI, propertyMap.getValue(),
+									getPropertyMapsByURI(childPropertyMaps).get(resolve(childResourcePrivateURI, COLLECTION_CONTENT_NAME))) : createResourceDescription(createURF(),
+									childResourcePublicURI, propertyMap.getValue()); //create a resource from this URI and property lists
+						} catch(final IOException ioException) { //if an I/O exception occurs
+							throw toResourceIOException(childResourcePublicURI, ioException); //translate the exception to a resource I/O exception and throw that
+						} catch(final DataException dataException) { //if the data wasn't correct
+							throw toResourceIOException(childResourcePublicURI, dataException); //translate the exception to a resource I/O exception and throw that
+						}
+						if(resourceFilter == null || resourceFilter.isPass(childResourceDescription)) { //if we should include this resource based upon its description
+							if(!visitor.visit(childResourceDescription)) { //visit the resource; if we should stop traversal
+								return false;
+							}
+							if(isChildTraversed) { //if this child is a collection and we haven't reached the bottom
+								if(!visitChildResourceDescriptions(childResourcePublicURI, childPropertyMaps, resourceFilter, childDepth, visitor)) { //visit the descendants of the collection
+									return false;
 								}
 							}
 						}
 					}
 				}
-				//aggregate any mapped subrepositories
-				for(final Repository childSubrepository : getChildSubrepositories(resourceURI)) { //see if any subrepositories are mapped as children of this repository
-					final URI childSubrepositoryURI = childSubrepository.getRootURI(); //get the URI of the subrepository
-					childResourceList.add(childSubrepository.getResourceDescription(childSubrepositoryURI)); //get a description of the subrepository root resource
-					if(depth == INFINITE_DEPTH || depth > 0) { //if we should get child resources lower in the hierarchy
-						childResourceList.addAll(childSubrepository.getChildResourceDescriptions(childSubrepositoryURI, resourceFilter, depth == INFINITE_DEPTH ? depth
-								: depth - 1)); //get descriptions of subrepository children
-					}
-				}
-
-				//TODO do the special Marmot thing about checking for special Marmot directories
-
-				//TODO fix				Collections.sort(resourceList);	//sort the resource by URI
-				return childResourceList; //return the list of resources we constructed
-			} catch(final IOException ioException) { //if an I/O exception occurs
-				throw toResourceIOException(resourceURI, ioException); //translate the exception to a resource I/O exception and throw that
-			} catch(final DataException dataException) { //if the data wasn't correct
-				throw toResourceIOException(resourceURI, dataException); //translate the exception to a resource I/O exception and throw that
-			} finally {
-				if(passwordAuthentication != null) { //if we used password authentication
-					fill(passwordAuthentication.getPassword(), (char)0); //always erase the password from memory as a security measure when we're done with the authentication object
-				}
 			}
-		} else { //if a depth of zero was requested
-			return emptyList(); //return an empty list
 		}
+		return visitChildSubrepositoryResourceDescriptions(resourceURI, resourceFilter, depth, visitor); //visit any mapped subrepositories
 	}
 
 	/**
 	 * {@inheritDoc}
 	 * <p>
-	 * This implementation updates the resource description after its contents are stored.
+	 * This implementation updates the resource description after its contents are stored. If streaming uploads are enabled and the given description indicates
+	 * the content length, the content must be of exactly that length.
 	 * </p>
 	 */
 	@Override
 	protected OutputStream createResourceImpl(final URI resourceURI, final URFResource resourceDescription) throws ResourceIOException {
-		final PasswordAuthentication passwordAuthentication = getPasswordAuthentication(); //get authentication, if any
 		try {
-			final WebDAVResource webdavResource = new WebDAVResource(getSourceResourceURI(resourceURI), getHTTPClient(), passwordAuthentication); //create a WebDAV resource
-			final WebDAVResource contentWebDAVResource; //determine the WebDAV resource for accessing the content file
+			final StreamingWebDAVResource webdavResource = createWebDAVResource(getSourceResourceURI(resourceURI)); //create a WebDAV resource; it isn't reused, as the returned stream will still be using it
+			final StreamingWebDAVResource contentWebDAVResource; //determine the WebDAV resource for accessing the content file
 			if(isCollectionURI(resourceURI)) { //if this is a collection
 				webdavResource.mkCol(); //create the collection
 				final URI contentURI = resolve(resourceURI, COLLECTION_CONTENT_NAME); //determine the URI to use for content
-				contentWebDAVResource = new WebDAVResource(getSourceResourceURI(contentURI), getHTTPClient(), passwordAuthentication); //create a WebDAV resource for special collection content resource
+				contentWebDAVResource = createWebDAVResource(getSourceResourceURI(contentURI)); //create a WebDAV resource for special collection content resource
 			} else { //if this is not a collection
 				contentWebDAVResource = webdavResource; //use the normal WebDAV resource
 			}
-			final OutputStream outputStream = contentWebDAVResource.getOutputStream(); //get an output stream to the content WebDAV resource
+			final OutputStream outputStream = getContentOutputStream(contentWebDAVResource); //get an output stream to the content WebDAV resource
 			return new DescriptionWriterOutputStreamDecorator(outputStream, resourceURI, DefaultURFResourceAlteration.createResourceAlteration(resourceDescription),
-					webdavResource, passwordAuthentication); //wrap the output stream in a decorator that will update the WebDAV properties after the contents are stored; this method will erase the provided password, if any, after it completes the resource property updates
+					webdavResource, null); //wrap the output stream in a decorator that will update the WebDAV properties after the contents are stored; the shared password authentication must not be erased
 		} catch(final IOException ioException) { //if an I/O exception occurs
 			throw toResourceIOException(resourceURI, ioException); //translate the exception to a resource I/O exception and throw that
 		}
@@ -562,16 +1259,13 @@ protected OutputStream createResourceImpl(final URI resourceURI, final URFResour
 	@Override
 	protected URFResource createResourceImpl(final URI resourceURI, final URFResource resourceDescription, final byte[] resourceContents)
 			throws ResourceIOException {
-		final PasswordAuthentication passwordAuthentication = getPasswordAuthentication(); //get authentication, if any
+		final StreamingWebDAVResource webdavResource = acquireWebDAVResource(getSourceResourceURI(resourceURI)); //get a WebDAV resource, reusing an idle one if available
+		StreamingWebDAVResource contentWebDAVResource = webdavResource; //determine the WebDAV resource for accessing the content file; by default use the normal WebDAV resource
 		try {
-			final WebDAVResource webdavResource = new WebDAVResource(getSourceResourceURI(resourceURI), getHTTPClient(), passwordAuthentication); //create a WebDAV resource
-			final WebDAVResource contentWebDAVResource; //determine the WebDAV resource for accessing the content file
 			if(isCollectionURI(resourceURI)) { //if this is a collection
 				webdavResource.mkCol(); //create the collection
 				final URI contentURI = resolve(resourceURI, COLLECTION_CONTENT_NAME); //determine the URI to use for content
-				contentWebDAVResource = new WebDAVResource(getSourceResourceURI(contentURI), getHTTPClient(), passwordAuthentication); //create a WebDAV resource for special collection content resource
-			} else { //if this is not a collection
-				contentWebDAVResource = webdavResource; //use the normal WebDAV resource
+				contentWebDAVResource = acquireWebDAVResource(getSourceResourceURI(contentURI)); //get a WebDAV resource for special collection content resource
 			}
 			if(resourceContents.length > 0 || !isCollectionURI(resourceURI)) { //don't write empty content for a new collection
 				contentWebDAVResource.put(resourceContents); //create the content WebDAV resource with the given contents
@@ -582,9 +1276,10 @@ protected URFResource createResourceImpl(final URI resourceURI, final URFResourc
 		} catch(final DataException dataException) { //if the data wasn't correct
 			throw toResourceIOException(resourceURI, dataException); //translate the exception to a resource I/O exception and throw that
 		} finally {
-			if(passwordAuthentication != null) { //if we used password authentication
-				fill(passwordAuthentication.getPassword(), (char)0); //always erase the password from memory as a security measure when we're done with the authentication object
+			if(contentWebDAVResource != webdavResource) { //if we used a separate content resource
+				releaseWebDAVResource(contentWebDAVResource); //make the content WebDAV resource available for reuse
 			}
+			releaseWebDAVResource(webdavResource); //make the WebDAV resource available for reuse
 		}
 	}
 
@@ -596,18 +1291,15 @@ protected URFResource createResourceImpl(final URI resourceURI, final URFResourc
 	 */
 	@Override
 	protected void deleteResourceImpl(final URI resourceURI) throws ResourceIOException {
-		final PasswordAuthentication passwordAuthentication = getPasswordAuthentication(); //get authentication, if any
-		try {
-			final URI sourceResourceURI = getSourceResourceURI(resourceURI);
-			if(isSourceResourceVisible(sourceResourceURI)) { //if this is a visible resource
-				final WebDAVResource webdavResource = new WebDAVResource(sourceResourceURI, getHTTPClient(), passwordAuthentication); //create a WebDAV resource
-				webdavResource.delete(); //delete the resource		
-			}
-		} catch(final IOException ioException) { //if an I/O exception occurs
-			throw toResourceIOException(resourceURI, ioException); //translate the exception to a resource I/O exception and throw that
-		} finally {
-			if(passwordAuthentication != null) { //if we used password authentication
-				fill(passwordAuthentication.getPassword(), (char)0); //always erase the password from memory as a security measure when we're done with the authentication object
+		final URI sourceResourceURI = getSourceResourceURI(resourceURI);
+		if(isSourceResourceVisible(sourceResourceURI)) { //if this is a visible resource
+			final StreamingWebDAVResource webdavResource = acquireWebDAVResource(sourceResourceURI); //get a WebDAV resource, reusing an idle one if available
+			try {
+				webdavResource.delete(); //delete the resource
+			} catch(final IOException ioException) { //if an I/O exception occurs
+				throw toResourceIOException(resourceURI, ioException); //translate the exception to a resource I/O exception and throw that
+			} finally {
+				releaseWebDAVResource(webdavResource); //make the WebDAV resource available for reuse
 			}
 		}
 	}
@@ -634,6 +1326,119 @@ protected Set<WebDAVPropertyName> getWebDAVPropertyNames(final List<WebDAVProper
 		}
 	*/
 
+	/** The default maximum number of concurrent <code>PROPPATCH</code> requests made when altering the properties of several resources. */
+	public static final int DEFAULT_ALTERATION_CONCURRENCY = 4;
+
+	/**
+	 * The executor shared by all WebDAV repositories for altering the properties of several resources concurrently. Idle threads are discarded, and daemon
+	 * threads are used so that the executor never keeps the application alive.
+	 */
+	private static final ExecutorService ALTERATION_EXECUTOR_SERVICE = Executors.newCachedThreadPool(new ThreadFactory() {
+
+		@Override
+		public Thread newThread(final Runnable runnable) {
+			final Thread thread = new Thread(runnable, "WebDAV resource property alteration");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+
+	/** The maximum number of concurrent <code>PROPPATCH</code> requests made when altering the properties of several resources. */
+	private volatile int alterationConcurrency = DEFAULT_ALTERATION_CONCURRENCY;
+
+	/** @return The maximum number of concurrent <code>PROPPATCH</code> requests made when altering the properties of several resources. */
+	public int getAlterationConcurrency() {
+		return alterationConcurrency;
+	}
+
+	/**
+	 * Sets the maximum number of concurrent <code>PROPPATCH</code> requests made when altering the properties of several resources. This is independent of the
+	 * number of idle WebDAV resources kept for reuse, although keeping as many idle resources as concurrent requests allows each request to reuse a resource.
+	 * @param alterationConcurrency The maximum number of concurrent requests; <code>1</code> indicates that resources should be altered one at a time.
+	 * @throws IllegalArgumentException if the given concurrency is not positive.
+	 */
+	public void setAlterationConcurrency(final int alterationConcurrency) {
+		checkArgument(alterationConcurrency > 0, "Invalid alteration concurrency {0}.", alterationConcurrency);
+		this.alterationConcurrency = alterationConcurrency;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This implementation sends the <code>PROPPATCH</code> requests for the resources concurrently on an executor shared by all WebDAV repositories, with at most
+	 * {@link #getAlterationConcurrency()} requests in progress for each call. If an error occurs, the remaining resources are still altered and the first error
+	 * is then thrown along with the results of the alterations that succeeded.
+	 * </p>
+	 * @see #getAlterationConcurrency()
+	 */
+	@Override
+	protected Map<URI, URFResource> alterResourcePropertiesImpl(final Map<URI, URFResourceAlteration> resourceAlterations) throws ResourceIOException {
+		final int workerCount = Math.min(getAlterationConcurrency(), resourceAlterations.size());
+		if(workerCount <= 1) { //if there is no benefit from concurrency
+			return super.alterResourcePropertiesImpl(resourceAlterations);
+		}
+		final Iterator<Map.Entry<URI, URFResourceAlteration>> resourceAlterationIterator = resourceAlterations.entrySet().iterator(); //the workers take their alterations from here
+		final Map<URI, URFResource> alteredResourceDescriptions = new ConcurrentHashMap<URI, URFResource>(resourceAlterations.size());
+		final Map<URI, ResourceIOException> resourceIOExceptions = new ConcurrentHashMap<URI, ResourceIOException>();
+		final List<Future<?>> workerFutures = new ArrayList<Future<?>>(workerCount);
+		for(int i = 0; i < workerCount; ++i) { //limit the number of requests in progress by the number of workers
+			workerFutures.add(ALTERATION_EXECUTOR_SERVICE.submit(new Runnable() {
+
+				@Override
+				public void run() {
+					while(!Thread.currentThread().isInterrupted()) {
+						final Map.Entry<URI, URFResourceAlteration> resourceAlterationEntry;
+						synchronized(resourceAlterationIterator) {
+							if(!resourceAlterationIterator.hasNext()) { //if there are no more alterations
+								return;
+							}
+							resourceAlterationEntry = resourceAlterationIterator.next();
+						}
+						final URI resourceURI = resourceAlterationEntry.getKey();
+						try {
+							alteredResourceDescriptions.put(resourceURI, alterResourcePropertiesImpl(resourceURI, resourceAlterationEntry.getValue()));
+						} catch(final ResourceIOException resourceIOException) { //keep going with the other alterations
+							resourceIOExceptions.put(resourceURI, resourceIOException);
+						}
+					}
+				}
+			}));
+		}
+		try {
+			for(final Future<?> workerFuture : workerFutures) { //wait for all the alterations to finish
+				try {
+					workerFuture.get();
+				} catch(final ExecutionException executionException) {
+					if(executionException.getCause() instanceof RuntimeException) { //unchecked exceptions such as unsupported alterations are passed through, as they would be for a single resource
+						throw (RuntimeException)executionException.getCause();
+					}
+					throw new AssertionError(executionException.getCause()); //workers only throw unchecked exceptions
+				}
+			}
+		} catch(final InterruptedException interruptedException) {
+			Thread.currentThread().interrupt(); //preserve the interrupted status
+			throw toResourceIOException(getRootURI(), new InterruptedIOException("Interrupted while altering resource properties."));
+		} finally {
+			for(final Future<?> workerFuture : workerFutures) { //if we stopped early, don't start any more alterations
+				workerFuture.cancel(true);
+			}
+		}
+		final Map<URI, URFResource> resourceDescriptions = new LinkedHashMap<URI, URFResource>(resourceAlterations.size()); //return the results in the order requested
+		ResourceIOException firstResourceIOException = null;
+		for(final URI resourceURI : resourceAlterations.keySet()) {
+			final URFResource resourceDescription = alteredResourceDescriptions.get(resourceURI);
+			if(resourceDescription != null) {
+				resourceDescriptions.put(resourceURI, resourceDescription);
+			} else if(firstResourceIOException == null) {
+				firstResourceIOException = resourceIOExceptions.get(resourceURI);
+			}
+		}
+		if(firstResourceIOException != null) {
+			throw new PartialResourceAlterationException(firstResourceIOException, resourceDescriptions);
+		}
+		return resourceDescriptions;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * <p>
@@ -645,18 +1450,15 @@ protected Set<WebDAVPropertyName> getWebDAVPropertyNames(final List<WebDAVProper
 	 */
 	@Override
 	protected URFResource alterResourcePropertiesImpl(final URI resourceURI, final URFResourceAlteration resourceAlteration) throws ResourceIOException {
-		final PasswordAuthentication passwordAuthentication = getPasswordAuthentication(); //get authentication, if any
+		final StreamingWebDAVResource webdavResource = acquireWebDAVResource(getSourceResourceURI(resourceURI)); //get a WebDAV resource, reusing an idle one if available
 		try {
-			final WebDAVResource webdavResource = new WebDAVResource(getSourceResourceURI(resourceURI), getHTTPClient(), passwordAuthentication); //create a WebDAV resource
 			return alterResourceProperties(resourceURI, resourceAlteration, webdavResource); //alter the properties of the resource
 		} catch(final IOException ioException) { //if an I/O exception occurs
 			throw toResourceIOException(resourceURI, ioException); //translate the exception to a resource I/O exception and throw that
 		} catch(final DataException dataException) { //if the data wasn't correct
 			throw toResourceIOException(resourceURI, dataException); //translate the exception to a resource I/O exception and throw that
 		} finally {
-			if(passwordAuthentication != null) { //if we used password authentication
-				fill(passwordAuthentication.getPassword(), (char)0); //always erase the password from memory as a security measure when we're done with the authentication object
-			}
+			releaseWebDAVResource(webdavResource); //make the WebDAV resource available for reuse
 		}
 	}
 
@@ -721,15 +1523,8 @@ protected URFResource alterResourceProperties(URI resourceURI, final URFResource
 			if(!resourceAlteration.getPropertyURIRemovals().contains(propertyURI)) { //if a property addition was requested instead of a property setting (i.e. without first removing all the URI properties), we'll need to first gather the existing properties
 				if(resourceDescription == null) { //if we don't yet have a description for the resource
 					final URF urf = createURF(); //create a new URF data model
-					final PasswordAuthentication passwordAuthentication = getPasswordAuthentication(); //get authentication, if any
-					try {
-						properties = webdavResource.propFind(); //get the properties of this resource
-						resourceDescription = createResourceDescription(urf, resourceURI, properties); //create a resource from this URI and property list
-					} finally {
-						if(passwordAuthentication != null) { //if we used password authentication
-							fill(passwordAuthentication.getPassword(), (char)0); //always erase the password from memory as a security measure when we're done with the authentication object
-						}
-					}
+					properties = webdavResource.propFind(); //get the properties of this resource
+					resourceDescription = createResourceDescription(urf, resourceURI, properties); //create a resource from this URI and property list
 				}
 				for(final URFProperty existingProperty : resourceDescription.getProperties(propertyURI)) { //gather the existing properties; we'll have to combine them all into one WebDAV property
 					urfPropertyURIPropertyAdditions.addItem(propertyURI, existingProperty); //indicate that this is another URF property to add for this property URI
@@ -795,16 +1590,13 @@ protected void copyResourceImpl(final URI resourceURI, final URI destinationURI,
 		if(!isSourceResourceVisible(getSourceResourceURI(resourceURI))) { //if this is not a visible resource
 			throw new ResourceNotFoundException(resourceURI);
 		}
-		final PasswordAuthentication passwordAuthentication = getPasswordAuthentication(); //get authentication, if any
+		final StreamingWebDAVResource webdavResource = acquireWebDAVResource(getSourceResourceURI(resourceURI)); //get a WebDAV resource, reusing an idle one if available
 		try {
-			final WebDAVResource webdavResource = new WebDAVResource(getSourceResourceURI(resourceURI), getHTTPClient(), passwordAuthentication); //create a WebDAV resource
 			webdavResource.copy(getSourceResourceURI(destinationURI), overwrite); //copy the resource with an infinite depth, overwriting the destination resource only if requested
 		} catch(final IOException ioException) { //if an I/O exception occurs
 			throw toResourceIOException(resourceURI, ioException); //translate the exception to a resource I/O exception and throw that
 		} finally {
-			if(passwordAuthentication != null) { //if we used password authentication
-				fill(passwordAuthentication.getPassword(), (char)0); //always erase the password from memory as a security measure when we're done with the authentication object
-			}
+			releaseWebDAVResource(webdavResource); //make the WebDAV resource available for reuse
 		}
 	}
 
@@ -820,21 +1612,187 @@ protected void moveResourceImpl(final URI resourceURI, final URI destinationURI,
 		if(!isSourceResourceVisible(getSourceResourceURI(resourceURI))) { //if this is not a visible resource
 			throw new ResourceNotFoundException(resourceURI);
 		}
-		final PasswordAuthentication passwordAuthentication = getPasswordAuthentication(); //get authentication, if any
+		final StreamingWebDAVResource webdavResource = acquireWebDAVResource(getSourceResourceURI(resourceURI)); //get a WebDAV resource, reusing an idle one if available
 		try {
-			final WebDAVResource webdavResource = new WebDAVResource(getSourceResourceURI(resourceURI), getHTTPClient(), passwordAuthentication); //create a WebDAV resource
 			webdavResource.move(getSourceResourceURI(destinationURI), overwrite); //move the resource with an infinite depth, overwriting the destination resource only if requested
 		} catch(final IOException ioException) { //if an I/O exception occurs
 			throw toResourceIOException(resourceURI, ioException); //translate the exception to a resource I/O exception and throw that
 		} finally {
-			if(passwordAuthentication != null) { //if we used password authentication
-				fill(passwordAuthentication.getPassword(), (char)0); //always erase the password from memory as a security measure when we're done with the authentication object
+			releaseWebDAVResource(webdavResource); //make the WebDAV resource available for reuse
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * If the destination resource is in a WebDAV repository on the same server accessed using the same credentials, this implementation makes a single
+	 * server-side WebDAV <code>COPY</code> request with an infinite depth. Otherwise the content is transferred through this client.
+	 * </p>
+	 * @see #getSameOriginRepository(URI, Repository, URI)
+	 */
+	@Override
+	protected void copyResourceImpl(final URI resourceURI, final Repository destinationRepository, final URI destinationURI, final boolean overwrite,
+			final ProgressListener progressListener) throws ResourceIOException {
+		final WebDAVRepository destinationWebDAVRepository = getSameOriginRepository(resourceURI, destinationRepository, destinationURI);
+		if(destinationWebDAVRepository == null) { //if the server can't copy the resource itself
+			super.copyResourceImpl(resourceURI, destinationRepository, destinationURI, overwrite, progressListener);
+			return;
+		}
+		final URI sourceResourceURI = getSourceResourceURI(resourceURI);
+		if(!isSourceResourceVisible(sourceResourceURI)) { //if this is not a visible resource
+			throw new ResourceNotFoundException(resourceURI);
+		}
+		final StreamingWebDAVResource webdavResource = acquireWebDAVResource(sourceResourceURI); //get a WebDAV resource, reusing an idle one if available
+		try {
+			webdavResource.copy(destinationWebDAVRepository.getSourceResourceURI(destinationURI), overwrite); //copy the resource with an infinite depth, overwriting the destination resource only if requested
+		} catch(final IOException ioException) { //if an I/O exception occurs
+			throw toResourceIOException(resourceURI, ioException); //translate the exception to a resource I/O exception and throw that
+		} finally {
+			releaseWebDAVResource(webdavResource); //make the WebDAV resource available for reuse
+			destinationWebDAVRepository.invalidateCachedResourceDescription(destinationURI); //the destination was changed without using the public methods of its repository
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * If the destination resource is in a WebDAV repository on the same server accessed using the same credentials, this implementation makes a single
+	 * server-side WebDAV <code>MOVE</code> request with an infinite depth. Otherwise the content is transferred through this client.
+	 * </p>
+	 * @see #getSameOriginRepository(URI, Repository, URI)
+	 */
+	@Override
+	protected void moveResourceImpl(final URI resourceURI, final Repository destinationRepository, final URI destinationURI, final boolean overwrite,
+			final ProgressListener progressListener) throws ResourceIOException {
+		final WebDAVRepository destinationWebDAVRepository = getSameOriginRepository(resourceURI, destinationRepository, destinationURI);
+		if(destinationWebDAVRepository == null) { //if the server can't move the resource itself
+			super.moveResourceImpl(resourceURI, destinationRepository, destinationURI, overwrite, progressListener);
+			return;
+		}
+		final URI sourceResourceURI = getSourceResourceURI(resourceURI);
+		if(!isSourceResourceVisible(sourceResourceURI)) { //if this is not a visible resource
+			throw new ResourceNotFoundException(resourceURI);
+		}
+		final StreamingWebDAVResource webdavResource = acquireWebDAVResource(sourceResourceURI); //get a WebDAV resource, reusing an idle one if available
+		try {
+			webdavResource.move(destinationWebDAVRepository.getSourceResourceURI(destinationURI), overwrite); //move the resource with an infinite depth, overwriting the destination resource only if requested
+		} catch(final IOException ioException) { //if an I/O exception occurs
+			throw toResourceIOException(resourceURI, ioException); //translate the exception to a resource I/O exception and throw that
+		} finally {
+			releaseWebDAVResource(webdavResource); //make the WebDAV resource available for reuse
+			destinationWebDAVRepository.invalidateCachedResourceDescription(destinationURI); //the destination was changed without using the public methods of its repository
+		}
+	}
+
+	/**
+	 * Determines the WebDAV repository containing the given destination resource, if the destination is on the same server as this repository and accessed using
+	 * the same credentials, so that the server can transfer resources directly between the repositories.
+	 * <p>
+	 * The destination resource must be visible in the destination repository, and its source URI must not be a descendant of the source URI of the resource
+	 * being transferred.
+	 * </p>
+	 * @param resourceURI The normalized URI of the resource in this repository to be transferred.
+	 * @param destinationRepository The repository to which a resource will be transferred.
+	 * @param destinationURI The normalized URI of the destination resource in the destination repository.
+	 * @return The open WebDAV repository physically containing the destination resource, which may be a subrepository of the given destination repository, or
+	 *         <code>null</code> if the resource cannot be transferred by the server.
+	 */
+	protected WebDAVRepository getSameOriginRepository(final URI resourceURI, final Repository destinationRepository, final URI destinationURI) {
+		if(!(destinationRepository instanceof WebDAVRepository)) {
+			return null;
+		}
+		WebDAVRepository destinationWebDAVRepository = (WebDAVRepository)destinationRepository;
+		final Repository destinationSubrepository = destinationWebDAVRepository.getSubrepository(destinationURI); //the destination may be in one of its subrepositories
+		if(!(destinationSubrepository instanceof WebDAVRepository)) {
+			return null;
+		}
+		destinationWebDAVRepository = (WebDAVRepository)destinationSubrepository;
+		if(!destinationWebDAVRepository.isOpen()) { //let the destination report that it is closed
+			return null;
+		}
+		final URI sourceURI = getSourceURI();
+		final URI destinationSourceURI = destinationWebDAVRepository.getSourceURI();
+		if(!sourceURI.getScheme().equalsIgnoreCase(destinationSourceURI.getScheme()) || !sourceURI.getHost().equalsIgnoreCase(destinationSourceURI.getHost())
+				|| getPort(sourceURI) != getPort(destinationSourceURI)) { //if the repositories are on different servers
+			return null;
+		}
+		if(!Objects.equals(getUsername(), destinationWebDAVRepository.getUsername()) || !Arrays.equals(getPassword(), destinationWebDAVRepository.getPassword())) { //the server will use our credentials for both resources
+			return null;
+		}
+		final URI destinationResourceSourceURI = destinationWebDAVRepository.getSourceResourceURI(destinationURI);
+		if(!destinationWebDAVRepository.isSourceResourceVisible(destinationResourceSourceURI) || isChild(getSourceResourceURI(resourceURI), destinationResourceSourceURI)) { //don't write hidden resources or into the resource itself
+			return null;
+		}
+		return destinationWebDAVRepository;
+	}
+
+	/**
+	 * Determines the port of an HTTP URI, using the default port of the scheme if no port is given.
+	 * @param uri The HTTP or HTTPS URI.
+	 * @return The port of the URI.
+	 */
+	private static int getPort(final URI uri) {
+		final int port = uri.getPort();
+		if(port >= 0) {
+			return port;
+		}
+		return "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+	}
+
+	/**
+	 * Indexes the property maps returned by a multi-resource PROPFIND by the URI of each resource.
+	 * @param propertyMaps The properties of each resource, paired with the URI of the resource.
+	 * @return A map of properties keyed to resource URIs.
+	 */
+	protected static Map<URI, Map<WebDAVPropertyName, WebDAVProperty>> getPropertyMapsByURI(
+			final List<NameValuePair<URI, Map<WebDAVPropertyName, WebDAVProperty>>> propertyMaps) {
+		final Map<URI, Map<WebDAVPropertyName, WebDAVProperty>> propertyMapsByURI = new HashMap<URI, Map<WebDAVPropertyName, WebDAVProperty>>(propertyMaps.size());
+		for(final NameValuePair<URI, Map<WebDAVPropertyName, WebDAVProperty>> propertyMap : propertyMaps) {
+			propertyMapsByURI.put(propertyMap.getName(), propertyMap.getValue());
+		}
+		return propertyMapsByURI;
+	}
+
+	/**
+	 * Determines whether the given WebDAV properties indicate a collection.
+	 * @param properties The map of WebDAV properties.
+	 * @return <code>true</code> if the {@link WebDAV#RESOURCE_TYPE_PROPERTY_NAME} property indicates a collection.
+	 */
+	protected static boolean isCollection(final Map<WebDAVPropertyName, WebDAVProperty> properties) {
+		final WebDAVProperty webdavResourceTypeProperty = properties.get(RESOURCE_TYPE_PROPERTY_NAME); //D:resourcetype
+		if(webdavResourceTypeProperty != null) {
+			final WebDAVPropertyValue propertyValue = webdavResourceTypeProperty.getValue(); //get the value of the property
+			if(propertyValue instanceof WebDAVDocumentFragmentPropertyValue) { //if the WebDAV property represents a document fragment
+				final List<Element> valueElements = getChildElements(((WebDAVDocumentFragmentPropertyValue)propertyValue).getDocumentFragment()); //get the child elements of the document fragment
+				if(valueElements.size() == 1 && COLLECTION_TYPE.equals(createQualifiedName(valueElements.get(0)).getURI())) { //if there is one child element with a reference URI of D:collection
+					return true;
+				}
 			}
 		}
+		return false;
+	}
+
+	/**
+	 * Retrieves the properties of the special {@value #COLLECTION_CONTENT_NAME} resource of a collection using a single PROPFIND.
+	 * @param resourceURI The URI of the collection.
+	 * @return The properties of the collection content resource, or <code>null</code> if the collection has no content resource.
+	 * @throws IOException if there was an error retrieving the properties.
+	 */
+	protected Map<WebDAVPropertyName, WebDAVProperty> getCollectionContentProperties(final URI resourceURI) throws IOException {
+		final URI contentURI = resolve(resourceURI, COLLECTION_CONTENT_NAME); //determine the URI to use for content
+		final StreamingWebDAVResource contentWebDAVResource = acquireWebDAVResource(getSourceResourceURI(contentURI)); //get a WebDAV resource for special collection content resource, reusing an idle one if available
+		try {
+			return contentWebDAVResource.propFind(); //get the properties of the content file TODO only ask for the appropriate property if we can
+		} catch(final HTTPNotFoundException httpNotFoundException) { //if there is no special collection content resource
+			return null;
+		} finally {
+			releaseWebDAVResource(contentWebDAVResource); //make the WebDAV resource available for reuse
+		}
 	}
 
 	/**
-	 * Creates a resource to represent this map of properties.
+	 * Creates a resource to represent this map of properties. For collections, the properties of the {@value #COLLECTION_CONTENT_NAME} resource will be
+	 * retrieved from the repository.
 	 * @param urf The URF data model to use when creating this resource.
 	 * @param resourceURI The URI of the resource being described.
 	 * @param properties The map of WebDAV properties.
@@ -842,12 +1800,32 @@ protected void moveResourceImpl(final URI resourceURI, final URI destinationURI,
 	 * @throws NullPointerException if one or more of the provided properties has a value of <code>null</code>.
 	 * @throws IOException if the resource description could not load addition needed data.
 	 * @throws DataException if the data was not what was expected.
+	 * @see #getCollectionContentProperties(URI)
 	 */
 	protected URFResource createResourceDescription(final URF urf, final URI resourceURI, final Map<WebDAVPropertyName, WebDAVProperty> properties)
 			throws IOException, DataException {
+		final Map<WebDAVPropertyName, WebDAVProperty> collectionContentProperties = isCollectionURI(resourceURI) && isCollection(properties) ? getCollectionContentProperties(resourceURI)
+				: null; //only collections have collection content resources
+		return createResourceDescription(urf, resourceURI, properties, collectionContentProperties);
+	}
+
+	/**
+	 * Creates a resource to represent this map of properties, using collection content properties that have already been retrieved.
+	 * @param urf The URF data model to use when creating this resource.
+	 * @param resourceURI The URI of the resource being described.
+	 * @param properties The map of WebDAV properties.
+	 * @param collectionContentProperties The map of WebDAV properties of the {@value #COLLECTION_CONTENT_NAME} resource if the resource is a collection, or
+	 *          <code>null</code> if there is no collection content resource.
+	 * @return A resource representing the given WebDAV properties.
+	 * @throws NullPointerException if one or more of the provided properties has a value of <code>null</code>.
+	 * @throws IOException if the resource description could not load addition needed data.
+	 * @throws DataException if the data was not what was expected.
+	 */
+	protected URFResource createResourceDescription(final URF urf, final URI resourceURI, final Map<WebDAVPropertyName, WebDAVProperty> properties,
+			final Map<WebDAVPropertyName, WebDAVProperty> collectionContentProperties) throws IOException, DataException {
 		final URFResource resource = urf.locateResource(resourceURI); //create a resource to represent the WebDAV property list
 		final Set<String> ignoredWebDAVNamespaces = getIgnoredWebDAVNamespaces(); //get the map of ignored WebDAV namespaces
-		boolean isCollection = false; //we'll detect if this is a collection base upon the properties TODO update to check to make sure collections have collection URIs and vice-versa
+		final boolean isCollection = isCollection(properties); //we'll detect if this is a collection base upon the properties TODO update to check to make sure collections have collection URIs and vice-versa
 		final URFIO<URFResource> descriptionIO = getDescriptionIO(); //get I/O for the description
 
 		final WebDAVProperty webdavDisplayNameProperty = properties.get(DISPLAY_NAME_PROPERTY_NAME); //D:displayname
@@ -858,16 +1836,6 @@ protected URFResource createResourceDescription(final URF urf, final URI resourc
 				resource.setLabel(displayName); //set the label as the display name of the WebDAV resource; this will get overridden by any custom names later			
 			}
 		}
-		final WebDAVProperty webdavResourceTypeProperty = properties.get(RESOURCE_TYPE_PROPERTY_NAME); //D:resourcetype
-		if(webdavResourceTypeProperty != null) {
-			final WebDAVPropertyValue propertyValue = webdavResourceTypeProperty.getValue(); //get the value of the property
-			if(propertyValue instanceof WebDAVDocumentFragmentPropertyValue) { //if the WebDAV property represents a document fragment
-				final List<Element> valueElements = getChildElements(((WebDAVDocumentFragmentPropertyValue)propertyValue).getDocumentFragment()); //get the child elements of the document fragment
-				if(valueElements.size() == 1 && COLLECTION_TYPE.equals(createQualifiedName(valueElements.get(0)).getURI())) { //if there is one child element with a reference URI of D:collection
-					isCollection = true; //show that this is a collection
-				}
-			}
-		}
 		final WebDAVProperty webdavContentLanguageProperty = properties.get(GET_CONTENT_LANGUAGE_PROPERTY_NAME); //D:getcontentlanguage
 		if(webdavContentLanguageProperty != null) {
 			final WebDAVPropertyValue propertyValue = webdavContentLanguageProperty.getValue(); //get the value of the property
@@ -877,23 +1845,8 @@ protected URFResource createResourceDescription(final URF urf, final URI resourc
 			}
 		}
 
-		Map<WebDAVPropertyName, WebDAVProperty> contentProperties = properties; //if we have a special collection content resource, we'll use the properties from that
-		if(isCollection) { //if this is a collection
-			if(isCollectionURI(resourceURI)) {
-				final PasswordAuthentication passwordAuthentication = getPasswordAuthentication(); //get authentication, if any
-				try {
-					final URI contentURI = resolve(resourceURI, COLLECTION_CONTENT_NAME); //determine the URI to use for content
-					final WebDAVResource contentWebDAVResource = new WebDAVResource(getSourceResourceURI(contentURI), getHTTPClient(), passwordAuthentication); //create a WebDAV resource for special collection content resource TODO cache these resources, maybe
-					if(contentWebDAVResource.exists()) { //if there is a special collection content resource
-						contentProperties = contentWebDAVResource.propFind(); //get the properties of the content file TODO only ask for the appropriate property if we can
-					}
-				} finally {
-					if(passwordAuthentication != null) { //if we used password authentication
-						fill(passwordAuthentication.getPassword(), (char)0); //always erase the password from memory as a security measure when we're done with the authentication object
-					}
-				}
-			}
-		}
+		final Map<WebDAVPropertyName, WebDAVProperty> contentProperties = isCollection && collectionContentProperties != null ? collectionContentProperties
+				: properties; //if we have a special collection content resource, we'll use the properties from that
 		final WebDAVProperty webdavContentLengthProperty = contentProperties.get(GET_CONTENT_LENGTH_PROPERTY_NAME); //get the D:getcontentlength from the content properties
 		long contentLength = isCollection ? 0 : -1; //determine the content length; default to a content length of zero for collections
 		if(webdavContentLengthProperty != null) { //if we know a content length property
@@ -973,6 +1926,13 @@ protected URFResource createResourceDescription(final URF urf, final URI resourc
 				}
 			}
 		}
+		if(modified != null && (!isCollection || collectionContentProperties != null)) { //if there is content with a known modified time, remember its version for conditional requests
+			final WebDAVProperty entityTagProperty = contentProperties.get(GET_ETAG_PROPERTY_NAME); //D:getetag
+			final WebDAVPropertyValue entityTagPropertyValue = entityTagProperty != null ? entityTagProperty.getValue() : null;
+			if(entityTagPropertyValue != null) {
+				contentVersionCache.put(resourceURI, new ContentVersion(modified, entityTagPropertyValue.getText().trim()));
+			}
+		}
 		//TODO fix filename encoding/decoding---there's no way to know what operating system the server is using
 
 		//TODO encode in UTF-8
@@ -1014,7 +1974,7 @@ protected ResourceIOException toResourceIOException(final URI resourceURI, final
 	/**
 	 * {@inheritDoc}
 	 * <p>
-	 * This version calls clears and releases the password, if any.
+	 * This version erases and releases the password, if any, and releases the shared password authentication along with any idle WebDAV resources.
 	 * </p>
 	 */
 	@Override
@@ -1022,6 +1982,7 @@ public synchronized void dispose() {
 		try {
 			super.dispose();
 		} finally {
+			resetSharedPasswordAuthentication(); //release the shared authentication and the idle resources
 			if(password != null) { //if we have a password
 				fill(password, (char)0); //erase the password from memory as a security measure
 				password = null; //release the password
@@ -1111,4 +2072,75 @@ protected void afterClose() throws ResourceIOException {
 
 	}
 
+	/**
+	 * The content modified datetime of a version of resource contents along with the entity tag identifying that version.
+	 * @author Garret Wilson
+	 */
+	private static class ContentVersion {
+
+		private final ISODateTime modified;
+
+		/** @return The content modified datetime of the version. */
+		public ISODateTime getModified() {
+			return modified;
+		}
+
+		private final String entityTag;
+
+		/** @return The entity tag of the version. */
+		public String getEntityTag() {
+			return entityTag;
+		}
+
+		/**
+		 * Constructor.
+		 * @param modified The content modified datetime of the version.
+		 * @param entityTag The entity tag of the version.
+		 */
+		public ContentVersion(final ISODateTime modified, final String entityTag) {
+			this.modified = modified;
+			this.entityTag = entityTag;
+		}
+	}
+
+	/**
+	 * A digest of resource contents along with the entity tag identifying the version of the contents.
+	 * @author Garret Wilson
+	 */
+	private static class ContentDigest {
+
+		private final String entityTag;
+
+		/** @return The strong entity tag of the contents from which the digest was determined. */
+		public String getEntityTag() {
+			return entityTag;
+		}
+
+		private final String algorithm;
+
+		/** @return The name of the digest algorithm. */
+		public String getAlgorithm() {
+			return algorithm;
+		}
+
+		private final byte[] digest;
+
+		/** @return The digest of the contents. */
+		public byte[] getDigest() {
+			return digest;
+		}
+
+		/**
+		 * Constructor.
+		 * @param entityTag The strong entity tag of the contents from which the digest was determined.
+		 * @param algorithm The name of the digest algorithm.
+		 * @param digest The digest of the contents.
+		 */
+		public ContentDigest(final String entityTag, final String algorithm, final byte[] digest) {
+			this.entityTag = entityTag;
+			this.algorithm = algorithm;
+			this.digest = digest;
+		}
+	}
+
 }
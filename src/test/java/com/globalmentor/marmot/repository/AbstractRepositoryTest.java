@@ -29,7 +29,11 @@
 
 import java.io.*;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.*;
 
 import org.junit.*;
 import org.urframework.*;
@@ -381,6 +385,39 @@ public void testCollectionResourceProperties() throws ResourceIOException {
 		repository.deleteResource(collectionURI); //delete the resource we created
 	}
 
+	/**
+	 * Tests:
+	 * <ul>
+	 * <li>Altering properties of several resources in a single request.</li>
+	 * <li>Retrieving the altered properties of each resource.</li>
+	 * </ul>
+	 */
+	@Test
+	public void testAlterResourcePropertiesBatch() throws ResourceIOException {
+		final Repository repository = getRepository();
+		final URI collectionURI = repository.getRootURI().resolve("batch/"); //determine a test collection URI
+		repository.createCollectionResource(collectionURI);
+		final Map<URI, URFResourceAlteration> resourceAlterations = new LinkedHashMap<URI, URFResourceAlteration>();
+		final Map<URI, URFResource> propertiesResources = new HashMap<URI, URFResource>();
+		for(int i = 0; i < 8; ++i) {
+			final URI resourceURI = collectionURI.resolve("test" + i + ".bin");
+			repository.createResource(resourceURI, Bytes.createRandom(i + 1)); //create a resource with random contents
+			final URFResource propertiesResource = createTestProperties(resourceURI, "Title " + i, "Description " + i); //give each resource different properties
+			propertiesResources.put(resourceURI, propertiesResource);
+			resourceAlterations.put(resourceURI, DefaultURFResourceAlteration.createSetPropertiesAlteration(propertiesResource.getProperties()));
+		}
+		final Map<URI, URFResource> resourceDescriptions = repository.alterResourceProperties(resourceAlterations);
+		assertThat("Resource descriptions not returned in order.", new ArrayList<URI>(resourceDescriptions.keySet()),
+				equalTo(new ArrayList<URI>(resourceAlterations.keySet())));
+		for(final Map.Entry<URI, URFResource> resourceDescriptionEntry : resourceDescriptions.entrySet()) {
+			final URI resourceURI = resourceDescriptionEntry.getKey();
+			assertThat("Retrieved resource description doesn't match that returned from batch alteration.", repository.getResourceDescription(resourceURI),
+					equalTo(resourceDescriptionEntry.getValue()));
+			checkResourceProperties(resourceDescriptionEntry.getValue(), propertiesResources.get(resourceURI).getProperties());
+		}
+		repository.deleteResource(collectionURI); //delete the resources we created
+	}
+
 	/**
 	 * Tests:
 	 * <ul>
@@ -523,6 +560,237 @@ public void testCopyMoveDeepResource() throws ResourceIOException {
 		assertFalse("Deleted moved collection moved nested resource still exists.", repository.resourceExists(moveCollectionCopyResourceURI));
 	}
 
+	/**
+	 * Tests:
+	 * <ul>
+	 * <li>Visiting child resources to an infinite depth.</li>
+	 * <li>Verifying that collections are visited before their children.</li>
+	 * <li>Visiting child resources to a limited depth.</li>
+	 * <li>Stopping traversal from the visitor.</li>
+	 * </ul>
+	 */
+	@Test
+	public void testVisitChildResourceDescriptions() throws IOException {
+		final Repository repository = getRepository();
+		final byte[] resourceContents = Bytes.createRandom(16); //create random contents
+		final URI collection1URI = repository.getRootURI().resolve("test1/");
+		final URI collection2URI = collection1URI.resolve("test2/");
+		final URI resource1URI = collection1URI.resolve("test1.bin");
+		final URI resource2URI = collection2URI.resolve("test2.bin");
+		repository.createParentResources(resource2URI); //create test1/ and test1/test2/
+		repository.createResource(resource1URI, resourceContents);
+		repository.createResource(resource2URI, resourceContents);
+		final List<URI> visitedURIs = new ArrayList<URI>();
+		final ResourceVisitor visitor = new ResourceVisitor() {
+
+			@Override
+			public boolean visit(final URFResource resourceDescription) throws IOException {
+				visitedURIs.add(resourceDescription.getURI());
+				return true;
+			}
+		};
+		assertTrue("Traversal did not complete.", repository.visitChildResourceDescriptions(repository.getRootURI(), Repository.INFINITE_DEPTH, visitor));
+		assertThat("URIs of visited resources not what expected.", new HashSet<URI>(visitedURIs),
+				equalTo(Sets.<URI> immutableSetOf(collection1URI, collection2URI, resource1URI, resource2URI)));
+		assertThat("Visited collection 1 out of order.", visitedURIs.indexOf(collection1URI), equalTo(0));
+		assertTrue("Visited collection 2 after its child.", visitedURIs.indexOf(collection2URI) < visitedURIs.indexOf(resource2URI));
+		visitedURIs.clear();
+		assertTrue("Traversal did not complete.", repository.visitChildResourceDescriptions(repository.getRootURI(), 1, visitor));
+		assertThat("URIs of visited resources not what expected.", visitedURIs, equalTo(Arrays.asList(collection1URI)));
+		visitedURIs.clear();
+		assertFalse("Traversal did not stop.", repository.visitChildResourceDescriptions(collection1URI, Repository.INFINITE_DEPTH, new ResourceVisitor() {
+
+			@Override
+			public boolean visit(final URFResource resourceDescription) throws IOException {
+				visitedURIs.add(resourceDescription.getURI());
+				return false;
+			}
+		}));
+		assertThat("Visiting continued after traversal was stopped.", visitedURIs.size(), equalTo(1));
+		repository.deleteResource(collection1URI); //delete the collection we created
+	}
+
+	/**
+	 * Tests:
+	 * <ul>
+	 * <li>Retrieving the descriptions of several resources at once, including siblings and a collection.</li>
+	 * <li>Retrieving the descriptions in the order requested.</li>
+	 * </ul>
+	 */
+	@Test
+	public void testGetResourceDescriptions() throws IOException {
+		final Repository repository = getRepository();
+		final URI collectionURI = repository.getRootURI().resolve("test1/");
+		final URI resource1URI = collectionURI.resolve("test1.bin");
+		final URI resource2URI = collectionURI.resolve("test2.bin");
+		final URI resource3URI = collectionURI.resolve("test3.bin");
+		repository.createCollectionResource(collectionURI);
+		repository.createResource(resource1URI, Bytes.createRandom(16));
+		repository.createResource(resource2URI, Bytes.createRandom(32));
+		repository.createResource(resource3URI, Bytes.createRandom(64));
+		final List<URI> resourceURIs = Arrays.asList(resource3URI, collectionURI, resource1URI);
+		final Map<URI, URFResource> resourceDescriptions = repository.getResourceDescriptions(resourceURIs);
+		assertThat("Resource descriptions not in the order requested.", new ArrayList<URI>(resourceDescriptions.keySet()), equalTo(resourceURIs));
+		assertThat("Invalid URI of resource description.", resourceDescriptions.get(resource1URI).getURI(), equalTo(resource1URI));
+		assertThat("Invalid content length of resource.", getContentLength(resourceDescriptions.get(resource1URI)), equalTo(16L));
+		assertThat("Invalid content length of resource.", getContentLength(resourceDescriptions.get(resource3URI)), equalTo(64L));
+		assertThat("Invalid content length of collection resource.", getContentLength(resourceDescriptions.get(collectionURI)), equalTo(0L));
+		repository.deleteResource(collectionURI); //delete the collection we created
+	}
+
+	/**
+	 * Tests:
+	 * <ul>
+	 * <li>Determining the digest of resource contents.</li>
+	 * <li>Determining the digest of a collection with no content.</li>
+	 * </ul>
+	 */
+	@Test
+	public void testGetResourceContentDigest() throws IOException, NoSuchAlgorithmException {
+		final Repository repository = getRepository();
+		final URI collectionURI = repository.getRootURI().resolve("test1/");
+		final URI resourceURI = collectionURI.resolve("test.bin");
+		final byte[] contents = Bytes.createRandom(1 << 10);
+		repository.createCollectionResource(collectionURI);
+		repository.createResource(resourceURI, contents);
+		for(final String algorithm : Arrays.asList("SHA-256", "MD5")) {
+			assertThat("Invalid " + algorithm + " digest of resource contents.", repository.getResourceContentDigest(resourceURI, algorithm),
+					equalTo(MessageDigest.getInstance(algorithm).digest(contents)));
+			assertThat("Invalid " + algorithm + " digest of collection contents.", repository.getResourceContentDigest(collectionURI, algorithm),
+					equalTo(MessageDigest.getInstance(algorithm).digest()));
+		}
+		repository.deleteResource(collectionURI); //delete the collection we created
+	}
+
+	/**
+	 * Tests:
+	 * <ul>
+	 * <li>Retrieving resource contents as a read-only buffer.</li>
+	 * <li>Retrieving the contents of a collection with no content as a buffer.</li>
+	 * </ul>
+	 */
+	@Test
+	public void testGetResourceContentBuffer() throws IOException {
+		final Repository repository = getRepository();
+		final URI collectionURI = repository.getRootURI().resolve("test1/");
+		final URI resourceURI = collectionURI.resolve("test.bin");
+		final byte[] contents = Bytes.createRandom(1 << 10);
+		repository.createCollectionResource(collectionURI);
+		repository.createResource(resourceURI, contents);
+		final ByteBuffer resourceBuffer = repository.getResourceContentBuffer(resourceURI);
+		assertTrue("Resource content buffer is not read-only.", resourceBuffer.isReadOnly());
+		final byte[] bufferContents = new byte[resourceBuffer.remaining()];
+		resourceBuffer.get(bufferContents);
+		assertThat("Invalid resource content buffer.", bufferContents, equalTo(contents));
+		assertThat("Invalid collection content buffer length.", repository.getResourceContentBuffer(collectionURI).remaining(), equalTo(0));
+		repository.deleteResource(collectionURI); //delete the collection we created
+	}
+
+	/**
+	 * Tests:
+	 * <ul>
+	 * <li>Reading a range of resource contents.</li>
+	 * <li>Reading the remainder of resource contents after an offset.</li>
+	 * <li>Reading a range beyond the end of resource contents.</li>
+	 * </ul>
+	 */
+	@Test
+	public void testGetResourceInputStreamRange() throws IOException {
+		final Repository repository = getRepository();
+		final URI resourceURI = repository.getRootURI().resolve("test.bin");
+		final byte[] contents = Bytes.createRandom(1 << 10);
+		repository.createResource(resourceURI, contents);
+		assertThat("Invalid range of resource contents.", readBytes(repository.getResourceInputStream(resourceURI, 100, 200)),
+				equalTo(Arrays.copyOfRange(contents, 100, 300)));
+		assertThat("Invalid remainder of resource contents.", readBytes(repository.getResourceInputStream(resourceURI, 1000, -1)),
+				equalTo(Arrays.copyOfRange(contents, 1000, contents.length)));
+		assertThat("Range beyond end of resource contents not empty.", readBytes(repository.getResourceInputStream(resourceURI, contents.length + 100, 10)).length,
+				equalTo(0));
+		repository.deleteResource(resourceURI);
+	}
+
+	/**
+	 * Tests:
+	 * <ul>
+	 * <li>Determining that a resource has not been modified from a known version.</li>
+	 * <li>Determining that a resource has been modified from an earlier version.</li>
+	 * <li>Conditionally reading resource contents.</li>
+	 * </ul>
+	 */
+	@Test
+	public void testGetResourceInputStreamIfModified() throws IOException {
+		final Repository repository = getRepository();
+		final URI resourceURI = repository.getRootURI().resolve("test.bin");
+		final byte[] contents = Bytes.createRandom(1 << 10);
+		final ISODateTime modified = getModified(repository.createResource(resourceURI, contents));
+		assertNotNull("Missing modified datetime.", modified);
+		final ISODateTime earlierModified = new ISODateTime(modified.getTime() - 60 * 1000);
+		assertFalse("Unchanged resource reported as modified.", repository.isResourceModified(resourceURI, modified));
+		assertTrue("Changed resource not reported as modified.", repository.isResourceModified(resourceURI, earlierModified));
+		assertNull("Contents of unchanged resource retrieved.", repository.getResourceInputStreamIfModified(resourceURI, modified));
+		assertThat("Invalid contents of changed resource.", readBytes(repository.getResourceInputStreamIfModified(resourceURI, earlierModified)), equalTo(contents));
+		repository.deleteResource(resourceURI);
+	}
+
+	/**
+	 * Tests:
+	 * <ul>
+	 * <li>Creating resources concurrently using an asynchronous repository.</li>
+	 * <li>Retrieving descriptions and contents using an asynchronous repository.</li>
+	 * <li>Reporting errors through the returned future.</li>
+	 * </ul>
+	 */
+	@Test
+	public void testAsyncRepository() throws Exception {
+		final Repository repository = getRepository();
+		final ExecutorService executorService = Executors.newFixedThreadPool(4);
+		try {
+			final AsyncRepository asyncRepository = new ExecutorAsyncRepository(repository, executorService);
+			final URI collectionURI = repository.getRootURI().resolve("async/");
+			repository.createCollectionResource(collectionURI);
+			final int resourceCount = 16;
+			final List<CompletableFuture<URFResource>> createFutures = new ArrayList<CompletableFuture<URFResource>>();
+			for(int i = 0; i < resourceCount; ++i) {
+				final URI resourceURI = collectionURI.resolve("test" + i + ".txt");
+				createFutures.add(asyncRepository.createResource(resourceURI, new DefaultURFResource(resourceURI), Integer.toString(i).getBytes(UTF_8)));
+			}
+			CompletableFuture.allOf(createFutures.toArray(new CompletableFuture<?>[createFutures.size()])).get();
+			assertThat("Not all resources listed.", asyncRepository.getChildResourceDescriptions(collectionURI, null, 1).get().size(), equalTo(resourceCount));
+			final URI resourceURI = collectionURI.resolve("test3.txt");
+			assertThat("Invalid description.", asyncRepository.getResourceDescription(resourceURI).get().getURI(), equalTo(resourceURI));
+			assertThat("Invalid contents.", asyncRepository.getResourceContents(resourceURI).get(), equalTo("3".getBytes(UTF_8)));
+			try {
+				asyncRepository.getResourceDescription(repository.getRootURI().resolve("missing.txt")).get();
+				fail("Missing resource description retrieved.");
+			} catch(final ExecutionException executionException) {
+				assertThat("Unexpected error.", executionException.getCause(), instanceOf(ResourceNotFoundException.class));
+			}
+			asyncRepository.deleteResource(collectionURI).get();
+		} finally {
+			executorService.shutdown();
+		}
+	}
+
+	/**
+	 * Reads and closes an input stream.
+	 * @param inputStream The input stream to read.
+	 * @return All the bytes remaining in the input stream.
+	 * @throws IOException if there is an error reading the stream.
+	 */
+	private static byte[] readBytes(final InputStream inputStream) throws IOException {
+		try {
+			final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+			final byte[] buffer = new byte[1 << 10];
+			int count;
+			while((count = inputStream.read(buffer)) >= 0) {
+				byteArrayOutputStream.write(buffer, 0, count);
+			}
+			return byteArrayOutputStream.toByteArray();
+		} finally {
+			inputStream.close();
+		}
+	}
+
 	/**
 	 * Tests:
 	 * <ul>
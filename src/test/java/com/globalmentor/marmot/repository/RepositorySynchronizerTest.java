@@ -0,0 +1,502 @@
+/*
+ * Copyright © 2013 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.marmot.repository;
+
+import static com.globalmentor.java.Conditions.*;
+import static com.globalmentor.net.URIs.*;
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.urframework.dcmi.DCMI.*;
+
+import java.io.*;
+import java.net.URI;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+import org.urframework.*;
+
+import com.globalmentor.java.Bytes;
+import com.globalmentor.log.AbstractLoggedTest;
+import com.globalmentor.marmot.Marmot;
+import com.globalmentor.iso.datetime.ISODateTime;
+import com.globalmentor.marmot.repository.file.FileRepository;
+import com.globalmentor.net.ResourceIOException;
+
+/**
+ * Tests synchronizing repositories, using file repositories as the source and destination.
+ *
+ * @author Garret Wilson
+ * @see RepositorySynchronizer
+ */
+public class RepositorySynchronizerTest extends AbstractLoggedTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	/** The repository from which resources are synchronized. */
+	private Repository sourceRepository;
+
+	/** The repository to which resources are synchronized. */
+	private Repository destinationRepository;
+
+	@Before
+	public void before() throws IOException {
+		sourceRepository = new FileRepository(temporaryFolder.newFolder());
+		sourceRepository.open();
+		destinationRepository = new FileRepository(temporaryFolder.newFolder());
+		destinationRepository.open();
+	}
+
+	@After
+	public void after() throws IOException {
+		sourceRepository.close();
+		destinationRepository.close();
+	}
+
+	/**
+	 * Creates a tree of test resources.
+	 * @param repository The repository in which to create the resources.
+	 * @param collectionURI The URI of the existing collection in which to create the resources.
+	 * @param depth The number of levels of collections to create below the given collection.
+	 * @param width The number of collections and of non-collection resources to create in each collection.
+	 * @throws IOException if there is an error creating the resources.
+	 */
+	protected static void createTree(final Repository repository, final URI collectionURI, final int depth, final int width) throws IOException {
+		for(int i = 0; i < width; ++i) {
+			repository.createResource(collectionURI.resolve("file" + i + ".bin"), Bytes.createRandom(i * 100 + 1));
+			if(depth > 0) {
+				final URI childCollectionURI = collectionURI.resolve("collection" + i + "/");
+				repository.createCollectionResource(childCollectionURI);
+				createTree(repository, childCollectionURI, depth - 1, width);
+			}
+		}
+	}
+
+	/**
+	 * Asserts that two trees of resources have the same resources with the same contents.
+	 * @param repository The repository containing the expected resources.
+	 * @param collectionURI The URI of the collection containing the expected resources.
+	 * @param otherRepository The repository containing the actual resources.
+	 * @param otherCollectionURI The URI of the collection containing the actual resources.
+	 * @throws IOException if there is an error reading the resources.
+	 */
+	protected static void assertTreesEqual(final Repository repository, final URI collectionURI, final Repository otherRepository,
+			final URI otherCollectionURI) throws IOException {
+		final Set<URI> childResourceURIs = new HashSet<URI>();
+		for(final URFResource childResourceDescription : repository.getChildResourceDescriptions(collectionURI)) {
+			childResourceURIs.add(collectionURI.relativize(childResourceDescription.getURI()));
+		}
+		final Set<URI> otherChildResourceURIs = new HashSet<URI>();
+		for(final URFResource otherChildResourceDescription : otherRepository.getChildResourceDescriptions(otherCollectionURI)) {
+			otherChildResourceURIs.add(otherCollectionURI.relativize(otherChildResourceDescription.getURI()));
+		}
+		assertThat("Children of " + otherCollectionURI + " differ.", otherChildResourceURIs, equalTo(childResourceURIs));
+		for(final URI childResourceURI : childResourceURIs) {
+			final URI resourceURI = collectionURI.resolve(childResourceURI);
+			final URI otherResourceURI = otherCollectionURI.resolve(childResourceURI);
+			if(isCollectionURI(resourceURI)) {
+				assertTreesEqual(repository, resourceURI, otherRepository, otherResourceURI);
+			} else {
+				assertThat("Contents of " + otherResourceURI + " differ.", otherRepository.getResourceContents(otherResourceURI),
+						equalTo(repository.getResourceContents(resourceURI)));
+			}
+		}
+	}
+
+	/**
+	 * Tests synchronizing a tree in parallel with the concurrency of each repository limited.
+	 */
+	@Test
+	public void testParallelSynchronize() throws IOException {
+		final URI sourceRootURI = sourceRepository.getRootURI();
+		final URI destinationRootURI = destinationRepository.getRootURI();
+		createTree(sourceRepository, sourceRootURI, 2, 4);
+		final RepositorySynchronizer repositorySynchronizer = new RepositorySynchronizer();
+		repositorySynchronizer.setThreadCount(4);
+		repositorySynchronizer.setRepositoryConcurrency(2);
+		repositorySynchronizer.synchronize(sourceRepository, sourceRootURI, destinationRepository, destinationRootURI);
+		assertTreesEqual(sourceRepository, sourceRootURI, destinationRepository, destinationRootURI);
+		sourceRepository.deleteResource(sourceRootURI.resolve("collection1/")); //make changes and synchronize again
+		sourceRepository.createResource(sourceRootURI.resolve("collection2/file0.bin"), Bytes.createRandom(1000));
+		repositorySynchronizer.synchronize(sourceRepository, sourceRootURI, destinationRepository, destinationRootURI);
+		assertTreesEqual(sourceRepository, sourceRootURI, destinationRepository, destinationRootURI);
+	}
+
+	/**
+	 * Tests synchronizing two trees in the same repository in parallel with the concurrency of the repository limited to a single resource, which requires that
+	 * only one permit be acquired for each resource.
+	 */
+	@Test(timeout = 60000)
+	public void testParallelSynchronizeSameRepository() throws IOException {
+		final URI sourceCollectionURI = sourceRepository.createCollectionResource(sourceRepository.getRootURI().resolve("source/")).getURI();
+		final URI destinationCollectionURI = sourceRepository.createCollectionResource(sourceRepository.getRootURI().resolve("destination/")).getURI();
+		createTree(sourceRepository, sourceCollectionURI, 2, 3);
+		final RepositorySynchronizer repositorySynchronizer = new RepositorySynchronizer();
+		repositorySynchronizer.setThreadCount(4);
+		repositorySynchronizer.setRepositoryConcurrency(1);
+		repositorySynchronizer.synchronize(sourceRepository, sourceCollectionURI, sourceRepository, destinationCollectionURI);
+		assertTreesEqual(sourceRepository, sourceCollectionURI, sourceRepository, destinationCollectionURI);
+	}
+
+	/**
+	 * Tests that a failure while synchronizing in parallel is reported and stops synchronization.
+	 */
+	@Test
+	public void testParallelSynchronizeFailure() throws IOException {
+		final URI failureURI = URI.create("collection1/file2.bin");
+		final Repository failingSourceRepository = new FileRepository(temporaryFolder.newFolder()) {
+
+			@Override
+			protected InputStream getResourceInputStreamImpl(final URI resourceURI) throws ResourceIOException {
+				if(resourceURI.equals(getRootURI().resolve(failureURI))) {
+					throw new ResourceIOException(resourceURI, "Test failure.");
+				}
+				return super.getResourceInputStreamImpl(resourceURI);
+			}
+		};
+		failingSourceRepository.open();
+		try {
+			final URI sourceRootURI = failingSourceRepository.getRootURI();
+			createTree(failingSourceRepository, sourceRootURI, 2, 4);
+			final RepositorySynchronizer repositorySynchronizer = new RepositorySynchronizer();
+			repositorySynchronizer.setThreadCount(4);
+			try {
+				repositorySynchronizer.synchronize(failingSourceRepository, sourceRootURI, destinationRepository, destinationRepository.getRootURI());
+				fail("Synchronization failure not reported.");
+			} catch(final ResourceIOException resourceIOException) {
+				assertThat("Unexpected failure.", resourceIOException.getMessage(), containsString("Test failure."));
+			}
+			assertFalse("Failed resource copied.", destinationRepository.resourceExists(destinationRepository.getRootURI().resolve(failureURI)));
+		} finally {
+			failingSourceRepository.close();
+		}
+	}
+
+	/**
+	 * Tests that with a manifest, changes beneath collections are still synchronized if the repositories don't track changes to entire trees.
+	 */
+	@Test
+	public void testManifestSynchronize() throws IOException {
+		final URI sourceRootURI = sourceRepository.getRootURI();
+		final URI destinationRootURI = destinationRepository.getRootURI();
+		createTree(sourceRepository, sourceRootURI, 2, 3);
+		final RepositorySynchronizer repositorySynchronizer = new RepositorySynchronizer();
+		final File manifestFile = new File(temporaryFolder.getRoot(), "manifest");
+		repositorySynchronizer.setManifestFile(manifestFile);
+		repositorySynchronizer.synchronize(sourceRepository, sourceRootURI, destinationRepository, destinationRootURI);
+		assertTrue("Manifest not saved.", manifestFile.exists());
+		assertTreesEqual(sourceRepository, sourceRootURI, destinationRepository, destinationRootURI);
+		sourceRepository.createResource(sourceRootURI.resolve("collection1/collection2/file0.bin"), Bytes.createRandom(1000)); //change a resource deep in the tree
+		repositorySynchronizer.synchronize(sourceRepository, sourceRootURI, destinationRepository, destinationRootURI);
+		assertTreesEqual(sourceRepository, sourceRootURI, destinationRepository, destinationRootURI);
+	}
+
+	/**
+	 * Tests that with a manifest, the children of unchanged collections are skipped if both repositories track changes to entire trees, and are synchronized
+	 * once the tree revision changes.
+	 */
+	@Test
+	public void testManifestSkipUnchangedCollections() throws IOException {
+		final TreeRevisionFileRepository trackingSourceRepository = new TreeRevisionFileRepository(temporaryFolder.newFolder());
+		final TreeRevisionFileRepository trackingDestinationRepository = new TreeRevisionFileRepository(temporaryFolder.newFolder());
+		trackingSourceRepository.open();
+		trackingDestinationRepository.open();
+		try {
+			final URI sourceRootURI = trackingSourceRepository.getRootURI();
+			final URI destinationRootURI = trackingDestinationRepository.getRootURI();
+			createTree(trackingSourceRepository, sourceRootURI, 2, 3);
+			final RepositorySynchronizer repositorySynchronizer = new RepositorySynchronizer();
+			repositorySynchronizer.setManifestFile(new File(temporaryFolder.getRoot(), "manifest"));
+			repositorySynchronizer.synchronize(trackingSourceRepository, sourceRootURI, trackingDestinationRepository, destinationRootURI);
+			assertTreesEqual(trackingSourceRepository, sourceRootURI, trackingDestinationRepository, destinationRootURI);
+			final URI changedResourceURI = URI.create("collection1/collection2/file0.bin");
+			final byte[] changedContents = Bytes.createRandom(1000);
+			trackingSourceRepository.createResource(sourceRootURI.resolve(changedResourceURI), changedContents); //change a resource without changing the tree revision
+			repositorySynchronizer.synchronize(trackingSourceRepository, sourceRootURI, trackingDestinationRepository, destinationRootURI);
+			assertThat("Children of unchanged collection synchronized.", trackingDestinationRepository.getResourceContents(destinationRootURI.resolve(changedResourceURI)),
+					not(equalTo(changedContents)));
+			trackingSourceRepository.treeRevision++; //indicate that the tree has changed
+			repositorySynchronizer.synchronize(trackingSourceRepository, sourceRootURI, trackingDestinationRepository, destinationRootURI);
+			assertTreesEqual(trackingSourceRepository, sourceRootURI, trackingDestinationRepository, destinationRootURI);
+		} finally {
+			trackingSourceRepository.close();
+			trackingDestinationRepository.close();
+		}
+	}
+
+	/**
+	 * Tests:
+	 * <ul>
+	 * <li>Copying orphans to a batch repository in a single batch for each collection.</li>
+	 * <li>Deleting orphans and updating content and metadata in a batch repository in a single batch for each collection, serially and in parallel.</li>
+	 * <li>Making no changes to a batch repository outside of batches.</li>
+	 * </ul>
+	 */
+	@Test
+	public void testBatchSynchronize() throws IOException {
+		final BatchFileRepository batchDestinationRepository = new BatchFileRepository(temporaryFolder.newFolder());
+		batchDestinationRepository.open();
+		try {
+			final URI sourceRootURI = sourceRepository.getRootURI();
+			final URI destinationRootURI = batchDestinationRepository.getRootURI();
+			createTree(sourceRepository, sourceRootURI, 2, 3);
+			final RepositorySynchronizer repositorySynchronizer = new RepositorySynchronizer();
+			repositorySynchronizer.synchronize(sourceRepository, sourceRootURI, batchDestinationRepository, destinationRootURI);
+			assertTreesEqual(sourceRepository, sourceRootURI, batchDestinationRepository, destinationRootURI);
+			assertThat("Changes made outside of batches.", batchDestinationRepository.unbatchedChangeCount.get(), equalTo(0));
+			assertFalse("No batches committed.", batchDestinationRepository.commitMessages.isEmpty());
+			assertThat("Changes to a collection committed in several batches.", new HashSet<String>(batchDestinationRepository.commitMessages).size(),
+					equalTo(batchDestinationRepository.commitMessages.size()));
+			final URI changedResourceURI = URI.create("collection2/file0.bin");
+			final URI retitledResourceURI = URI.create("collection2/file1.bin");
+			sourceRepository.deleteResource(sourceRootURI.resolve("collection1/")); //delete an orphan collection
+			sourceRepository.deleteResource(sourceRootURI.resolve("collection0/file2.bin")); //delete an orphan file
+			sourceRepository.createResource(sourceRootURI.resolve("collection0/new.bin"), Bytes.createRandom(100)); //add an orphan file
+			sourceRepository.createResource(sourceRootURI.resolve(changedResourceURI), Bytes.createRandom(1000)); //change content and metadata together
+			final URFResource properties = new DefaultURFResource();
+			setTitle(properties, "Changed");
+			sourceRepository.setResourceProperties(sourceRootURI.resolve(changedResourceURI), properties.getProperties());
+			sourceRepository.setResourceProperties(sourceRootURI.resolve(retitledResourceURI), properties.getProperties()); //change only metadata
+			batchDestinationRepository.commitMessages.clear();
+			repositorySynchronizer.setThreadCount(4);
+			repositorySynchronizer.synchronize(sourceRepository, sourceRootURI, batchDestinationRepository, destinationRootURI);
+			assertTreesEqual(sourceRepository, sourceRootURI, batchDestinationRepository, destinationRootURI);
+			assertThat("Changes made outside of batches.", batchDestinationRepository.unbatchedChangeCount.get(), equalTo(0));
+			assertThat("Changes to a collection committed in several batches.", new HashSet<String>(batchDestinationRepository.commitMessages).size(),
+					equalTo(batchDestinationRepository.commitMessages.size()));
+			assertThat("Metadata not updated with content.", getTitle(batchDestinationRepository.getResourceDescription(destinationRootURI.resolve(changedResourceURI))),
+					equalTo("Changed"));
+			assertThat("Metadata not updated.", getTitle(batchDestinationRepository.getResourceDescription(destinationRootURI.resolve(retitledResourceURI))),
+					equalTo("Changed"));
+		} finally {
+			batchDestinationRepository.close();
+		}
+	}
+
+	/**
+	 * Tests synchronizing to a batch repository in parallel with the concurrency of each repository limited to a single resource, replacing the content of the
+	 * children of every collection in a single batch for each collection.
+	 */
+	@Test(timeout = 60000)
+	public void testParallelBatchSynchronize() throws IOException {
+		final BatchFileRepository batchDestinationRepository = new BatchFileRepository(temporaryFolder.newFolder());
+		batchDestinationRepository.open();
+		try {
+			final URI sourceRootURI = sourceRepository.getRootURI();
+			final URI destinationRootURI = batchDestinationRepository.getRootURI();
+			createTree(sourceRepository, sourceRootURI, 2, 3);
+			createTree(batchDestinationRepository, destinationRootURI, 2, 3); //create the same resources with different contents
+			batchDestinationRepository.unbatchedChangeCount.set(0);
+			final RepositorySynchronizer repositorySynchronizer = new RepositorySynchronizer();
+			repositorySynchronizer.setContentDigestAlgorithm("SHA-256"); //compare the contents themselves, as the lengths are the same
+			repositorySynchronizer.setThreadCount(4);
+			repositorySynchronizer.setRepositoryConcurrency(1);
+			repositorySynchronizer.synchronize(sourceRepository, sourceRootURI, batchDestinationRepository, destinationRootURI);
+			assertTreesEqual(sourceRepository, sourceRootURI, batchDestinationRepository, destinationRootURI);
+			assertThat("Changes made outside of batches.", batchDestinationRepository.unbatchedChangeCount.get(), equalTo(0));
+			assertThat("Changes not committed in a single batch for each collection.", batchDestinationRepository.commitMessages.size(), equalTo(1 + 3 + 9));
+			assertThat("Changes to a collection committed in several batches.", new HashSet<String>(batchDestinationRepository.commitMessages).size(),
+					equalTo(batchDestinationRepository.commitMessages.size()));
+		} finally {
+			batchDestinationRepository.close();
+		}
+	}
+
+	/**
+	 * A file repository that reports the same tree revision for all its collections, changing only when explicitly updated.
+	 *
+	 * @author Garret Wilson
+	 */
+	protected static class TreeRevisionFileRepository extends FileRepository {
+
+		/** The tree revision reported for all collections. */
+		public long treeRevision = 1;
+
+		/**
+		 * File constructor.
+		 * @param repositoryDirectory The file identifying the directory of this repository.
+		 */
+		public TreeRevisionFileRepository(final File repositoryDirectory) {
+			super(repositoryDirectory);
+		}
+
+		@Override
+		protected URFResource createResourceDescription(final URF urf, final URI resourceURI, final File resourceFile, final BasicFileAttributes attributes,
+				final File resourceDescriptionFile) throws IOException {
+			final URFResource resourceDescription = super.createResourceDescription(urf, resourceURI, resourceFile, attributes, resourceDescriptionFile);
+			if(attributes.isDirectory()) {
+				resourceDescription.setPropertyValue(Marmot.TREE_REVISION_PROPERTY_URI, treeRevision);
+			}
+			return resourceDescription;
+		}
+	}
+
+	/**
+	 * A file repository that supports batches by applying the recorded changes one after the other when committed. The messages of committed batches are
+	 * recorded, as is the number of changes made outside of batches.
+	 *
+	 * @author Garret Wilson
+	 */
+	protected static class BatchFileRepository extends FileRepository implements BatchRepository {
+
+		/** The number of changes made outside of batches. */
+		public final AtomicInteger unbatchedChangeCount = new AtomicInteger();
+
+		/** The messages of the batches committed, in the order committed. */
+		public final List<String> commitMessages = Collections.synchronizedList(new ArrayList<String>());
+
+		/** Whether the current thread is committing a batch. */
+		private final ThreadLocal<Boolean> committing = new ThreadLocal<Boolean>();
+
+		/**
+		 * File constructor.
+		 * @param repositoryDirectory The file identifying the directory of this repository.
+		 */
+		public BatchFileRepository(final File repositoryDirectory) {
+			super(repositoryDirectory);
+		}
+
+		/** Records a change if it is not being made by a batch. */
+		private void recordChange() {
+			if(committing.get() == null) {
+				unbatchedChangeCount.incrementAndGet();
+			}
+		}
+
+		@Override
+		protected OutputStream getResourceOutputStreamImpl(final URI resourceURI, final ISODateTime newContentModified) throws ResourceIOException {
+			recordChange();
+			return super.getResourceOutputStreamImpl(resourceURI, newContentModified);
+		}
+
+		@Override
+		protected OutputStream createResourceImpl(final URI resourceURI, final URFResource resourceDescription) throws ResourceIOException {
+			recordChange();
+			return super.createResourceImpl(resourceURI, resourceDescription);
+		}
+
+		@Override
+		protected URFResource createResourceImpl(final URI resourceURI, final URFResource resourceDescription, final byte[] resourceContents)
+				throws ResourceIOException {
+			recordChange();
+			return super.createResourceImpl(resourceURI, resourceDescription, resourceContents);
+		}
+
+		@Override
+		protected void deleteResourceImpl(final URI resourceURI) throws ResourceIOException {
+			recordChange();
+			super.deleteResourceImpl(resourceURI);
+		}
+
+		@Override
+		protected URFResource alterResourcePropertiesImpl(final URI resourceURI, final URFResourceAlteration resourceAlteration) throws ResourceIOException {
+			recordChange();
+			return super.alterResourcePropertiesImpl(resourceURI, resourceAlteration);
+		}
+
+		@Override
+		public RepositoryBatch beginBatch(final String message) {
+			return new RepositoryBatch() {
+
+				/** The recorded changes, keyed to resource URI: created resource contents, property alterations, or <code>null</code> for deletions. */
+				private final Map<URI, Object> changes = new LinkedHashMap<URI, Object>();
+
+				/** The descriptions of the created resources. */
+				private final Map<URI, URFResource> resourceDescriptions = new HashMap<URI, URFResource>();
+
+				@Override
+				public Repository getRepository() {
+					return BatchFileRepository.this;
+				}
+
+				/**
+				 * Records a change.
+				 * @param resourceURI The URI of the resource being changed.
+				 * @param change The change to record.
+				 * @throws IllegalStateException if the resource has already been changed in the batch.
+				 */
+				private void addChange(final URI resourceURI, final Object change) {
+					checkState(!changes.containsKey(resourceURI), "Resource {0} has already been changed in the batch.", resourceURI);
+					changes.put(resourceURI, change);
+				}
+
+				@Override
+				public OutputStream createResource(final URI resourceURI, final URFResource resourceDescription) {
+					final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+					addChange(resourceURI, outputStream);
+					resourceDescriptions.put(resourceURI, resourceDescription);
+					return outputStream;
+				}
+
+				@Override
+				public void createResource(final URI resourceURI, final URFResource resourceDescription, final byte[] resourceContents) {
+					createResource(resourceURI, resourceDescription).write(resourceContents, 0, resourceContents.length);
+				}
+
+				@Override
+				public void alterResourceProperties(final URI resourceURI, final URFResourceAlteration resourceAlteration) {
+					addChange(resourceURI, resourceAlteration);
+				}
+
+				@Override
+				public void deleteResource(final URI resourceURI) {
+					addChange(resourceURI, null);
+				}
+
+				@Override
+				public int getSize() {
+					return changes.size();
+				}
+
+				@Override
+				public void commit() throws ResourceIOException {
+					committing.set(Boolean.TRUE);
+					try {
+						for(final Map.Entry<URI, Object> changeEntry : changes.entrySet()) {
+							final URI resourceURI = changeEntry.getKey();
+							final Object change = changeEntry.getValue();
+							if(change instanceof ByteArrayOutputStream) {
+								final URFResource resourceDescription = resourceDescriptions.get(resourceURI);
+								if(isCollectionURI(resourceURI) && resourceExists(resourceURI)) { //don't replace the children of an existing collection
+									alterResourceProperties(resourceURI, DefaultURFResourceAlteration.createResourceAlteration(resourceDescription));
+								} else {
+									BatchFileRepository.this.createResource(resourceURI, resourceDescription, ((ByteArrayOutputStream)change).toByteArray());
+								}
+							} else if(change instanceof URFResourceAlteration) {
+								BatchFileRepository.this.alterResourceProperties(resourceURI, (URFResourceAlteration)change);
+							} else {
+								BatchFileRepository.this.deleteResource(resourceURI);
+							}
+						}
+					} finally {
+						committing.remove();
+					}
+					commitMessages.add(message);
+				}
+
+				@Override
+				public void discard() {
+					changes.clear();
+				}
+			};
+		}
+	}
+
+}
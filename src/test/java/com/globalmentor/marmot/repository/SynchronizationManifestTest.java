@@ -0,0 +1,124 @@
+/*
+ * Copyright © 2013 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.marmot.repository;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.net.URI;
+
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+
+import com.globalmentor.java.Bytes;
+
+/**
+ * Tests storing and retrieving synchronization manifests.
+ *
+ * @author Garret Wilson
+ * @see SynchronizationManifest
+ */
+public class SynchronizationManifestTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	/**
+	 * Tests that a saved manifest is loaded with the same fingerprint, entries, and content digests.
+	 */
+	@Test
+	public void testSaveLoad() throws IOException {
+		final SynchronizationManifest manifest = new SynchronizationManifest("test fingerprint");
+		final SynchronizationManifest.Entry rootEntry = new SynchronizationManifest.Entry(0, SynchronizationManifest.UNKNOWN_TIME, 1, 0,
+				SynchronizationManifest.UNKNOWN_TIME, -1);
+		final SynchronizationManifest.Entry fileEntry = new SynchronizationManifest.Entry(123, 1000, Long.MAX_VALUE, 123, 2000, Long.MIN_VALUE);
+		manifest.put("", rootEntry);
+		manifest.put("collection/fileé.txt", fileEntry); //include a non-ASCII path
+		final URI resourceURI = URI.create("http://example.com/collection/file.txt");
+		final byte[] digest = Bytes.createRandom(32);
+		manifest.putContentDigest(resourceURI, 123, 1000, digest);
+		final File manifestFile = new File(temporaryFolder.getRoot(), "manifest");
+		manifest.save(manifestFile);
+		final SynchronizationManifest loadedManifest = SynchronizationManifest.load(manifestFile);
+		assertThat(loadedManifest.getFingerprint(), equalTo("test fingerprint"));
+		assertThat(loadedManifest.getSize(), equalTo(2));
+		assertThat(loadedManifest.get(""), equalTo(rootEntry));
+		assertThat(loadedManifest.get("collection/fileé.txt"), equalTo(fileEntry));
+		assertThat(loadedManifest.getContentDigest(resourceURI, 123, 1000), equalTo(digest));
+		assertThat("Digest for changed content returned.", loadedManifest.getContentDigest(resourceURI, 123, 1001), is(nullValue()));
+	}
+
+	/**
+	 * Tests that removing a collection from the manifest removes its descendants but not other resources.
+	 */
+	@Test
+	public void testRemoveCollection() {
+		final SynchronizationManifest manifest = new SynchronizationManifest("");
+		final SynchronizationManifest.Entry entry = new SynchronizationManifest.Entry(1, 2, 3, 4, 5, 6);
+		manifest.put("collection/", entry);
+		manifest.put("collection/file.txt", entry);
+		manifest.put("collection/subcollection/", entry);
+		manifest.put("collection2/file.txt", entry);
+		manifest.remove("collection/");
+		assertThat(manifest.getSize(), equalTo(1));
+		assertThat(manifest.get("collection2/file.txt"), equalTo(entry));
+	}
+
+	/**
+	 * Tests that content digests are only kept when saving if they were used or retained after the manifest was loaded.
+	 */
+	@Test
+	public void testContentDigestRetention() throws IOException {
+		final SynchronizationManifest manifest = new SynchronizationManifest("");
+		final URI usedResourceURI = URI.create("http://example.com/used.txt");
+		final URI retainedResourceURI = URI.create("http://example.com/retained.txt");
+		final URI descendantResourceURI = URI.create("http://example.com/collection/subcollection/file.txt");
+		final URI removedResourceURI = URI.create("http://example.com/removed.txt");
+		for(final URI resourceURI : new URI[] { usedResourceURI, retainedResourceURI, descendantResourceURI, removedResourceURI }) {
+			manifest.putContentDigest(resourceURI, 1, 2, Bytes.createRandom(16));
+		}
+		final File manifestFile = new File(temporaryFolder.getRoot(), "manifest");
+		manifest.save(manifestFile);
+		final SynchronizationManifest loadedManifest = SynchronizationManifest.load(manifestFile);
+		assertThat(loadedManifest.getContentDigest(usedResourceURI, 1, 2), is(notNullValue()));
+		loadedManifest.retainContentDigest(retainedResourceURI);
+		loadedManifest.retainContentDigests(URI.create("http://example.com/collection/"));
+		loadedManifest.save(manifestFile);
+		final SynchronizationManifest prunedManifest = SynchronizationManifest.load(manifestFile);
+		assertThat(prunedManifest.getContentDigest(usedResourceURI, 1, 2), is(notNullValue()));
+		assertThat(prunedManifest.getContentDigest(retainedResourceURI, 1, 2), is(notNullValue()));
+		assertThat(prunedManifest.getContentDigest(descendantResourceURI, 1, 2), is(notNullValue()));
+		assertThat("Unused content digest not discarded.", prunedManifest.getContentDigest(removedResourceURI, 1, 2), is(nullValue()));
+	}
+
+	/**
+	 * Tests that a file that is not a manifest is rejected.
+	 */
+	@Test(expected = IOException.class)
+	public void testLoadInvalid() throws IOException {
+		final File file = new File(temporaryFolder.getRoot(), "invalid");
+		final OutputStream outputStream = new FileOutputStream(file);
+		try {
+			outputStream.write(Bytes.createRandom(100));
+		} finally {
+			outputStream.close();
+		}
+		SynchronizationManifest.load(file);
+	}
+
+}
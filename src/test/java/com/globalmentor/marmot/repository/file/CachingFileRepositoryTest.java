@@ -0,0 +1,198 @@
+/*
+ * Copyright © 2013 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.marmot.repository.file;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.urframework.content.Content.*;
+import static org.urframework.dcmi.DCMI.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+
+import org.junit.Test;
+import org.urframework.*;
+import org.urframework.io.URFIO;
+
+import com.globalmentor.java.Bytes;
+import com.globalmentor.marmot.repository.*;
+
+/**
+ * Tests repositories using a standard file system with resource descriptions cached. All the general repository tests are run with the cache enabled, ensuring
+ * that modifications are reflected in the descriptions returned.
+ *
+ * @author Garret Wilson
+ * @see FileRepository
+ * @see ResourceDescriptionCache
+ */
+public class CachingFileRepositoryTest extends AbstractFileRepositoryTest {
+
+	/**
+	 * {@inheritDoc}
+	 * @see #getTempDirectory()
+	 */
+	@Override
+	protected Repository createRepository() {
+		final FileRepository repository = new FileRepository(getTempDirectory());
+		repository.setResourceDescriptionCache(new ResourceDescriptionCache());
+		return repository;
+	}
+
+	/**
+	 * Tests:
+	 * <ul>
+	 * <li>Retrieving a cached resource description.</li>
+	 * <li>Invalidating a cached description when the resource is replaced.</li>
+	 * </ul>
+	 */
+	@Test
+	public void testCachedResourceDescription() throws IOException {
+		final AbstractRepository repository = (AbstractRepository)getRepository();
+		final ResourceDescriptionCache resourceDescriptionCache = repository.getResourceDescriptionCache();
+		final URI resourceURI = repository.getRootURI().resolve("test.bin"); //determine a test resource URI
+		repository.createResource(resourceURI, Bytes.createRandom(16));
+		assertThat("Invalid content length of resource.", getContentLength(repository.getResourceDescription(resourceURI)), equalTo(16L));
+		final long hitCount = resourceDescriptionCache.getHitCount();
+		assertThat("Invalid content length of cached resource.", getContentLength(repository.getResourceDescription(resourceURI)), equalTo(16L));
+		assertThat("Resource description not retrieved from cache.", resourceDescriptionCache.getHitCount(), equalTo(hitCount + 1));
+		repository.createResource(resourceURI, Bytes.createRandom(32)); //replace the resource
+		assertThat("Cached resource description not invalidated.", getContentLength(repository.getResourceDescription(resourceURI)), equalTo(32L));
+	}
+
+	/**
+	 * Tests:
+	 * <ul>
+	 * <li>Not caching a description retrieved before a concurrent invalidation.</li>
+	 * <li>Invalidating the cached descriptions of the ancestors of a modified resource.</li>
+	 * <li>Isolating cached descriptions from modifications to retrieved descriptions.</li>
+	 * </ul>
+	 */
+	@Test
+	public void testCacheConsistency() throws IOException {
+		final AbstractRepository repository = (AbstractRepository)getRepository();
+		final ResourceDescriptionCache resourceDescriptionCache = repository.getResourceDescriptionCache();
+		final URI collectionURI = repository.getRootURI().resolve("test/");
+		repository.createCollectionResource(collectionURI);
+		final URI resourceURI = collectionURI.resolve("test.bin");
+		repository.createResource(resourceURI, Bytes.createRandom(16));
+		final URFResource resourceDescription = repository.getResourceDescription(resourceURI);
+		final long generation = resourceDescriptionCache.getGeneration(); //simulate a retrieval interrupted by a modification
+		resourceDescriptionCache.invalidate(resourceURI);
+		assertFalse("Stale description cached.", resourceDescriptionCache.put(resourceURI, resourceDescription, generation));
+		assertThat("Stale description cached.", resourceDescriptionCache.get(resourceURI), nullValue());
+		repository.getResourceDescription(collectionURI); //cache the parent
+		assertThat("Parent description not cached.", resourceDescriptionCache.get(collectionURI), notNullValue());
+		repository.deleteResource(resourceURI);
+		assertThat("Parent description not invalidated.", resourceDescriptionCache.get(collectionURI), nullValue());
+		final URFResource collectionDescription = repository.getResourceDescription(collectionURI);
+		collectionDescription.addPropertyValue(DESCRIPTION_PROPERTY_URI, "modified"); //modify the retrieved description
+		assertThat("Cached description modified.", repository.getResourceDescription(collectionURI).getPropertyValue(DESCRIPTION_PROPERTY_URI), nullValue());
+	}
+
+	/**
+	 * Tests:
+	 * <ul>
+	 * <li>Caching a description retrieved during the invalidation of an unrelated resource.</li>
+	 * <li>Not caching a description retrieved during the invalidation of a descendant or of an ancestor collection.</li>
+	 * <li>Invalidating all the cached descriptions within a collection, but no others.</li>
+	 * </ul>
+	 */
+	@Test
+	public void testCacheInvalidationScope() {
+		final ResourceDescriptionCache resourceDescriptionCache = new ResourceDescriptionCache();
+		final URI collectionURI = URI.create("http://example.com/collection/");
+		final URI resourceURI = collectionURI.resolve("resource.bin");
+		final URI otherCollectionURI = URI.create("http://example.com/other/");
+		final URI otherResourceURI = otherCollectionURI.resolve("resource.bin");
+		long generation = resourceDescriptionCache.getGeneration();
+		resourceDescriptionCache.invalidate(otherResourceURI);
+		assertTrue("Description rejected after unrelated invalidation.", resourceDescriptionCache.put(resourceURI, new DefaultURFResource(resourceURI), generation));
+		generation = resourceDescriptionCache.getGeneration();
+		resourceDescriptionCache.invalidate(resourceURI);
+		assertFalse("Stale ancestor description cached.", resourceDescriptionCache.put(collectionURI, new DefaultURFResource(collectionURI), generation));
+		generation = resourceDescriptionCache.getGeneration();
+		resourceDescriptionCache.invalidate(collectionURI);
+		assertFalse("Stale descendant description cached.", resourceDescriptionCache.put(resourceURI, new DefaultURFResource(resourceURI), generation));
+		generation = resourceDescriptionCache.getGeneration();
+		resourceDescriptionCache.put(resourceURI, new DefaultURFResource(resourceURI), generation);
+		resourceDescriptionCache.put(otherResourceURI, new DefaultURFResource(otherResourceURI), generation);
+		resourceDescriptionCache.invalidate(collectionURI);
+		assertThat("Descendant description not invalidated.", resourceDescriptionCache.get(resourceURI), nullValue());
+		assertThat("Unrelated description invalidated.", resourceDescriptionCache.get(otherResourceURI), notNullValue());
+	}
+
+	/**
+	 * Tests:
+	 * <ul>
+	 * <li>Retrieving a cached resource description without reading or writing any description.</li>
+	 * <li>Isolating cached descriptions from modifications to the descriptions of the property values of retrieved descriptions.</li>
+	 * </ul>
+	 */
+	@Test
+	public void testCachedResourceDescriptionCopy() throws IOException {
+		final DescriptionIOCountingFileRepository repository = new DescriptionIOCountingFileRepository(temporaryFolder.newFolder());
+		repository.setResourceDescriptionCache(new ResourceDescriptionCache());
+		repository.open();
+		try {
+			final URI resourceURI = repository.getRootURI().resolve("test.bin");
+			repository.createResource(resourceURI, Bytes.createRandom(16));
+			final URFResource nestedResource = new DefaultURFResource();
+			setTitle(nestedResource, "nested");
+			repository.addResourceProperties(resourceURI, new DefaultURFProperty(DESCRIPTION_PROPERTY_URI, nestedResource));
+			repository.getResourceDescription(resourceURI); //cache the description
+			final long hitCount = repository.getResourceDescriptionCache().getHitCount();
+			final int descriptionIOAccessCount = repository.descriptionIOAccessCount;
+			final URFResource resourceDescription = repository.getResourceDescription(resourceURI);
+			assertThat("Resource description not retrieved from cache.", repository.getResourceDescriptionCache().getHitCount(), equalTo(hitCount + 1));
+			assertThat("Description I/O used for cached description.", repository.descriptionIOAccessCount, equalTo(descriptionIOAccessCount));
+			final URFResource nestedResourceDescription = resourceDescription.getPropertyValue(DESCRIPTION_PROPERTY_URI);
+			assertThat(getTitle(nestedResourceDescription), equalTo("nested"));
+			setTitle(nestedResourceDescription, "modified"); //modify the description of a property value of the retrieved description
+			assertThat("Cached description modified.", getTitle(repository.getResourceDescription(resourceURI).getPropertyValue(DESCRIPTION_PROPERTY_URI)),
+					equalTo("nested"));
+		} finally {
+			repository.close();
+		}
+	}
+
+	/**
+	 * A file repository that counts how many times its description I/O is accessed.
+	 *
+	 * @author Garret Wilson
+	 */
+	protected static class DescriptionIOCountingFileRepository extends FileRepository {
+
+		/** The number of times the description I/O has been accessed; not initialized explicitly, as it is used during construction. */
+		public int descriptionIOAccessCount;
+
+		/**
+		 * File constructor.
+		 * @param repositoryDirectory The file identifying the directory of this repository.
+		 */
+		public DescriptionIOCountingFileRepository(final File repositoryDirectory) {
+			super(repositoryDirectory);
+		}
+
+		@Override
+		protected URFIO<URFResource> getDescriptionIO() {
+			++descriptionIOAccessCount;
+			return super.getDescriptionIO();
+		}
+	}
+
+}
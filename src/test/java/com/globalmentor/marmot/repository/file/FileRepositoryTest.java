@@ -16,7 +16,26 @@
 
 package com.globalmentor.marmot.repository.file;
 
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.urframework.content.Content.*;
+import static org.urframework.dcmi.DCMI.*;
+
+import java.io.*;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.util.*;
+
+import org.junit.Test;
+import org.urframework.*;
+
+import com.globalmentor.java.Bytes;
+import com.globalmentor.marmot.repository.PartialResourceAlterationException;
 import com.globalmentor.marmot.repository.Repository;
+import com.globalmentor.net.ResourceIOException;
+import com.globalmentor.net.ResourceNotFoundException;
+import com.globalmentor.time.Time;
 
 /**
  * Tests repositories using a standard file system.
@@ -35,4 +54,141 @@ protected Repository createRepository() {
 		return new FileRepository(getTempDirectory());
 	}
 
+	/**
+	 * Tests copying a resource directly between file repositories, ensuring that the content, the content modified time, and the description are copied.
+	 */
+	@Test
+	public void testCopyResourceBetweenFileRepositories() throws IOException {
+		final Repository repository = getRepository();
+		final URI resourceURI = repository.getRootURI().resolve("test.bin"); //determine a test resource URI
+		final byte[] resourceContents = Bytes.createRandom((int)FileRepository.FILE_TRANSFER_CHUNK_SIZE + 1024); //span more than one transfer chunk
+		repository.createResource(resourceURI, resourceContents);
+		repository.addResourceProperties(resourceURI, new DefaultURFProperty(DESCRIPTION_PROPERTY_URI, "test description"));
+		final Repository destinationRepository = new FileRepository(temporaryFolder.newFolder());
+		destinationRepository.open();
+		try {
+			final URI destinationURI = destinationRepository.getRootURI().resolve("copy.bin");
+			repository.copyResource(resourceURI, destinationRepository, destinationURI);
+			assertThat("Copied resource contents differ.", destinationRepository.getResourceContents(destinationURI), equalTo(resourceContents));
+			final URFResource resourceDescription = repository.getResourceDescription(resourceURI);
+			final URFResource destinationDescription = destinationRepository.getResourceDescription(destinationURI);
+			assertThat("Content modified time not copied.", getModified(destinationDescription).floor(Time.Resolution.SECONDS),
+					equalTo(getModified(resourceDescription).floor(Time.Resolution.SECONDS)));
+			assertThat("Description not copied.", destinationDescription.getPropertyValue(DESCRIPTION_PROPERTY_URI),
+					equalTo(resourceDescription.getPropertyValue(DESCRIPTION_PROPERTY_URI)));
+			final URI nestedDestinationURI = destinationRepository.getRootURI().resolve("collection/subcollection/copy.bin");
+			repository.copyResource(resourceURI, destinationRepository, nestedDestinationURI); //copy to a collection that doesn't yet exist
+			assertTrue("Destination parent not created.", destinationRepository.resourceExists(destinationRepository.getRootURI().resolve("collection/subcollection/")));
+			assertThat("Copied resource contents differ.", destinationRepository.getResourceContents(nestedDestinationURI), equalTo(resourceContents));
+		} finally {
+			destinationRepository.close();
+		}
+	}
+
+	/**
+	 * Tests retrieving resource contents as a buffer mapped into memory.
+	 */
+	@Test
+	public void testGetMappedResourceContentBuffer() throws IOException {
+		final FileRepository repository = (FileRepository)getRepository();
+		repository.setMemoryMappingThreshold(0); //map all content
+		final URI resourceURI = repository.getRootURI().resolve("test.bin"); //determine a test resource URI
+		final byte[] resourceContents = Bytes.createRandom(1 << 10);
+		repository.createResource(resourceURI, resourceContents);
+		final ByteBuffer resourceBuffer = repository.getResourceContentBuffer(resourceURI);
+		assertTrue("Resource content buffer is not mapped.", resourceBuffer instanceof MappedByteBuffer);
+		assertTrue("Resource content buffer is not read-only.", resourceBuffer.isReadOnly());
+		final byte[] bufferContents = new byte[resourceBuffer.remaining()];
+		resourceBuffer.get(bufferContents);
+		assertThat("Invalid resource content buffer.", bufferContents, equalTo(resourceContents));
+	}
+
+	/**
+	 * Tests that directory scanning honors an overridden file filter.
+	 * @see FileRepository#getFileFilter()
+	 */
+	@Test
+	public void testOverriddenFileFilter() throws IOException {
+		final FileRepository repository = new FileRepository(temporaryFolder.newFolder()) {
+
+			private final FileFilter fileFilter = new FileFilter() {
+
+				@Override
+				public boolean accept(final File file) {
+					return !file.getName().endsWith(".skip") && !file.isHidden();
+				}
+			};
+
+			@Override
+			protected FileFilter getFileFilter() {
+				return fileFilter;
+			}
+		};
+		repository.open();
+		try {
+			final URI collectionURI = repository.getRootURI().resolve("test/");
+			repository.createCollectionResource(collectionURI);
+			final URI skippedResourceURI = collectionURI.resolve("test.skip");
+			repository.createResource(skippedResourceURI, Bytes.createRandom(16));
+			assertFalse("Filtered resource counted as child.", repository.hasChildren(collectionURI));
+			final URI resourceURI = collectionURI.resolve("test.bin");
+			repository.createResource(resourceURI, Bytes.createRandom(16));
+			assertTrue("Child not found.", repository.hasChildren(collectionURI));
+			final List<URI> childResourceURIs = new ArrayList<URI>();
+			for(final URFResource childResourceDescription : repository.getChildResourceDescriptions(collectionURI)) {
+				childResourceURIs.add(childResourceDescription.getURI());
+			}
+			assertThat("Filtered resource listed as child.", childResourceURIs, equalTo(Collections.singletonList(resourceURI)));
+		} finally {
+			repository.close();
+		}
+	}
+
+	/**
+	 * Tests that when altering the properties of several resources fails for one resource, the others are still altered and their descriptions are reported
+	 * along with the error.
+	 * @see Repository#alterResourceProperties(Map)
+	 */
+	@Test
+	public void testAlterResourcePropertiesPartialFailure() throws IOException {
+		final URI failureURI = URI.create("test1.bin");
+		final FileRepository repository = new FileRepository(temporaryFolder.newFolder()) {
+
+			@Override
+			protected URFResource alterResourcePropertiesImpl(final URI resourceURI, final URFResourceAlteration resourceAlteration) throws ResourceIOException {
+				if(resourceURI.equals(getRootURI().resolve(failureURI))) {
+					throw new ResourceNotFoundException(resourceURI);
+				}
+				return super.alterResourcePropertiesImpl(resourceURI, resourceAlteration);
+			}
+		};
+		repository.open();
+		try {
+			final Map<URI, URFResourceAlteration> resourceAlterations = new LinkedHashMap<URI, URFResourceAlteration>();
+			for(int i = 0; i < 4; ++i) {
+				final URI resourceURI = repository.getRootURI().resolve("test" + i + ".bin");
+				repository.createResource(resourceURI, Bytes.createRandom(i + 1));
+				resourceAlterations.put(resourceURI, DefaultURFResourceAlteration.createSetPropertiesAlteration(new DefaultURFProperty(DESCRIPTION_PROPERTY_URI,
+						"description " + i)));
+			}
+			try {
+				repository.alterResourceProperties(resourceAlterations);
+				fail("Alteration failure not reported.");
+			} catch(final PartialResourceAlterationException partialResourceAlterationException) {
+				assertThat(partialResourceAlterationException.getCause(), is(instanceOf(ResourceNotFoundException.class)));
+				assertThat(partialResourceAlterationException.getResourceURI(), equalTo(repository.getRootURI().resolve(failureURI)));
+				final List<URI> alteredResourceURIs = new ArrayList<URI>(resourceAlterations.keySet());
+				alteredResourceURIs.remove(repository.getRootURI().resolve(failureURI));
+				final Map<URI, URFResource> alteredResourceDescriptions = partialResourceAlterationException.getAlteredResourceDescriptions();
+				assertThat("Successful alterations not reported in order.", new ArrayList<URI>(alteredResourceDescriptions.keySet()), equalTo(alteredResourceURIs));
+				for(final URI alteredResourceURI : alteredResourceURIs) {
+					assertThat("Resource after failure not altered.", repository.getResourceDescription(alteredResourceURI).getPropertyValue(DESCRIPTION_PROPERTY_URI),
+							equalTo(alteredResourceDescriptions.get(alteredResourceURI).getPropertyValue(DESCRIPTION_PROPERTY_URI)));
+				}
+			}
+		} finally {
+			repository.close();
+		}
+	}
+
 }
@@ -0,0 +1,256 @@
+/*
+ * Copyright © 2013 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.marmot.repository.http;
+
+import static java.util.Arrays.*;
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.net.*;
+import java.util.*;
+
+import org.junit.*;
+
+/**
+ * Tests the backoff and circuit breakers of an HTTP retry policy, using a simulated clock and recording waits rather than sleeping.
+ *
+ * @author Garret Wilson
+ * @see HTTPRetryPolicy
+ */
+public class HTTPRetryPolicyTest {
+
+	/** The URI of the requested resource; no server is accessed. */
+	private static final URI RESOURCE_URI = URI.create("https://example.com/test/resource.txt");
+
+	/** The host of the requested resource. */
+	private static final String HOST = "example.com";
+
+	private TestHTTPRetryPolicy retryPolicy;
+
+	@Before
+	public void before() {
+		retryPolicy = new TestHTTPRetryPolicy();
+	}
+
+	/**
+	 * Creates a request that fails with the given errors in order before succeeding.
+	 * @param errors The errors with which the request fails before succeeding.
+	 * @return A request that counts its attempts in {@link CountingRequest#attemptCount}.
+	 */
+	protected static CountingRequest createRequest(final IOException... errors) {
+		return new CountingRequest(errors);
+	}
+
+	/**
+	 * Tests that transient errors are retried with delays that grow exponentially up to the maximum, each delay being jittered within its bound.
+	 */
+	@Test
+	public void testBackoff() throws IOException {
+		retryPolicy.setMaxAttempts(5);
+		retryPolicy.setInitialDelay(100);
+		retryPolicy.setMaxDelay(300);
+		final CountingRequest request = createRequest(new SocketException("1"), new SocketTimeoutException("2"), new SocketException("3"),
+				new SocketException("4"));
+		assertThat(retryPolicy.send(RESOURCE_URI, request), equalTo("success"));
+		assertThat(request.attemptCount, equalTo(5));
+		assertThat(retryPolicy.getRetryCount(), equalTo(4L));
+		final List<Long> delayBounds = asList(100L, 200L, 300L, 300L);
+		assertThat(retryPolicy.delays.size(), equalTo(delayBounds.size()));
+		for(int i = 0; i < delayBounds.size(); ++i) {
+			final long delay = retryPolicy.delays.get(i);
+			assertTrue("Delay " + delay + " not within bound " + delayBounds.get(i) + ".", delay >= 0 && delay <= delayBounds.get(i));
+		}
+	}
+
+	/**
+	 * Tests that errors that are not transient are not retried, and that the last error is reported once attempts are exhausted.
+	 */
+	@Test
+	public void testNoRetry() throws IOException {
+		final IOException error = new IOException("definite");
+		final CountingRequest definiteRequest = createRequest(error);
+		try {
+			retryPolicy.send(RESOURCE_URI, definiteRequest);
+			fail("Error not reported.");
+		} catch(final IOException ioException) {
+			assertThat(ioException, is(sameInstance(error)));
+		}
+		assertThat(definiteRequest.attemptCount, equalTo(1));
+		retryPolicy.setMaxAttempts(2);
+		final SocketException lastError = new SocketException("2");
+		final CountingRequest failingRequest = createRequest(new SocketException("1"), lastError, new SocketException("3"));
+		try {
+			retryPolicy.send(RESOURCE_URI, failingRequest);
+			fail("Error not reported.");
+		} catch(final IOException ioException) {
+			assertThat(ioException, is(sameInstance((IOException)lastError)));
+		}
+		assertThat(failingRequest.attemptCount, equalTo(2));
+	}
+
+	/**
+	 * Tests the circuit breaker opening after consecutive failures, rejecting requests while open, allowing a single trial after the open duration, opening
+	 * again if the trial fails, and closing if a trial succeeds.
+	 */
+	@Test
+	public void testCircuitBreaker() throws IOException {
+		retryPolicy.setMaxAttempts(1);
+		retryPolicy.setFailureThreshold(2);
+		retryPolicy.setOpenDuration(1000);
+		sendFailing(createRequest(new SocketException()));
+		assertThat("Circuit opened before threshold.", retryPolicy.getOpenCircuitHosts(), is(Collections.<String> emptySet()));
+		sendFailing(createRequest(new SocketException()));
+		assertThat(retryPolicy.getOpenCircuitHosts(), equalTo(Collections.singleton(HOST)));
+		assertThat(retryPolicy.getCircuitOpenCount(), equalTo(1L));
+		final CountingRequest rejectedRequest = createRequest();
+		assertThat(sendFailing(rejectedRequest), is(instanceOf(HTTPRetryPolicy.CircuitOpenException.class)));
+		assertThat("Request sent while circuit open.", rejectedRequest.attemptCount, equalTo(0));
+		assertThat(retryPolicy.getRejectedCount(), equalTo(1L));
+		retryPolicy.time += 1000; //let the open duration elapse
+		final CountingRequest failingTrialRequest = createRequest(new SocketException());
+		assertThat(sendFailing(failingTrialRequest), is(instanceOf(SocketException.class)));
+		assertThat(failingTrialRequest.attemptCount, equalTo(1));
+		assertThat("Circuit not opened again after failed trial.", retryPolicy.getOpenCircuitHosts(), equalTo(Collections.singleton(HOST)));
+		assertThat(retryPolicy.getCircuitOpenCount(), equalTo(2L));
+		retryPolicy.time += 999;
+		assertThat(sendFailing(createRequest()), is(instanceOf(HTTPRetryPolicy.CircuitOpenException.class)));
+		retryPolicy.time += 1;
+		assertThat(retryPolicy.send(RESOURCE_URI, createRequest()), equalTo("success"));
+		assertThat("Circuit not closed after successful trial.", retryPolicy.getOpenCircuitHosts(), is(Collections.<String> emptySet()));
+		sendFailing(createRequest(new SocketException()));
+		assertThat("Failure count not reset after success.", retryPolicy.getOpenCircuitHosts(), is(Collections.<String> emptySet()));
+	}
+
+	/**
+	 * Tests that if the circuit opens while a request is being retried, the error of the last attempt is reported.
+	 */
+	@Test
+	public void testCircuitOpensDuringRetry() {
+		retryPolicy.setMaxAttempts(5);
+		retryPolicy.setFailureThreshold(2);
+		final SocketException lastError = new SocketException("2");
+		final CountingRequest request = createRequest(new SocketException("1"), lastError, new SocketException("3"));
+		final IOException ioException = sendFailing(request);
+		assertThat(ioException, is(sameInstance((IOException)lastError)));
+		assertThat(request.attemptCount, equalTo(2));
+		assertThat(ioException.getSuppressed()[0], is(instanceOf(HTTPRetryPolicy.CircuitOpenException.class)));
+	}
+
+	/**
+	 * Tests that a transient error that occurs after part of a result was consumed is recorded as a failure but not retried.
+	 */
+	@Test
+	public void testUnrepeatableRequest() {
+		retryPolicy.setFailureThreshold(1);
+		final IOException error = new HTTPRetryPolicy.UnrepeatableRequestException("Partially consumed.", new SocketException("reset"));
+		final CountingRequest request = createRequest(error);
+		assertThat(sendFailing(request), is(sameInstance(error)));
+		assertThat("Unrepeatable request retried.", request.attemptCount, equalTo(1));
+		assertThat("Transient error not recorded.", retryPolicy.getOpenCircuitHosts(), equalTo(Collections.singleton(HOST)));
+	}
+
+	/**
+	 * Tests that single attempts are refused while the circuit is open and that their outcomes are recorded.
+	 */
+	@Test
+	public void testAttempt() throws IOException {
+		retryPolicy.setFailureThreshold(1);
+		retryPolicy.setOpenDuration(1000);
+		final HTTPRetryPolicy.Attempt attempt = retryPolicy.beginAttempt(RESOURCE_URI);
+		attempt.failed(new SocketException());
+		attempt.succeeded(); //only the first outcome counts
+		assertThat(retryPolicy.getOpenCircuitHosts(), equalTo(Collections.singleton(HOST)));
+		try {
+			retryPolicy.beginAttempt(RESOURCE_URI);
+			fail("Attempt allowed while circuit open.");
+		} catch(final HTTPRetryPolicy.CircuitOpenException circuitOpenException) {
+		}
+		retryPolicy.time += 1000;
+		retryPolicy.beginAttempt(RESOURCE_URI).succeeded();
+		assertThat(retryPolicy.getOpenCircuitHosts(), is(Collections.<String> emptySet()));
+	}
+
+	/**
+	 * Sends a request that is expected to fail.
+	 * @param request The request to send.
+	 * @return The error reported.
+	 */
+	protected IOException sendFailing(final CountingRequest request) {
+		try {
+			retryPolicy.send(RESOURCE_URI, request);
+		} catch(final IOException ioException) {
+			return ioException;
+		}
+		fail("Request did not fail.");
+		return null;
+	}
+
+	/**
+	 * A request that fails with a sequence of errors before succeeding, counting its attempts.
+	 * @author Garret Wilson
+	 */
+	protected static class CountingRequest implements HTTPRetryPolicy.Request<String> {
+
+		/** The errors with which the request fails before succeeding. */
+		private final List<IOException> errors;
+
+		/** The number of times the request has been sent. */
+		public int attemptCount = 0;
+
+		/**
+		 * Errors constructor.
+		 * @param errors The errors with which the request fails before succeeding.
+		 */
+		public CountingRequest(final IOException... errors) {
+			this.errors = asList(errors);
+		}
+
+		@Override
+		public String send() throws IOException {
+			final int attempt = attemptCount++;
+			if(attempt < errors.size()) {
+				throw errors.get(attempt);
+			}
+			return "success";
+		}
+	}
+
+	/**
+	 * A retry policy with a simulated clock that records its delays rather than waiting.
+	 * @author Garret Wilson
+	 */
+	protected static class TestHTTPRetryPolicy extends HTTPRetryPolicy {
+
+		/** The current simulated time. */
+		public long time = 1000000;
+
+		/** The delays requested, in order. */
+		public final List<Long> delays = new ArrayList<Long>();
+
+		@Override
+		protected void sleep(final long delay) {
+			delays.add(delay);
+		}
+
+		@Override
+		protected long currentTimeMillis() {
+			return time;
+		}
+	}
+
+}
@@ -16,16 +16,28 @@
 
 package com.globalmentor.marmot.repository.svn;
 
+import static com.globalmentor.java.Bytes.*;
 import static com.globalmentor.java.Conditions.*;
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.urframework.dcmi.DCMI.*;
+import static java.nio.charset.StandardCharsets.*;
 
-import java.io.File;
+import java.io.*;
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.*;
 
-import org.tmatesoft.svn.core.SVNException;
+import org.junit.Test;
+import org.tmatesoft.svn.core.*;
 import org.tmatesoft.svn.core.io.SVNRepositoryFactory;
+import org.urframework.*;
 
-import com.globalmentor.marmot.repository.Repository;
+import com.globalmentor.java.Bytes;
+import com.globalmentor.marmot.repository.*;
 import com.globalmentor.marmot.repository.file.AbstractFileRepositoryTest;
-import com.globalmentor.marmot.repository.svn.svnkit.SVNKitSubversionRepository;
+import com.globalmentor.marmot.repository.svn.svnkit.*;
+import com.globalmentor.net.*;
 
 /**
  * Tests repositories using an SVNKit-based Subversion repository.
@@ -50,4 +62,422 @@ protected Repository createRepository() {
 		return new SVNKitSubversionRepository(tempDirectory); //return a repository object
 	}
 
+	/**
+	 * Tests:
+	 * <ul>
+	 * <li>Retrieving resource descriptions from many threads at the same time.</li>
+	 * <li>Limiting the number of Subversion sessions to the session pool size.</li>
+	 * </ul>
+	 */
+	@Test
+	public void testConcurrentSessions() throws Exception {
+		final SVNKitSubversionRepository repository = (SVNKitSubversionRepository)getRepository();
+		final int resourceCount = 16;
+		final List<URI> resourceURIs = new ArrayList<URI>();
+		for(int i = 0; i < resourceCount; ++i) {
+			final URI resourceURI = repository.getRootURI().resolve("test" + i + ".bin");
+			repository.createResource(resourceURI, new byte[i]);
+			resourceURIs.add(resourceURI);
+		}
+		final ExecutorService executorService = Executors.newFixedThreadPool(resourceCount);
+		try {
+			final List<Future<URFResource>> futureResourceDescriptions = new ArrayList<Future<URFResource>>();
+			for(final URI resourceURI : resourceURIs) {
+				futureResourceDescriptions.add(executorService.submit(new Callable<URFResource>() {
+
+					@Override
+					public URFResource call() throws Exception {
+						return repository.getResourceDescription(resourceURI);
+					}
+				}));
+			}
+			for(int i = 0; i < resourceCount; ++i) {
+				assertThat("Invalid description.", futureResourceDescriptions.get(i).get().getURI(), equalTo(resourceURIs.get(i)));
+			}
+		} finally {
+			executorService.shutdown();
+		}
+		final SVNRepositoryPool svnRepositoryPool = repository.getSVNRepositoryPool();
+		assertTrue("Too many Subversion sessions created.", svnRepositoryPool.getCreateCount() <= repository.getSessionPoolSize());
+		assertThat("Subversion sessions not released.", svnRepositoryPool.getActiveCount(), equalTo(0));
+	}
+
+	/**
+	 * Tests:
+	 * <ul>
+	 * <li>Reading resources from a snapshot at a fixed revision after the resources have been changed.</li>
+	 * <li>Retrieving repeated descriptions from the revision cache.</li>
+	 * <li>Preventing modification of a snapshot.</li>
+	 * </ul>
+	 */
+	@Test
+	public void testSnapshot() throws Exception {
+		final SVNKitSubversionRepository repository = (SVNKitSubversionRepository)getRepository();
+		final URI resourceURI = repository.getRootURI().resolve("test.txt");
+		repository.createResource(resourceURI, "old".getBytes(UTF_8));
+		final SVNKitSubversionRepository snapshot = repository.atLatestRevision();
+		assertTrue("Snapshot not identified.", snapshot.isSnapshot());
+		final OutputStream outputStream = repository.getResourceOutputStream(resourceURI);
+		try {
+			outputStream.write("new".getBytes(UTF_8));
+		} finally {
+			outputStream.close();
+		}
+		assertThat("Latest contents not retrieved.", repository.getResourceContents(resourceURI), equalTo("new".getBytes(UTF_8)));
+		assertThat("Snapshot contents changed.", snapshot.getResourceContents(resourceURI), equalTo("old".getBytes(UTF_8)));
+		final URFResource resourceDescription = snapshot.getResourceDescription(resourceURI);
+		final long hitCount = snapshot.getRevisionCache().getHitCount();
+		assertThat("Cached description differs.", snapshot.getResourceDescription(resourceURI), equalTo(resourceDescription));
+		assertTrue("Description not retrieved from cache.", snapshot.getRevisionCache().getHitCount() > hitCount);
+		try {
+			snapshot.getResourceOutputStream(resourceURI);
+			fail("Snapshot modified.");
+		} catch(final ResourceForbiddenException resourceForbiddenException) {
+		}
+		snapshot.close();
+	}
+
+	/**
+	 * Tests that a snapshot has the content type mappings of the repository, and that subrepositories are accessed at the revision of the snapshot.
+	 */
+	@Test
+	public void testSnapshotSettings() throws Exception {
+		final SVNKitSubversionRepository repository = (SVNKitSubversionRepository)getRepository();
+		final ContentType contentType = ContentType.create("application", "x-test");
+		repository.registerExtensionContentType("test", contentType);
+		final URI collectionURI = repository.getRootURI().resolve("sub/");
+		repository.createCollectionResource(collectionURI);
+		final URI resourceURI = collectionURI.resolve("test.txt");
+		repository.createResource(resourceURI, "old".getBytes(UTF_8));
+		final URIPath subrepositoryPath = new URIPath("sub/");
+		repository.registerPathRepository(subrepositoryPath, repository.createSubrepository(subrepositoryPath));
+		final SVNKitSubversionRepository snapshot = repository.atLatestRevision();
+		try {
+			assertThat("Extension content type not transferred.", snapshot.getExtensionContentType("test"), equalTo(contentType));
+			final Repository subrepositorySnapshot = snapshot.getPathRepository(subrepositoryPath);
+			assertTrue("Subrepository not transferred.", subrepositorySnapshot instanceof SVNKitSubversionRepository);
+			assertTrue("Subrepository not a snapshot.", ((SVNKitSubversionRepository)subrepositorySnapshot).isSnapshot());
+			repository.createResource(resourceURI, "new".getBytes(UTF_8));
+			assertThat("Subrepository snapshot contents changed.", snapshot.getResourceContents(resourceURI), equalTo("old".getBytes(UTF_8)));
+			assertThat("Subrepository snapshot does not share sessions.", ((SVNKitSubversionRepository)subrepositorySnapshot).getSVNRepositoryPool(),
+					is(sameInstance(snapshot.getSVNRepositoryPool())));
+		} finally {
+			snapshot.close();
+		}
+	}
+
+	/**
+	 * Tests that directory entries returned from the revision cache can be modified without affecting the cache.
+	 */
+	@Test
+	public void testRevisionCacheDirEntryCopies() throws Exception {
+		final SVNRevisionCache revisionCache = new SVNRevisionCache();
+		final SVNURL repositoryRoot = SVNURL.parseURIEncoded("file:///repository");
+		final SVNDirEntry dirEntry = new SVNDirEntry(repositoryRoot.appendPath("test.txt", false), repositoryRoot, "test.txt", SVNNodeKind.FILE, 4, false, 1,
+				new Date(), "test");
+		dirEntry.setRelativePath("test.txt");
+		revisionCache.putDirEntries("", 1, Collections.singleton(dirEntry));
+		dirEntry.setRelativePath("changed.txt");
+		final SVNDirEntry cachedDirEntry = revisionCache.getDirEntries("", 1).get(0);
+		assertThat("Cached entry changed with original.", cachedDirEntry.getRelativePath(), equalTo("test.txt"));
+		cachedDirEntry.setRelativePath("changed.txt");
+		cachedDirEntry.getDate().setTime(0);
+		assertThat("Cached entry changed with retrieved entry.", revisionCache.getDirEntries("", 1).get(0).getRelativePath(), equalTo("test.txt"));
+		assertThat("Cached entry date changed with retrieved entry.", revisionCache.getDirEntries("", 1).get(0).getDate().getTime(), not(equalTo(0L)));
+	}
+
+	/**
+	 * Tests that resource descriptions returned from the revision cache, including the descriptions of their property values, can be modified without affecting
+	 * the cache.
+	 */
+	@Test
+	public void testRevisionCacheResourceDescriptionCopies() {
+		final SVNRevisionCache revisionCache = new SVNRevisionCache();
+		final URI resourceURI = URI.create("file:///repository/test.txt");
+		final URFResource resourceDescription = new DefaultURFResource(resourceURI);
+		final URFResource nestedResource = new DefaultURFResource();
+		setTitle(nestedResource, "nested");
+		resourceDescription.addPropertyValue(DESCRIPTION_PROPERTY_URI, nestedResource);
+		revisionCache.putResourceDescription("test.txt", 1, resourceDescription);
+		setTitle(nestedResource, "changed");
+		final URFResource cachedNestedResource = revisionCache.getResourceDescription("test.txt", 1).getPropertyValue(DESCRIPTION_PROPERTY_URI);
+		assertThat("Cached value changed with original.", getTitle(cachedNestedResource), equalTo("nested"));
+		setTitle(cachedNestedResource, "changed");
+		assertThat("Cached value changed with retrieved value.",
+				getTitle(revisionCache.getResourceDescription("test.txt", 1).getPropertyValue(DESCRIPTION_PROPERTY_URI)), equalTo("nested"));
+	}
+
+	/**
+	 * Tests that child descriptions, for which properties are retrieved for all children together and collection content is determined from listings or
+	 * retrieved for all child collections together, are the same as descriptions retrieved individually.
+	 */
+	@Test
+	public void testChildResourceDescriptions() throws Exception {
+		final SVNKitSubversionRepository repository = (SVNKitSubversionRepository)getRepository();
+		final URI collectionURI = repository.getRootURI().resolve("children/");
+		repository.createCollectionResource(collectionURI);
+		final URI fileURI = collectionURI.resolve("file.txt");
+		repository.createResource(fileURI, Bytes.createRandom(16));
+		repository.setResourceProperties(fileURI, createTestProperties(fileURI).getProperties());
+		repository.createResource(collectionURI.resolve("plain.bin"), Bytes.createRandom(32)); //a resource with no custom properties
+		final URI contentCollectionURI = collectionURI.resolve("content/");
+		repository.createResource(contentCollectionURI, Bytes.createRandom(64)); //a collection with content
+		repository.setResourceProperties(contentCollectionURI, createTestProperties(contentCollectionURI, "Content", "Collection with content.").getProperties());
+		final URI emptyCollectionURI = collectionURI.resolve("empty/");
+		repository.createCollectionResource(emptyCollectionURI); //a collection without content
+		final URI nestedURI = emptyCollectionURI.resolve("nested.txt");
+		repository.createResource(nestedURI, Bytes.createRandom(8));
+		repository.setResourceProperties(nestedURI, createTestProperties(nestedURI, "Nested", "Nested resource.").getProperties());
+		assertChildResourceDescriptions(repository, repository.getChildResourceDescriptions(collectionURI, 1), 4);
+		assertChildResourceDescriptions(repository, repository.getChildResourceDescriptions(collectionURI, Repository.INFINITE_DEPTH), 5);
+		final List<URFResource> visitedResourceDescriptions = new ArrayList<URFResource>();
+		assertTrue("Traversal did not complete.", repository.visitChildResourceDescriptions(collectionURI, Repository.INFINITE_DEPTH, new ResourceVisitor() {
+
+			@Override
+			public boolean visit(final URFResource resourceDescription) throws IOException {
+				visitedResourceDescriptions.add(resourceDescription);
+				return true;
+			}
+		}));
+		assertChildResourceDescriptions(repository, visitedResourceDescriptions, 5);
+		final ResourceFilter resourceFilter = new ResourceFilter() { //filter out the empty collection only after it has been described
+
+			@Override
+			public boolean isPass(final URI resourceURI) {
+				return true;
+			}
+
+			@Override
+			public boolean isPass(final URFResource resourceDescription) {
+				return !resourceDescription.getURI().equals(emptyCollectionURI);
+			}
+		};
+		final List<URFResource> filteredResourceDescriptions = repository.getChildResourceDescriptions(collectionURI, resourceFilter,
+				Repository.INFINITE_DEPTH);
+		assertChildResourceDescriptions(repository, filteredResourceDescriptions, 3);
+		for(final URFResource filteredResourceDescription : filteredResourceDescriptions) {
+			assertThat("Child of filtered collection included.", filteredResourceDescription.getURI(), not(equalTo(nestedURI)));
+		}
+	}
+
+	/**
+	 * Asserts that child descriptions are the same as the descriptions of the resources retrieved individually.
+	 * @param repository The repository containing the resources.
+	 * @param childResourceDescriptions The child descriptions to check.
+	 * @param count The expected number of child descriptions.
+	 * @throws ResourceIOException if there is an error retrieving a description.
+	 */
+	protected static void assertChildResourceDescriptions(final Repository repository, final List<URFResource> childResourceDescriptions, final int count)
+			throws ResourceIOException {
+		assertThat("Unexpected number of children.", childResourceDescriptions.size(), equalTo(count));
+		for(final URFResource childResourceDescription : childResourceDescriptions) {
+			assertThat("Child description differs from individual description.", childResourceDescription,
+					equalTo(repository.getResourceDescription(childResourceDescription.getURI())));
+		}
+	}
+
+	/**
+	 * Tests:
+	 * <ul>
+	 * <li>Streaming content larger than the content pipe.</li>
+	 * <li>Closing a content stream before all the content has been read.</li>
+	 * </ul>
+	 */
+	@Test
+	public void testStreamContent() throws Exception {
+		final SVNKitSubversionRepository repository = (SVNKitSubversionRepository)getRepository();
+		final URI resourceURI = repository.getRootURI().resolve("large.bin");
+		final byte[] contents = new byte[SVNKitSubversionRepository.CONTENT_PIPE_SIZE * 4 + 1];
+		new Random(contents.length).nextBytes(contents);
+		repository.createResource(resourceURI, contents);
+		final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(contents.length);
+		final InputStream inputStream = repository.getResourceInputStream(resourceURI);
+		try {
+			final byte[] buffer = new byte[4096];
+			int count;
+			while((count = inputStream.read(buffer)) >= 0) {
+				byteArrayOutputStream.write(buffer, 0, count);
+			}
+		} finally {
+			inputStream.close();
+		}
+		assertThat("Streamed contents differ.", byteArrayOutputStream.toByteArray(), equalTo(contents));
+		final InputStream abandonedInputStream = repository.getResourceInputStream(resourceURI);
+		assertThat("First byte differs.", (byte)abandonedInputStream.read(), equalTo(contents[0]));
+		abandonedInputStream.close(); //the retrieval should stop and give back its session
+		for(int i = 0; i < repository.getSessionPoolSize() + 1; ++i) { //make sure sessions are still available
+			assertThat("Contents differ.", repository.getResourceContents(resourceURI), equalTo(contents));
+		}
+	}
+
+	/**
+	 * Tests:
+	 * <ul>
+	 * <li>Sharing the session pool of a repository with its subrepositories.</li>
+	 * <li>Accessing resources of a subrepository relative to its own location using shared sessions.</li>
+	 * </ul>
+	 */
+	@Test
+	public void testSubrepositorySessions() throws Exception {
+		final SVNKitSubversionRepository repository = (SVNKitSubversionRepository)getRepository();
+		final URI collectionURI = repository.getRootURI().resolve("sub/");
+		repository.createCollectionResource(collectionURI);
+		final URI resourceURI = collectionURI.resolve("test.txt");
+		repository.createResource(resourceURI, "test".getBytes(UTF_8));
+		final SVNKitSubversionRepository subrepository = (SVNKitSubversionRepository)repository.createSubrepository(new URIPath("sub/"));
+		subrepository.open();
+		try {
+			assertThat("Subrepository has its own session pool.", subrepository.getSVNRepositoryPool(), is(sameInstance(repository.getSVNRepositoryPool())));
+			assertThat("Subrepository contents differ.", subrepository.getResourceContents(subrepository.getRootURI().resolve("test.txt")),
+					equalTo("test".getBytes(UTF_8)));
+			assertThat("Repository contents differ after sharing sessions.", repository.getResourceContents(resourceURI), equalTo("test".getBytes(UTF_8)));
+		} finally {
+			subrepository.close();
+		}
+		assertThat("Shared session pool closed with subrepository.", repository.getResourceContents(resourceURI), equalTo("test".getBytes(UTF_8)));
+		assertThat("Subversion sessions not released.", repository.getSVNRepositoryPool().getActiveCount(), equalTo(0));
+	}
+
+	/**
+	 * Tests that a session still in use when a repository is closed and reopened is released to the pool it came from.
+	 */
+	@Test
+	public void testReopenWhileStreaming() throws Exception {
+		final SVNKitSubversionRepository repository = (SVNKitSubversionRepository)getRepository();
+		final URI resourceURI = repository.getRootURI().resolve("large.bin");
+		final byte[] contents = new byte[SVNKitSubversionRepository.CONTENT_PIPE_SIZE * 4 + 1];
+		new Random(contents.length).nextBytes(contents);
+		repository.createResource(resourceURI, contents);
+		final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(contents.length);
+		final InputStream inputStream = repository.getResourceInputStream(resourceURI);
+		try {
+			byteArrayOutputStream.write(inputStream.read());
+			repository.close();
+			repository.open();
+			final byte[] buffer = new byte[4096];
+			int count;
+			while((count = inputStream.read(buffer)) >= 0) {
+				byteArrayOutputStream.write(buffer, 0, count);
+			}
+		} finally {
+			inputStream.close();
+		}
+		assertThat("Streamed contents differ.", byteArrayOutputStream.toByteArray(), equalTo(contents));
+		for(int i = 0; i < repository.getSessionPoolSize() + 1; ++i) { //make sure sessions of the new pool are still available
+			assertThat("Contents differ.", repository.getResourceContents(resourceURI), equalTo(contents));
+		}
+		assertThat("Subversion sessions not released.", repository.getSVNRepositoryPool().getActiveCount(), equalTo(0));
+	}
+
+	/**
+	 * Tests:
+	 * <ul>
+	 * <li>Accessing the repository while content streams are open, using a single session.</li>
+	 * <li>Retrieving content completely when no content session is available.</li>
+	 * </ul>
+	 */
+	@Test
+	public void testStreamContentSessions() throws Exception {
+		final SVNKitSubversionRepository repository = (SVNKitSubversionRepository)getRepository();
+		repository.close();
+		repository.setSessionPoolSize(1);
+		repository.setContentSessionPoolSize(1);
+		repository.open();
+		final URI resourceURI = repository.getRootURI().resolve("large.bin");
+		final byte[] contents = new byte[SVNKitSubversionRepository.CONTENT_PIPE_SIZE * 4 + 1];
+		new Random(contents.length).nextBytes(contents);
+		repository.createResource(resourceURI, contents);
+		final InputStream inputStream = repository.getResourceInputStream(resourceURI); //uses the only content session
+		try {
+			final InputStream otherInputStream = repository.getResourceInputStream(resourceURI); //no content session is available
+			try {
+				assertThat("Repository not available while streaming.", repository.getResourceDescription(resourceURI).getURI(), equalTo(resourceURI));
+				assertThat("Content session not in use.", repository.getContentSVNRepositoryPool().getActiveCount(), equalTo(1));
+				for(final InputStream contentInputStream : new InputStream[] { otherInputStream, inputStream }) {
+					final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(contents.length);
+					final byte[] buffer = new byte[4096];
+					int count;
+					while((count = contentInputStream.read(buffer)) >= 0) {
+						byteArrayOutputStream.write(buffer, 0, count);
+					}
+					assertThat("Streamed contents differ.", byteArrayOutputStream.toByteArray(), equalTo(contents));
+				}
+			} finally {
+				otherInputStream.close();
+			}
+		} finally {
+			inputStream.close();
+		}
+		assertThat("Subversion sessions not released.", repository.getSVNRepositoryPool().getActiveCount(), equalTo(0));
+	}
+
+	/**
+	 * Tests:
+	 * <ul>
+	 * <li>Creating, altering, and deleting several resources in a single batch.</li>
+	 * <li>Committing a batch as a single revision.</li>
+	 * <li>Making no changes if a batch cannot be committed.</li>
+	 * </ul>
+	 */
+	@Test
+	public void testBatch() throws Exception {
+		final SVNKitSubversionRepository repository = (SVNKitSubversionRepository)getRepository();
+		final URI rootURI = repository.getRootURI();
+		final URI oldResourceURI = rootURI.resolve("old.txt");
+		repository.createResource(oldResourceURI, "old".getBytes(UTF_8));
+		final URI alteredResourceURI = rootURI.resolve("altered.txt");
+		repository.createResource(alteredResourceURI, "altered".getBytes(UTF_8));
+		final long revision = getLatestRevision(repository);
+		final URI collectionURI = rootURI.resolve("batch/");
+		final URI resourceURI = collectionURI.resolve("test.txt");
+		final URI nestedResourceURI = collectionURI.resolve("nested/test.bin");
+		final byte[] nestedContents = Bytes.createRandom(1024);
+		final URFResource properties = createTestProperties(alteredResourceURI);
+		final RepositoryBatch batch = repository.beginBatch("Test batch.");
+		final OutputStream outputStream = batch.createResource(resourceURI, new DefaultURFResource());
+		try {
+			outputStream.write("test".getBytes(UTF_8));
+		} finally {
+			outputStream.close();
+		}
+		batch.createResource(nestedResourceURI, new DefaultURFResource(), nestedContents); //create the resource before its parent collections
+		batch.createResource(collectionURI.resolve("nested/"), new DefaultURFResource(), NO_BYTES);
+		batch.createResource(collectionURI, new DefaultURFResource(), NO_BYTES);
+		batch.alterResourceProperties(alteredResourceURI, DefaultURFResourceAlteration.createSetPropertiesAlteration(properties.getProperties()));
+		batch.deleteResource(oldResourceURI);
+		assertThat("Unexpected batch size.", batch.getSize(), equalTo(6));
+		assertFalse("Batch changes visible before commit.", repository.resourceExists(collectionURI));
+		batch.commit();
+		assertThat("Batch not committed in a single revision.", getLatestRevision(repository), equalTo(revision + 1));
+		assertThat("Contents differ.", repository.getResourceContents(resourceURI), equalTo("test".getBytes(UTF_8)));
+		assertThat("Nested contents differ.", repository.getResourceContents(nestedResourceURI), equalTo(nestedContents));
+		checkResourceProperties(repository.getResourceDescription(alteredResourceURI), properties.getProperties());
+		assertFalse("Resource not deleted.", repository.resourceExists(oldResourceURI));
+		final RepositoryBatch failingBatch = repository.beginBatch(null);
+		failingBatch.createResource(rootURI.resolve("new.txt"), new DefaultURFResource(), "new".getBytes(UTF_8));
+		failingBatch.alterResourceProperties(oldResourceURI, DefaultURFResourceAlteration.createSetPropertiesAlteration(properties.getProperties()));
+		try {
+			failingBatch.commit();
+			fail("Altered a missing resource.");
+		} catch(final ResourceNotFoundException resourceNotFoundException) {
+		}
+		assertFalse("Failed batch partially committed.", repository.resourceExists(rootURI.resolve("new.txt")));
+		assertThat("Failed batch created a revision.", getLatestRevision(repository), equalTo(revision + 1));
+	}
+
+	/**
+	 * Determines the latest revision of a repository.
+	 * @param repository The repository to check.
+	 * @return The latest revision of the repository.
+	 * @throws ResourceIOException if the revision could not be determined.
+	 */
+	protected static long getLatestRevision(final SVNKitSubversionRepository repository) throws ResourceIOException {
+		final SVNKitSubversionRepository snapshot = repository.atLatestRevision();
+		try {
+			return snapshot.getRevision();
+		} finally {
+			snapshot.close();
+		}
+	}
+
 }
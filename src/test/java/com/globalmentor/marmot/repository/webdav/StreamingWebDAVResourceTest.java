@@ -0,0 +1,192 @@
+/*
+ * Copyright © 2013 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.marmot.repository.webdav;
+
+import static com.globalmentor.net.http.webdav.WebDAV.*;
+import static java.nio.charset.StandardCharsets.*;
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.*;
+
+import com.globalmentor.java.Bytes;
+import com.globalmentor.net.http.HTTPClient;
+import com.globalmentor.net.http.webdav.*;
+import com.sun.net.httpserver.*;
+
+/**
+ * Tests parsing WebDAV multistatus responses incrementally and streaming uploads. Canned multistatus responses are parsed directly; uploads are sent to a local
+ * server.
+ *
+ * @author Garret Wilson
+ * @see StreamingWebDAVResource
+ */
+public class StreamingWebDAVResourceTest {
+
+	/** The URI of the collection to which the canned responses apply; no server is accessed. */
+	private static final URI COLLECTION_URI = URI.create("https://example.com/test/");
+
+	/** A multistatus response for a collection with a subcollection and a file, using relative references and leaving the slash off the subcollection. */
+	private static final String MULTISTATUS = "<?xml version=\"1.0\" encoding=\"utf-8\"?>" //
+			+ "<D:multistatus xmlns:D=\"DAV:\" xmlns:x=\"http://example.com/x/\">" //
+			+ "<D:response><D:href>/test/</D:href>" //
+			+ "<D:propstat><D:prop><D:resourcetype><D:collection/></D:resourcetype></D:prop><D:status>HTTP/1.1 200 OK</D:status></D:propstat>" //
+			+ "</D:response>" //
+			+ "<D:response><D:href>/test/subcollection</D:href>" //
+			+ "<D:propstat><D:prop><D:resourcetype><D:collection/></D:resourcetype></D:prop><D:status>HTTP/1.1 200 OK</D:status></D:propstat>" //
+			+ "</D:response>" //
+			+ "<D:response><D:href>file.txt</D:href>" //
+			+ "<D:propstat><D:prop><D:displayname>File</D:displayname><D:getcontentlength>123</D:getcontentlength><D:resourcetype/>"
+			+ "<x:complex><x:value>test</x:value></x:complex></D:prop><D:status>HTTP/1.1 200 OK</D:status></D:propstat>" //
+			+ "<D:propstat><D:prop><D:getcontentlanguage/></D:prop><D:status>HTTP/1.1 404 Not Found</D:status></D:propstat>" //
+			+ "<D:responsedescription>ignored</D:responsedescription>" //
+			+ "</D:response>" //
+			+ "</D:multistatus>";
+
+	private StreamingWebDAVResource webdavResource;
+
+	@Before
+	public void before() {
+		webdavResource = new StreamingWebDAVResource(COLLECTION_URI, HTTPClient.getInstance(), null);
+	}
+
+	/**
+	 * Visits the resources of a multistatus document, gathering the properties of each.
+	 * @param multistatus The text of the multistatus document.
+	 * @param maxCount The maximum number of resources to visit before stopping the traversal.
+	 * @param propertyMaps The map to receive the properties of each resource visited, in order.
+	 * @return Whether all resources were visited.
+	 * @throws IOException if there was an error parsing the document.
+	 */
+	protected boolean visitMultistatus(final String multistatus, final int maxCount, final Map<URI, Map<WebDAVPropertyName, WebDAVProperty>> propertyMaps)
+			throws IOException {
+		return webdavResource.visitMultistatus(new ByteArrayInputStream(multistatus.getBytes(UTF_8)), new StreamingWebDAVResource.PropertiesVisitor() {
+
+			@Override
+			public boolean visit(final URI resourceURI, final Map<WebDAVPropertyName, WebDAVProperty> properties) {
+				propertyMaps.put(resourceURI, properties);
+				return propertyMaps.size() < maxCount;
+			}
+		});
+	}
+
+	/**
+	 * Tests that each resource is visited with its URI resolved and only its successfully retrieved properties.
+	 */
+	@Test
+	public void testVisitMultistatus() throws IOException {
+		final Map<URI, Map<WebDAVPropertyName, WebDAVProperty>> propertyMaps = new LinkedHashMap<URI, Map<WebDAVPropertyName, WebDAVProperty>>();
+		assertTrue(visitMultistatus(MULTISTATUS, Integer.MAX_VALUE, propertyMaps));
+		final URI subcollectionURI = COLLECTION_URI.resolve("subcollection/");
+		final URI fileURI = COLLECTION_URI.resolve("file.txt");
+		assertThat(new ArrayList<URI>(propertyMaps.keySet()), equalTo(Arrays.asList(COLLECTION_URI, subcollectionURI, fileURI)));
+		assertTrue(WebDAVRepository.isCollection(propertyMaps.get(subcollectionURI)));
+		final Map<WebDAVPropertyName, WebDAVProperty> fileProperties = propertyMaps.get(fileURI);
+		assertFalse(WebDAVRepository.isCollection(fileProperties));
+		assertThat(fileProperties.get(DISPLAY_NAME_PROPERTY_NAME).getValue(), is(instanceOf(WebDAVLiteralPropertyValue.class)));
+		assertThat(fileProperties.get(DISPLAY_NAME_PROPERTY_NAME).getValue().getText(), equalTo("File"));
+		assertThat(fileProperties.get(GET_CONTENT_LENGTH_PROPERTY_NAME).getValue().getText(), equalTo("123"));
+		final WebDAVProperty complexProperty = fileProperties.get(new WebDAVPropertyName("http://example.com/x/", "complex"));
+		assertThat(complexProperty.getValue(), is(instanceOf(WebDAVDocumentFragmentPropertyValue.class)));
+		assertThat(complexProperty.getValue().getText(), equalTo("test"));
+		assertFalse("Property not found was reported.", fileProperties.containsKey(GET_CONTENT_LANGUAGE_PROPERTY_NAME));
+	}
+
+	/**
+	 * Tests that the traversal stops when requested by the visitor.
+	 */
+	@Test
+	public void testVisitMultistatusStop() throws IOException {
+		final Map<URI, Map<WebDAVPropertyName, WebDAVProperty>> propertyMaps = new LinkedHashMap<URI, Map<WebDAVPropertyName, WebDAVProperty>>();
+		assertFalse(visitMultistatus(MULTISTATUS, 2, propertyMaps));
+		assertThat(propertyMaps.size(), equalTo(2));
+	}
+
+	/**
+	 * Tests that a document that is not well-formed is reported as an I/O error.
+	 */
+	@Test(expected = IOException.class)
+	public void testVisitMultistatusInvalid() throws IOException {
+		visitMultistatus(MULTISTATUS.substring(0, MULTISTATUS.length() / 2), Integer.MAX_VALUE, new HashMap<URI, Map<WebDAVPropertyName, WebDAVProperty>>());
+	}
+
+	/**
+	 * Tests that a streamed upload sends its content and preemptive credentials without erasing the password, so that a later request can still authenticate.
+	 */
+	@Test
+	public void testStreamedPutThenAuthenticatedRequest() throws IOException {
+		final String expectedAuthorization = "Basic " + Base64.getEncoder().encodeToString("user:secret".getBytes(UTF_8));
+		final List<String> putAuthorizations = new CopyOnWriteArrayList<String>();
+		final ByteArrayOutputStream putContent = new ByteArrayOutputStream();
+		final HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		server.createContext("/", new HttpHandler() {
+
+			@Override
+			public void handle(final HttpExchange exchange) throws IOException {
+				try {
+					final String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+					if(!expectedAuthorization.equals(authorization)) { //challenge any request without the correct credentials
+						exchange.getResponseHeaders().set("WWW-Authenticate", "Basic realm=\"test\"");
+						exchange.sendResponseHeaders(401, -1);
+					} else if("PUT".equals(exchange.getRequestMethod())) {
+						putAuthorizations.add(authorization);
+						final InputStream inputStream = exchange.getRequestBody();
+						final byte[] buffer = new byte[1024];
+						int count;
+						while((count = inputStream.read(buffer)) >= 0) {
+							synchronized(putContent) {
+								putContent.write(buffer, 0, count);
+							}
+						}
+						exchange.sendResponseHeaders(201, -1);
+					} else {
+						exchange.sendResponseHeaders(200, -1);
+					}
+				} finally {
+					exchange.close();
+				}
+			}
+		});
+		server.start();
+		try {
+			final URI resourceURI = URI.create("http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/test/file.bin");
+			final PasswordAuthentication passwordAuthentication = new PasswordAuthentication("user", "secret".toCharArray());
+			final StreamingWebDAVResource uploadWebDAVResource = new StreamingWebDAVResource(resourceURI, HTTPClient.getInstance(), passwordAuthentication);
+			final byte[] content = Bytes.createRandom(10000);
+			final OutputStream outputStream = uploadWebDAVResource.getOutputStream(-1, 1024);
+			try {
+				outputStream.write(content);
+			} finally {
+				outputStream.close();
+			}
+			synchronized(putContent) {
+				assertThat(putContent.toByteArray(), equalTo(content));
+			}
+			assertThat(putAuthorizations, equalTo(Collections.singletonList(expectedAuthorization)));
+			assertThat("Shared password erased.", passwordAuthentication.getPassword(), equalTo("secret".toCharArray()));
+			assertTrue("Request after streamed upload not authenticated.", uploadWebDAVResource.exists());
+		} finally {
+			server.stop(0);
+		}
+	}
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright © 2013 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.marmot.repository.webdav;
+
+import static com.globalmentor.marmot.repository.Repository.*;
+import static java.util.Collections.*;
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.*;
+
+import org.junit.*;
+import org.urframework.URFResource;
+
+import com.globalmentor.marmot.repository.*;
+import com.globalmentor.net.ResourceIOException;
+
+/**
+ * Tests the choice of PROPFIND depth used by a WebDAV repository when listing descendant resources. No requests are made to the server.
+ *
+ * @author Garret Wilson
+ * @see WebDAVRepository#getChildResourceDescriptionsImpl(URI, ResourceFilter, int)
+ */
+public class WebDAVRepositoryDepthTest {
+
+	/** The URI of the test repository; no server is accessed. */
+	private static final URI REPOSITORY_URI = URI.create("https://example.com/test/");
+
+	private DepthRecordingWebDAVRepository repository;
+
+	@Before
+	public void before() {
+		repository = new DepthRecordingWebDAVRepository(REPOSITORY_URI);
+	}
+
+	@After
+	public void after() {
+		repository.dispose();
+	}
+
+	/**
+	 * Tests that a bounded depth greater than one is listed one collection at a time rather than with an infinite-depth request.
+	 */
+	@Test
+	public void testBoundedDepth() throws ResourceIOException {
+		repository.getChildResourceDescriptionsImpl(REPOSITORY_URI, null, 2);
+		assertThat("Infinite depth requested for a bounded listing.", repository.descendantDepths, is(Collections.<Integer> emptyList()));
+		assertThat(repository.visitDepths, equalTo(singletonList(2)));
+	}
+
+	/**
+	 * Tests that an infinite depth is listed using an infinite-depth request unless the server is known not to support it.
+	 */
+	@Test
+	public void testInfiniteDepth() throws ResourceIOException {
+		repository.getChildResourceDescriptionsImpl(REPOSITORY_URI, null, INFINITE_DEPTH);
+		assertThat(repository.descendantDepths, equalTo(singletonList(INFINITE_DEPTH)));
+		assertThat(repository.visitDepths, is(Collections.<Integer> emptyList()));
+		repository.setInfiniteDepthSupported(Boolean.FALSE);
+		repository.getChildResourceDescriptionsImpl(REPOSITORY_URI, null, INFINITE_DEPTH);
+		assertThat("Infinite depth requested from a server not supporting it.", repository.descendantDepths, equalTo(singletonList(INFINITE_DEPTH)));
+		assertThat(repository.visitDepths, equalTo(singletonList(INFINITE_DEPTH)));
+	}
+
+	/**
+	 * A WebDAV repository that records the depths of descendant listings rather than accessing the server.
+	 *
+	 * @author Garret Wilson
+	 */
+	protected static class DepthRecordingWebDAVRepository extends WebDAVRepository {
+
+		/** The depths requested using a single infinite-depth request. */
+		public final List<Integer> descendantDepths = new ArrayList<Integer>();
+
+		/** The depths requested one collection at a time. */
+		public final List<Integer> visitDepths = new ArrayList<Integer>();
+
+		/**
+		 * Repository URI constructor.
+		 * @param repositoryURI The WebDAV URI identifying the base URI of the WebDAV repository.
+		 */
+		public DepthRecordingWebDAVRepository(final URI repositoryURI) {
+			super(repositoryURI);
+		}
+
+		@Override
+		protected List<URFResource> getDescendantResourceDescriptions(final URI resourceURI, final ResourceFilter resourceFilter,
+				final int depth) throws ResourceIOException {
+			descendantDepths.add(depth);
+			return new ArrayList<URFResource>();
+		}
+
+		@Override
+		protected boolean visitChildResourceDescriptionsImpl(final URI resourceURI, final ResourceFilter resourceFilter,
+				final int depth, final ResourceVisitor visitor) throws IOException {
+			visitDepths.add(depth);
+			return true;
+		}
+	}
+
+}
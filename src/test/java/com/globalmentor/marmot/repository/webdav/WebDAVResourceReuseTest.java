@@ -0,0 +1,98 @@
+/*
+ * Copyright © 2013 GlobalMentor, Inc. <http://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.marmot.repository.webdav;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.net.PasswordAuthentication;
+import java.net.URI;
+
+import org.junit.*;
+
+/**
+ * Tests the reuse of WebDAV resources and password authentication by a WebDAV repository. No requests are made to the server.
+ *
+ * @author Garret Wilson
+ * @see WebDAVRepository
+ */
+public class WebDAVResourceReuseTest {
+
+	/** The URI of the test repository; no server is accessed. */
+	private static final URI REPOSITORY_URI = URI.create("https://example.com/test/");
+
+	private WebDAVRepository repository;
+
+	@Before
+	public void before() {
+		repository = new WebDAVRepository(REPOSITORY_URI);
+		repository.setUsername("test");
+		repository.setPassword("secret".toCharArray());
+	}
+
+	@After
+	public void after() {
+		repository.dispose();
+	}
+
+	/**
+	 * Tests that changing the credentials or disposing of the repository replaces the shared password authentication without erasing the password of
+	 * authentication that may still be in use.
+	 */
+	@Test
+	public void testSharedPasswordAuthenticationNotErased() {
+		final PasswordAuthentication passwordAuthentication = repository.getSharedPasswordAuthentication();
+		assertThat(repository.getSharedPasswordAuthentication(), is(sameInstance(passwordAuthentication)));
+		repository.setPassword("changed".toCharArray());
+		assertThat("Password of shared authentication in use was erased.", passwordAuthentication.getPassword(), equalTo("secret".toCharArray()));
+		final PasswordAuthentication newPasswordAuthentication = repository.getSharedPasswordAuthentication();
+		assertThat(newPasswordAuthentication, is(not(sameInstance(passwordAuthentication))));
+		assertThat(newPasswordAuthentication.getPassword(), equalTo("changed".toCharArray()));
+		repository.dispose();
+		assertThat("Password of shared authentication in use was erased.", newPasswordAuthentication.getPassword(), equalTo("changed".toCharArray()));
+	}
+
+	/**
+	 * Tests that an idle WebDAV resource is reused, that a resource in use is never given to another caller, and that resources are not reused with old
+	 * credentials.
+	 */
+	@Test
+	public void testAcquireRelease() {
+		final URI resourceURI = REPOSITORY_URI.resolve("resource.txt");
+		final StreamingWebDAVResource webdavResource = repository.acquireWebDAVResource(resourceURI);
+		final StreamingWebDAVResource otherWebDAVResource = repository.acquireWebDAVResource(resourceURI);
+		assertThat("WebDAV resource in use was acquired again.", otherWebDAVResource, is(not(sameInstance(webdavResource))));
+		repository.releaseWebDAVResource(webdavResource);
+		assertThat("Idle WebDAV resource not reused.", repository.acquireWebDAVResource(resourceURI), is(sameInstance(webdavResource)));
+		repository.releaseWebDAVResource(webdavResource);
+		repository.setPassword("changed".toCharArray());
+		assertThat("WebDAV resource reused with old credentials.", repository.acquireWebDAVResource(resourceURI), is(not(sameInstance(webdavResource))));
+	}
+
+	/**
+	 * Tests that WebDAV resources are not reused if reuse is disabled.
+	 */
+	@Test
+	public void testNoReuse() {
+		repository.setMaxIdleWebDAVResources(0);
+		final URI resourceURI = REPOSITORY_URI.resolve("resource.txt");
+		final StreamingWebDAVResource webdavResource = repository.acquireWebDAVResource(resourceURI);
+		repository.releaseWebDAVResource(webdavResource);
+		assertThat(repository.acquireWebDAVResource(resourceURI), is(not(sameInstance(webdavResource))));
+	}
+
+}